@@ -12,6 +12,7 @@ package org.springframework.ide.eclipse.aop.core.internal.model;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
@@ -35,6 +36,11 @@ public class AopProject implements IAopProject {
 
 	private Set<IAopReference> references = new CopyOnWriteArraySet<IAopReference>();
 
+	/**
+	 * The resources of the aspect definitions whose references changed since they were last persisted.
+	 */
+	private Set<IResource> changedResources = new HashSet<IResource>();
+
 	protected final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock();
 
 	protected final Lock r = rwl.readLock();
@@ -49,7 +55,9 @@ public class AopProject implements IAopProject {
 		AopLog.log(AopLog.BUILDER_MESSAGES, "Created AOP reference '" + reference + "'");
 		try {
 			w.lock();
-			this.references.add(reference);
+			if (this.references.add(reference)) {
+				this.changedResources.add(getDefinitionResource(reference));
+			}
 		}
 		finally {
 			w.unlock();
@@ -65,13 +73,34 @@ public class AopProject implements IAopProject {
 					toRemove.add(reference);
 				}
 			}
-			this.references.removeAll(toRemove);
+			if (this.references.removeAll(toRemove)) {
+				this.changedResources.add(resource);
+			}
 		}
 		finally {
 			w.unlock();
 		}
 	}
 
+	/**
+	 * Returns the resources of the aspect definitions whose references changed since the last call of this method.
+	 */
+	Set<IResource> removeChangedResources() {
+		try {
+			w.lock();
+			Set<IResource> changed = this.changedResources;
+			this.changedResources = new HashSet<IResource>();
+			return changed;
+		}
+		finally {
+			w.unlock();
+		}
+	}
+
+	static IResource getDefinitionResource(IAopReference reference) {
+		return reference.getDefinition() != null ? reference.getDefinition().getResource() : null;
+	}
+
 	public Set<IAopReference> getAllReferences() {
 		return Collections.unmodifiableSet(this.references);
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2010 Spring IDE Developers
+ * Copyright (c) 2006, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -21,6 +21,10 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
 import org.springframework.ide.eclipse.aop.core.model.IAopModelChangedListener;
@@ -29,6 +33,7 @@ import org.springframework.ide.eclipse.aop.core.model.IAopReference;
 import org.springframework.ide.eclipse.aop.core.model.IAopReferenceModel;
 import org.springframework.ide.eclipse.aop.core.util.AopReferenceModelUtils;
 import org.springframework.ide.eclipse.beans.core.model.IBean;
+import org.springframework.ide.eclipse.core.java.JdtUtils;
 import org.springframework.ide.eclipse.core.internal.model.resources.SpringResourceChangeListener;
 
 /**
@@ -43,6 +48,8 @@ public class AopReferenceModel implements IAopReferenceModel {
 
 	private Map<IJavaProject, IAopProject> projects = new ConcurrentHashMap<IJavaProject, IAopProject>();
 
+	private volatile boolean persistedProjectsLoaded = false;
+
 	private IResourceChangeListener workspaceListener;
 
 	// private IModelChangeListener modelChangeListener;
@@ -58,6 +65,7 @@ public class AopReferenceModel implements IAopReferenceModel {
 	}
 
 	public List<IAopReference> getAdviceDefinition(IJavaElement je) {
+		loadPersistedProject(je);
 		List<IAopReference> advices = new LinkedList<IAopReference>();
 		for (IAopReference reference : getAllReferences()) {
 			if (reference.getSource() != null && reference.getSource().equals(je)) {
@@ -67,6 +75,10 @@ public class AopReferenceModel implements IAopReferenceModel {
 		return advices;
 	}
 
+	/**
+	 * Returns the references of all projects loaded so far. The persisted references of the remaining projects are
+	 * loaded in the background; listeners are notified once they are available.
+	 */
 	public List<IAopReference> getAllReferences() {
 		List<IAopReference> refs = new ArrayList<IAopReference>();
 		for (Map.Entry<IJavaProject, IAopProject> e : projects.entrySet()) {
@@ -76,6 +88,9 @@ public class AopReferenceModel implements IAopReferenceModel {
 	}
 
 	public List<IAopReference> getAllReferencesForResource(IResource resource) {
+		if (resource != null) {
+			loadPersistedProject(JdtUtils.getJavaProject(resource.getProject()));
+		}
 		List<IAopReference> references = new ArrayList<IAopReference>();
 		for (IAopReference ref : getAllReferences()) {
 			if ((ref.getResource() != null && ref.getResource().equals(resource))
@@ -95,19 +110,65 @@ public class AopReferenceModel implements IAopReferenceModel {
 		return getProjectWithInitialization(project);
 	}
 
+	/**
+	 * Returns the projects loaded so far, see {@link #getAllReferences()}.
+	 */
 	public Collection<IAopProject> getProjects() {
 		return this.projects.values();
 	}
 
+	/**
+	 * Returns the {@link IAopProject} for the given project, creating it with its persisted references if it
+	 * doesn't exist yet.
+	 */
 	public IAopProject getProjectWithInitialization(IJavaProject project) {
-		if (this.projects.containsKey(project)) {
-			return this.projects.get(project);
+		IAopProject aopProject = this.projects.get(project);
+		if (aopProject == null) {
+			synchronized (this) {
+				aopProject = this.projects.get(project);
+				if (aopProject == null) {
+					aopProject = new AopProject(project);
+					if (persistence != null) {
+						persistence.loadProject(aopProject);
+					}
+					addProject(project, aopProject);
+				}
+			}
+		}
+		return aopProject;
+	}
+
+	/**
+	 * Makes sure that the persisted references of the project of the given element are loaded.
+	 */
+	private void loadPersistedProject(IJavaElement je) {
+		if (je != null) {
+			loadPersistedProject(je.getJavaProject());
+		}
+	}
+
+	private void loadPersistedProject(IJavaProject project) {
+		if (project != null && !persistedProjectsLoaded && persistence != null && !projects.containsKey(project)) {
+			getProjectWithInitialization(project);
 		}
-		else {
-			IAopProject aopProject = new AopProject(project);
-			addProject(project, aopProject);
-			return aopProject;
+	}
+
+	/**
+	 * Makes sure that the persisted references of all projects are loaded.
+	 * @return <code>true</code> if the references of any project have been loaded
+	 */
+	private boolean loadPersistedProjects() {
+		boolean loaded = false;
+		if (!persistedProjectsLoaded && persistence != null) {
+			for (IJavaProject project : persistence.getPersistedProjects()) {
+				if (!projects.containsKey(project)) {
+					getProjectWithInitialization(project);
+					loaded = true;
+				}
+			}
+			persistedProjectsLoaded = true;
 		}
+		return loaded;
 	}
 
 	public boolean isAdvice(IJavaElement je) {
@@ -116,6 +177,7 @@ public class AopReferenceModel implements IAopReferenceModel {
 
 	public boolean isAdvised(IJavaElement je) {
 		if (je != null) {
+			loadPersistedProject(je);
 			List<IAopReference> references = getAllReferences();
 			for (IAopReference reference : references) {
 				if (reference.getTarget().equals(je)) {
@@ -129,6 +191,9 @@ public class AopReferenceModel implements IAopReferenceModel {
 	public boolean isAdvised(IBean bean) {
 		if (bean != null) {
 			String beanId = bean.getElementID();
+			if (bean.getElementResource() != null) {
+				loadPersistedProject(JdtUtils.getJavaProject(bean.getElementResource().getProject()));
+			}
 			List<IAopReference> references = getAllReferences();
 			for (IAopReference reference : references) {
 				if (reference.getTargetBeanId().equals(beanId)) {
@@ -152,6 +217,9 @@ public class AopReferenceModel implements IAopReferenceModel {
 				break;
 			}
 		}
+		if (persistence != null && project != null) {
+			persistence.removeProject(project);
+		}
 	}
 
 	public synchronized void clearProjects() {
@@ -165,7 +233,7 @@ public class AopReferenceModel implements IAopReferenceModel {
 		workspaceListener = null;
 
 		// Persist model
-		persistence.saveReferenceModel();
+		saveReferenceModel();
 
 		// Remove all projects
 		projects.clear();
@@ -182,10 +250,35 @@ public class AopReferenceModel implements IAopReferenceModel {
 		persistence = new AopReferenceModelPeristence();
 		persistence.loadReferenceModel();
 
+		// Projects load their persisted references when first used; load the remaining ones in the background, so
+		// that getAllReferences() never blocks on reading them
+		Job job = new Job("Loading AOP reference model") {
+
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				if (loadPersistedProjects()) {
+					fireModelChanged();
+				}
+				return Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+		job.setPriority(Job.DECORATE);
+		job.schedule();
+
 		// modelChangeListener = new AopBeansModelListener();
 		// BeansCorePlugin.getModel().addChangeListener(modelChangeListener);
 	}
 
+	/**
+	 * Persists the references that changed since they were last persisted.
+	 */
+	public void saveReferenceModel() {
+		if (persistence != null) {
+			persistence.saveReferenceModel(projects.values());
+		}
+	}
+
 	public void unregisterAopModelChangedListener(IAopModelChangedListener listener) {
 		this.listeners.remove(listener);
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2008 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,14 +10,28 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.aop.core.internal.model;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Reader;
-import java.io.Writer;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -28,6 +42,10 @@ import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.IScopeContext;
 import org.eclipse.core.runtime.preferences.InstanceScope;
@@ -45,6 +63,13 @@ import org.springframework.ide.eclipse.aop.core.model.IAspectDefinition;
 import org.springframework.ide.eclipse.aop.core.util.AopReferenceModelMarkerUtils;
 
 /**
+ * Persists the {@link IAopReferenceModel} between sessions.
+ * <p>
+ * The references of each {@link IAopProject} are stored in a file of their own, as a sequence of binary segments:
+ * one segment with the references of each config that declares aspects. Saving only appends segments for the
+ * configs whose references changed since the last save; a later segment replaces any earlier one of the same
+ * config. A project's file is only read when the project's references are first needed, and is compacted while
+ * reading it once replaced segments make up most of it.
  * @author Christian Dupuis
  * @since 2.0
  */
@@ -72,27 +97,73 @@ public class AopReferenceModelPeristence {
 
 	private static final String AOP_REFERENCE_ELEMENT = "aop-reference";
 
-	private static final String AOP_REFERENCE_MODEL_ELEMENT = "aop-reference-model";
-
 	private static final String ASPECT_DEFINITION_ELEMENT = "aspect-definition";
 
 	private static final String FACTORY_ID = "factory-id";
 
 	private static final String NAME_ATTRIBUTE = "name";
 
-	private IPath defaultFile = null;
+	private static final int MAGIC = 0x414f5052;
+
+	private static final int VERSION = 1;
+
+	private static final String PROJECT_FILE_EXTENSION = ".refs";
+
+	/**
+	 * Project files smaller than this are never compacted.
+	 */
+	private static final long MIN_COMPACTION_SIZE = 64 * 1024;
+
+	/**
+	 * The XML file the whole model was stored in by previous versions.
+	 */
+	private IPath legacyFile = null;
+
+	private File storeDirectory = null;
 
 	public AopReferenceModelPeristence() {
-		this.defaultFile = Activator.getDefault().getStateLocation().append(".state");
+		IPath stateLocation = Activator.getDefault().getStateLocation();
+		this.legacyFile = stateLocation.append(".state");
+		this.storeDirectory = stateLocation.append("references").toFile();
 	}
 
-	private IMemento appendNewChild(IMemento memento, String type) {
-		memento.createChild(type);
-		IMemento[] ms = memento.getChildren(type);
-		if (ms != null && ms.length > 0) {
-			return ms[ms.length - 1];
+	protected boolean isPersisted() {
+		return storeDirectory.isDirectory() || legacyFile.toFile().exists();
+	}
+
+	/**
+	 * Converts a model stored by a previous version into the current format. Models in the current format don't
+	 * need to be loaded up front; see {@link #loadProject(IAopProject)}.
+	 */
+	protected void loadReferenceModel() {
+		if (!legacyFile.toFile().exists()) {
+			return;
+		}
+		if (shouldModelByPersisted()) {
+			IAopReferenceModel model = Activator.getModel();
+			Reader reader = null;
+			try {
+				reader = new FileReader(legacyFile.toFile());
+				XMLMemento memento = XMLMemento.createReadRoot(reader);
+				createAopProjects(model, memento);
+				saveReferenceModel(model.getProjects());
+			}
+			catch (Exception e) {
+				Activator.log("Cannot load .state model file", e);
+				// re-init aop reference model
+				Activator.getModel().clearProjects();
+			}
+			finally {
+				if (reader != null) {
+					try {
+						reader.close();
+					}
+					catch (IOException e) {
+					}
+				}
+			}
 		}
-		return memento;
+		legacyFile.toFile().delete();
 	}
 
 	private void createAopProjects(IAopReferenceModel model, XMLMemento memento) {
@@ -106,80 +177,183 @@ public class AopReferenceModelPeristence {
 					IJavaProject javaProject = JavaCore.create((IProject) member);
 					IAopProject aopProject = model.getProject(javaProject);
 
-					createAspectDefinitions(projects, project, aopProject);
-
-					// recreate the marker
-					Set<IAopReference> references = aopProject.getAllReferences();
+					List<IAopReference> references = new ArrayList<IAopReference>();
+					for (IMemento aspectDefinitionM : project.getChildren(ASPECT_DEFINITION_ELEMENT)) {
+						createAopReferences(aspectDefinitionM, references);
+					}
 					for (IAopReference reference : references) {
-						AopReferenceModelMarkerUtils.createMarker(reference, reference
-								.getResource());
+						aopProject.addAopReference(reference);
 					}
+					createMarkers(references);
 				}
 			}
 		}
 	}
 
-	private void createAopReferences(IAopProject aopProject, IMemento aspectDefinitionM,
-			IAspectDefinition aspectDefinition) {
-		String factoryId;
-		IMemento[] aopReferences = aspectDefinitionM.getChildren(AOP_REFERENCE_ELEMENT);
-		if (aopReferences != null && aopReferences.length > 0) {
-			for (IMemento aopReferenceM : aopReferences) {
-				factoryId = aopReferenceM.getString(FACTORY_ID);
-				IAopReference aopReference = (IAopReference) ELEMENT_FACTORIES.get(factoryId)
-						.createElement(aopReferenceM);
-				// The aopReference can be null if the resource has been deleted or is an external
-				if (aopReference != null) {
-					aopReference.setDefinition(aspectDefinition);
-					aopProject.addAopReference(aopReference);
-				}
+	private void createAopReferences(IMemento aspectDefinitionM, List<IAopReference> references) {
+		IAspectDefinition aspectDefinition = (IAspectDefinition) createElement(aspectDefinitionM);
+		if (aspectDefinition == null) {
+			return;
+		}
+		for (IMemento aopReferenceM : aspectDefinitionM.getChildren(AOP_REFERENCE_ELEMENT)) {
+			IAopReference aopReference = (IAopReference) createElement(aopReferenceM);
+			// The aopReference can be null if the resource has been deleted or is an external
+			if (aopReference != null) {
+				aopReference.setDefinition(aspectDefinition);
+				references.add(aopReference);
 			}
 		}
 	}
 
-	private void createAspectDefinitions(IMemento[] projects, IMemento project,
-			IAopProject aopProject) {
-		IMemento[] aspectDefinitions = project.getChildren(ASPECT_DEFINITION_ELEMENT);
-		if (projects != null && projects.length > 0) {
-			for (IMemento aspectDefinitionM : aspectDefinitions) {
-				String factoryId = aspectDefinitionM.getString(FACTORY_ID);
-				IAspectDefinition aspectDefinition = (IAspectDefinition) ELEMENT_FACTORIES.get(
-						factoryId).createElement(aspectDefinitionM);
-				createAopReferences(aopProject, aspectDefinitionM, aspectDefinition);
-			}
-		}
+	private IAdaptable createElement(IMemento memento) {
+		IElementFactory factory = ELEMENT_FACTORIES.get(memento.getString(FACTORY_ID));
+		return factory != null ? factory.createElement(memento) : null;
 	}
 
-	protected boolean isPersisted() {
-		return defaultFile.toFile().exists();
+	/**
+	 * Returns the projects whose references have been persisted.
+	 */
+	protected synchronized List<IJavaProject> getPersistedProjects() {
+		List<IJavaProject> projects = new ArrayList<IJavaProject>();
+		File[] files = storeDirectory.listFiles();
+		if (files != null && shouldModelByPersisted()) {
+			IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+			for (File file : files) {
+				String fileName = file.getName();
+				if (fileName.endsWith(PROJECT_FILE_EXTENSION)) {
+					String projectName = decode(fileName.substring(0, fileName.length()
+							- PROJECT_FILE_EXTENSION.length()));
+					IResource member = root.findMember(projectName);
+					if (member instanceof IProject) {
+						projects.add(JavaCore.create((IProject) member));
+					}
+				}
+			}
+		}
+		return projects;
 	}
 
-	protected synchronized void loadReferenceModel() {
-		if (!shouldModelByPersisted() || !isPersisted()) {
+	/**
+	 * Adds the persisted references of the given project to it.
+	 */
+	protected synchronized void loadProject(IAopProject aopProject) {
+		if (!shouldModelByPersisted()) {
+			return;
+		}
+		File file = getProjectFile(aopProject.getProject());
+		if (!file.exists()) {
 			return;
 		}
-
-		IAopReferenceModel model = Activator.getModel();
-		Reader reader = null;
 		try {
-			reader = new FileReader(defaultFile.toFile());
-			XMLMemento memento = XMLMemento.createReadRoot(reader);
-			createAopProjects(model, memento);
+			Map<String, byte[]> segments = new LinkedHashMap<String, byte[]>();
+			boolean compact = readSegments(file, segments);
+
+			List<IMemento> aspectDefinitionMs = new ArrayList<IMemento>();
+			for (byte[] segment : segments.values()) {
+				aspectDefinitionMs.addAll(readSegment(segment));
+			}
+			List<IAopReference> references = new ArrayList<IAopReference>();
+			for (IMemento aspectDefinitionM : aspectDefinitionMs) {
+				createAopReferences(aspectDefinitionM, references);
+			}
+			for (IAopReference reference : references) {
+				aopProject.addAopReference(reference);
+			}
+			if (aopProject instanceof AopProject) {
+				// nothing to save until the references change again
+				((AopProject) aopProject).removeChangedResources();
+			}
+			createMarkers(references);
+
+			if (compact) {
+				writeSegments(file, segments.values());
+			}
 		}
-		catch (Exception e) {
-			Activator.log("Cannot load .state model file", e);
-			// re-init aop reference model
-			Activator.getModel().clearProjects();
+		catch (IOException e) {
+			Activator.log("Cannot load AOP references of project '" + aopProject.getProject().getElementName() + "'", e);
+			file.delete();
 		}
-		finally {
-			if (reader != null) {
-				try {
-					reader.close();
+	}
+
+	/**
+	 * Reads the segments of a project file, keeping only the last segment of each config. A segment at the end of
+	 * the file that has only been written partially (including its length) is ignored.
+	 * @return <code>true</code> if the file should be compacted, i.e. if it ends in a partially written segment or
+	 * most of it consists of replaced segments
+	 */
+	public static boolean readSegments(File file, Map<String, byte[]> segments) throws IOException {
+		long fileSize = file.length();
+		boolean truncated = false;
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException("Unsupported file format");
+			}
+			long position = 8;
+			while (position < fileSize) {
+				if (fileSize - position < 4) {
+					// the length of the last segment was only partially written
+					truncated = true;
+					break;
 				}
-				catch (IOException e) {
+				int length = in.readInt();
+				position += 4;
+				if (length < 0) {
+					throw new IOException("Invalid segment length " + length);
+				}
+				if (length > fileSize - position) {
+					// last segment was only partially written
+					truncated = true;
+					break;
+				}
+				byte[] segment = new byte[length];
+				in.readFully(segment);
+				position += length;
+
+				String config = getSegmentConfig(segment);
+				segments.remove(config);
+				if (!isEmptySegment(segment)) {
+					segments.put(config, segment);
 				}
 			}
 		}
+		finally {
+			in.close();
+		}
+		long liveSize = 0;
+		for (byte[] segment : segments.values()) {
+			liveSize += segment.length;
+		}
+		return truncated || (fileSize > MIN_COMPACTION_SIZE && fileSize > 2 * liveSize);
+	}
+
+	/**
+	 * Returns the path of the config whose references are stored in the given segment.
+	 */
+	public static String getSegmentConfig(byte[] segment) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(segment));
+		return BinaryMemento.readString(in, new ArrayList<String>());
+	}
+
+	private static boolean isEmptySegment(byte[] segment) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(segment));
+		BinaryMemento.readString(in, new ArrayList<String>());
+		return in.readInt() == 0;
+	}
+
+	/**
+	 * Returns the aspect definitions stored in the given segment, see {@link #writeSegment(String, List)}.
+	 */
+	public static List<IMemento> readSegment(byte[] segment) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(segment));
+		List<String> strings = new ArrayList<String>();
+		BinaryMemento.readString(in, strings);
+		int definitionCount = in.readInt();
+		List<IMemento> aspectDefinitionMs = new ArrayList<IMemento>(definitionCount);
+		for (int i = 0; i < definitionCount; i++) {
+			aspectDefinitionMs.add(BinaryMemento.read(in, ASPECT_DEFINITION_ELEMENT, strings));
+		}
+		return aspectDefinitionMs;
 	}
 
 	private boolean shouldModelByPersisted() {
@@ -188,74 +362,222 @@ public class AopReferenceModelPeristence {
 		return node.getBoolean(Activator.PERSIST_AOP_MODEL_PREFERENCE, true);
 	}
 
-	protected synchronized void saveReferenceModel() {
+	/**
+	 * Saves the references of the given projects that changed since they were last saved.
+	 */
+	protected synchronized void saveReferenceModel(Collection<IAopProject> projects) {
 		if (!shouldModelByPersisted()) {
 			if (isPersisted()) {
-				defaultFile.toFile().delete();
+				File[] files = storeDirectory.listFiles();
+				if (files != null) {
+					for (File file : files) {
+						file.delete();
+					}
+				}
+				storeDirectory.delete();
+				legacyFile.toFile().delete();
 			}
 			return;
 		}
 
-		XMLMemento memento = XMLMemento.createWriteRoot(AOP_REFERENCE_MODEL_ELEMENT);
-		Collection<IAopProject> projects = Activator.getModel().getProjects();
 		for (IAopProject project : projects) {
-			IMemento projectM = appendNewChild(memento, AOP_PROJECT_ELEMENT);
-			projectM.putString(NAME_ATTRIBUTE, project.getProject().getElementName());
-
-			Set<IAopReference> refs = project.getAllReferences();
-			Map<IAspectDefinition, List<IAopReference>> maps = new HashMap<IAspectDefinition, List<IAopReference>>();
-			for (IAopReference ref : refs) {
-				if (maps.containsKey(ref.getDefinition())) {
-					maps.get(ref.getDefinition()).add(ref);
-				}
-				else {
-					List<IAopReference> r = new ArrayList<IAopReference>();
-					r.add(ref);
-					maps.put(ref.getDefinition(), r);
-				}
+			File file = getProjectFile(project.getProject());
+			try {
+				saveProject(project, file);
+			}
+			catch (IOException e) {
+				Activator.log("Cannot save AOP references of project '" + project.getProject().getElementName() + "'", e);
+				// the file may end in a partially written segment, don't append to it
+				file.delete();
 			}
+		}
+	}
 
-			for (Map.Entry<IAspectDefinition, List<IAopReference>> entry : maps.entrySet()) {
-				IMemento definitionM = appendNewChild(projectM, ASPECT_DEFINITION_ELEMENT);
-				if (entry.getKey() instanceof IAdaptable) {
-					IPersistableElement pers = (IPersistableElement) ((IAdaptable) entry.getKey())
-							.getAdapter(IPersistableElement.class);
-					if (pers != null) {
-						pers.saveState(definitionM);
-						definitionM.putString(FACTORY_ID, pers.getFactoryId());
-					}
-					for (IAopReference ref : entry.getValue()) {
-						if (ref instanceof IAdaptable) {
-							IPersistableElement pers2 = (IPersistableElement) ((IAdaptable) ref)
-									.getAdapter(IPersistableElement.class);
-							if (pers2 != null) {
-								IMemento refM = appendNewChild(definitionM, AOP_REFERENCE_ELEMENT);
-								pers2.saveState(refM);
-								refM.putString(FACTORY_ID, pers2.getFactoryId());
-							}
+	private void saveProject(IAopProject project, File file) throws IOException {
+		Set<IResource> changedResources = null;
+		if (project instanceof AopProject) {
+			changedResources = ((AopProject) project).removeChangedResources();
+			if (changedResources.isEmpty()) {
+				return;
+			}
+		}
+
+		Map<String, Map<IAspectDefinition, List<IAopReference>>> configs = new LinkedHashMap<String, Map<IAspectDefinition, List<IAopReference>>>();
+		for (IAopReference ref : project.getAllReferences()) {
+			String config = getConfigPath(AopProject.getDefinitionResource(ref));
+			Map<IAspectDefinition, List<IAopReference>> definitions = configs.get(config);
+			if (definitions == null) {
+				definitions = new LinkedHashMap<IAspectDefinition, List<IAopReference>>();
+				configs.put(config, definitions);
+			}
+			List<IAopReference> refs = definitions.get(ref.getDefinition());
+			if (refs == null) {
+				refs = new ArrayList<IAopReference>();
+				definitions.put(ref.getDefinition(), refs);
+			}
+			refs.add(ref);
+		}
+
+		if (configs.isEmpty()) {
+			file.delete();
+		}
+		else if (changedResources == null || !file.exists()) {
+			List<byte[]> segments = new ArrayList<byte[]>();
+			for (Map.Entry<String, Map<IAspectDefinition, List<IAopReference>>> config : configs.entrySet()) {
+				segments.add(createSegment(config.getKey(), config.getValue()));
+			}
+			writeSegments(file, segments);
+		}
+		else {
+			Set<String> changedConfigs = new HashSet<String>();
+			for (IResource resource : changedResources) {
+				changedConfigs.add(getConfigPath(resource));
+			}
+			List<byte[]> segments = new ArrayList<byte[]>();
+			for (String config : changedConfigs) {
+				Map<IAspectDefinition, List<IAopReference>> definitions = configs.get(config);
+				segments.add(createSegment(config, definitions != null ? definitions
+						: new HashMap<IAspectDefinition, List<IAopReference>>()));
+			}
+			appendSegments(file, segments);
+		}
+	}
+
+	/**
+	 * Encodes the references of the aspects defined in a config. A segment without aspect definitions removes the
+	 * config's references.
+	 */
+	private byte[] createSegment(String config, Map<IAspectDefinition, List<IAopReference>> definitions)
+			throws IOException {
+		List<BinaryMemento> definitionMs = new ArrayList<BinaryMemento>();
+		for (Map.Entry<IAspectDefinition, List<IAopReference>> entry : definitions.entrySet()) {
+			BinaryMemento definitionM = new BinaryMemento(ASPECT_DEFINITION_ELEMENT);
+			if (entry.getKey() instanceof IAdaptable) {
+				IPersistableElement pers = (IPersistableElement) ((IAdaptable) entry.getKey())
+						.getAdapter(IPersistableElement.class);
+				if (pers != null) {
+					pers.saveState(definitionM);
+					definitionM.putString(FACTORY_ID, pers.getFactoryId());
+				}
+				for (IAopReference ref : entry.getValue()) {
+					if (ref instanceof IAdaptable) {
+						IPersistableElement pers2 = (IPersistableElement) ((IAdaptable) ref)
+								.getAdapter(IPersistableElement.class);
+						if (pers2 != null) {
+							IMemento refM = definitionM.createChild(AOP_REFERENCE_ELEMENT);
+							pers2.saveState(refM);
+							refM.putString(FACTORY_ID, pers2.getFactoryId());
 						}
 					}
 				}
+				definitionMs.add(definitionM);
 			}
 		}
+		return writeSegment(config, definitionMs);
+	}
 
-		// save memento to default map file
-		Writer writer = null;
+	/**
+	 * Encodes the given aspect definitions of a config, with their references as children.
+	 */
+	public static byte[] writeSegment(String config, List<BinaryMemento> definitionMs) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		Map<String, Integer> strings = new HashMap<String, Integer>();
+		BinaryMemento.writeString(out, config, strings);
+		out.writeInt(definitionMs.size());
+		for (BinaryMemento definitionM : definitionMs) {
+			definitionM.write(out, strings);
+		}
+		out.close();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Replaces a project file with one containing the given segments.
+	 */
+	public static void writeSegments(File file, Collection<byte[]> segments) throws IOException {
+		file.getParentFile().mkdirs();
+		File tempFile = new File(file.getPath() + ".tmp");
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
 		try {
-			writer = new FileWriter(defaultFile.toFile());
-			memento.save(writer);
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			for (byte[] segment : segments) {
+				out.writeInt(segment.length);
+				out.write(segment);
+			}
 		}
-		catch (IOException e) {
+		finally {
+			out.close();
+		}
+		Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Appends the given segments to an existing project file.
+	 */
+	public static void appendSegments(File file, Collection<byte[]> segments) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+		try {
+			for (byte[] segment : segments) {
+				out.writeInt(segment.length);
+				out.write(segment);
+			}
 		}
 		finally {
-			if (writer != null) {
-				try {
-					writer.flush();
-					writer.close();
-				}
-				catch (IOException e) {
+			out.close();
+		}
+	}
+
+	/**
+	 * Removes the persisted references of the given project.
+	 */
+	protected synchronized void removeProject(IJavaProject project) {
+		getProjectFile(project).delete();
+	}
+
+	private void createMarkers(final List<IAopReference> references) {
+		if (references.isEmpty()) {
+			return;
+		}
+		Job job = new Job("Creating AOP reference model markers") {
+
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				for (IAopReference reference : references) {
+					AopReferenceModelMarkerUtils.createMarker(reference, reference.getResource());
 				}
+				return Status.OK_STATUS;
 			}
+		};
+		job.setSystem(true);
+		job.setRule(ResourcesPlugin.getWorkspace().getRuleFactory().buildRule());
+		job.schedule();
+	}
+
+	private File getProjectFile(IJavaProject project) {
+		return new File(storeDirectory, encode(project.getElementName()) + PROJECT_FILE_EXTENSION);
+	}
+
+	private static String getConfigPath(IResource resource) {
+		return resource != null ? resource.getFullPath().toString() : "";
+	}
+
+	private static String encode(String name) {
+		try {
+			return URLEncoder.encode(name, "UTF-8");
+		}
+		catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String decode(String name) {
+		try {
+			return URLDecoder.decode(name, "UTF-8");
+		}
+		catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
 		}
 	}
 }
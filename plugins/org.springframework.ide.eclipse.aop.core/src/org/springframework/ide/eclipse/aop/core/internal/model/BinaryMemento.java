@@ -0,0 +1,245 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.aop.core.internal.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.ui.IMemento;
+
+/**
+ * In-memory {@link IMemento} that can be written to and read from a compact binary form.
+ * <p>
+ * Strings are written through a string table shared by everything written to the same output,
+ * so that attribute names and repeated values like handle identifiers are only stored once.
+ * @since 3.9.2
+ */
+public class BinaryMemento implements IMemento {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final int NULL_STRING = -1;
+
+	private final String type;
+
+	private final Map<String, String> attributes = new LinkedHashMap<String, String>();
+
+	private final List<BinaryMemento> children = new ArrayList<BinaryMemento>();
+
+	private String textData;
+
+	public BinaryMemento(String type) {
+		this.type = type;
+	}
+
+	public IMemento createChild(String type) {
+		BinaryMemento child = new BinaryMemento(type);
+		children.add(child);
+		return child;
+	}
+
+	public IMemento createChild(String type, String id) {
+		IMemento child = createChild(type);
+		child.putString(TAG_ID, id);
+		return child;
+	}
+
+	public IMemento getChild(String type) {
+		for (BinaryMemento child : children) {
+			if (child.type.equals(type)) {
+				return child;
+			}
+		}
+		return null;
+	}
+
+	public IMemento[] getChildren() {
+		return children.toArray(new IMemento[children.size()]);
+	}
+
+	public IMemento[] getChildren(String type) {
+		List<IMemento> result = new ArrayList<IMemento>();
+		for (BinaryMemento child : children) {
+			if (child.type.equals(type)) {
+				result.add(child);
+			}
+		}
+		return result.toArray(new IMemento[result.size()]);
+	}
+
+	public Float getFloat(String key) {
+		String value = attributes.get(key);
+		if (value != null) {
+			try {
+				return Float.valueOf(value);
+			}
+			catch (NumberFormatException e) {
+			}
+		}
+		return null;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public String getID() {
+		return attributes.get(TAG_ID);
+	}
+
+	public Integer getInteger(String key) {
+		String value = attributes.get(key);
+		if (value != null) {
+			try {
+				return Integer.valueOf(value);
+			}
+			catch (NumberFormatException e) {
+			}
+		}
+		return null;
+	}
+
+	public String getString(String key) {
+		return attributes.get(key);
+	}
+
+	public Boolean getBoolean(String key) {
+		String value = attributes.get(key);
+		return value == null ? null : Boolean.valueOf(value);
+	}
+
+	public String getTextData() {
+		return textData;
+	}
+
+	public String[] getAttributeKeys() {
+		return attributes.keySet().toArray(new String[attributes.size()]);
+	}
+
+	public void putFloat(String key, float value) {
+		attributes.put(key, String.valueOf(value));
+	}
+
+	public void putInteger(String key, int value) {
+		attributes.put(key, String.valueOf(value));
+	}
+
+	public void putMemento(IMemento memento) {
+		for (String key : memento.getAttributeKeys()) {
+			attributes.put(key, memento.getString(key));
+		}
+		if (memento.getTextData() != null) {
+			textData = memento.getTextData();
+		}
+		for (IMemento child : memento.getChildren()) {
+			createChild(child.getType()).putMemento(child);
+		}
+	}
+
+	public void putString(String key, String value) {
+		if (value != null) {
+			attributes.put(key, value);
+		}
+	}
+
+	public void putBoolean(String key, boolean value) {
+		attributes.put(key, String.valueOf(value));
+	}
+
+	public void putTextData(String data) {
+		this.textData = data;
+	}
+
+	/**
+	 * Writes the attributes, text and children of this memento, but not its type which the reader
+	 * needs to know already.
+	 */
+	public void write(DataOutput out, Map<String, Integer> strings) throws IOException {
+		out.writeInt(attributes.size());
+		for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+			writeString(out, attribute.getKey(), strings);
+			writeString(out, attribute.getValue(), strings);
+		}
+		writeString(out, textData, strings);
+		out.writeInt(children.size());
+		for (BinaryMemento child : children) {
+			writeString(out, child.type, strings);
+			child.write(out, strings);
+		}
+	}
+
+	public static BinaryMemento read(DataInput in, String type, List<String> strings) throws IOException {
+		BinaryMemento memento = new BinaryMemento(type);
+		int attributeCount = in.readInt();
+		for (int i = 0; i < attributeCount; i++) {
+			String key = readString(in, strings);
+			memento.attributes.put(key, readString(in, strings));
+		}
+		memento.textData = readString(in, strings);
+		int childCount = in.readInt();
+		for (int i = 0; i < childCount; i++) {
+			String childType = readString(in, strings);
+			memento.children.add(read(in, childType, strings));
+		}
+		return memento;
+	}
+
+	/**
+	 * Writes a reference to a string written before to the same output, or the string itself the
+	 * first time it is written.
+	 */
+	public static void writeString(DataOutput out, String value, Map<String, Integer> strings) throws IOException {
+		if (value == null) {
+			out.writeInt(NULL_STRING);
+			return;
+		}
+		Integer index = strings.get(value);
+		if (index != null) {
+			out.writeInt(index);
+		}
+		else {
+			out.writeInt(strings.size());
+			strings.put(value, strings.size());
+			byte[] bytes = value.getBytes(UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	public static String readString(DataInput in, List<String> strings) throws IOException {
+		int index = in.readInt();
+		if (index == NULL_STRING) {
+			return null;
+		}
+		else if (index < 0 || index > strings.size()) {
+			throw new IOException("Invalid string reference " + index);
+		}
+		else if (index < strings.size()) {
+			return strings.get(index);
+		}
+		int length = in.readInt();
+		if (length < 0) {
+			throw new IOException("Invalid string length " + length);
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		String value = new String(bytes, UTF_8);
+		strings.add(value);
+		return value;
+	}
+
+}
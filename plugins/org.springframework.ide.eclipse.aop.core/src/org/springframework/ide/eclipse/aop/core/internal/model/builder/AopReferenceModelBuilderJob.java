@@ -18,6 +18,12 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
@@ -77,6 +83,14 @@ public class AopReferenceModelBuilderJob extends Job {
 			"org.springframework.ide.eclipse.aop.core.internal.model.builder.show.progress", "false").equalsIgnoreCase(
 			"true");
 
+	/**
+	 * Number of threads that match aspect definitions against beans in parallel; <code>1</code> matches on the
+	 * thread of the job itself.
+	 */
+	private static final int MATCHING_THREADS = Integer.getInteger(
+			"org.springframework.ide.eclipse.aop.core.internal.model.builder.matching.threads", Runtime.getRuntime()
+					.availableProcessors());
+
 	private static final String DEBUG_OPTION = Activator.PLUGIN_ID + "/builder/debug";
 
 	private static boolean DEBUG_BUILDER = SpringCore.isDebug(DEBUG_OPTION);
@@ -99,6 +113,10 @@ public class AopReferenceModelBuilderJob extends Job {
 
 	private AspectDefinitionBuilderHelper aspectDefinitionBuilder;
 
+	private ExecutorService matchingExecutor = null;
+
+	private List<Future<?>> pendingMatches = new ArrayList<>();
+
 	/**
 	 * Constructor to create a {@link AopReferenceModelBuilderJob} instance.
 	 * @param affectedResources the set of resources that should be processed
@@ -287,13 +305,71 @@ public class AopReferenceModelBuilderJob extends Job {
 		for (IBean bean : beans) {
 			monitor.subTask(Activator.getFormattedMessage("AopReferenceModelBuilder.buildingAopReferencesForBean", bean
 					.getElementName(), bean.getElementResource().getFullPath()));
-			buildAopReferencesForBean(bean, config, info, file, aopProject, monitor);
+			matchBean(bean, config, info, file, aopProject, monitor);
 
 			// Make sure that inner beans are handled as well
 			buildAopReferencesForBeans(config, info, monitor, file, aopProject, BeansModelUtils.getInnerBeans(bean));
 		}
 	}
 
+	/**
+	 * Builds AOP references for the given bean, on a thread of the {@link #matchingExecutor} if matching in
+	 * parallel. Use {@link #awaitMatches()} to wait for the references to be added.
+	 */
+	private void matchBean(final IBean bean, final IModelElement context, final IAspectDefinition info,
+			final IResource file, final IAopProject aopProject, final IProgressMonitor monitor) {
+		if (matchingExecutor == null) {
+			buildAopReferencesForBean(bean, context, info, file, aopProject, monitor);
+		}
+		else {
+			pendingMatches.add(matchingExecutor.submit(new Runnable() {
+
+				public void run() {
+					if (!monitor.isCanceled()) {
+						buildAopReferencesForBean(bean, context, info, file, aopProject, monitor);
+					}
+				}
+			}));
+		}
+	}
+
+	/**
+	 * Waits until all beans passed to {@link #matchBean} have been matched.
+	 */
+	private void awaitMatches() {
+		try {
+			for (Future<?> match : pendingMatches) {
+				try {
+					match.get();
+				}
+				catch (ExecutionException e) {
+					Activator.log(e.getCause());
+				}
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		}
+		finally {
+			pendingMatches.clear();
+		}
+	}
+
+	private ExecutorService createMatchingExecutor() {
+		return Executors.newFixedThreadPool(MATCHING_THREADS, new ThreadFactory() {
+
+			private int count = 0;
+
+			public synchronized Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "AOP reference model matcher " + (++count));
+				thread.setDaemon(true);
+				thread.setPriority(Thread.MIN_PRIORITY);
+				return thread;
+			}
+		});
+	}
+
 	private void buildAopReferencesForBeansConfig(IBeansConfig config, IAspectDefinition info, IProgressMonitor monitor) {
 
 		IResource file = config.getElementResource();
@@ -370,6 +446,9 @@ public class AopReferenceModelBuilderJob extends Job {
 					buildAopReferencesFromBeansConfigSets(project, config, info, monitor);
 				}
 
+				// the next file may clear references of the same aspect definitions
+				awaitMatches();
+
 				// System.out.println(String.format("-- building aop model for file '%s' took '%s'", currentFile,
 				// (System
 				// .currentTimeMillis() - start)));
@@ -439,6 +518,9 @@ public class AopReferenceModelBuilderJob extends Job {
 		aspectDefinitionCache = new HashMap<>();
 		aspectDefinitionBuilder = new AspectDefinitionBuilderHelper();
 		classLoaderSupport = createWeavingClassLoaderSupport();
+		if (MATCHING_THREADS > 1) {
+			matchingExecutor = createMatchingExecutor();
+		}
 
 		monitor.beginTask(Activator.getFormattedMessage("AopReferenceModelBuilder.startBuildingAopReferenceModel"),
 				affectedResources.size());
@@ -483,9 +565,24 @@ public class AopReferenceModelBuilderJob extends Job {
 				markerJob.addAopReference(entry.getKey(), references);
 			}
 
+			// persist the segments of the rebuilt configs
+			((AopReferenceModel) Activator.getModel()).saveReferenceModel();
+
 			AopLog.logEnd(AopLog.BUILDER, PROCESSING_TOOK_MSG);
 		}
 		finally {
+			if (matchingExecutor != null) {
+				// let cancelled matches finish before their caches are closed
+				matchingExecutor.shutdown();
+				try {
+					matchingExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				matchingExecutor = null;
+				pendingMatches.clear();
+			}
 			aspectDefinitionMatcher.close();
 			aspectDefinitionBuilder.close();
 			// schedule marker update job
@@ -558,7 +655,7 @@ public class AopReferenceModelBuilderJob extends Job {
 			this.resources.add(resource);
 		}
 
-		public void addThrowableHolder(ThrowableHolder throwableHolder) {
+		public synchronized void addThrowableHolder(ThrowableHolder throwableHolder) {
 			throwables.add(throwableHolder);
 		}
 
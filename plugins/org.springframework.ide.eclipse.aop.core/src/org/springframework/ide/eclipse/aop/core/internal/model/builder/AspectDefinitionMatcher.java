@@ -18,12 +18,12 @@ import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.aopalliance.aop.Advice;
 import org.eclipse.core.resources.IProject;
@@ -51,13 +51,16 @@ import org.springframework.util.ReflectionUtils;
  * Uses Spring AOP's {@link AspectJExpressionPointcut} infrastructure to determine matches.
  * <p>
  * With Spring 2.5 this class supports the bean pointcut primitive as well.
+ * <p>
+ * Instances are thread-safe, so that beans can be matched in parallel sharing the pointcuts created for each
+ * {@link IAspectDefinition} and their shadow match caches.
  * @author Christian Dupuis
  * @since 2.0
  */
 public class AspectDefinitionMatcher {
 
 	/** Internal cache to used with {@link AspectJExpressionPointcut} */
-	private Map<IAspectDefinition, Object> pointcutExpressionCache = new HashMap<IAspectDefinition, Object>();
+	private Map<IAspectDefinition, Object> pointcutExpressionCache = new ConcurrentHashMap<IAspectDefinition, Object>();
 
 	/**
 	 * Returns all matches on {@link Method} in form of the corresponding {@link IMethod}.
@@ -177,15 +180,33 @@ public class AspectDefinitionMatcher {
 	 * Creates {@link AspectJExpressionPointcut} instances based on {@link IAspectDefinition}.
 	 */
 	private Object createAspectJPointcutExpression(IAspectDefinition info) throws Throwable {
-		try {
-
-			if (pointcutExpressionCache.containsKey(info)) {
-				return pointcutExpressionCache.get(info);
+		Object pointcut = pointcutExpressionCache.get(info);
+		if (pointcut == null) {
+			synchronized (pointcutExpressionCache) {
+				pointcut = pointcutExpressionCache.get(info);
+				if (pointcut == null) {
+					Object pc;
+					try {
+						pc = initAspectJExpressionPointcut(info);
+					}
+					catch (InvocationTargetException e) {
+						throw e.getCause();
+					}
+					try {
+						pointcut = configureAspectJPointcutExpression(info, pc);
+					}
+					finally {
+						// only publish the pointcut once configured; use the plain one if that failed
+						pointcutExpressionCache.put(info, pointcut != null ? pointcut : pc);
+					}
+				}
 			}
+		}
+		return pointcut;
+	}
 
-			Object pc = initAspectJExpressionPointcut(info);
-			pointcutExpressionCache.put(info, pc);
-
+	private Object configureAspectJPointcutExpression(IAspectDefinition info, Object pc) throws Throwable {
+		try {
 			Class<?> aspectJAdviceClass = AspectJAdviceClassFactory.getAspectJAdviceClass(info);
 			Class<?> aspectInstanceFactoryClass = ClassUtils
 					.loadClass("org.springframework.ide.eclipse.springframework.aop.aspectj.SimpleAspectInstanceFactory");
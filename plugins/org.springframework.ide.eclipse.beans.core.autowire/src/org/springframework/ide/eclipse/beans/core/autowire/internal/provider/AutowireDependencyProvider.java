@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 Spring IDE Developers
+ * Copyright (c) 2009, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.beans.core.autowire.internal.provider;
 
+import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Member;
 import java.lang.reflect.Method;
@@ -17,10 +18,12 @@ import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -118,6 +121,15 @@ public class AutowireDependencyProvider implements IAutowireDependencyResolver {
 	private Class<?> objectFactoryClass;
 	private Class<?> providerClass;
 
+	/** Names of the beans by every type they can be assigned to; built on the first lookup by type */
+	private Map<Class<?>, Set<String>> beansByType;
+
+	/** Beans by name and alias; built on the first lookup by name */
+	private Map<String, IBean> beansByName;
+
+	/** Aliases by bean name; built on the first lookup of aliases */
+	private Map<String, Set<String>> aliasesByBeanName;
+
 	public AutowireDependencyProvider(IBeansModelElement element, IBeansModelElement context) {
 		this.context = (context == null ? element : context);
 		this.element = element;
@@ -142,6 +154,9 @@ public class AutowireDependencyProvider implements IAutowireDependencyResolver {
 					// pre-load used classes
 					preloadClasses();
 
+					// bean classes have to be (re-)loaded by the active project class loader
+					beansByType = null;
+
 					// fill in the resolvableDependencies
 					fillResolvableDependencies();
 
@@ -309,38 +324,51 @@ public class AutowireDependencyProvider implements IAutowireDependencyResolver {
 	}
 
 	public String[] getAliases(String beanName) {
-		Set<String> aliases = new HashSet<String>();
-		if (context instanceof IBeansConfig) {
-			for (IBeanAlias alias : ((IBeansConfig) context).getAliases()) {
-				if (beanName.equals(alias.getBeanName())) {
-					aliases.add(alias.getElementName());
-				}
+		if (aliasesByBeanName == null) {
+			Set<IBeanAlias> beanAliases = Collections.emptySet();
+			if (context instanceof IBeansConfig) {
+				beanAliases = ((IBeansConfig) context).getAliases();
 			}
-		}
-		else if (context instanceof IBeansConfigSet) {
-			for (IBeanAlias alias : ((IBeansConfigSet) context).getAliases()) {
-				if (beanName.equals(alias.getBeanName())) {
-					aliases.add(alias.getElementName());
+			else if (context instanceof IBeansConfigSet) {
+				beanAliases = ((IBeansConfigSet) context).getAliases();
+			}
+
+			Map<String, Set<String>> aliases = new HashMap<String, Set<String>>();
+			for (IBeanAlias alias : beanAliases) {
+				Set<String> names = aliases.get(alias.getBeanName());
+				if (names == null) {
+					names = new HashSet<String>();
+					aliases.put(alias.getBeanName(), names);
 				}
+				names.add(alias.getElementName());
 			}
+			aliasesByBeanName = aliases;
+		}
+
+		Set<String> aliases = aliasesByBeanName.get(beanName);
+		if (aliases == null) {
+			return new String[0];
 		}
 		return (String[]) aliases.toArray(new String[aliases.size()]);
 	}
 
 	public IBean getBean(String candidateName) {
-		for (IBean bean : beans) {
-			if (bean.getElementName().equals(candidateName)) {
-				return bean;
-			}
-			else {
+		if (beansByName == null) {
+			// The first bean whose name or alias matches wins
+			Map<String, IBean> beanNames = new HashMap<String, IBean>();
+			for (IBean bean : beans) {
+				if (!beanNames.containsKey(bean.getElementName())) {
+					beanNames.put(bean.getElementName(), bean);
+				}
 				for (String alias : getAliases(bean.getElementName())) {
-					if (alias.equals(candidateName)) {
-						return bean;
+					if (!beanNames.containsKey(alias)) {
+						beanNames.put(alias, bean);
 					}
 				}
 			}
+			beansByName = beanNames;
 		}
-		return null;
+		return beansByName.get(candidateName);
 	}
 	
 	public String[] getBeansForType(String requiredTypeName) {
@@ -361,23 +389,47 @@ public class AutowireDependencyProvider implements IAutowireDependencyResolver {
 	}
 
 	public String[] getBeansForType(Class<?> requiredType) {
-		Set<String> matchingBeans = new HashSet<String>();
-		
+		if (beansByType == null) {
+			beansByType = createBeansByType();
+		}
+		Set<String> matchingBeans = beansByType.get(requiredType);
+		if (matchingBeans == null) {
+			return new String[0];
+		}
+		return (String[]) matchingBeans.toArray(new String[matchingBeans.size()]);
+	}
+
+	/**
+	 * Maps every superclass and interface of each bean's class, and of the object type of each factory bean, to the
+	 * names of the beans; a lookup by type then replaces the assignability checks against every bean.
+	 */
+	private Map<Class<?>, Set<String>> createBeansByType() {
+		Map<Class<?>, Set<String>> result = new HashMap<Class<?>, Set<String>>();
+		Map<Class<?>, Set<Class<?>>> assignableTypes = new HashMap<Class<?>, Set<Class<?>>>();
+
 		for (IBean bean : beans) {
 			String beanClassName = ValidationRuleUtils.getBeanClassName(bean, context);
 			if (beanClassName != null) {
 				try {
 					Class<?> beanClass = ClassUtils.loadClass(beanClassName);
-					if (requiredType.isAssignableFrom(beanClass)) {
-						matchingBeans.add(bean.getElementName());
+					Set<Class<?>> beanTypes = new HashSet<Class<?>>(getAssignableTypes(beanClass, assignableTypes));
+					if (factoryBeanClass != null && factoryBeanClass.isAssignableFrom(beanClass)) {
+						Class<?> objectType = getFactoryObjectType(beanClass);
+						if (objectType != null) {
+							beanTypes.addAll(getAssignableTypes(objectType, assignableTypes));
+						}
+						for (Class<?> extensibleObjectType : getExtensibleFactoryObjectTypes(bean, beanClass)) {
+							beanTypes.addAll(getAssignableTypes(extensibleObjectType, assignableTypes));
+						}
 					}
-					else if (factoryBeanClass != null && factoryBeanClass.isAssignableFrom(beanClass)) {
-						if (isFactoryForType(beanClass, requiredType)) {
-							matchingBeans.add(bean.getElementName());
-						} 
-						else if (isExtensibleFactoryForType(bean, beanClass, requiredType)) {
-							matchingBeans.add(bean.getElementName());
+
+					for (Class<?> beanType : beanTypes) {
+						Set<String> beanNames = result.get(beanType);
+						if (beanNames == null) {
+							beanNames = new LinkedHashSet<String>();
+							result.put(beanType, beanNames);
 						}
+						beanNames.add(bean.getElementName());
 					}
 				}
 				catch (ClassNotFoundException e) {
@@ -391,14 +443,41 @@ public class AutowireDependencyProvider implements IAutowireDependencyResolver {
 				}
 			}
 		}
-		return (String[]) matchingBeans.toArray(new String[matchingBeans.size()]);
+		return result;
 	}
 
-	private boolean isFactoryForType(Class<?> beanClass, Class<?> requiredType) {
+	/**
+	 * Returns the given type, its superclasses, all interfaces they implement and {@link Object}. Arrays of
+	 * reference types are covariant, so for those the arrays of all types assignable from the component type are
+	 * returned as well (e.g. <code>Object[]</code> and <code>CharSequence[]</code> for <code>String[]</code>).
+	 */
+	private Set<Class<?>> getAssignableTypes(Class<?> type, Map<Class<?>, Set<Class<?>>> assignableTypes) {
+		Set<Class<?>> types = assignableTypes.get(type);
+		if (types == null) {
+			types = new HashSet<Class<?>>();
+			types.add(type);
+			types.add(Object.class);
+			if (type.getSuperclass() != null) {
+				types.addAll(getAssignableTypes(type.getSuperclass(), assignableTypes));
+			}
+			for (Class<?> interfaceType : type.getInterfaces()) {
+				types.addAll(getAssignableTypes(interfaceType, assignableTypes));
+			}
+			if (type.isArray() && !type.getComponentType().isPrimitive()) {
+				for (Class<?> componentType : getAssignableTypes(type.getComponentType(), assignableTypes)) {
+					types.add(Array.newInstance(componentType, 0).getClass());
+				}
+			}
+			assignableTypes.put(type, types);
+		}
+		return types;
+	}
+
+	private Class<?> getFactoryObjectType(Class<?> beanClass) {
 		try {
 			Method factoryMethod = beanClass.getMethod("getObject", new Class[] {});
-			if (factoryMethod != null && requiredType.isAssignableFrom(factoryMethod.getReturnType())) {
-				return true;
+			if (factoryMethod != null) {
+				return factoryMethod.getReturnType();
 			}
 		}
 		catch (NoClassDefFoundError e) {
@@ -408,20 +487,21 @@ public class AutowireDependencyProvider implements IAutowireDependencyResolver {
 			BeansCorePlugin.log(e);
 		}
 
-		return false;
+		return null;
 	}
 
-	private boolean isExtensibleFactoryForType(IBean bean, Class<?> beanClass, Class<?> requiredType) {
+	private Set<Class<?>> getExtensibleFactoryObjectTypes(IBean bean, Class<?> beanClass) {
+		Set<Class<?>> objectTypes = new HashSet<Class<?>>();
 		IFactoryBeanTypeResolver[] resolvers = FactoryBeanTypeResolverExtensions.getFactoryBeanTypeResolvers();
-		
+
 		for (IFactoryBeanTypeResolver factoryTypeResolver : resolvers) {
 			Class<?> beanType = factoryTypeResolver.resolveBeanTypeFromFactory(bean, beanClass);
-			if (beanType != null && requiredType.isAssignableFrom(beanType)) {
-				return true;
+			if (beanType != null) {
+				objectTypes.add(beanType);
 			}
 		}
 
-		return false;
+		return objectTypes;
 	}
 
 	public boolean isAutowireCandidate(String beanName, DependencyDescriptor descriptor)
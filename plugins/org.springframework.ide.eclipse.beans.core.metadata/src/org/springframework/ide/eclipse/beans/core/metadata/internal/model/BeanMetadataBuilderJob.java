@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010 Spring IDE Developers
+ * Copyright (c) 2010, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,10 +12,20 @@ package org.springframework.ide.eclipse.beans.core.metadata.internal.model;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
@@ -36,6 +46,7 @@ import org.springframework.ide.eclipse.beans.core.internal.model.BeansModel;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelUtils;
 import org.springframework.ide.eclipse.beans.core.metadata.BeansMetadataPlugin;
 import org.springframework.ide.eclipse.beans.core.metadata.model.IBeanMetadata;
+import org.springframework.ide.eclipse.beans.core.metadata.model.IBeanMetadataModel;
 import org.springframework.ide.eclipse.beans.core.metadata.model.IBeanMetadataProvider;
 import org.springframework.ide.eclipse.beans.core.metadata.model.IMethodMetadata;
 import org.springframework.ide.eclipse.beans.core.model.IBean;
@@ -46,6 +57,9 @@ import org.springframework.ide.eclipse.core.model.ModelChangeEvent.Type;
 
 /**
  * {@link Job} implementation that handles loading and attaching {@link IBeanMetadata} for {@link IBeansConfig}.
+ * <p>
+ * The {@link IBeanMetadataProvider}s run for the affected beans on a pool of threads shared by all jobs; the results
+ * of each {@link IBeansConfig} are then stored in the {@link IBeanMetadataModel} at once.
  * @author Christian Dupuis
  * @since 2.0.5
  */
@@ -64,6 +78,17 @@ public class BeanMetadataBuilderJob extends Job {
 	/** Object identifying the job family */
 	private static final Object CONTENT_FAMILY = new Object();
 
+	/**
+	 * Number of threads that run the metadata providers for beans in parallel; <code>1</code> runs them on the thread
+	 * of the job itself.
+	 */
+	private static final int PROVIDER_THREADS = Integer.getInteger(
+			"org.springframework.ide.eclipse.beans.core.metadata.internal.model.builder.threads", Runtime.getRuntime()
+					.availableProcessors());
+
+	/** Pool shared by all jobs; its threads terminate once idle */
+	private static final ExecutorService PROVIDER_EXECUTOR = (PROVIDER_THREADS > 1 ? createProviderExecutor() : null);
+
 	/** Internal cache of the affected {@link IBean}s keyed by the containing {@link IBeansConfig} */
 	private Map<IBeansConfig, Set<IBean>> affectedBeans;
 
@@ -130,7 +155,13 @@ public class BeanMetadataBuilderJob extends Job {
 			IBeanMetadataProvider[] providers = getMetadataProviders();
 			Set<IBeansProject> projects = new LinkedHashSet<IBeansProject>();
 
+			// Submit the beans of all files up front so that small files don't leave threads idle
+			Map<IBeansConfig, List<Future<BeanData>>> pendingBeans = new LinkedHashMap<IBeansConfig, List<Future<BeanData>>>();
 			for (Map.Entry<IBeansConfig, Set<IBean>> entry : affectedBeans.entrySet()) {
+				pendingBeans.put(entry.getKey(), submitBeans(entry.getKey(), entry.getValue(), monitor, providers));
+			}
+
+			for (Map.Entry<IBeansConfig, List<Future<BeanData>>> entry : pendingBeans.entrySet()) {
 
 				// Do some profiling
 				long start = System.currentTimeMillis();
@@ -138,7 +169,7 @@ public class BeanMetadataBuilderJob extends Job {
 				projects.add(BeansModelUtils.getParentOfClass(entry.getKey(), IBeansProject.class));
 
 				monitor.subTask("Attaching Spring bean meta data to file [" + resource.getFullPath().toString() + "]");
-				attachMetadata(entry.getKey(), entry.getValue(), monitor, providers);
+				storeBeanData(awaitBeans(entry.getValue()));
 				monitor.worked(1);
 
 				if (BeanMetadataModel.DEBUG) {
@@ -165,24 +196,110 @@ public class BeanMetadataBuilderJob extends Job {
 	 */
 	protected void attachMetadata(IBeansConfig beansConfig, Set<IBean> beans, IProgressMonitor progressMonitor,
 			IBeanMetadataProvider[] providers) {
+		storeBeanData(awaitBeans(submitBeans(beansConfig, beans, progressMonitor, providers)));
+	}
 
-		for (IBean bean : beans) {
-			attachMetadataToBean(beansConfig, progressMonitor, providers, bean);
+	/**
+	 * Runs the {@link IBeanMetadataProvider}s for the given beans, on the threads of the {@link #PROVIDER_EXECUTOR} if
+	 * available. Use {@link #awaitBeans(List)} to get the results.
+	 */
+	private List<Future<BeanData>> submitBeans(final IBeansConfig beansConfig, Set<IBean> beans,
+			final IProgressMonitor progressMonitor, final IBeanMetadataProvider[] providers) {
+		List<Future<BeanData>> pendingBeans = new ArrayList<Future<BeanData>>(beans.size());
+		for (final IBean bean : beans) {
+			Callable<BeanData> task = new Callable<BeanData>() {
+
+				public BeanData call() {
+					if (progressMonitor.isCanceled()) {
+						return null;
+					}
+					return provideBeanData(beansConfig, progressMonitor, providers, bean);
+				}
+			};
+			if (PROVIDER_EXECUTOR == null) {
+				FutureTask<BeanData> future = new FutureTask<BeanData>(task);
+				future.run();
+				pendingBeans.add(future);
+			}
+			else {
+				pendingBeans.add(PROVIDER_EXECUTOR.submit(task));
+			}
 		}
+		return pendingBeans;
 	}
 
 	/**
-	 * Attaches {@link IBeanMetadata} and {@link IBeanProperty} to a single {@link IBean}.
+	 * Waits for the results of the beans passed to {@link #submitBeans}; beans that were skipped because the job has
+	 * been cancelled have no result.
 	 */
-	private void attachMetadataToBean(final IBeansConfig beansConfig, final IProgressMonitor progressMonitor,
-			IBeanMetadataProvider[] providers, final IBean bean) {
-		// Reset meta data attachment before adding
-		BeansMetadataPlugin.getMetadataModel().clearBeanMetadata(bean);
-		BeansMetadataPlugin.getMetadataModel().clearBeanProperties(bean);
+	private List<BeanData> awaitBeans(List<Future<BeanData>> pendingBeans) {
+		List<BeanData> beanData = new ArrayList<BeanData>(pendingBeans.size());
+		try {
+			for (Future<BeanData> pendingBean : pendingBeans) {
+				try {
+					BeanData data = pendingBean.get();
+					if (data != null) {
+						beanData.add(data);
+					}
+				}
+				catch (ExecutionException e) {
+					BeansMetadataPlugin.getDefault().getLog().log(
+							new Status(IStatus.ERROR, BeansMetadataPlugin.PLUGIN_ID, 1, "Error attaching meta data",
+									e.getCause()));
+				}
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			for (Future<BeanData> pendingBean : pendingBeans) {
+				pendingBean.cancel(false);
+			}
+		}
+		return beanData;
+	}
 
-		Set<IBeanMetadata> beanMetaData = new LinkedHashSet<IBeanMetadata>();
-		Set<IMethodMetadata> methodMetaData = new LinkedHashSet<IMethodMetadata>();
+	/**
+	 * Stores the meta data and properties of the given beans in the {@link IBeanMetadataModel}, replacing the previous
+	 * ones; beans without a result keep theirs.
+	 */
+	private void storeBeanData(List<BeanData> beanData) {
+		IBeanMetadataModel model = BeansMetadataPlugin.getMetadataModel();
+		if (model instanceof BeanMetadataModel) {
+			List<IBean> processedBeans = new ArrayList<IBean>(beanData.size());
+			List<BeanMetadataHolder> metadata = new ArrayList<BeanMetadataHolder>();
+			List<BeanPropertyDataHolder> properties = new ArrayList<BeanPropertyDataHolder>();
+			for (BeanData data : beanData) {
+				processedBeans.add(data.bean);
+				String elementId = data.bean.getElementID();
+				if (data.beanMetaData.size() > 0 || data.methodMetaData.size() > 0) {
+					metadata.add(BeanMetadataModel.createBeanMetadataHolder(elementId, data.beanMetaData,
+							data.methodMetaData));
+				}
+				if (data.beanProperties.size() > 0) {
+					properties.add(BeanMetadataModel.createBeanPropertyDataHolder(elementId, data.beanProperties));
+				}
+			}
+			((BeanMetadataModel) model).replaceBeanData(processedBeans, metadata, properties);
+		}
+		else {
+			for (BeanData data : beanData) {
+				model.clearBeanMetadata(data.bean);
+				model.clearBeanProperties(data.bean);
+				if (data.beanMetaData.size() > 0 || data.methodMetaData.size() > 0) {
+					model.setBeanMetadata(data.bean, data.beanMetaData, data.methodMetaData);
+				}
+				if (data.beanProperties.size() > 0) {
+					model.setBeanProperties(data.bean, data.beanProperties);
+				}
+			}
+		}
+	}
 
+	/**
+	 * Collects the {@link IBeanMetadata} and {@link IBeanProperty}s of a single {@link IBean}.
+	 */
+	private BeanData provideBeanData(final IBeansConfig beansConfig, final IProgressMonitor progressMonitor,
+			IBeanMetadataProvider[] providers, final IBean bean) {
 		final Set<IBeanMetadata> beanMetaDataSet = new LinkedHashSet<IBeanMetadata>();
 		final Set<IBeanProperty> beanProperties = new LinkedHashSet<IBeanProperty>();
 		for (final IBeanMetadataProvider provider : providers) {
@@ -199,22 +316,35 @@ public class BeanMetadataBuilderJob extends Job {
 					beanProperties.addAll(provider.provideBeanProperties(bean, beansConfig, progressMonitor));
 				}
 			});
+		}
 
-			for (IBeanMetadata metaData : beanMetaDataSet) {
-				if (metaData instanceof IMethodMetadata) {
-					methodMetaData.add((IMethodMetadata) metaData);
-				}
-				else {
-					beanMetaData.add(metaData);
-				}
+		BeanData beanData = new BeanData(bean, beanProperties);
+		for (IBeanMetadata metaData : beanMetaDataSet) {
+			if (metaData instanceof IMethodMetadata) {
+				beanData.methodMetaData.add((IMethodMetadata) metaData);
+			}
+			else {
+				beanData.beanMetaData.add(metaData);
 			}
 		}
-		if (beanMetaData.size() > 0 || methodMetaData.size() > 0) {
-			BeansMetadataPlugin.getMetadataModel().setBeanMetadata(bean, beanMetaData, methodMetaData);
-		}
-		if (beanProperties.size() > 0) {
-			BeansMetadataPlugin.getMetadataModel().setBeanProperties(bean, beanProperties);
-		}
+		return beanData;
+	}
+
+	private static ExecutorService createProviderExecutor() {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(PROVIDER_THREADS, PROVIDER_THREADS, 30, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+
+					private int count = 0;
+
+					public synchronized Thread newThread(Runnable runnable) {
+						Thread thread = new Thread(runnable, "Spring bean meta data provider " + (++count));
+						thread.setDaemon(true);
+						thread.setPriority(Thread.MIN_PRIORITY);
+						return thread;
+					}
+				});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
 	}
 
 	/**
@@ -246,4 +376,23 @@ public class BeanMetadataBuilderJob extends Job {
 		return providers.toArray(new IBeanMetadataProvider[providers.size()]);
 	}
 
+	/**
+	 * The meta data and properties provided for a single {@link IBean}.
+	 */
+	private static class BeanData {
+
+		private final IBean bean;
+
+		private final Set<IBeanMetadata> beanMetaData = new LinkedHashSet<IBeanMetadata>();
+
+		private final Set<IMethodMetadata> methodMetaData = new LinkedHashSet<IMethodMetadata>();
+
+		private final Set<IBeanProperty> beanProperties;
+
+		public BeanData(IBean bean, Set<IBeanProperty> beanProperties) {
+			this.bean = bean;
+			this.beanProperties = beanProperties;
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010 Spring IDE Developers
+ * Copyright (c) 2010, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,7 +10,11 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.beans.core.metadata.internal.model;
 
+import java.io.Serializable;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -28,6 +32,9 @@ import org.springframework.ide.eclipse.core.SpringCore;
 /**
  * {@link IBeanMetadataModel} implementation that saves and reloads its contents from a backing
  * store.
+ * <p>
+ * The contents of a project are loaded from the store when they are first accessed; on
+ * {@link #stop()} only the configs with changed contents are saved.
  * @author Christian Dupuis
  * @since 2.0.5
  */
@@ -43,15 +50,23 @@ public class BeanMetadataModel implements IBeanMetadataModel {
 
 	private final Lock w = rwl.writeLock();
 
-	private Map<String, BeanMetadataHolder> beanMetadata = new ConcurrentHashMap<String, BeanMetadataHolder>();
+	private final PersistentBeanData<BeanMetadataHolder> beanMetadata = new PersistentBeanData<BeanMetadataHolder>();
 
-	private Map<String, BeanPropertyDataHolder> beanPropertyData = new ConcurrentHashMap<String, BeanPropertyDataHolder>();
+	private final PersistentBeanData<BeanPropertyDataHolder> beanPropertyData = new PersistentBeanData<BeanPropertyDataHolder>();
+
+	/** Names of the projects whose stored contents have been loaded */
+	private final Set<String> loadedProjects = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	private volatile boolean started = false;
 
 	public Set<IBeanMetadata> getBeanMetadata(IBean bean) {
+		String elementId = bean.getElementID();
+		loadProjectOf(elementId);
 		try {
 			r.lock();
-			if (beanMetadata.containsKey(bean.getElementID())) {
-				return beanMetadata.get(bean.getElementID()).getBeanMetaData();
+			BeanMetadataHolder holder = beanMetadata.get(elementId);
+			if (holder != null) {
+				return holder.getBeanMetaData();
 			}
 			return Collections.emptySet();
 		}
@@ -62,15 +77,11 @@ public class BeanMetadataModel implements IBeanMetadataModel {
 
 	public void setBeanMetadata(IBean bean, Set<IBeanMetadata> bMetaData,
 			Set<IMethodMetadata> methodMetaData) {
+		String elementId = bean.getElementID();
+		loadProjectOf(elementId);
 		try {
 			w.lock();
-			BeanMetadataHolder holder = new BeanMetadataHolder();
-			holder.setElemenetId(bean.getElementID());
-			holder.setBeanMetaData(bMetaData);
-			holder.setMethodMetaData(methodMetaData);
-			// safe time so we can purge very old entries after a while
-			holder.setLastModified(System.currentTimeMillis());
-			beanMetadata.put(bean.getElementID(), holder);
+			beanMetadata.put(elementId, createBeanMetadataHolder(elementId, bMetaData, methodMetaData));
 		}
 		finally {
 			w.unlock();
@@ -78,9 +89,11 @@ public class BeanMetadataModel implements IBeanMetadataModel {
 	}
 
 	public void clearBeanMetadata(IBean bean) {
+		String elementId = bean.getElementID();
+		loadProjectOf(elementId);
 		try {
 			w.lock();
-			beanMetadata.remove(bean.getElementID());
+			beanMetadata.remove(elementId);
 		}
 		finally {
 			w.unlock();
@@ -88,10 +101,13 @@ public class BeanMetadataModel implements IBeanMetadataModel {
 	}
 
 	public Set<IBeanProperty> getBeanProperties(IBean bean) {
+		String elementId = bean.getElementID();
+		loadProjectOf(elementId);
 		try {
 			r.lock();
-			if (beanPropertyData.containsKey(bean.getElementID())) {
-				return beanPropertyData.get(bean.getElementID()).getBeanProperties();
+			BeanPropertyDataHolder holder = beanPropertyData.get(elementId);
+			if (holder != null) {
+				return holder.getBeanProperties();
 			}
 			return Collections.emptySet();
 		}
@@ -101,14 +117,11 @@ public class BeanMetadataModel implements IBeanMetadataModel {
 	}
 
 	public void setBeanProperties(IBean bean, Set<IBeanProperty> beanProperties) {
+		String elementId = bean.getElementID();
+		loadProjectOf(elementId);
 		try {
 			w.lock();
-			BeanPropertyDataHolder holder = new BeanPropertyDataHolder();
-			holder.setElemenetId(bean.getElementID());
-			holder.setBeanProperties(beanProperties);
-			// safe time so we can purge very old entries after a while
-			holder.setLastModified(System.currentTimeMillis());
-			beanPropertyData.put(bean.getElementID(), holder);
+			beanPropertyData.put(elementId, createBeanPropertyDataHolder(elementId, beanProperties));
 		}
 		finally {
 			w.unlock();
@@ -116,9 +129,11 @@ public class BeanMetadataModel implements IBeanMetadataModel {
 	}
 
 	public void clearBeanProperties(IBean bean) {
+		String elementId = bean.getElementID();
+		loadProjectOf(elementId);
 		try {
 			w.lock();
-			beanPropertyData.remove(bean.getElementID());
+			beanPropertyData.remove(elementId);
 		}
 		finally {
 			w.unlock();
@@ -126,33 +141,257 @@ public class BeanMetadataModel implements IBeanMetadataModel {
 	}
 
 	/**
-	 * Starts and loads the internal model.
+	 * Replaces the meta data and properties of the given beans at once. Beans that have no holder
+	 * in <code>metadata</code> or <code>properties</code> get their meta data or properties
+	 * cleared.
+	 * @since 3.9.2
 	 */
-	public void start() {
-
-		Map<String, BeanMetadataHolder> storedBeanMetadata = BeanMetadataPersistence.loadMetadata();
-		Map<String, BeanPropertyDataHolder> storedProperties = BeanMetadataPersistence
-				.loadProperties();
+	public void replaceBeanData(Collection<IBean> beans, Collection<BeanMetadataHolder> metadata,
+			Collection<BeanPropertyDataHolder> properties) {
+		Set<String> elementIds = new HashSet<String>();
+		for (IBean bean : beans) {
+			String elementId = bean.getElementID();
+			elementIds.add(elementId);
+			loadProjectOf(elementId);
+		}
 		try {
 			w.lock();
-			beanMetadata = storedBeanMetadata;
-			beanPropertyData = storedProperties;
-		}
-		catch (Exception e) {
-			beanMetadata = new ConcurrentHashMap<String, BeanMetadataHolder>();
-			beanPropertyData = new ConcurrentHashMap<String, BeanPropertyDataHolder>();
+			for (String elementId : elementIds) {
+				beanMetadata.remove(elementId);
+				beanPropertyData.remove(elementId);
+			}
+			for (BeanMetadataHolder holder : metadata) {
+				beanMetadata.put(holder.getElemenetId(), holder);
+			}
+			for (BeanPropertyDataHolder holder : properties) {
+				beanPropertyData.put(holder.getElemenetId(), holder);
+			}
 		}
 		finally {
 			w.unlock();
 		}
 	}
 
+	/**
+	 * Creates the holder that stores the given meta data of the bean with the given element id.
+	 * @since 3.9.2
+	 */
+	public static BeanMetadataHolder createBeanMetadataHolder(String elementId, Set<IBeanMetadata> bMetaData,
+			Set<IMethodMetadata> methodMetaData) {
+		BeanMetadataHolder holder = new BeanMetadataHolder();
+		holder.setElemenetId(elementId);
+		holder.setBeanMetaData(bMetaData);
+		holder.setMethodMetaData(methodMetaData);
+		// safe time so we can purge very old entries after a while
+		holder.setLastModified(System.currentTimeMillis());
+		return holder;
+	}
+
+	/**
+	 * Creates the holder that stores the given properties of the bean with the given element id.
+	 * @since 3.9.2
+	 */
+	public static BeanPropertyDataHolder createBeanPropertyDataHolder(String elementId,
+			Set<IBeanProperty> beanProperties) {
+		BeanPropertyDataHolder holder = new BeanPropertyDataHolder();
+		holder.setElemenetId(elementId);
+		holder.setBeanProperties(beanProperties);
+		// safe time so we can purge very old entries after a while
+		holder.setLastModified(System.currentTimeMillis());
+		return holder;
+	}
+
+	/**
+	 * Starts the internal model; contents stored by a previous version are migrated to the
+	 * current store.
+	 */
+	public void start() {
+		beanMetadata.persistence = BeanMetadataPersistence.createMetadataPersistence();
+		beanPropertyData.persistence = BeanMetadataPersistence.createPropertiesPersistence();
+		started = true;
+
+		if (beanMetadata.persistence.hasLegacyState() || beanPropertyData.persistence.hasLegacyState()) {
+			Map<String, BeanMetadataHolder> legacyMetadata = beanMetadata.persistence.loadLegacyState();
+			Map<String, BeanPropertyDataHolder> legacyProperties = beanPropertyData.persistence
+					.loadLegacyState();
+			try {
+				w.lock();
+				beanMetadata.putAllAbsent(legacyMetadata, true);
+				beanPropertyData.putAllAbsent(legacyProperties, true);
+			}
+			finally {
+				w.unlock();
+			}
+			save();
+			beanMetadata.persistence.deleteLegacyState();
+			beanPropertyData.persistence.deleteLegacyState();
+		}
+	}
+
 	/**
 	 * Stops and saves the internal model.
 	 */
 	public void stop() {
-		BeanMetadataPersistence.storeMetadata(beanMetadata);
-		BeanMetadataPersistence.storeProperties(beanPropertyData);
+		if (started) {
+			save();
+		}
+	}
+
+	/**
+	 * Saves the changed configs; the stored contents of their projects are loaded first so that
+	 * changes made before the project was loaded don't lose the other entries of the project.
+	 */
+	private void save() {
+		Set<String> projectNames = new HashSet<String>();
+		projectNames.addAll(beanMetadata.getDirtyProjectNames());
+		projectNames.addAll(beanPropertyData.getDirtyProjectNames());
+		for (String projectName : projectNames) {
+			loadProject(projectName);
+		}
+		beanMetadata.save();
+		beanPropertyData.save();
+	}
+
+	/**
+	 * Loads the stored contents of the project of the bean with the given element id, unless
+	 * already loaded.
+	 */
+	private void loadProjectOf(String elementId) {
+		if (started) {
+			loadProject(BeanMetadataPersistence.getProjectName(elementId));
+		}
+	}
+
+	private void loadProject(String projectName) {
+		if (loadedProjects.contains(projectName)) {
+			return;
+		}
+		synchronized (loadedProjects) {
+			if (loadedProjects.contains(projectName)) {
+				return;
+			}
+			long start = System.currentTimeMillis();
+			Map<String, BeanMetadataHolder> storedMetadata = beanMetadata.persistence.loadProject(projectName);
+			Map<String, BeanPropertyDataHolder> storedProperties = beanPropertyData.persistence
+					.loadProject(projectName);
+			try {
+				w.lock();
+				// entries set before the project has been loaded are newer than the stored ones
+				beanMetadata.putAllAbsent(storedMetadata, false);
+				beanPropertyData.putAllAbsent(storedProperties, false);
+				loadedProjects.add(projectName);
+			}
+			finally {
+				w.unlock();
+			}
+			if (DEBUG) {
+				System.out.println(String.format("Loaded meta data of %d beans of project '%s' in %dms",
+						storedMetadata.size(), projectName, (System.currentTimeMillis() - start)));
+			}
+		}
+	}
+
+	/**
+	 * Entries of one kind keyed by bean element id, together with the configs whose entries
+	 * changed since they have been saved.
+	 */
+	private static class PersistentBeanData<T extends Serializable> {
+
+		private final Map<String, T> entries = new ConcurrentHashMap<String, T>();
+
+		private final Set<String> dirtyConfigs = Collections
+				.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+		private volatile BeanMetadataPersistence<T> persistence;
+
+		public T get(String elementId) {
+			return entries.get(elementId);
+		}
+
+		public void put(String elementId, T holder) {
+			entries.put(elementId, holder);
+			dirtyConfigs.add(BeanMetadataPersistence.getConfigKey(elementId));
+		}
+
+		public void remove(String elementId) {
+			if (entries.remove(elementId) != null) {
+				dirtyConfigs.add(BeanMetadataPersistence.getConfigKey(elementId));
+			}
+		}
+
+		public void putAllAbsent(Map<String, T> holders, boolean dirty) {
+			for (Map.Entry<String, T> holder : holders.entrySet()) {
+				if (!entries.containsKey(holder.getKey())) {
+					entries.put(holder.getKey(), holder.getValue());
+					if (dirty) {
+						dirtyConfigs.add(BeanMetadataPersistence.getConfigKey(holder.getKey()));
+					}
+				}
+			}
+		}
+
+		public Set<String> getDirtyProjectNames() {
+			Set<String> projectNames = new HashSet<String>();
+			for (String config : dirtyConfigs) {
+				projectNames.add(BeanMetadataPersistence.getProjectName(config));
+			}
+			return projectNames;
+		}
+
+		/**
+		 * Saves the entries of all changed configs; a project's file is rewritten with all of its
+		 * configs if it can't be appended to.
+		 */
+		public void save() {
+			Set<String> configs = new HashSet<String>(dirtyConfigs);
+			dirtyConfigs.removeAll(configs);
+
+			Map<String, Map<String, Map<String, T>>> configsByProject = new HashMap<String, Map<String, Map<String, T>>>();
+			for (String config : configs) {
+				getConfigs(configsByProject, BeanMetadataPersistence.getProjectName(config)).put(config,
+						new HashMap<String, T>());
+			}
+			for (Map.Entry<String, T> entry : entries.entrySet()) {
+				String config = BeanMetadataPersistence.getConfigKey(entry.getKey());
+				Map<String, Map<String, T>> projectConfigs = configsByProject.get(BeanMetadataPersistence
+						.getProjectName(config));
+				if (projectConfigs != null && projectConfigs.containsKey(config)) {
+					projectConfigs.get(config).put(entry.getKey(), entry.getValue());
+				}
+			}
+
+			for (Map.Entry<String, Map<String, Map<String, T>>> project : configsByProject.entrySet()) {
+				if (!persistence.saveProject(project.getKey(), project.getValue(), false)) {
+					persistence.saveProject(project.getKey(), getAllConfigs(project.getKey()), true);
+				}
+			}
+		}
+
+		private Map<String, Map<String, T>> getAllConfigs(String projectName) {
+			Map<String, Map<String, T>> projectConfigs = new HashMap<String, Map<String, T>>();
+			for (Map.Entry<String, T> entry : entries.entrySet()) {
+				if (projectName.equals(BeanMetadataPersistence.getProjectName(entry.getKey()))) {
+					String config = BeanMetadataPersistence.getConfigKey(entry.getKey());
+					Map<String, T> configEntries = projectConfigs.get(config);
+					if (configEntries == null) {
+						configEntries = new HashMap<String, T>();
+						projectConfigs.put(config, configEntries);
+					}
+					configEntries.put(entry.getKey(), entry.getValue());
+				}
+			}
+			return projectConfigs;
+		}
+
+		private Map<String, Map<String, T>> getConfigs(
+				Map<String, Map<String, Map<String, T>>> configsByProject, String projectName) {
+			Map<String, Map<String, T>> projectConfigs = configsByProject.get(projectName);
+			if (projectConfigs == null) {
+				projectConfigs = new HashMap<String, Map<String, T>>();
+				configsByProject.put(projectName, projectConfigs);
+			}
+			return projectConfigs;
+		}
 	}
 
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2013 Spring IDE Developers
+ * Copyright (c) 2010, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,27 +10,49 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.beans.core.metadata.internal.model;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.springframework.ide.eclipse.beans.core.metadata.BeansMetadataPlugin;
 import org.springframework.ide.eclipse.beans.core.metadata.model.IBeanMetadata;
+import org.springframework.ide.eclipse.core.model.IModelElement;
 
 /**
- * Stores and loads the {@link IBeanMetadata}s from the persisted file.
+ * Stores and loads the {@link IBeanMetadata}s from the persisted files.
+ * <p>
+ * The entries of each project are stored in a file of their own, as a sequence of binary segments: one segment with
+ * the entries of the beans of each config. Saving only appends segments for the configs with changed entries; a
+ * later segment replaces any earlier one of the same config. Every entry is serialized on its own, so that entries
+ * whose classes changed incompatibly are skipped instead of failing the whole file. A project's file is only read
+ * when the project's entries are first needed, and is compacted while reading it once replaced segments make up most
+ * of it or its last segment was only partially written.
  * @author Christian Dupuis
  * @author Martin Lippert
  * @since 2.0.5
  */
-public class BeanMetadataPersistence {
+public class BeanMetadataPersistence<T extends Serializable> {
 
 	private static final String STATE_FILE_NAME = ".state";
 
@@ -38,67 +60,329 @@ public class BeanMetadataPersistence {
 
 	private static final String BEANPROPERTIES_FOLDER_NAME = "/properties/";
 
-	public static void storeMetadata(Map<String, BeanMetadataHolder> metaData) {
-		File file = BeansMetadataPlugin.getDefault().getStateLocation().append(METADATA_FOLDER_NAME + STATE_FILE_NAME)
-				.toFile();
-		store(metaData, file);
+	private static final int MAGIC = 0x424d4554;
+
+	private static final int VERSION = 1;
+
+	private static final String PROJECT_FILE_EXTENSION = ".beans";
+
+	/**
+	 * Project files smaller than this are never compacted.
+	 */
+	private static final long MIN_COMPACTION_SIZE = 64 * 1024;
+
+	private final File storeDirectory;
+
+	private final Class<T> entryClass;
+
+	private BeanMetadataPersistence(String folderName, Class<T> entryClass) {
+		this.storeDirectory = BeansMetadataPlugin.getDefault().getStateLocation().append(folderName).toFile();
+		this.entryClass = entryClass;
+	}
+
+	/**
+	 * Creates the store for {@link BeanMetadataHolder}s.
+	 * @since 3.9.2
+	 */
+	public static BeanMetadataPersistence<BeanMetadataHolder> createMetadataPersistence() {
+		return new BeanMetadataPersistence<BeanMetadataHolder>(METADATA_FOLDER_NAME, BeanMetadataHolder.class);
+	}
+
+	/**
+	 * Creates the store for {@link BeanPropertyDataHolder}s.
+	 * @since 3.9.2
+	 */
+	public static BeanMetadataPersistence<BeanPropertyDataHolder> createPropertiesPersistence() {
+		return new BeanMetadataPersistence<BeanPropertyDataHolder>(BEANPROPERTIES_FOLDER_NAME,
+				BeanPropertyDataHolder.class);
+	}
+
+	/**
+	 * Returns the name of the project of the bean with the given element id.
+	 * @since 3.9.2
+	 */
+	public static String getProjectName(String elementId) {
+		int start = elementId.indexOf(IModelElement.ID_DELIMITER);
+		if (start < 0) {
+			return "";
+		}
+		int end = elementId.indexOf(IModelElement.ID_DELIMITER, start + 1);
+		String project = (end < 0 ? elementId.substring(start + 1) : elementId.substring(start + 1, end));
+		return project.substring(project.indexOf(IModelElement.ID_SEPARATOR) + 1);
+	}
+
+	/**
+	 * Returns the key of the segment that stores the entry of the bean with the given element id, that is the part of
+	 * the id that identifies the bean's config.
+	 * @since 3.9.2
+	 */
+	public static String getConfigKey(String elementId) {
+		int index = -1;
+		for (int i = 0; i < 3; i++) {
+			index = elementId.indexOf(IModelElement.ID_DELIMITER, index + 1);
+			if (index < 0) {
+				return elementId;
+			}
+		}
+		return elementId.substring(0, index);
+	}
+
+	/**
+	 * Returns <code>true</code> if the store contains data written by a previous version.
+	 * @since 3.9.2
+	 */
+	public boolean hasLegacyState() {
+		return new File(storeDirectory, STATE_FILE_NAME).exists();
 	}
 
-	public static void storeProperties(Map<String, BeanPropertyDataHolder> properties) {
-		File file = BeansMetadataPlugin.getDefault().getStateLocation()
-				.append(BEANPROPERTIES_FOLDER_NAME + STATE_FILE_NAME).toFile();
-		store(properties, file);
+	/**
+	 * Returns the entries stored in the single file of a previous version.
+	 * @since 3.9.2
+	 */
+	@SuppressWarnings("unchecked")
+	public Map<String, T> loadLegacyState() {
+		Map<String, T> entries = load(new File(storeDirectory, STATE_FILE_NAME), Map.class);
+		return (entries != null ? entries : new HashMap<String, T>());
 	}
 
-	private static void store(Object obj, File file) {
-		ObjectOutputStream out = null;
+	/**
+	 * Removes the file of a previous version once its entries have been saved to the project files.
+	 * @since 3.9.2
+	 */
+	public void deleteLegacyState() {
+		new File(storeDirectory, STATE_FILE_NAME).delete();
+	}
 
+	/**
+	 * Returns the entries stored for the given project, keyed by element id.
+	 * @since 3.9.2
+	 */
+	public synchronized Map<String, T> loadProject(String projectName) {
+		Map<String, T> entries = new HashMap<String, T>();
+		File file = getProjectFile(projectName);
+		if (!file.exists()) {
+			return entries;
+		}
 		try {
-			if (!file.exists()) {
-				file.getParentFile().mkdirs();
-				file.createNewFile();
+			Map<String, byte[]> segments = new LinkedHashMap<String, byte[]>();
+			boolean compact = readSegments(file, segments);
+			int skippedEntries = 0;
+			for (byte[] segment : segments.values()) {
+				skippedEntries += readSegment(segment, entries);
+			}
+			if (skippedEntries > 0 && BeanMetadataModel.DEBUG) {
+				System.out.println(String.format("%s: skipped %d unreadable entries of project '%s'",
+						entryClass.getSimpleName(), skippedEntries, projectName));
+			}
+			if (compact) {
+				writeSegments(file, segments.values());
 			}
-			out = new ObjectOutputStream(new FileOutputStream(file));
-			out.writeObject(obj);
 		}
 		catch (IOException e) {
 			BeansMetadataPlugin.getDefault().getLog().log(new Status(IStatus.ERROR, BeansMetadataPlugin.PLUGIN_ID,
-					"Exception saving meta data model for class " + obj.getClass(), e));
+					"Exception restoring meta data model of project '" + projectName + "'", e));
+			file.delete();
+		}
+		return entries;
+	}
+
+	/**
+	 * Saves the given configs of a project.
+	 * @param configs the entries of each config to save, keyed by config key; an empty map removes a config
+	 * @param allConfigs <code>true</code> if <code>configs</code> contains all configs of the project
+	 * @return <code>false</code> if not all configs of the project were given but they would be needed as the
+	 * project's file can't be appended to
+	 * @since 3.9.2
+	 */
+	public synchronized boolean saveProject(String projectName, Map<String, Map<String, T>> configs,
+			boolean allConfigs) {
+		File file = getProjectFile(projectName);
+		try {
+			if (allConfigs) {
+				Collection<byte[]> segments = new ArrayList<byte[]>();
+				for (Map.Entry<String, Map<String, T>> config : configs.entrySet()) {
+					if (!config.getValue().isEmpty()) {
+						segments.add(writeSegment(config.getKey(), config.getValue()));
+					}
+				}
+				if (segments.isEmpty()) {
+					file.delete();
+				}
+				else {
+					writeSegments(file, segments);
+				}
+			}
+			else if (file.exists()) {
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+				try {
+					for (Map.Entry<String, Map<String, T>> config : configs.entrySet()) {
+						byte[] segment = writeSegment(config.getKey(), config.getValue());
+						out.writeInt(segment.length);
+						out.write(segment);
+					}
+				}
+				finally {
+					out.close();
+				}
+			}
+			else {
+				return false;
+			}
+		}
+		catch (IOException e) {
+			BeansMetadataPlugin.getDefault().getLog().log(new Status(IStatus.ERROR, BeansMetadataPlugin.PLUGIN_ID,
+					"Exception saving meta data model of project '" + projectName + "'", e));
+			// the file may end in a partially written segment, don't append to it
+			file.delete();
+			return allConfigs;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns <code>true</code> if entries have been stored for the given project.
+	 * @since 3.9.2
+	 */
+	public boolean hasProject(String projectName) {
+		return getProjectFile(projectName).exists();
+	}
+
+	/**
+	 * Reads the segments of a project file, keeping only the last segment of each config. A segment at the end of the
+	 * file that has only been written partially (including its length) is ignored.
+	 * @return <code>true</code> if the file should be compacted
+	 */
+	private boolean readSegments(File file, Map<String, byte[]> segments) throws IOException {
+		long fileSize = file.length();
+		boolean truncated = false;
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException("Unsupported file format");
+			}
+			long position = 8;
+			while (position < fileSize) {
+				if (fileSize - position < 4) {
+					// the length of the last segment was only partially written
+					truncated = true;
+					break;
+				}
+				int length = in.readInt();
+				position += 4;
+				if (length < 0) {
+					throw new IOException("Invalid segment length " + length);
+				}
+				if (length > fileSize - position) {
+					// last segment was only partially written
+					truncated = true;
+					break;
+				}
+				byte[] segment = new byte[length];
+				in.readFully(segment);
+				position += length;
+
+				DataInputStream segmentIn = new DataInputStream(new ByteArrayInputStream(segment));
+				String config = segmentIn.readUTF();
+				segments.remove(config);
+				if (segmentIn.readInt() > 0) {
+					segments.put(config, segment);
+				}
+			}
 		}
 		finally {
+			in.close();
+		}
+		long liveSize = 0;
+		for (byte[] segment : segments.values()) {
+			liveSize += segment.length;
+		}
+		return truncated || (fileSize > MIN_COMPACTION_SIZE && fileSize > 2 * liveSize);
+	}
+
+	/**
+	 * Reads the entries of a segment.
+	 * @return the number of entries that could not be deserialized
+	 */
+	private int readSegment(byte[] segment, Map<String, T> entries) throws IOException {
+		int skippedEntries = 0;
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(segment));
+		in.readUTF();
+		int entryCount = in.readInt();
+		for (int i = 0; i < entryCount; i++) {
+			String elementId = in.readUTF();
+			byte[] bytes = new byte[in.readInt()];
+			in.readFully(bytes);
+			ObjectInputStream entryIn = null;
 			try {
-				if (out != null)
-					out.close();
+				entryIn = new ObjectInputStream(new ByteArrayInputStream(bytes));
+				entries.put(elementId, entryClass.cast(entryIn.readObject()));
 			}
-			catch (IOException e) {
+			catch (Exception e) {
+				// the classes of this entry changed since it was written; it will be recreated by the next build
+				skippedEntries++;
+			}
+			finally {
+				if (entryIn != null) {
+					entryIn.close();
+				}
 			}
 		}
+		return skippedEntries;
 	}
 
-	@SuppressWarnings("unchecked")
-	public static Map<String, BeanMetadataHolder> loadMetadata() {
-		File f = BeansMetadataPlugin.getDefault().getStateLocation().append(METADATA_FOLDER_NAME + STATE_FILE_NAME)
-				.toFile();
-		Map<String, BeanMetadataHolder> metaData = load(f, Map.class);
-		if (metaData != null && metaData.size() > 0) {
-			return metaData;
+	/**
+	 * Encodes the entries of the beans of a config. A segment without entries removes the config.
+	 */
+	private byte[] writeSegment(String config, Map<String, T> entries) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeUTF(config);
+		out.writeInt(entries.size());
+		ByteArrayOutputStream entryBytes = new ByteArrayOutputStream();
+		for (Map.Entry<String, T> entry : entries.entrySet()) {
+			entryBytes.reset();
+			ObjectOutputStream entryOut = new ObjectOutputStream(entryBytes);
+			entryOut.writeObject(entry.getValue());
+			entryOut.close();
+			out.writeUTF(entry.getKey());
+			out.writeInt(entryBytes.size());
+			entryBytes.writeTo(out);
 		}
-		// create new empty model
-		return new ConcurrentHashMap<String, BeanMetadataHolder>();
+		out.close();
+		return bytes.toByteArray();
 	}
 
-	@SuppressWarnings("unchecked")
-	public static Map<String, BeanPropertyDataHolder> loadProperties() {
-		File f = BeansMetadataPlugin.getDefault().getStateLocation().append(BEANPROPERTIES_FOLDER_NAME + STATE_FILE_NAME)
-				.toFile();
-		Map<String, BeanPropertyDataHolder> metaData = load(f, Map.class);
-		if (metaData != null && metaData.size() > 0) {
-			return metaData;
+	/**
+	 * Replaces a project file with one containing the given segments.
+	 */
+	private void writeSegments(File file, Collection<byte[]> segments) throws IOException {
+		storeDirectory.mkdirs();
+		File tempFile = new File(file.getPath() + ".tmp");
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			for (byte[] segment : segments) {
+				out.writeInt(segment.length);
+				out.write(segment);
+			}
 		}
-		// create new empty model
-		return new ConcurrentHashMap<String, BeanPropertyDataHolder>();
+		finally {
+			out.close();
+		}
+		Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
 	}
 
+	private File getProjectFile(String projectName) {
+		try {
+			return new File(storeDirectory, URLEncoder.encode(projectName, "UTF-8") + PROJECT_FILE_EXTENSION);
+		}
+		catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
 	public static <T> T load(File file, Class<T> clazz) {
 		ObjectInputStream in = null;
 
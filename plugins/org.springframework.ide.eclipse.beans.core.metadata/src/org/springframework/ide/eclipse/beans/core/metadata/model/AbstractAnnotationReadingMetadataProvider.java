@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2016 Spring IDE Developers
+ * Copyright (c) 2010, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,6 +15,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -48,7 +49,7 @@ public abstract class AbstractAnnotationReadingMetadataProvider extends BeanMeta
 	/**
 	 * Internal cache of {@link ClassReaderFactory} keyed by the corresponding {@link IProject}.
 	 */
-	private final Map<IProject, ClassReaderFactory> classReaderFactoryCache = new ConcurrentHashMap<IProject, ClassReaderFactory>();
+	private final ConcurrentMap<IProject, ClassReaderFactory> classReaderFactoryCache = new ConcurrentHashMap<IProject, ClassReaderFactory>();
 
 	/**
 	 * Internal cache of {@link IAnnotationMetadata} keyed by the corresponding {@link IType}. It is important to key
@@ -94,8 +95,9 @@ public abstract class AbstractAnnotationReadingMetadataProvider extends BeanMeta
 		}
 
 		// Check cache first
-		if (metadataCache.containsKey(orginalType)) {
-			return metadataCache.get(orginalType);
+		IAnnotationMetadata cachedVisitor = metadataCache.get(orginalType);
+		if (cachedVisitor != null) {
+			return cachedVisitor;
 		}
 
 		IAnnotationMetadata visitor = null;
@@ -155,11 +157,15 @@ public abstract class AbstractAnnotationReadingMetadataProvider extends BeanMeta
 	 * {@link #classReaderFactoryCache} before creating a new instance.
 	 */
 	private ClassReaderFactory getClassReaderFactory(IProject project) {
-		if (!classReaderFactoryCache.containsKey(project)) {
-			classReaderFactoryCache.put(project, new CachingClassReaderFactory(JdtUtils.getClassLoader(project,
-					null)));
+		ClassReaderFactory classReaderFactory = classReaderFactoryCache.get(project);
+		if (classReaderFactory == null) {
+			classReaderFactory = new CachingClassReaderFactory(JdtUtils.getClassLoader(project, null));
+			ClassReaderFactory existingFactory = classReaderFactoryCache.putIfAbsent(project, classReaderFactory);
+			if (existingFactory != null) {
+				classReaderFactory = existingFactory;
+			}
 		}
-		return classReaderFactoryCache.get(project);
+		return classReaderFactory;
 	}
 
 	/**
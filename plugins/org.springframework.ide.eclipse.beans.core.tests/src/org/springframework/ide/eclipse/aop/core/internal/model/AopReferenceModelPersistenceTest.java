@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.aop.core.internal.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.ui.IMemento;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the segmented project files of {@link AopReferenceModelPeristence} and the encoding of
+ * {@link BinaryMemento}.
+ * @since 3.9.2
+ */
+public class AopReferenceModelPersistenceTest {
+
+	private File file;
+
+	@Before
+	public void createFile() throws IOException {
+		file = File.createTempFile("aop-references", ".refs");
+	}
+
+	@After
+	public void deleteFile() {
+		file.delete();
+	}
+
+	@Test
+	public void testSegmentRoundTrip() throws Exception {
+		BinaryMemento definition = createDefinition("aspect", 3);
+		definition.putString("nullValue", null);
+		definition.putInteger("count", 42);
+		definition.putBoolean("enabled", true);
+
+		byte[] segment = AopReferenceModelPeristence.writeSegment("/project/src/aop.xml",
+				Collections.singletonList(definition));
+		assertEquals("/project/src/aop.xml", AopReferenceModelPeristence.getSegmentConfig(segment));
+
+		List<IMemento> definitions = AopReferenceModelPeristence.readSegment(segment);
+		assertEquals(1, definitions.size());
+		IMemento read = definitions.get(0);
+		assertEquals("aspect", read.getString("name"));
+		assertNull(read.getString("nullValue"));
+		assertEquals(Integer.valueOf(42), read.getInteger("count"));
+		assertEquals(Boolean.TRUE, read.getBoolean("enabled"));
+		IMemento[] references = read.getChildren("aop-reference");
+		assertEquals(3, references.length);
+		for (int i = 0; i < references.length; i++) {
+			assertEquals("target" + i, references[i].getString("target"));
+			assertEquals("=project/src<org.test{Service.java[Service~method" + i,
+					references[i].getString("handle"));
+		}
+	}
+
+	@Test
+	public void testLaterSegmentsReplaceEarlierOnes() throws Exception {
+		byte[] first = segment("/project/a.xml", "first", 1);
+		byte[] other = segment("/project/b.xml", "other", 1);
+		AopReferenceModelPeristence.writeSegments(file, Arrays.asList(first, other));
+
+		byte[] second = segment("/project/a.xml", "second", 2);
+		byte[] removal = AopReferenceModelPeristence.writeSegment("/project/b.xml",
+				Collections.<BinaryMemento> emptyList());
+		AopReferenceModelPeristence.appendSegments(file, Arrays.asList(second, removal));
+
+		Map<String, byte[]> segments = new LinkedHashMap<String, byte[]>();
+		assertFalse(AopReferenceModelPeristence.readSegments(file, segments));
+		assertEquals(Collections.singleton("/project/a.xml"), segments.keySet());
+		assertArrayEquals(second, segments.get("/project/a.xml"));
+		assertEquals("second", AopReferenceModelPeristence.readSegment(segments.get("/project/a.xml")).get(0)
+				.getString("name"));
+	}
+
+	@Test
+	public void testReplacedSegmentsAreCompacted() throws Exception {
+		byte[] segment = segment("/project/a.xml", "aspect", 50);
+		AopReferenceModelPeristence.writeSegments(file, Collections.singletonList(segment));
+		while (file.length() < 256 * 1024) {
+			AopReferenceModelPeristence.appendSegments(file, Collections.singletonList(segment));
+		}
+
+		Map<String, byte[]> segments = new LinkedHashMap<String, byte[]>();
+		assertTrue(AopReferenceModelPeristence.readSegments(file, segments));
+		assertEquals(1, segments.size());
+
+		AopReferenceModelPeristence.writeSegments(file, segments.values());
+		assertEquals(8 + 4 + segment.length, file.length());
+		segments.clear();
+		assertFalse(AopReferenceModelPeristence.readSegments(file, segments));
+		assertArrayEquals(segment, segments.get("/project/a.xml"));
+	}
+
+	@Test
+	public void testPartiallyWrittenSegmentIsIgnored() throws Exception {
+		byte[] first = segment("/project/a.xml", "first", 1);
+		byte[] second = segment("/project/b.xml", "second", 1);
+		AopReferenceModelPeristence.writeSegments(file, Arrays.asList(first, second));
+		truncate(file.length() - 3);
+
+		Map<String, byte[]> segments = new LinkedHashMap<String, byte[]>();
+		assertTrue(AopReferenceModelPeristence.readSegments(file, segments));
+		assertEquals(Collections.singleton("/project/a.xml"), segments.keySet());
+	}
+
+	@Test
+	public void testPartiallyWrittenSegmentLengthIsIgnored() throws Exception {
+		byte[] first = segment("/project/a.xml", "first", 1);
+		AopReferenceModelPeristence.writeSegments(file, Collections.singletonList(first));
+		FileOutputStream out = new FileOutputStream(file, true);
+		try {
+			out.write(new byte[] { 0, 0 });
+		}
+		finally {
+			out.close();
+		}
+
+		Map<String, byte[]> segments = new LinkedHashMap<String, byte[]>();
+		assertTrue(AopReferenceModelPeristence.readSegments(file, segments));
+		assertArrayEquals(first, segments.get("/project/a.xml"));
+
+		// after compaction, appended segments are read again
+		AopReferenceModelPeristence.writeSegments(file, segments.values());
+		byte[] second = segment("/project/b.xml", "second", 1);
+		AopReferenceModelPeristence.appendSegments(file, Collections.singletonList(second));
+		segments.clear();
+		assertFalse(AopReferenceModelPeristence.readSegments(file, segments));
+		assertEquals(Arrays.asList("/project/a.xml", "/project/b.xml"),
+				Arrays.asList(segments.keySet().toArray()));
+	}
+
+	@Test
+	public void testUnsupportedFileIsRejected() throws Exception {
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write("<?xml version=\"1.0\"?>".getBytes("UTF-8"));
+		}
+		finally {
+			out.close();
+		}
+		try {
+			AopReferenceModelPeristence.readSegments(file, new LinkedHashMap<String, byte[]>());
+			fail("File in another format must be rejected");
+		}
+		catch (IOException e) {
+			// expected
+		}
+	}
+
+	private BinaryMemento createDefinition(String name, int referenceCount) {
+		BinaryMemento definition = new BinaryMemento("aspect-definition");
+		definition.putString("name", name);
+		definition.putString("factory-id", "org.test.factory");
+		for (int i = 0; i < referenceCount; i++) {
+			IMemento reference = definition.createChild("aop-reference");
+			reference.putString("target", "target" + i);
+			reference.putString("handle", "=project/src<org.test{Service.java[Service~method" + i);
+		}
+		return definition;
+	}
+
+	private byte[] segment(String config, String name, int referenceCount) throws IOException {
+		return AopReferenceModelPeristence.writeSegment(config,
+				Collections.singletonList(createDefinition(name, referenceCount)));
+	}
+
+	private void truncate(long length) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			raf.setLength(length);
+		}
+		finally {
+			raf.close();
+		}
+	}
+
+}
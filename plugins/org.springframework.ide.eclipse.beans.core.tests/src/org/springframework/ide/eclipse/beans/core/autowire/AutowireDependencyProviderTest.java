@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2014 Spring IDE Developers
+ * Copyright (c) 2005, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,11 +11,15 @@
 package org.springframework.ide.eclipse.beans.core.autowire;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.Serializable;
+import java.lang.reflect.Array;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -38,6 +42,8 @@ import org.springframework.ide.eclipse.beans.core.model.IBeanReference;
 import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
 import org.springframework.ide.eclipse.beans.core.model.IBeansProject;
 import org.springframework.ide.eclipse.core.SpringCore;
+import org.springframework.ide.eclipse.core.java.IProjectClassLoaderSupport;
+import org.springframework.ide.eclipse.core.java.JdtUtils;
 import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
 
 /**
@@ -699,6 +705,51 @@ public class AutowireDependencyProviderTest {
 		}
 	}
 	
+	@Test
+	public void testBeansForTypeIncludeSupertypesOfArrayComponents() throws Exception {
+		BeansConfig config = new BeansConfig(beansProject, "src/org/springframework/beans/factory/annotation/testArrayTypeFactoryBean-context.xml", IBeansConfig.Type.MANUAL);
+
+		final AutowireDependencyProvider provider = new AutowireDependencyProvider(config, config);
+		final Map<Class<?>, List<String>> beansForType = new HashMap<Class<?>, List<String>>();
+		JdtUtils.getProjectClassLoaderSupport(project, null).executeCallback(new IProjectClassLoaderSupport.IProjectClassLoaderAwareCallback() {
+
+			public void doWithActiveProjectClassLoader() throws Throwable {
+				provider.preloadClasses();
+				ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+				Class<?> nestedTestBeanClass = classLoader.loadClass("test.beans.NestedTestBean");
+				Class<?> nestedTestBeanInterface = classLoader.loadClass("test.beans.INestedTestBean");
+				for (Class<?> type : new Class<?>[] { String[].class, CharSequence[].class, Object[].class,
+						Serializable[].class, Integer[].class, int[].class, Serializable.class, Object.class,
+						nestedTestBeanClass, nestedTestBeanInterface, Array.newInstance(nestedTestBeanInterface, 0).getClass() }) {
+					beansForType.put(type, Arrays.asList(provider.getBeansForType(type)));
+				}
+			}
+		});
+
+		assertEquals(Arrays.asList("stringArray"), beansForType.get(String[].class));
+		assertEquals(Arrays.asList("stringArray"), beansForType.get(CharSequence[].class));
+		assertEquals(Arrays.asList("stringArray"), beansForType.get(Serializable[].class));
+		assertTrue(beansForType.get(Object[].class).contains("stringArray"));
+		assertTrue(beansForType.get(Integer[].class).isEmpty());
+		assertEquals(Arrays.asList("intArray"), beansForType.get(int[].class));
+
+		// primitive arrays are only assignable to the supertypes of arrays
+		assertFalse(beansForType.get(Object[].class).contains("intArray"));
+		assertTrue(beansForType.get(Serializable.class).containsAll(Arrays.asList("stringArray", "intArray")));
+		assertTrue(beansForType.get(Object.class).containsAll(Arrays.asList("stringArray", "intArray", "nestedTestBean")));
+
+		for (Class<?> type : beansForType.keySet()) {
+			if (type.getName().contains("NestedTestBean")) {
+				if (type.isArray()) {
+					assertTrue(beansForType.get(type).isEmpty());
+				}
+				else {
+					assertEquals(Arrays.asList("nestedTestBean"), beansForType.get(type));
+				}
+			}
+		}
+	}
+
 	@Test
 	public void testEnvironmentInjection() throws Exception {
 		BeansConfig config = new BeansConfig(beansProject, "src/org/springframework/beans/factory/annotation/testEnvironmentInjection-context.xml", IBeansConfig.Type.MANUAL);
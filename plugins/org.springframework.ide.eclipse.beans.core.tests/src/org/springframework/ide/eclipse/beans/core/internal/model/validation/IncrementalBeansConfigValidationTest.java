@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.internal.model.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
+import org.eclipse.core.runtime.CoreException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelUtils;
+import org.springframework.ide.eclipse.beans.core.model.IBean;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
+import org.springframework.ide.eclipse.beans.core.tests.BeansCoreTestCase;
+import org.springframework.ide.eclipse.core.MarkerUtils;
+import org.springframework.ide.eclipse.core.SpringCore;
+import org.springframework.ide.eclipse.core.internal.model.validation.ValidationRuleDefinition;
+import org.springframework.ide.eclipse.core.internal.model.validation.ValidationRuleDefinitionFactory;
+import org.springframework.ide.eclipse.core.model.validation.IValidationProblemMarker;
+import org.springframework.ide.eclipse.core.model.validation.ValidationDependencyGraph;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * Tests the incremental validation of beans configs after changes to Java files, see {@link BeansConfigValidator}.
+ * @since 3.9.2
+ */
+public class IncrementalBeansConfigValidationTest extends BeansCoreTestCase {
+
+	private static final String VALIDATOR_ID = BeansCorePlugin.PLUGIN_ID + ".beansvalidator";
+
+	private IResource resource;
+
+	private IBeansConfig beansConfig;
+
+	@Before
+	public void setUp() throws Exception {
+		SpringCore.getDefault().getPluginPreferences().setValue(SpringCore.USE_INCREMENTAL_VALIDATION, true);
+
+		resource = createPredefinedProjectAndGetResource("validation-incremental", "src/incremental.xml");
+		StsTestUtil.waitForResource(resource);
+		beansConfig = BeansCorePlugin.getModel().getConfig((IFile) resource);
+		resource.getProject().build(IncrementalProjectBuilder.FULL_BUILD, null);
+	}
+
+	@After
+	public void resetIncrementalValidation() {
+		SpringCore.getDefault().getPluginPreferences().setToDefault(SpringCore.USE_INCREMENTAL_VALIDATION);
+	}
+
+	@Test
+	public void testChangedBeanClassIsRevalidated() throws Exception {
+		IBean bean = BeansModelUtils.getBean("service", beansConfig);
+		assertNotNull(bean);
+		assertTrue(getMarkers(bean, "NO_SETTER").isEmpty());
+
+		// the setter is inherited, so the change is only found through the beans of the changed class hierarchy
+		setContents("src/org/test/incremental/BaseService.java", "package org.test.incremental;\n\n"
+				+ "public class BaseService {\n}\n");
+		resource.getProject().build(IncrementalProjectBuilder.INCREMENTAL_BUILD, null);
+
+		assertEquals(1, getMarkers(bean, "NO_SETTER").size());
+	}
+
+	@Test
+	public void testBeanWithoutRecordedInvocationsIsRevalidated() throws Exception {
+		IBean bean = BeansModelUtils.getBean("later", beansConfig);
+		assertNotNull(bean);
+		assertEquals(1, getMarkers(bean, "CLASS_NOT_FOUND").size());
+
+		// forget what has been recorded for the bean, as if it had been added since the last validation
+		ValidationDependencyGraph graph = BeansConfigValidator.getValidationDependencyGraph();
+		assertTrue(graph.isTracked(resource));
+		assertTrue(graph.getValidatedElements(resource).contains(bean.getElementID()));
+		Set<String> invocations = new HashSet<String>();
+		for (ValidationRuleDefinition ruleDefinition : ValidationRuleDefinitionFactory.getRuleDefinitions(VALIDATOR_ID)) {
+			invocations.add(ValidationDependencyGraph.getInvocationKey(bean.getElementID(), ruleDefinition.getId()));
+		}
+		graph.update(resource, invocations, Collections.<String, Set<String>> emptyMap());
+		assertFalse(graph.getValidatedElements(resource).contains(bean.getElementID()));
+
+		createFile("src/org/test/incremental/Later.java", "package org.test.incremental;\n\n"
+				+ "public class Later {\n}\n");
+		resource.getProject().build(IncrementalProjectBuilder.INCREMENTAL_BUILD, null);
+
+		assertTrue(getMarkers(bean, "CLASS_NOT_FOUND").isEmpty());
+		assertTrue(graph.getValidatedElements(resource).contains(bean.getElementID()));
+	}
+
+	private Set<IMarker> getMarkers(IBean bean, String errorId) throws CoreException {
+		Set<IMarker> markers = new HashSet<IMarker>();
+		for (IMarker marker : MarkerUtils.getAllMarkersInRange(resource, bean.getElementStartLine(),
+				bean.getElementEndLine())) {
+			if (errorId.equals(marker.getAttribute(IValidationProblemMarker.ERROR_ID))) {
+				markers.add(marker);
+			}
+		}
+		return markers;
+	}
+
+	private void setContents(String path, String contents) throws CoreException {
+		IFile file = resource.getProject().getFile(path);
+		file.setContents(new ByteArrayInputStream(contents.getBytes()), true, false, null);
+	}
+
+	private void createFile(String path, String contents) throws CoreException {
+		IFile file = resource.getProject().getFile(path);
+		file.create(new ByteArrayInputStream(contents.getBytes()), true, null);
+	}
+
+}
@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.metadata.internal.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.net.URLEncoder;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.beans.core.metadata.BeansMetadataPlugin;
+
+/**
+ * Tests the segmented project files of {@link BeanMetadataPersistence}.
+ * @since 3.9.2
+ */
+public class BeanMetadataPersistenceTest {
+
+	private BeanMetadataPersistence<BeanPropertyDataHolder> persistence;
+
+	private String projectName;
+
+	@Before
+	public void createPersistence() {
+		persistence = BeanMetadataPersistence.createPropertiesPersistence();
+		projectName = "persistence-test-" + System.nanoTime();
+	}
+
+	@After
+	public void deleteProject() {
+		persistence.saveProject(projectName, Collections.<String, Map<String, BeanPropertyDataHolder>> emptyMap(),
+				true);
+		new File(getStoreDirectory(), ".state").delete();
+	}
+
+	@Test
+	public void testAppendedConfigsAreLoaded() throws Exception {
+		assertFalse(persistence.saveProject(projectName, configs("a.xml", "bean1"), false));
+		assertTrue(persistence.saveProject(projectName, configs("a.xml", "bean1"), true));
+		assertTrue(persistence.hasProject(projectName));
+
+		assertTrue(persistence.saveProject(projectName, configs("b.xml", "bean2", "bean3"), false));
+
+		Map<String, BeanPropertyDataHolder> entries = persistence.loadProject(projectName);
+		assertEquals(3, entries.size());
+		assertEquals(elementId("a.xml", "bean1"), entries.get(elementId("a.xml", "bean1")).getElemenetId());
+		assertEquals(elementId("b.xml", "bean3"), entries.get(elementId("b.xml", "bean3")).getElemenetId());
+	}
+
+	@Test
+	public void testLaterSegmentsReplaceEarlierOnes() throws Exception {
+		persistence.saveProject(projectName, configs("a.xml", "bean1", "bean2"), true);
+		persistence.saveProject(projectName, configs("b.xml", "bean3"), false);
+
+		persistence.saveProject(projectName, configs("a.xml", "bean4"), false);
+		Map<String, Map<String, BeanPropertyDataHolder>> removal = new HashMap<String, Map<String, BeanPropertyDataHolder>>();
+		removal.put(configKey("b.xml"), new HashMap<String, BeanPropertyDataHolder>());
+		persistence.saveProject(projectName, removal, false);
+
+		Map<String, BeanPropertyDataHolder> entries = persistence.loadProject(projectName);
+		assertEquals(Collections.singleton(elementId("a.xml", "bean4")), entries.keySet());
+	}
+
+	@Test
+	public void testReplacedSegmentsAreCompacted() throws Exception {
+		Map<String, Map<String, BeanPropertyDataHolder>> configs = configs("a.xml", "bean1", "bean2", "bean3");
+		persistence.saveProject(projectName, configs, true);
+		long compactedSize = getProjectFile().length();
+		while (getProjectFile().length() < 256 * 1024) {
+			persistence.saveProject(projectName, configs, false);
+		}
+
+		assertEquals(3, persistence.loadProject(projectName).size());
+		assertEquals(compactedSize, getProjectFile().length());
+		assertEquals(3, persistence.loadProject(projectName).size());
+	}
+
+	@Test
+	public void testPartiallyWrittenSegmentIsIgnored() throws Exception {
+		persistence.saveProject(projectName, configs("a.xml", "bean1"), true);
+		long size = getProjectFile().length();
+		persistence.saveProject(projectName, configs("b.xml", "bean2"), false);
+		truncate(getProjectFile().length() - 3);
+
+		assertEquals(Collections.singleton(elementId("a.xml", "bean1")), persistence.loadProject(projectName)
+				.keySet());
+		assertEquals(size, getProjectFile().length());
+	}
+
+	@Test
+	public void testPartiallyWrittenSegmentLengthIsIgnored() throws Exception {
+		persistence.saveProject(projectName, configs("a.xml", "bean1"), true);
+		long size = getProjectFile().length();
+		FileOutputStream out = new FileOutputStream(getProjectFile(), true);
+		try {
+			out.write(new byte[] { 0, 0 });
+		}
+		finally {
+			out.close();
+		}
+
+		assertEquals(Collections.singleton(elementId("a.xml", "bean1")), persistence.loadProject(projectName)
+				.keySet());
+		assertEquals(size, getProjectFile().length());
+
+		// segments appended after the recovery are read again
+		persistence.saveProject(projectName, configs("b.xml", "bean2"), false);
+		assertEquals(2, persistence.loadProject(projectName).size());
+	}
+
+	@Test
+	public void testLegacyStateIsMigrated() throws Exception {
+		Map<String, BeanPropertyDataHolder> legacyEntries = new HashMap<String, BeanPropertyDataHolder>();
+		legacyEntries.putAll(configs("a.xml", "bean1", "bean2").get(configKey("a.xml")));
+		File legacyFile = new File(getStoreDirectory(), ".state");
+		legacyFile.getParentFile().mkdirs();
+		ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(legacyFile));
+		try {
+			out.writeObject(legacyEntries);
+		}
+		finally {
+			out.close();
+		}
+		assertTrue(persistence.hasLegacyState());
+
+		new BeanMetadataModel().start();
+
+		assertFalse(persistence.hasLegacyState());
+		assertEquals(legacyEntries.keySet(), persistence.loadProject(projectName).keySet());
+	}
+
+	private Map<String, Map<String, BeanPropertyDataHolder>> configs(String config, String... beans) {
+		Map<String, BeanPropertyDataHolder> entries = new HashMap<String, BeanPropertyDataHolder>();
+		for (String bean : beans) {
+			BeanPropertyDataHolder holder = new BeanPropertyDataHolder();
+			holder.setElemenetId(elementId(config, bean));
+			holder.setLastModified(System.currentTimeMillis());
+			entries.put(holder.getElemenetId(), holder);
+		}
+		Map<String, Map<String, BeanPropertyDataHolder>> configs = new HashMap<String, Map<String, BeanPropertyDataHolder>>();
+		configs.put(configKey(config), entries);
+		return configs;
+	}
+
+	private String configKey(String config) {
+		return "1:beans|2:" + projectName + "|3:src/" + config;
+	}
+
+	private String elementId(String config, String bean) {
+		return configKey(config) + "|4:" + bean;
+	}
+
+	private File getStoreDirectory() {
+		return BeansMetadataPlugin.getDefault().getStateLocation().append("properties").toFile();
+	}
+
+	private File getProjectFile() throws Exception {
+		return new File(getStoreDirectory(), URLEncoder.encode(projectName, "UTF-8") + ".beans");
+	}
+
+	private void truncate(long length) throws Exception {
+		RandomAccessFile raf = new RandomAccessFile(getProjectFile(), "rw");
+		try {
+			raf.setLength(length);
+		}
+		finally {
+			raf.close();
+		}
+	}
+
+}
@@ -0,0 +1,260 @@
+/*******************************************************************************
+ * Copyright (c) 2016, 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.model.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansConfigLoadExecutor;
+
+/**
+ * @since 3.9.2
+ */
+public class BeansConfigLoadExecutorTest {
+
+	private BeansConfigLoadExecutor executor;
+
+	@Before
+	public void setUp() {
+		executor = new BeansConfigLoadExecutor(1, ForkJoinPool.defaultForkJoinWorkerThreadFactory);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdown();
+	}
+
+	@Test
+	public void testLoadRecordsLatency() throws Exception {
+		int count = executor.load("/project/config.xml", new Callable<Integer>() {
+			public Integer call() throws Exception {
+				return 3;
+			}
+		}, 10);
+		assertEquals(3, count);
+		assertEquals(1, executor.getCompletedLoads());
+		assertEquals(0, executor.getActiveLoads());
+		assertEquals(1, executor.getStatistics().size());
+		assertEquals("/project/config.xml", executor.getStatistics().get(0).getConfigName());
+		assertTrue(executor.getSlowestConfigs(5)[0].startsWith("/project/config.xml: 1 loads"));
+	}
+
+	@Test
+	public void testTimedOutLoadIsInterrupted() throws Exception {
+		final CountDownLatch interrupted = new CountDownLatch(1);
+		try {
+			executor.load("/project/slow.xml", new Callable<Integer>() {
+				public Integer call() throws Exception {
+					try {
+						Thread.sleep(60000);
+					}
+					catch (InterruptedException e) {
+						interrupted.countDown();
+					}
+					return 0;
+				}
+			}, 1);
+			fail("load should time out");
+		}
+		catch (TimeoutException e) {
+			// expected
+		}
+		assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+		assertEquals(1, executor.getTimedOutLoads());
+	}
+
+	@Test
+	public void testInterruptOfTimedOutLoadDoesNotLeakIntoNextLoad() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		try {
+			executor.load("/project/slow.xml", new Callable<Integer>() {
+				public Integer call() throws Exception {
+					started.countDown();
+					// ignores the interrupt and finishes normally
+					long end = System.currentTimeMillis() + 2000;
+					while (System.currentTimeMillis() < end) {
+						Thread.yield();
+					}
+					return 0;
+				}
+			}, 1);
+			fail("load should time out");
+		}
+		catch (TimeoutException e) {
+			// expected
+		}
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+
+		// runs on the same single loader thread; blocking calls fail if the thread is still interrupted
+		final CountDownLatch done = new CountDownLatch(0);
+		boolean interrupted = executor.load("/project/config.xml", new Callable<Boolean>() {
+			public Boolean call() throws Exception {
+				try {
+					done.await();
+					return false;
+				}
+				catch (InterruptedException e) {
+					return true;
+				}
+			}
+		}, 10);
+		assertFalse(interrupted);
+	}
+
+	@Test
+	public void testNestedLoadRunsOnLoaderThread() throws Exception {
+		// with a single loader thread a nested load would wait forever if it were queued
+		int count = executor.load("/project/outer.xml", new Callable<Integer>() {
+			public Integer call() throws Exception {
+				return 1 + executor.load("/project/inner.xml", new Callable<Integer>() {
+					public Integer call() throws Exception {
+						return 1;
+					}
+				}, 10);
+			}
+		}, 10);
+		assertEquals(2, count);
+		assertEquals(2, executor.getCompletedLoads());
+	}
+
+	@Test
+	public void testNestedLoadIsInterruptedWithEnclosingLoad() throws Exception {
+		final CountDownLatch interrupted = new CountDownLatch(1);
+		try {
+			executor.load("/project/outer.xml", new Callable<Integer>() {
+				public Integer call() throws Exception {
+					return executor.load("/project/inner.xml", new Callable<Integer>() {
+						public Integer call() throws Exception {
+							try {
+								Thread.sleep(60000);
+							}
+							catch (InterruptedException e) {
+								interrupted.countDown();
+								throw e;
+							}
+							return 0;
+						}
+					}, 60);
+				}
+			}, 1);
+			fail("load should time out");
+		}
+		catch (TimeoutException e) {
+			// expected
+		}
+		assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testNestedLoadFailsAfterDeadlineOfEnclosingLoad() throws Exception {
+		final AtomicReference<Exception> nestedResult = new AtomicReference<Exception>();
+		final CountDownLatch done = new CountDownLatch(1);
+		try {
+			executor.load("/project/outer.xml", new Callable<Integer>() {
+				public Integer call() throws Exception {
+					// ignores the interrupt and requests the nested load after the deadline
+					long end = System.currentTimeMillis() + 2000;
+					while (System.currentTimeMillis() < end) {
+						Thread.yield();
+					}
+					try {
+						executor.load("/project/inner.xml", new Callable<Integer>() {
+							public Integer call() throws Exception {
+								return 1;
+							}
+						}, 60);
+					}
+					catch (Exception e) {
+						nestedResult.set(e);
+					}
+					done.countDown();
+					return 0;
+				}
+			}, 1);
+			fail("load should time out");
+		}
+		catch (TimeoutException e) {
+			// expected
+		}
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		assertTrue(nestedResult.get() instanceof TimeoutException);
+		assertEquals(2, executor.getTimedOutLoads());
+	}
+
+	@Test
+	public void testSubmittedTaskLoadsOnLoaderThread() throws Exception {
+		// with a single loader thread the loads of the task would wait forever if they were queued
+		Integer count = executor.submit(new Callable<Integer>() {
+			public Integer call() throws Exception {
+				int loaded = 0;
+				for (int i = 0; i < 3; i++) {
+					loaded += executor.load("/project/config" + i + ".xml", new Callable<Integer>() {
+						public Integer call() throws Exception {
+							return 1;
+						}
+					}, 10);
+				}
+				return loaded;
+			}
+		}).get();
+		assertEquals(3, count.intValue());
+		assertEquals(3, executor.getCompletedLoads());
+	}
+
+	@Test
+	public void testTimedOutLoadOfSubmittedTaskDoesNotStopTask() throws Exception {
+		final AtomicReference<Exception> slowResult = new AtomicReference<Exception>();
+		Boolean interrupted = executor.submit(new Callable<Boolean>() {
+			public Boolean call() throws Exception {
+				try {
+					executor.load("/project/slow.xml", new Callable<Integer>() {
+						public Integer call() throws Exception {
+							Thread.sleep(60000);
+							return 0;
+						}
+					}, 1);
+				}
+				catch (Exception e) {
+					slowResult.set(e);
+				}
+
+				// the next load of the task gets its own timeout and must not see the interrupt of the slow one
+				return executor.load("/project/config.xml", new Callable<Boolean>() {
+					public Boolean call() throws Exception {
+						try {
+							Thread.sleep(10);
+							return false;
+						}
+						catch (InterruptedException e) {
+							return true;
+						}
+					}
+				}, 10);
+			}
+		}).get();
+		assertTrue(slowResult.get() instanceof TimeoutException);
+		assertFalse(interrupted);
+		assertEquals(1, executor.getTimedOutLoads());
+	}
+
+}
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.model.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansConfigLoader;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansModel;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelUtils;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansProject;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
+import org.springframework.ide.eclipse.core.SpringCore;
+import org.springframework.ide.eclipse.core.model.ILazyInitializedModelElement;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * @since 3.9.2
+ */
+public class BeansConfigLoaderTest {
+
+	private IProject project;
+	private BeansProject beansProject;
+
+	@BeforeClass
+	public static void setUp() {
+		if (Platform.OS_WIN32.equals(Platform.getOS())) {
+			/*
+			 * Set non-locking class-loader for windows testing
+			 */
+			InstanceScope.INSTANCE.getNode(SpringCore.PLUGIN_ID).putBoolean(
+					SpringCore.USE_NON_LOCKING_CLASSLOADER, true);
+		}
+	}
+
+	@Before
+	public void createProject() throws Exception {
+		project = StsTestUtil.createPredefinedProject("beans-config-tests", "org.springframework.ide.eclipse.beans.core.tests");
+		beansProject = new BeansProject(new BeansModel(), project);
+	}
+
+	@After
+	public void deleteProject() throws Exception {
+		project.delete(true, null);
+	}
+
+	@Test
+	public void testConfigsWithSharedImportsAreGrouped() throws Exception {
+		IBeansConfig many1 = addConfig("importing-bean-config-many1.xml");
+		IBeansConfig basic = addConfig("basic-bean-config.xml");
+		IBeansConfig base = addConfig("importing-bean-config-many-base.xml");
+		IBeansConfig many2 = addConfig("importing-bean-config-many2.xml");
+		List<IBeansConfig> configs = Arrays.asList(many1, basic, base, many2);
+
+		// without a previous load the import relations are unknown
+		assertEquals(4, BeansConfigLoader.getGroups(configs).size());
+
+		loadAll(configs);
+		List<List<IBeansConfig>> groups = BeansConfigLoader.getGroups(configs);
+		assertEquals(2, groups.size());
+		assertEquals(Arrays.asList(base, many1, many2), groups.get(0));
+		assertEquals(Arrays.asList(basic), groups.get(1));
+	}
+
+	@Test
+	public void testConfigsWithCyclicImportsAreGrouped() throws Exception {
+		IBeansConfig cyclicA = addConfig("importing-bean-config-cyclic-a.xml");
+		IBeansConfig cyclicB = addConfig("importing-bean-config-cyclic-b.xml");
+		IBeansConfig basic = addConfig("basic-bean-config.xml");
+		List<IBeansConfig> configs = Arrays.asList(cyclicA, cyclicB, basic);
+		loadAll(configs);
+
+		List<List<IBeansConfig>> groups = BeansConfigLoader.getGroups(configs);
+		assertEquals(2, groups.size());
+		assertEquals(2, groups.get(0).size());
+		assertEquals(new HashSet<IBeansConfig>(Arrays.asList(cyclicA, cyclicB)), new HashSet<IBeansConfig>(
+				groups.get(0)));
+		assertEquals(Arrays.asList(basic), groups.get(1));
+	}
+
+	@Test(timeout = 60000)
+	public void testReloadLoadsAllConfigs() throws Exception {
+		List<IBeansConfig> configs = new ArrayList<IBeansConfig>();
+		configs.add(addConfig("importing-bean-config-many1.xml"));
+		configs.add(addConfig("importing-bean-config-many2.xml"));
+		configs.add(addConfig("importing-bean-config-many-base.xml"));
+		configs.add(addConfig("importing-bean-config-cyclic-a.xml"));
+		configs.add(addConfig("importing-bean-config-cyclic-b.xml"));
+		configs.add(addConfig("basic-bean-config.xml"));
+		loadAll(configs);
+
+		BeansConfigLoader.reload(configs, new NullProgressMonitor());
+
+		for (IBeansConfig config : configs) {
+			assertTrue(config.getElementName(), ((ILazyInitializedModelElement) config).isInitialized());
+		}
+		assertNotNull(BeansModelUtils.getBean("baseBean", configs.get(2)));
+		assertNotNull(BeansModelUtils.getBean("cyclicBean-a", configs.get(3)));
+		assertNotNull(BeansModelUtils.getBean("cyclicBean-b", configs.get(4)));
+		assertNotNull(BeansModelUtils.getBean("simpleBean", configs.get(5)));
+	}
+
+	private IBeansConfig addConfig(String name) {
+		beansProject.addConfig(name, IBeansConfig.Type.MANUAL);
+		IBeansConfig config = beansProject.getConfig(name);
+		assertNotNull(config);
+		return config;
+	}
+
+	private void loadAll(List<IBeansConfig> configs) {
+		for (IBeansConfig config : configs) {
+			config.getBeans();
+		}
+	}
+
+}
@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2016, 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.model.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Collections;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansConfig;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansModel;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelSnapshot;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansProject;
+import org.springframework.ide.eclipse.beans.core.model.IBean;
+import org.springframework.ide.eclipse.beans.core.model.IBeanConstructorArgument;
+import org.springframework.ide.eclipse.beans.core.model.IBeanProperty;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
+import org.springframework.ide.eclipse.beans.core.model.IBeansModel;
+import org.springframework.ide.eclipse.beans.core.model.IBeansProject;
+import org.springframework.ide.eclipse.core.model.validation.ValidationProblem;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * @since 3.9.2
+ */
+public class BeansModelSnapshotTest {
+
+	private IProject project;
+	private IBeansModel model;
+	private IBeansProject beansProject;
+	private File snapshotFile;
+
+	@Before
+	public void createProject() throws Exception {
+		project = StsTestUtil.createPredefinedProject("beans-config-tests", "org.springframework.ide.eclipse.beans.core.tests");
+
+		model = new BeansModel();
+		beansProject = new BeansProject(model, project);
+		snapshotFile = File.createTempFile("beans-model", ".snapshot");
+	}
+
+	@After
+	public void deleteProject() throws Exception {
+		BeansCorePlugin.setModelSnapshot(null);
+		snapshotFile.delete();
+		project.delete(true, null);
+	}
+
+	@Test
+	public void testRestoreConfig() throws Exception {
+		BeansConfig config = new BeansConfig(beansProject, "snapshot-bean-config.xml", IBeansConfig.Type.MANUAL);
+		assertEquals(2, config.getBeans().size());
+		new BeansModelSnapshot().write(snapshotFile, Collections.<IBeansConfig> singleton(config));
+
+		BeansModelSnapshot snapshot = BeansModelSnapshot.read(snapshotFile);
+		assertEquals(1, snapshot.size());
+		BeansCorePlugin.setModelSnapshot(snapshot);
+
+		BeansConfig restored = new BeansConfig(beansProject, "snapshot-bean-config.xml", IBeansConfig.Type.MANUAL);
+		assertEquals(2, restored.getBeans().size());
+		assertEquals(0, snapshot.size());
+
+		for (IBean bean : config.getBeans()) {
+			IBean restoredBean = restored.getBean(bean.getElementName());
+			assertNotNull(restoredBean);
+			assertEquals(bean.getClassName(), restoredBean.getClassName());
+			assertEquals(bean.getElementStartLine(), restoredBean.getElementStartLine());
+			assertEquals(bean.getElementEndLine(), restoredBean.getElementEndLine());
+			assertEquals(bean.getProperties().size(), restoredBean.getProperties().size());
+			for (IBeanProperty property : bean.getProperties()) {
+				IBeanProperty restoredProperty = restoredBean.getProperty(property.getElementName());
+				assertNotNull(restoredProperty);
+				assertEquals(property.getValue(), restoredProperty.getValue());
+			}
+			assertEquals(bean.getConstructorArguments().size(), restoredBean.getConstructorArguments().size());
+			for (IBeanConstructorArgument argument : bean.getConstructorArguments()) {
+				boolean found = false;
+				for (IBeanConstructorArgument restoredArgument : restoredBean.getConstructorArguments()) {
+					found |= argument.getIndex() == restoredArgument.getIndex()
+							&& String.valueOf(argument.getValue()).equals(String.valueOf(restoredArgument.getValue()));
+				}
+				assertEquals(true, found);
+			}
+		}
+		assertEquals(1, restored.getAliases().size());
+		assertNotNull(restored.getAlias("aliasedBean"));
+	}
+
+	@Test
+	public void testStaleEntryIsIgnored() throws Exception {
+		BeansConfig config = new BeansConfig(beansProject, "snapshot-bean-config.xml", IBeansConfig.Type.MANUAL);
+		config.getBeans();
+		new BeansModelSnapshot().write(snapshotFile, Collections.<IBeansConfig> singleton(config));
+
+		IFile file = project.getFile("snapshot-bean-config.xml");
+		file.touch(null);
+
+		BeansModelSnapshot snapshot = BeansModelSnapshot.read(snapshotFile);
+		BeansCorePlugin.setModelSnapshot(snapshot);
+		BeansConfig reparsed = new BeansConfig(beansProject, "snapshot-bean-config.xml", IBeansConfig.Type.MANUAL);
+		assertEquals(2, reparsed.getBeans().size());
+		assertEquals(0, snapshot.size());
+	}
+
+	@Test
+	public void testChangedLibraryMakesEntryStale() throws Exception {
+		BeansConfig config = new BeansConfig(beansProject, "snapshot-bean-config.xml", IBeansConfig.Type.MANUAL);
+		config.getBeans();
+		new BeansModelSnapshot().write(snapshotFile, Collections.<IBeansConfig> singleton(config));
+
+		// a rebuilt jar doesn't touch the project's .classpath
+		File library = project.getFile("lib/org.springframework.web_3.1.4.RELEASE.jar").getLocation().toFile();
+		assertTrue(library.setLastModified(library.lastModified() + 10000));
+
+		BeansModelSnapshot snapshot = BeansModelSnapshot.read(snapshotFile);
+		assertEquals(1, snapshot.size());
+		BeansCorePlugin.setModelSnapshot(snapshot);
+		BeansConfig reparsed = new BeansConfig(beansProject, "snapshot-bean-config.xml", IBeansConfig.Type.MANUAL);
+		assertEquals(2, reparsed.getBeans().size());
+
+		// the parsed config is written again with the new stamp
+		snapshot.write(snapshotFile, Collections.<IBeansConfig> singleton(reparsed));
+		snapshot = BeansModelSnapshot.read(snapshotFile);
+		BeansCorePlugin.setModelSnapshot(snapshot);
+		BeansConfig restored = new BeansConfig(beansProject, "snapshot-bean-config.xml", IBeansConfig.Type.MANUAL);
+		assertEquals(2, restored.getBeans().size());
+		assertEquals(0, snapshot.size());
+	}
+
+	@Test
+	public void testRestoredConfigReportsParsingProblems() throws Exception {
+		BeansConfig config = new BeansConfig(beansProject, "snapshot-problem-bean-config.xml",
+				IBeansConfig.Type.MANUAL);
+		config.getBeans();
+		assertFalse(config.getProblems().isEmpty());
+		new BeansModelSnapshot().write(snapshotFile, Collections.<IBeansConfig> singleton(config));
+
+		BeansModelSnapshot snapshot = BeansModelSnapshot.read(snapshotFile);
+		assertEquals(1, snapshot.size());
+		BeansCorePlugin.setModelSnapshot(snapshot);
+
+		BeansConfig restored = new BeansConfig(beansProject, "snapshot-problem-bean-config.xml",
+				IBeansConfig.Type.MANUAL);
+		assertEquals(config.getBeans().size(), restored.getBeans().size());
+		assertEquals(0, snapshot.size());
+		assertEquals(config.getProblems().size(), restored.getProblems().size());
+		for (ValidationProblem problem : config.getProblems()) {
+			boolean found = false;
+			for (ValidationProblem restoredProblem : restored.getProblems()) {
+				found |= problem.getSeverity() == restoredProblem.getSeverity()
+						&& problem.getMessage().equals(restoredProblem.getMessage())
+						&& problem.getLine() == restoredProblem.getLine()
+						&& restored.getElementResource().equals(restoredProblem.getResource());
+			}
+			assertTrue(problem.getMessage(), found);
+		}
+	}
+
+	@Test
+	public void testConfigWithComponentsIsNotWritten() throws Exception {
+		BeansConfig config = new BeansConfig(beansProject, "advanced-bean-config.xml", IBeansConfig.Type.MANUAL);
+		config.getBeans();
+		new BeansModelSnapshot().write(snapshotFile, Collections.<IBeansConfig> singleton(config));
+
+		assertEquals(0, BeansModelSnapshot.read(snapshotFile).size());
+	}
+
+}
@@ -23,6 +23,7 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansConfig;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansModel;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelUtils;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansProject;
@@ -297,4 +298,19 @@ public class BeansModelUtilsTest {
 		assertTrue(realConfig2 == config1 || realConfig2 == config2);
 	}
 
+	@Test
+	public void testReloadedConfigInGetConfigsByType() throws Exception {
+		IType type = javaProject.findType("org.test.spring.SuperType");
+		IResource resource = type.getResource();
+		IBeansConfig config = beansProject.getConfig("basic-bean-config.xml");
+
+		assertEquals(1, BeansModelUtils.getConfigsByContainingTypes(resource, typeEngine, null).size());
+		((BeansConfig) config).reload();
+		
+		Set<IBeansConfig> beans = BeansModelUtils.getConfigsByContainingTypes(resource, typeEngine, null);
+		assertEquals(1, beans.size());
+		assertEquals(config, beans.iterator().next());
+		assertEquals(1, model.getConfigs("org.test.spring.SubType").size());
+	}
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2014 Spring IDE Developers
+ * Copyright (c) 2005, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,9 +16,11 @@ import org.junit.runners.Suite.SuiteClasses;
 import org.springframework.ide.core.classreading.tests.JdtAnnotationMetadataTest;
 import org.springframework.ide.core.classreading.tests.JdtBasedAnnotationMetadataTest;
 import org.springframework.ide.core.classreading.tests.JdtClassMetadataTest;
+import org.springframework.ide.eclipse.aop.core.internal.model.AopReferenceModelPersistenceTest;
 import org.springframework.ide.eclipse.beans.core.autowire.AutowireDependencyProviderTest;
 import org.springframework.ide.eclipse.beans.core.autowire.CommonAnnotationInjectionMetadataProviderTests;
 import org.springframework.ide.eclipse.beans.core.internal.model.resources.tests.ResourceChangeEventHandlerTest;
+import org.springframework.ide.eclipse.beans.core.internal.model.validation.IncrementalBeansConfigValidationTest;
 import org.springframework.ide.eclipse.beans.core.internal.model.validation.rules.BeanClassRuleTest;
 import org.springframework.ide.eclipse.beans.core.internal.model.validation.rules.BeanConstructorArgumentRuleTest;
 import org.springframework.ide.eclipse.beans.core.internal.model.validation.rules.BeanConstructorArgumentRulesAutowireTest;
@@ -30,17 +32,27 @@ import org.springframework.ide.eclipse.beans.core.internal.model.validation.rule
 import org.springframework.ide.eclipse.beans.core.internal.model.validation.rules.BeanReferenceRuleWithConfigSetTest;
 import org.springframework.ide.eclipse.beans.core.internal.model.validation.rules.NamespaceElementsRuleTest;
 import org.springframework.ide.eclipse.beans.core.internal.model.validation.rules.RequiredPropertyRuleTest;
+import org.springframework.ide.eclipse.beans.core.metadata.internal.model.BeanMetadataPersistenceTest;
 import org.springframework.ide.eclipse.beans.core.model.tests.BeansProjectAutoConfigTest;
 import org.springframework.ide.eclipse.beans.core.model.tests.BeansProjectDescriptionWriterTest;
 import org.springframework.ide.eclipse.beans.core.model.tests.BeansConfigFactoryTest;
+import org.springframework.ide.eclipse.beans.core.model.tests.BeansConfigLoadExecutorTest;
+import org.springframework.ide.eclipse.beans.core.model.tests.BeansConfigLoaderTest;
+import org.springframework.ide.eclipse.beans.core.model.tests.BeansModelSnapshotTest;
 import org.springframework.ide.eclipse.beans.core.model.tests.BeansConfigTest;
 import org.springframework.ide.eclipse.beans.core.model.tests.BeansJavaConfigTest;
 import org.springframework.ide.eclipse.beans.core.model.tests.BeansModelUtilsTest;
 import org.springframework.ide.eclipse.beans.core.model.tests.BeansProjectTest;
 import org.springframework.ide.eclipse.beans.ui.refactoring.tests.BeansJavaConfigRenameTypeRefactoringParticipantTest;
+import org.springframework.ide.eclipse.core.internal.model.validation.ValidationRuleProfilerTest;
 import org.springframework.ide.eclipse.core.java.IntrospectorTest;
 import org.springframework.ide.eclipse.core.java.JdtUtilsTest;
+import org.springframework.ide.eclipse.core.java.StereotypeIndexTest;
+import org.springframework.ide.eclipse.core.java.TypeHierarchyElementStoreTest;
 import org.springframework.ide.eclipse.core.java.TypeHierarchyEngineTest;
+import org.springframework.ide.eclipse.core.java.TypeNameTableTest;
+import org.springframework.ide.eclipse.core.model.validation.ValidationDependenciesTest;
+import org.springframework.ide.eclipse.core.model.validation.ValidationDependencyGraphTest;
 
 /**
  * Test suite for <code>beans.core</code> plugin.
@@ -74,13 +86,25 @@ import org.springframework.ide.eclipse.core.java.TypeHierarchyEngineTest;
 	BeansConfigTest.class,
 	BeansJavaConfigTest.class,
 	BeansConfigFactoryTest.class,
+	BeansConfigLoadExecutorTest.class,
+	BeansConfigLoaderTest.class,
+	BeansModelSnapshotTest.class,
 	BeansProjectTest.class,
 	BeansProjectAutoConfigTest.class,
 	BeansProjectDescriptionWriterTest.class,
 	BeansJavaConfigRenameTypeRefactoringParticipantTest.class,
 	ResourceChangeEventHandlerTest.class,
 	TypeHierarchyEngineTest.class,
-	BeansModelUtilsTest.class
+	TypeHierarchyElementStoreTest.class,
+	TypeNameTableTest.class,
+	ValidationRuleProfilerTest.class,
+	ValidationDependenciesTest.class,
+	ValidationDependencyGraphTest.class,
+	IncrementalBeansConfigValidationTest.class,
+	BeansModelUtilsTest.class,
+	AopReferenceModelPersistenceTest.class,
+	StereotypeIndexTest.class,
+	BeanMetadataPersistenceTest.class
 })
 public class AllBeansCoreTests {
 	// goofy junit4, no class body needed
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.internal.model.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.ide.eclipse.core.internal.model.validation.ValidationRuleProfiler.RuleStatistics;
+
+/**
+ * @since 3.9.2
+ */
+public class ValidationRuleProfilerTest {
+
+	@Test
+	public void testDisabledProfilerDoesNotMeasure() throws Exception {
+		ValidationRuleProfiler profiler = new ValidationRuleProfiler(false);
+		assertNull(profiler.start());
+		profiler.stop(null, "project", null);
+		assertTrue(profiler.getStatistics().isEmpty());
+	}
+
+	@Test
+	public void testStatisticsPerRuleValidatorAndProject() throws Exception {
+		ValidationRuleProfiler profiler = new ValidationRuleProfiler(true);
+		profiler.record("project", "beansvalidator", "beanClass", 7000000, 100);
+		profiler.record("project", "beansvalidator", "beanClass", 1000000, 50);
+		profiler.record("project", "beansvalidator", "beanProperty", 2000000, 10);
+		profiler.record("other", "beansvalidator", "beanClass", 5000000, 0);
+
+		List<RuleStatistics> statistics = profiler.getStatistics();
+		assertEquals(3, statistics.size());
+
+		RuleStatistics hottest = statistics.get(0);
+		assertEquals("project", hottest.getProjectName());
+		assertEquals("beanClass", hottest.getRuleId());
+		assertEquals(2, hottest.getInvocationCount());
+		assertEquals(8000000, hottest.getTotalTime());
+		assertEquals(7000000, hottest.getMaxTime());
+		assertEquals(150, hottest.getAllocatedBytes());
+
+		String[] hotRules = profiler.getHotRules(1);
+		assertEquals(1, hotRules.length);
+		assertTrue(hotRules[0], hotRules[0].startsWith("beanClass 80.0%"));
+
+		profiler.reset();
+		assertTrue(profiler.getStatistics().isEmpty());
+	}
+
+	@Test
+	public void testExport() throws Exception {
+		ValidationRuleProfiler profiler = new ValidationRuleProfiler(true);
+		profiler.record("my,project", "validator", "rule\"1", 3000000, 0);
+		profiler.record("my,project", "validator", "rule2", 1000000, 0);
+
+		String[] csv = profiler.exportCsv().split("\n");
+		assertEquals(3, csv.length);
+		assertEquals("project,validator,rule,invocations,totalMillis,maxMillis,allocatedBytes,share", csv[0]);
+		assertEquals("\"my,project\",validator,\"rule\"\"1\",1,3.000,3.000,0,75.00", csv[1]);
+
+		String json = profiler.exportJson();
+		assertTrue(json, json.contains("\"project\":\"my,project\",\"validator\":\"validator\",\"rule\":\"rule\\\"1\""));
+		assertTrue(json, json.contains("\"totalNanos\":1000000"));
+		assertTrue(json, json.contains("\"share\":25.00"));
+	}
+
+}
@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
+import org.eclipse.core.runtime.IPath;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * Tests the lookup of component-scan candidates through the {@link StereotypeIndex} and its lifecycle in the
+ * {@link TypeStructureCache}.
+ * @since 3.9.2
+ */
+public class StereotypeIndexTest {
+
+	private static final Set<String> STEREOTYPES = Collections.singleton("org.test.stereotype.Stereotype");
+
+	private IProject project;
+
+	private IPath outputLocation;
+
+	private ClassLoader classLoader;
+
+	@Before
+	public void createProject() throws Exception {
+		project = StsTestUtil.createPredefinedProject("stereotype-index-tests",
+				"org.springframework.ide.eclipse.beans.core.tests");
+		project.build(IncrementalProjectBuilder.FULL_BUILD, null);
+		outputLocation = project.getFolder("bin").getLocation();
+		classLoader = new URLClassLoader(new URL[] { outputLocation.toFile().toURI().toURL() }, null);
+	}
+
+	@After
+	public void deleteProject() throws Exception {
+		project.delete(true, null);
+	}
+
+	@Test
+	public void testDirectAndMetaAnnotatedTypesAreCandidates() throws Exception {
+		StereotypeIndex index = new StereotypeIndex(project);
+		index.record(getClassFiles("Stereotype", "MetaStereotype", "MetaMetaStereotype", "Marker",
+				"DirectComponent", "DirectComponent$InnerComponent", "MetaComponent", "MarkedClass", "PlainClass"));
+
+		assertTrue(index.covers(outputLocation));
+		assertEquals(getClassFileNames("DirectComponent", "DirectComponent$InnerComponent", "MetaComponent",
+				"MetaStereotype", "MetaMetaStereotype"), getCandidates(index, classLoader));
+	}
+
+	@Test
+	public void testMetaAnnotationsAreReadThroughClassLoader() throws Exception {
+		// neither the stereotype nor its meta-annotated types are recorded, so they need to be read from the classpath
+		StereotypeIndex index = new StereotypeIndex(project);
+		index.record(getClassFiles("MetaComponent", "MarkedClass", "PlainClass"));
+
+		assertEquals(getClassFileNames("MetaComponent"), getCandidates(index, classLoader));
+	}
+
+	@Test
+	public void testUnreadableAnnotationTypesAreCandidates() throws Exception {
+		StereotypeIndex index = new StereotypeIndex(project);
+		index.record(getClassFiles("MarkedClass", "PlainClass"));
+
+		assertEquals(getClassFileNames("MarkedClass"),
+				getCandidates(index, new URLClassLoader(new URL[0], null)));
+	}
+
+	@Test
+	public void testRemovedTypesAreNoCandidates() throws Exception {
+		StereotypeIndex index = new StereotypeIndex(project);
+		index.record(getClassFiles("Stereotype", "MetaStereotype", "MetaMetaStereotype", "DirectComponent",
+				"DirectComponent$InnerComponent", "MetaComponent"));
+
+		index.remove("org.test.stereotype.DirectComponent");
+		assertEquals(getClassFileNames("MetaComponent", "MetaStereotype", "MetaMetaStereotype"),
+				getCandidates(index, classLoader));
+
+		// recording a deleted class file removes it as well
+		IFile metaComponent = getClassFiles("MetaComponent")[0];
+		metaComponent.delete(true, null);
+		index.record(metaComponent);
+		assertEquals(getClassFileNames("MetaStereotype", "MetaMetaStereotype"), getCandidates(index, classLoader));
+	}
+
+	@Test
+	public void testClearedStateDropsStereotypeIndex() throws Exception {
+		TypeStructureCache cache = new TypeStructureCache();
+		cache.recordStereotypes(project, true, getClassFiles("DirectComponent"));
+		assertNotNull(cache.getStereotypeIndex(project));
+
+		cache.clearStateForProject(project);
+		assertNull(cache.getStereotypeIndex(project));
+	}
+
+	@Test
+	public void testFullTypeStructuresKeepStereotypeIndex() throws Exception {
+		TypeStructureCache cache = new TypeStructureCache();
+		cache.recordStereotypes(project, true, getClassFiles("DirectComponent"));
+		StereotypeIndex index = cache.getStereotypeIndex(project);
+
+		cache.recordTypeStructures(project, true, getClassFiles("DirectComponent"));
+		assertTrue(cache.hasRecordedTypeStructures(project));
+		assertSame(index, cache.getStereotypeIndex(project));
+	}
+
+	@Test
+	public void testClosedProjectDropsStereotypeIndex() throws Exception {
+		TypeStructureCache cache = new TypeStructureCache();
+		cache.startup();
+		try {
+			cache.recordTypeStructures(project, getClassFiles("DirectComponent"));
+			cache.recordStereotypes(project, true, getClassFiles("DirectComponent"));
+			assertNotNull(cache.getStereotypeIndex(project));
+
+			project.close(null);
+			assertNull(cache.getStereotypeIndex(project));
+			assertFalse(cache.hasRecordedTypeStructures(project));
+		}
+		finally {
+			cache.shutdown();
+		}
+	}
+
+	private IFile[] getClassFiles(String... names) {
+		IFile[] files = new IFile[names.length];
+		for (int i = 0; i < names.length; i++) {
+			files[i] = project.getFile("bin/org/test/stereotype/" + names[i] + ".class");
+			assertTrue(files[i].getName(), files[i].exists());
+		}
+		return files;
+	}
+
+	private Set<String> getClassFileNames(String... names) {
+		Set<String> fileNames = new HashSet<String>();
+		for (String name : names) {
+			fileNames.add(name + ".class");
+		}
+		return fileNames;
+	}
+
+	private Set<String> getCandidates(StereotypeIndex index, ClassLoader classLoader) {
+		List<IFile> candidates = index.getCandidates(outputLocation, STEREOTYPES, classLoader);
+		Set<String> fileNames = new HashSet<String>();
+		for (IResource candidate : candidates) {
+			fileNames.add(candidate.getName());
+		}
+		assertEquals(candidates.size(), fileNames.size());
+		return fileNames;
+	}
+
+}
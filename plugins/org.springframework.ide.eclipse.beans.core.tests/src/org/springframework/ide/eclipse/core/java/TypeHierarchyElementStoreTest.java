@@ -0,0 +1,350 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.eclipse.core.resources.IProject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.core.java.typehierarchy.IndexedTypeHierarchyClassReader;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyClassReader;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyElement;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyElementStore;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyJarIndex;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeNameTable;
+
+/**
+ * @since 3.9.2
+ */
+public class TypeHierarchyElementStoreTest {
+
+	private File directory;
+	private File jar;
+	private TypeNameTable typeNames;
+
+	@Before
+	public void createJar() throws Exception {
+		directory = File.createTempFile("typehierarchy", "");
+		directory.delete();
+		directory.mkdirs();
+
+		jar = new File(directory, "sample.jar");
+		writeJar(jar, SampleClass.class, SampleInterface.class);
+		typeNames = new TypeNameTable();
+	}
+
+	@After
+	public void deleteFiles() throws Exception {
+		delete(directory);
+	}
+
+	@Test
+	public void testIndexContainsClassesOfJar() throws Exception {
+		CountingStore store = new CountingStore(new File(directory, "store"));
+		TypeHierarchyJarIndex index = store.getIndex(jar);
+		assertNotNull(index);
+		assertEquals(2, index.getClassCount());
+
+		TypeHierarchyElement element = index.getTypeHierarchyElement(internalName(SampleClass.class).toCharArray(), typeNames);
+		assertNotNull(element);
+		assertEquals(internalName(SampleClass.class), new String(element.getClassName()));
+		assertEquals("java/lang/Object", new String(element.getSuperclassName()));
+		assertEquals(2, element.interfaceIds.length);
+		assertEquals(internalName(SampleInterface.class), new String(element.getInterfaces()[0]));
+		assertEquals("java/io/Serializable", new String(element.getInterfaces()[1]));
+
+		TypeHierarchyElement interfaceElement = index.getTypeHierarchyElement(internalName(SampleInterface.class).toCharArray(), typeNames);
+		assertNotNull(interfaceElement);
+		assertNull(interfaceElement.interfaceIds);
+
+		assertNull(index.getTypeHierarchyElement("java/lang/Object".toCharArray(), typeNames));
+		assertFalse(index.contains("org/Unknown".toCharArray()));
+	}
+
+	@Test
+	public void testElementsAreSharedWhileIndexIsUsed() throws Exception {
+		CountingStore store = new CountingStore(new File(directory, "store"));
+		char[] className = internalName(SampleClass.class).toCharArray();
+
+		TypeHierarchyJarIndex index = store.getIndex(jar);
+		index.acquire(typeNames);
+		TypeHierarchyJarIndex otherIndex = store.getIndex(jar);
+		otherIndex.acquire(typeNames);
+		assertSame(index, otherIndex);
+		assertEquals(2, index.getReferenceCount());
+
+		TypeHierarchyElement element = index.getTypeHierarchyElement(className, typeNames);
+		assertTrue(element.shared);
+		assertNull(element.interfacesElements);
+		assertSame(element, otherIndex.getTypeHierarchyElement(className, typeNames));
+
+		index.release(typeNames);
+		assertSame(element, otherIndex.getTypeHierarchyElement(className, typeNames));
+
+		otherIndex.release(typeNames);
+		assertEquals(0, index.getReferenceCount());
+		assertNotSame(element, index.getTypeHierarchyElement(className, typeNames));
+	}
+
+	@Test
+	public void testElementsAreSharedPerTypeNameTable() throws Exception {
+		CountingStore store = new CountingStore(new File(directory, "store"));
+		char[] className = internalName(SampleClass.class).toCharArray();
+		TypeNameTable otherTypeNames = new TypeNameTable();
+
+		TypeHierarchyJarIndex index = store.getIndex(jar);
+		index.acquire(typeNames);
+		index.acquire(otherTypeNames);
+		assertEquals(2, index.getReferenceCount());
+
+		TypeHierarchyElement element = index.getTypeHierarchyElement(className, typeNames);
+		TypeHierarchyElement otherElement = index.getTypeHierarchyElement(className, otherTypeNames);
+		assertNotSame(element, otherElement);
+		assertSame(typeNames, element.typeNames);
+		assertSame(otherTypeNames, otherElement.typeNames);
+
+		// releasing one table only drops the elements decoded for it
+		index.release(otherTypeNames);
+		assertSame(element, index.getTypeHierarchyElement(className, typeNames));
+		assertNotSame(otherElement, index.getTypeHierarchyElement(className, otherTypeNames));
+		try {
+			index.release(otherTypeNames);
+			fail("Release without a matching acquire must be rejected");
+		}
+		catch (IllegalStateException e) {
+			// expected
+		}
+
+		index.release(typeNames);
+		assertEquals(0, index.getReferenceCount());
+	}
+
+	@Test
+	public void testUnbalancedReleaseIsRejected() throws Exception {
+		CountingStore store = new CountingStore(new File(directory, "store"));
+		TypeHierarchyJarIndex index = store.getIndex(jar);
+		index.acquire(typeNames);
+		index.release(typeNames);
+		try {
+			index.release(typeNames);
+			fail("Release without a matching acquire must be rejected");
+		}
+		catch (IllegalStateException e) {
+			// expected
+		}
+		assertEquals(0, index.getReferenceCount());
+	}
+
+	@Test
+	public void testReleasedIndexIsEvicted() throws Exception {
+		CountingStore store = new CountingStore(new File(directory, "store"));
+		TypeHierarchyJarIndex index = store.acquireIndex(jar, typeNames);
+		assertSame(index, store.acquireIndex(jar, typeNames));
+
+		store.releaseIndex(index, typeNames);
+		assertSame(index, store.getIndex(jar));
+
+		store.releaseIndex(index, typeNames);
+		assertEquals(0, index.getReferenceCount());
+		TypeHierarchyJarIndex reloadedIndex = store.getIndex(jar);
+		assertNotSame(index, reloadedIndex);
+		assertEquals(1, store.created);
+	}
+
+	@Test
+	public void testCleanupDeletesIndexesOfRemovedJars() throws Exception {
+		File storeDirectory = new File(directory, "store");
+		File otherJar = new File(directory, "other.jar");
+		writeJar(otherJar, SampleInterface.class);
+
+		CountingStore store = new CountingStore(storeDirectory);
+		store.getIndex(jar);
+		store.getIndex(otherJar);
+		assertEquals(2, storeDirectory.listFiles().length);
+
+		otherJar.delete();
+		store.cleanup();
+		assertEquals(1, storeDirectory.listFiles().length);
+
+		CountingStore restartedStore = new CountingStore(storeDirectory);
+		assertEquals(2, restartedStore.getIndex(jar).getClassCount());
+		assertEquals(0, restartedStore.created);
+	}
+
+	@Test
+	public void testIndexIsReusedAcrossStoreInstances() throws Exception {
+		File storeDirectory = new File(directory, "store");
+
+		CountingStore store = new CountingStore(storeDirectory);
+		assertNotNull(store.getIndex(jar));
+		assertNotNull(store.getIndex(jar));
+		assertEquals(1, store.created);
+
+		CountingStore restartedStore = new CountingStore(storeDirectory);
+		TypeHierarchyJarIndex index = restartedStore.getIndex(jar);
+		assertNotNull(index);
+		assertEquals(0, restartedStore.created);
+		assertTrue(index.contains(internalName(SampleClass.class).toCharArray()));
+	}
+
+	@Test
+	public void testIndexIsRecreatedForChangedJar() throws Exception {
+		File storeDirectory = new File(directory, "store");
+
+		CountingStore store = new CountingStore(storeDirectory);
+		assertTrue(store.getIndex(jar).contains(internalName(SampleInterface.class).toCharArray()));
+
+		writeJar(jar, SampleClass.class);
+		jar.setLastModified(jar.lastModified() + 2000);
+
+		TypeHierarchyJarIndex index = store.getIndex(jar);
+		assertEquals(2, store.created);
+		assertEquals(1, index.getClassCount());
+		assertFalse(index.contains(internalName(SampleInterface.class).toCharArray()));
+
+		CountingStore restartedStore = new CountingStore(storeDirectory);
+		assertEquals(1, restartedStore.getIndex(jar).getClassCount());
+		assertEquals(0, restartedStore.created);
+	}
+
+	@Test
+	public void testTruncatedIndexFileIsRecreated() throws Exception {
+		File storeDirectory = new File(directory, "store");
+
+		CountingStore store = new CountingStore(storeDirectory);
+		store.getIndex(jar);
+
+		File indexFile = storeDirectory.listFiles()[0];
+		RandomAccessFile file = new RandomAccessFile(indexFile, "rw");
+		file.setLength(20);
+		file.close();
+
+		CountingStore restartedStore = new CountingStore(storeDirectory);
+		assertEquals(2, restartedStore.getIndex(jar).getClassCount());
+		assertEquals(1, restartedStore.created);
+	}
+
+	@Test
+	public void testZipArchivesOnClasspathAreIndexed() throws Exception {
+		File zip = new File(directory, "sample.zip");
+		writeJar(zip, SampleClass.class, SampleInterface.class);
+
+		CountingStore store = new CountingStore(new File(directory, "store"));
+		FailingReader fallbackReader = new FailingReader();
+		IndexedTypeHierarchyClassReader reader = new IndexedTypeHierarchyClassReader(store,
+				Collections.singletonList(zip.toURI().toURL()), fallbackReader, typeNames);
+		try {
+			TypeHierarchyElement element = reader.readTypeHierarchyInformation(
+					internalName(SampleClass.class).toCharArray(), null);
+			assertNotNull(element);
+			assertEquals(internalName(SampleInterface.class), new String(element.getInterfaces()[0]));
+			assertEquals(1, store.created);
+			assertEquals(0, fallbackReader.reads);
+		}
+		finally {
+			reader.dispose();
+		}
+	}
+
+	private static void delete(File file) {
+		if (file.isDirectory()) {
+			for (File child : file.listFiles()) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+	private static String internalName(Class<?> clazz) {
+		return clazz.getName().replace('.', '/');
+	}
+
+	private static void writeJar(File jar, Class<?>... classes) throws Exception {
+		JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+		try {
+			for (Class<?> clazz : classes) {
+				String name = internalName(clazz) + ".class";
+				out.putNextEntry(new JarEntry(name));
+				InputStream in = clazz.getClassLoader().getResourceAsStream(name);
+				try {
+					byte[] buffer = new byte[4096];
+					int read;
+					while ((read = in.read(buffer)) != -1) {
+						out.write(buffer, 0, read);
+					}
+				}
+				finally {
+					in.close();
+				}
+				out.closeEntry();
+			}
+		}
+		finally {
+			out.close();
+		}
+	}
+
+	private static class CountingStore extends TypeHierarchyElementStore {
+
+		private int created;
+
+		public CountingStore(File directory) {
+			super(directory);
+		}
+
+		@Override
+		protected TypeHierarchyJarIndex createIndex(File jar, File indexFile, long fileSize, long lastModified) {
+			created++;
+			return super.createIndex(jar, indexFile, fileSize, lastModified);
+		}
+
+	}
+
+	private static class FailingReader implements TypeHierarchyClassReader {
+
+		private int reads;
+
+		public TypeHierarchyElement readTypeHierarchyInformation(char[] fullyQualifiedClassName, IProject project) {
+			reads++;
+			return null;
+		}
+
+		public void cleanup() {
+		}
+
+	}
+
+	public static interface SampleInterface {
+	}
+
+	public static class SampleClass implements SampleInterface, Serializable {
+		private static final long serialVersionUID = 1L;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2014 Spring IDE Developers
+ * Copyright (c) 2013, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,7 @@ package org.springframework.ide.eclipse.core.java;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
@@ -37,6 +38,7 @@ import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyElem
 import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyElementCache;
 import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyElementCacheFactory;
 import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyEngine;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeNameTable;
 import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
 
 /**
@@ -237,6 +239,35 @@ public class TypeHierarchyEngineTest {
 		assertEquals("java.lang.Object", engine.getSupertype(type));
 	}
 	
+	@Test
+	public void testQueriesDontInternUnknownNames() throws Exception {
+		IType type = javaProject.findType("org.SimpleClass");
+		assertTrue(engine.doesExtend(type, "java.lang.Object"));
+		assertFalse(engine.doesImplement(type, "java.io.Serializable"));
+		int size = engine.getTypeNameTable().size();
+
+		assertFalse(engine.doesExtend(type, "org.DoesNotExist"));
+		assertFalse(engine.doesImplement(type, "org.DoesNotExist"));
+		assertFalse(engine.doesExtend("org.DoesNotExist", "java.lang.Object", project));
+		assertFalse(engine.doesImplement("org.DoesNotExist", "java.io.Serializable", project));
+		assertNull(engine.getSupertype(project, "org.DoesNotExist"));
+		assertNull(engine.getInterfaces(project, "org.DoesNotExist"));
+		assertEquals(size, engine.getTypeNameTable().size());
+		assertEquals(TypeNameTable.NO_TYPE, engine.getTypeNameTable().lookup("org/DoesNotExist".toCharArray()));
+	}
+	
+	@Test
+	public void testEnginesDontShareNames() throws Exception {
+		assertTrue(engine.doesExtend("org.Subclass", "org.SimpleClass", project));
+		
+		TypeHierarchyEngine otherEngine = new TypeHierarchyEngine(true);
+		otherEngine.setClassReaderFactory(classReaderFactory);
+		otherEngine.setTypeHierarchyElementCacheFactory(elementCacheFactory);
+		assertEquals(TypeNameTable.NO_TYPE, otherEngine.getTypeNameTable().lookup("org/SimpleClass".toCharArray()));
+		assertTrue(otherEngine.doesExtend("org.Subclass", "org.SimpleClass", project));
+		otherEngine.clearCache();
+	}
+	
 	@Test
 	public void testUseCachedElementsFirst() throws Exception {
 		AccessLoggingClassReaderFactory readerFactory = new AccessLoggingClassReaderFactory(classReaderFactory);
@@ -263,7 +294,7 @@ public class TypeHierarchyEngineTest {
 	
 	@Test
 	public void testDontAccessCacheTwiceForClassHierarchy() throws Exception {
-		AccessLoggingTypeHierarchyElementCacheFactory cacheFactory = new AccessLoggingTypeHierarchyElementCacheFactory();
+		AccessLoggingTypeHierarchyElementCacheFactory cacheFactory = new AccessLoggingTypeHierarchyElementCacheFactory(engine.getTypeNameTable());
 		engine.setTypeHierarchyElementCacheFactory(cacheFactory);
 		
 		IType type = javaProject.findType("org.sub.ClassABCD");
@@ -272,12 +303,12 @@ public class TypeHierarchyEngineTest {
 		AccessLoggingTypeHierarchyElementCache[] caches = cacheFactory.getCaches();
 		assertEquals(1, caches.length);
 		
-		assertEquals(1, caches[0].classAccessed("org/sub/ClassABCD"));
+		assertEquals(0, caches[0].classAccessed("org/sub/ClassABCD")); // name not known yet, so it can't be cached
 		assertEquals(1, caches[0].classAccessed("org/sub/ClassB"));
 		assertEquals(0, caches[0].classAccessed("org/ClassA"));
 		
 		assertTrue(engine.doesExtend(type, "java.lang.Object"));
-		assertEquals(2, caches[0].classAccessed("org/sub/ClassABCD")); // first class is always accessed
+		assertEquals(1, caches[0].classAccessed("org/sub/ClassABCD")); // first class is always accessed once known
 		assertEquals(1, caches[0].classAccessed("org/sub/ClassB")); // this is not being accessed again
 		assertEquals(1, caches[0].classAccessed("org/ClassA")); // this one is accessed for the first time
 	}
@@ -292,8 +323,8 @@ public class TypeHierarchyEngineTest {
 			this.readerFactory = readerFactory;
 		}
 
-		public TypeHierarchyClassReader createClassReader(IProject project) {
-			TypeHierarchyClassReader reader = readerFactory.createClassReader(project);
+		public TypeHierarchyClassReader createClassReader(IProject project, TypeNameTable typeNames) {
+			TypeHierarchyClassReader reader = readerFactory.createClassReader(project, typeNames);
 			AccessLoggingClassReader accessLoggingClassReader = new AccessLoggingClassReader(reader);
 			this.readers.put(project, accessLoggingClassReader);
 			return accessLoggingClassReader;
@@ -333,13 +364,15 @@ public class TypeHierarchyEngineTest {
 	private static class AccessLoggingTypeHierarchyElementCacheFactory implements TypeHierarchyElementCacheFactory {
 		
 		private List<AccessLoggingTypeHierarchyElementCache> caches;
+		private TypeNameTable typeNames;
 
-		public AccessLoggingTypeHierarchyElementCacheFactory() {
+		public AccessLoggingTypeHierarchyElementCacheFactory(TypeNameTable typeNames) {
 			this.caches = new ArrayList<AccessLoggingTypeHierarchyElementCache>();
+			this.typeNames = typeNames;
 		}
 
 		public TypeHierarchyElementCache createTypeHierarchyElementCache() {
-			AccessLoggingTypeHierarchyElementCache cache = new AccessLoggingTypeHierarchyElementCache();
+			AccessLoggingTypeHierarchyElementCache cache = new AccessLoggingTypeHierarchyElementCache(typeNames);
 			caches.add(cache);
 			return cache;
 		}
@@ -353,11 +386,16 @@ public class TypeHierarchyEngineTest {
 	private static class AccessLoggingTypeHierarchyElementCache extends TypeHierarchyElementCache {
 		
 		private List<String> accessLog = new ArrayList<String>();
+		private TypeNameTable typeNames;
+
+		public AccessLoggingTypeHierarchyElementCache(TypeNameTable typeNames) {
+			this.typeNames = typeNames;
+		}
 
 		@Override
-		public TypeHierarchyElement get(char[] fullyQualifiedClassName) {
-			accessLog.add(new String(fullyQualifiedClassName));
-			return super.get(fullyQualifiedClassName);
+		public TypeHierarchyElement get(int typeNameId) {
+			accessLog.add(new String(typeNames.getName(typeNameId)));
+			return super.get(typeNameId);
 		}
 		
 		public int classAccessed(String className) {
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyElement;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeNameTable;
+
+/**
+ * @since 3.9.2
+ */
+public class TypeNameTableTest {
+
+	@Test
+	public void testInternReturnsSameId() throws Exception {
+		TypeNameTable typeNames = new TypeNameTable();
+		char[] name = "org/test/TypeNameTableTest/Simple".toCharArray();
+		int id = typeNames.intern(name);
+		assertEquals(id, typeNames.intern(name.clone()));
+		assertEquals(id, typeNames.lookup(name));
+		assertArrayEquals(name, typeNames.getName(id));
+		assertNotSame(name, typeNames.getName(id));
+	}
+
+	@Test
+	public void testUnknownName() throws Exception {
+		TypeNameTable typeNames = new TypeNameTable();
+		assertEquals(TypeNameTable.NO_TYPE, typeNames.lookup("org/test/TypeNameTableTest/Unknown".toCharArray()));
+		assertNull(typeNames.getName(TypeNameTable.NO_TYPE));
+		assertEquals(0, typeNames.size());
+	}
+
+	@Test
+	public void testTablesAreIndependent() throws Exception {
+		TypeNameTable typeNames = new TypeNameTable();
+		TypeNameTable otherTypeNames = new TypeNameTable();
+		typeNames.intern("org/test/TypeNameTableTest/First".toCharArray());
+		int id = typeNames.intern("org/test/TypeNameTableTest/Second".toCharArray());
+
+		assertEquals(TypeNameTable.NO_TYPE, otherTypeNames.lookup("org/test/TypeNameTableTest/Second".toCharArray()));
+		assertEquals(0, otherTypeNames.intern("org/test/TypeNameTableTest/Second".toCharArray()));
+		assertEquals(1, id);
+	}
+
+	@Test
+	public void testElementsShareNames() throws Exception {
+		TypeNameTable typeNames = new TypeNameTable();
+		TypeHierarchyElement first = new TypeHierarchyElement(typeNames, "org/test/First".toCharArray(),
+				"java/lang/Object".toCharArray(), new char[][] { "java/io/Serializable".toCharArray() });
+		TypeHierarchyElement second = new TypeHierarchyElement(typeNames, "org/test/Second".toCharArray(),
+				"java/lang/Object".toCharArray(), null);
+
+		assertEquals(first.superclassNameId, second.superclassNameId);
+		assertSame(first.getSuperclassName(), second.getSuperclassName());
+		assertEquals(typeNames.lookup("java/io/Serializable".toCharArray()), first.interfaceIds[0]);
+		assertNull(second.interfaceIds);
+		assertNull(second.getInterfaces());
+	}
+
+	@Test
+	public void testConcurrentIntern() throws Exception {
+		final TypeNameTable typeNames = new TypeNameTable();
+		final int names = 20000;
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<int[]>> results = new ArrayList<Future<int[]>>();
+			for (int t = 0; t < 4; t++) {
+				results.add(executor.submit(new Callable<int[]>() {
+					public int[] call() throws Exception {
+						int[] ids = new int[names];
+						for (int i = 0; i < names; i++) {
+							ids[i] = typeNames.intern(("org/test/concurrent/Type" + i).toCharArray());
+						}
+						return ids;
+					}
+				}));
+			}
+
+			int[] expected = results.get(0).get();
+			for (Future<int[]> result : results) {
+				assertArrayEquals(expected, result.get());
+			}
+			for (int i = 0; i < names; i++) {
+				assertEquals("org/test/concurrent/Type" + i, new String(typeNames.getName(expected[i])));
+			}
+			assertEquals(names, typeNames.size());
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+}
@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.model.validation;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+import org.junit.Test;
+import org.springframework.ide.eclipse.core.java.TypeLookupListeners;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyEngine;
+
+/**
+ * @since 3.9.2
+ */
+public class ValidationDependenciesTest {
+
+	private final TypeHierarchyEngine typeHierarchyEngine = new TypeHierarchyEngine(false);
+
+	@Test
+	public void testTypeLookupsAreRecordedWhileRecording() throws Exception {
+		TypeLookupListeners.fireTypeLookedUp(null, "a.Before");
+
+		ValidationDependencies.Recording outer = ValidationDependencies.startRecording(typeHierarchyEngine);
+		TypeLookupListeners.fireTypeLookedUp(null, "a.A");
+		ValidationDependencies.Recording inner = ValidationDependencies.startRecording(typeHierarchyEngine);
+		TypeLookupListeners.fireTypeLookedUp(null, "a.B");
+		ValidationDependencies.stopRecording(inner);
+		TypeLookupListeners.fireTypeLookedUp(null, "a.C");
+		ValidationDependencies.stopRecording(outer);
+
+		TypeLookupListeners.fireTypeLookedUp(null, "a.After");
+
+		assertEquals(new LinkedHashSet<String>(Arrays.asList("a.A", "a.C")), outer.getTypes());
+		assertEquals(new LinkedHashSet<String>(Arrays.asList("a.B")), inner.getTypes());
+	}
+
+}
@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.model.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.Path;
+import org.junit.Test;
+
+/**
+ * @since 3.9.2
+ */
+public class ValidationDependencyGraphTest {
+
+	private final IResource config1 = ResourcesPlugin.getWorkspace().getRoot().getFile(new Path("/p1/config1.xml"));
+
+	private final IResource config2 = ResourcesPlugin.getWorkspace().getRoot().getFile(new Path("/p2/config2.xml"));
+
+	private final String bean1ClassRule = ValidationDependencyGraph.getInvocationKey("bean1", "beanClass");
+
+	private final String bean1PropertyRule = ValidationDependencyGraph.getInvocationKey("bean1", "beanProperty");
+
+	private final String bean2ClassRule = ValidationDependencyGraph.getInvocationKey("bean2", "beanClass");
+
+	@Test
+	public void testInvocationsByType() throws Exception {
+		ValidationDependencyGraph graph = new ValidationDependencyGraph();
+		Map<String, Set<String>> recorded = new HashMap<String, Set<String>>();
+		recorded.put(bean1ClassRule, set("a.A", "a.Base"));
+		recorded.put(bean1PropertyRule, set("a.A"));
+		graph.update(config1, null, recorded);
+
+		recorded = new HashMap<String, Set<String>>();
+		recorded.put(bean2ClassRule, set("a.Base"));
+		graph.update(config2, null, recorded);
+
+		assertTrue(graph.isTracked(config1));
+		Map<IResource, Set<String>> invocations = graph.getInvocations(Arrays.asList("a.A"), null);
+		assertEquals(1, invocations.size());
+		assertEquals(set(bean1ClassRule, bean1PropertyRule), invocations.get(config1));
+
+		invocations = graph.getInvocations(Arrays.asList("a.Base"), null);
+		assertEquals(2, invocations.size());
+		assertEquals(set(bean1ClassRule), invocations.get(config1));
+		assertEquals(set(bean2ClassRule), invocations.get(config2));
+
+		invocations = graph.getInvocations(Arrays.asList("a.Base"), config2.getProject());
+		assertEquals(Collections.singleton(config2), invocations.keySet());
+
+		assertTrue(graph.getInvocations(Arrays.asList("b.Unknown"), null).isEmpty());
+	}
+
+	@Test
+	public void testPartialUpdateKeepsOtherInvocations() throws Exception {
+		ValidationDependencyGraph graph = new ValidationDependencyGraph();
+		Map<String, Set<String>> recorded = new HashMap<String, Set<String>>();
+		recorded.put(bean1ClassRule, set("a.A"));
+		recorded.put(bean1PropertyRule, set("a.A", "a.B"));
+		graph.update(config1, null, recorded);
+
+		// rerunning the property rule no longer reads a.A
+		recorded = new HashMap<String, Set<String>>();
+		recorded.put(bean1PropertyRule, set("a.B"));
+		graph.update(config1, set(bean1PropertyRule), recorded);
+
+		assertEquals(set(bean1ClassRule), graph.getInvocations(Arrays.asList("a.A"), null).get(config1));
+		assertEquals(set(bean1PropertyRule), graph.getInvocations(Arrays.asList("a.B"), null).get(config1));
+	}
+
+	@Test
+	public void testOnlyCompleteValidationsAreTracked() throws Exception {
+		ValidationDependencyGraph graph = new ValidationDependencyGraph();
+		Map<String, Set<String>> recorded = new HashMap<String, Set<String>>();
+		recorded.put(bean1ClassRule, set("a.A"));
+		graph.update(config1, set(bean1ClassRule), recorded);
+		assertFalse(graph.isTracked(config1));
+		assertTrue(graph.getInvocations(Arrays.asList("a.A"), null).isEmpty());
+
+		graph.update(config1, null, recorded);
+		assertTrue(graph.isTracked(config1));
+
+		graph.remove(config1);
+		assertFalse(graph.isTracked(config1));
+		assertTrue(graph.getInvocations(Arrays.asList("a.A"), null).isEmpty());
+	}
+
+	@Test
+	public void testValidatedElements() throws Exception {
+		ValidationDependencyGraph graph = new ValidationDependencyGraph();
+		assertTrue(graph.getValidatedElements(config1).isEmpty());
+
+		// invocations that didn't read any type still mark their element as validated
+		Map<String, Set<String>> recorded = new HashMap<String, Set<String>>();
+		recorded.put(bean1ClassRule, set("a.A"));
+		recorded.put(bean2ClassRule, Collections.<String> emptySet());
+		graph.update(config1, null, recorded);
+
+		assertEquals(set("bean1", "bean2"), graph.getValidatedElements(config1));
+		assertFalse(graph.getInvocations(Arrays.asList("a.A"), null).get(config1).contains(bean2ClassRule));
+
+		// a partial update that reruns the invocations of a new element adds it
+		String bean3ClassRule = ValidationDependencyGraph.getInvocationKey("bean3", "beanClass");
+		recorded = new HashMap<String, Set<String>>();
+		recorded.put(bean3ClassRule, Collections.<String> emptySet());
+		graph.update(config1, set(bean3ClassRule), recorded);
+		assertEquals(set("bean1", "bean2", "bean3"), graph.getValidatedElements(config1));
+
+		graph.remove(config1);
+		assertTrue(graph.getValidatedElements(config1).isEmpty());
+	}
+
+	@Test
+	public void testChangedSupertypesAffectInvocationsOfSubtypes() throws Exception {
+		ValidationDependencyGraph graph = new ValidationDependencyGraph();
+		Map<String, Set<String>> recorded = new HashMap<String, Set<String>>();
+		recorded.put(bean1ClassRule, set("a.A"));
+		recorded.put(bean2ClassRule, set("a.Other"));
+		Map<String, Set<String>> supertypes = new HashMap<String, Set<String>>();
+		supertypes.put("a.A", set("a.Base", "a.Marker"));
+		supertypes.put("a.Base", set("a.Root"));
+		graph.update(config1, null, recorded, supertypes);
+
+		assertEquals(set(bean1ClassRule), graph.getInvocations(Arrays.asList("a.Root"), null).get(config1));
+		assertEquals(set(bean1ClassRule), graph.getInvocations(Arrays.asList("a.Marker"), null).get(config1));
+		assertTrue(graph.getInvocations(Arrays.asList("a.Base"), config2.getProject()).isEmpty());
+
+		// a.A no longer extends a.Base
+		recorded = new HashMap<String, Set<String>>();
+		recorded.put(bean1ClassRule, set("a.A"));
+		supertypes = new HashMap<String, Set<String>>();
+		supertypes.put("a.A", set("a.Marker"));
+		graph.update(config1, set(bean1ClassRule), recorded, supertypes);
+
+		assertTrue(graph.getInvocations(Arrays.asList("a.Root"), null).isEmpty());
+		assertEquals(set(bean1ClassRule), graph.getInvocations(Arrays.asList("a.Marker"), null).get(config1));
+	}
+
+	@Test
+	public void testRemoveProject() throws Exception {
+		ValidationDependencyGraph graph = new ValidationDependencyGraph();
+		Map<String, Set<String>> recorded = new HashMap<String, Set<String>>();
+		recorded.put(bean1ClassRule, set("a.A"));
+		graph.update(config1, null, recorded);
+		recorded = new HashMap<String, Set<String>>();
+		recorded.put(bean2ClassRule, set("a.A"));
+		graph.update(config2, null, recorded);
+
+		graph.remove(config1.getProject());
+		assertFalse(graph.isTracked(config1));
+		assertTrue(graph.isTracked(config2));
+		assertEquals(Collections.singleton(config2), graph.getInvocations(Arrays.asList("a.A"), null).keySet());
+	}
+
+	private static Set<String> set(String... names) {
+		return new HashSet<String>(Arrays.asList(names));
+	}
+
+}
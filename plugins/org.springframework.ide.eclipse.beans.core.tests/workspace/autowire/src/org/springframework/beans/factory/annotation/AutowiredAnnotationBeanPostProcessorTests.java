@@ -592,4 +592,34 @@ public final class AutowiredAnnotationBeanPostProcessorTests {
 
 	}
 
+	public static class StringArrayFactoryBean implements FactoryBean<String[]> {
+
+		public String[] getObject() throws Exception {
+			return new String[0];
+		}
+
+		public Class<String[]> getObjectType() {
+			return String[].class;
+		}
+
+		public boolean isSingleton() {
+			return true;
+		}
+	}
+
+	public static class IntArrayFactoryBean implements FactoryBean<int[]> {
+
+		public int[] getObject() throws Exception {
+			return new int[0];
+		}
+
+		public Class<int[]> getObjectType() {
+			return int[].class;
+		}
+
+		public boolean isSingleton() {
+			return true;
+		}
+	}
+
 }
@@ -0,0 +1,9 @@
+package org.test.stereotype;
+
+@Stereotype
+public class DirectComponent {
+
+	@Stereotype
+	public static class InnerComponent {
+	}
+}
@@ -0,0 +1,5 @@
+package org.test.stereotype;
+
+@Marker
+public class MarkedClass {
+}
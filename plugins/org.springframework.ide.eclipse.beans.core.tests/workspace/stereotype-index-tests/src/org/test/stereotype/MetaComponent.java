@@ -0,0 +1,5 @@
+package org.test.stereotype;
+
+@MetaMetaStereotype
+public class MetaComponent {
+}
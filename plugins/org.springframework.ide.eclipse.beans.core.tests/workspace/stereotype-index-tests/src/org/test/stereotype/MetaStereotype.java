@@ -0,0 +1,9 @@
+package org.test.stereotype;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+@Stereotype
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MetaStereotype {
+}
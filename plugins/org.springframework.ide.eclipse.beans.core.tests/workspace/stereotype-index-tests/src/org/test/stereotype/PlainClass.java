@@ -0,0 +1,5 @@
+package org.test.stereotype;
+
+@Deprecated
+public class PlainClass {
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 Spring IDE Developers
+ * Copyright (c) 2004, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.beans.core;
 
+import java.io.File;
+import java.lang.management.ManagementFactory;
 import java.util.Collections;
 import java.util.Dictionary;
 import java.util.HashSet;
@@ -20,13 +22,20 @@ import java.util.ResourceBundle;
 import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ISaveContext;
+import org.eclipse.core.resources.ISaveParticipant;
 import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProduct;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -45,7 +54,9 @@ import org.osgi.framework.Version;
 import org.osgi.service.url.URLConstants;
 import org.osgi.service.url.URLStreamHandlerService;
 import org.springframework.beans.factory.xml.NamespaceHandlerResolver;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansConfigLoadExecutor;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansModel;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelSnapshot;
 import org.springframework.ide.eclipse.beans.core.internal.model.namespaces.NamespaceManager;
 import org.springframework.ide.eclipse.beans.core.internal.model.namespaces.ProjectClasspathNamespaceDefinitionResolverCache;
 import org.springframework.ide.eclipse.beans.core.model.IBeansModel;
@@ -85,6 +96,12 @@ public class BeansCorePlugin extends AbstractUIPlugin {
 	/** preference key for defining the parsing timeout */
 	public static final String TIMEOUT_CONFIG_LOADING_PREFERENCE_ID = PLUGIN_ID + ".timeoutConfigLoading";
 
+	/** preference key to populate the beans model from a snapshot of the previous session */
+	public static final String MODEL_SNAPSHOT_PREFERENCE_ID = PLUGIN_ID + ".modelSnapshot";
+
+	/** preference key for the maximum number of configs loaded at the same time */
+	public static final String THREADS_CONFIG_LOADING_PREFERENCE_ID = PLUGIN_ID + ".threadsConfigLoading";
+
 	/** preference key to enable namespace versions per namespace */
 	public static final String PROJECT_PROPERTY_ID = "enable.project.preferences";
 
@@ -110,8 +127,32 @@ public class BeansCorePlugin extends AbstractUIPlugin {
 	
 	private ServiceRegistration<?> projectAwareUrlService = null;
 
-	/** Internal executor service */
-	private ExecutorService executorService;
+	private static final String MODEL_SNAPSHOT_FILE_NAME = "beans-model.snapshot";
+
+	/** Snapshot of the beans model written by the previous session; <code>null</code> if disabled */
+	private volatile BeansModelSnapshot modelSnapshot;
+
+	/** Writes the model snapshot with every workspace save, so that it survives a crash */
+	private final ISaveParticipant modelSnapshotSaveParticipant = new ISaveParticipant() {
+
+		public void saving(ISaveContext context) throws CoreException {
+			if (context.getKind() != ISaveContext.PROJECT_SAVE) {
+				writeModelSnapshot();
+			}
+		}
+
+		public void prepareToSave(ISaveContext context) throws CoreException {
+		}
+
+		public void doneSaving(ISaveContext context) {
+		}
+
+		public void rollback(ISaveContext context) {
+		}
+	};
+
+	/** Internal executor for loading configs */
+	private BeansConfigLoadExecutor loadExecutor;
 	private AtomicInteger threadCount = new AtomicInteger(0);
 	private static final String THREAD_NAME_TEMPLATE = "Background Thread-%s (%s/%s.%s.%s)";
 
@@ -165,24 +206,34 @@ public class BeansCorePlugin extends AbstractUIPlugin {
 				URLStreamHandlerService.class.getName(),
 				new ProjectAwareUrlStreamHandlerService(), properties);
 		
-		executorService = Executors.newCachedThreadPool(new ThreadFactory() {
-			
-			public Thread newThread(Runnable runnable) {
+		getPreferenceStore().setDefault(TIMEOUT_CONFIG_LOADING_PREFERENCE_ID, 60);
+		getPreferenceStore().setDefault(THREADS_CONFIG_LOADING_PREFERENCE_ID,
+				Runtime.getRuntime().availableProcessors());
+
+		loadExecutor = new BeansConfigLoadExecutor(Math.max(1,
+				getPreferenceStore().getInt(THREADS_CONFIG_LOADING_PREFERENCE_ID)), new ForkJoinWorkerThreadFactory() {
+
+			public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
 				Version version = Version.parseVersion(getPluginVersion());
 				String productId = "Spring IDE";
 				IProduct product = Platform.getProduct();
 				if (product != null && "com.springsource.sts".equals(product.getId()))
 						productId = "STS";
-				Thread reportingThread = new Thread(runnable, String.format(THREAD_NAME_TEMPLATE, threadCount.incrementAndGet(), 
+				ForkJoinWorkerThread reportingThread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+				reportingThread.setName(String.format(THREAD_NAME_TEMPLATE, threadCount.incrementAndGet(),
 						productId, version.getMajor(), version.getMinor(), version.getMicro()));
-				reportingThread.setDaemon(true);
 				return reportingThread;
 			}
 		});
+		registerLoadExecutor();
+
+		getPreferenceStore().setDefault(MODEL_SNAPSHOT_PREFERENCE_ID, false);
+		if (getPreferenceStore().getBoolean(MODEL_SNAPSHOT_PREFERENCE_ID)) {
+			modelSnapshot = BeansModelSnapshot.read(getModelSnapshotFile());
+		}
+		ResourcesPlugin.getWorkspace().addSaveParticipant(PLUGIN_ID, modelSnapshotSaveParticipant);
 
-		
 		nsManager = new NamespaceManager(context);
-		getPreferenceStore().setDefault(TIMEOUT_CONFIG_LOADING_PREFERENCE_ID, 60);
 		getPreferenceStore().setDefault(NAMESPACE_DEFAULT_FROM_CLASSPATH_ID, true);
 		getPreferenceStore().setDefault(LOAD_NAMESPACEHANDLER_FROM_CLASSPATH_ID, true);
 
@@ -210,13 +261,66 @@ public class BeansCorePlugin extends AbstractUIPlugin {
 			}
 			isClosed = true;
 		}
+		ResourcesPlugin.getWorkspace().removeSaveParticipant(PLUGIN_ID);
+		writeModelSnapshot();
 		model.stop();
 		if (projectAwareUrlService != null) {
 			projectAwareUrlService.unregister();
 		}
+		unregisterLoadExecutor();
+		loadExecutor.shutdown();
 		super.stop(context);
 	}
 
+	/**
+	 * Writes the loaded configs to the model snapshot for the next session. Called on every workspace save and on
+	 * shutdown.
+	 */
+	private void writeModelSnapshot() {
+		if (getPreferenceStore().getBoolean(MODEL_SNAPSHOT_PREFERENCE_ID)) {
+			BeansModelSnapshot snapshot = (modelSnapshot != null ? modelSnapshot : new BeansModelSnapshot());
+			try {
+				snapshot.write(getModelSnapshotFile(), model);
+			}
+			catch (Exception e) {
+				log("Cannot write beans model snapshot", e);
+			}
+		}
+		else {
+			getModelSnapshotFile().delete();
+		}
+	}
+
+	private File getModelSnapshotFile() {
+		return getStateLocation().append(MODEL_SNAPSHOT_FILE_NAME).toFile();
+	}
+
+	/**
+	 * Exposes the metrics of the {@link BeansConfigLoadExecutor} through the platform MBean server.
+	 */
+	private void registerLoadExecutor() {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(loadExecutor,
+					new ObjectName(BeansConfigLoadExecutor.OBJECT_NAME));
+		}
+		catch (Exception e) {
+			log("Cannot register config load executor", e);
+		}
+	}
+
+	private void unregisterLoadExecutor() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(BeansConfigLoadExecutor.OBJECT_NAME);
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+		}
+		catch (Exception e) {
+			log("Cannot unregister config load executor", e);
+		}
+	}
+
 	/**
 	 * Returns the shared instance.
 	 */
@@ -254,7 +358,30 @@ public class BeansCorePlugin extends AbstractUIPlugin {
 	}
 
 	public static ExecutorService getExecutorService() {
-		return getDefault().executorService;
+		return getDefault().loadExecutor.getExecutorService();
+	}
+
+	/**
+	 * Returns the snapshot of the previous session's beans model or <code>null</code> if snapshots are disabled.
+	 * @since 3.9.2
+	 */
+	public static BeansModelSnapshot getModelSnapshot() {
+		return (getDefault() != null ? getDefault().modelSnapshot : null);
+	}
+
+	/**
+	 * only for internal testing purposes
+	 */
+	public static void setModelSnapshot(BeansModelSnapshot modelSnapshot) {
+		getDefault().modelSnapshot = modelSnapshot;
+	}
+
+	/**
+	 * Returns the bounded executor that loads beans configs.
+	 * @since 3.9.2
+	 */
+	public static BeansConfigLoadExecutor getConfigLoadExecutor() {
+		return getDefault().loadExecutor;
 	}
 
 	public static void notifyNamespaceDefinitionListeners(IProject project) {
@@ -0,0 +1,311 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.internal.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
+import org.springframework.ide.eclipse.beans.core.model.IBeansProject;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyEngine;
+
+/**
+ * Reverse index from bean class names, and from the names of all their supertypes, to the {@link IBeansConfig}s of
+ * a {@link IBeansProject} that use them.
+ * <p>
+ * The bean classes of a config are recorded whenever the config has been read and dropped when the config is reset.
+ * Configs that haven't been recorded yet are added on the next lookup. The supertypes of a bean class are resolved
+ * lazily with the given {@link TypeHierarchyEngine} and are resolved again after a type in their hierarchy changed.
+ * @since 3.9.2
+ */
+public class BeanClassIndex {
+
+	private final Map<IProject, ProjectIndex> projects = new HashMap<IProject, ProjectIndex>();
+
+	/**
+	 * Records the bean classes of the given config that has just been read.
+	 */
+	public void update(IBeansProject project, IBeansConfig config) {
+		Set<String> beanClasses = new HashSet<String>(config.getBeanClasses());
+		synchronized (this) {
+			getProjectIndex(project).put(config, beanClasses);
+		}
+	}
+
+	/**
+	 * Removes the given config that has been reset; it is recorded again after it has been read.
+	 */
+	public synchronized void remove(IBeansProject project, IBeansConfig config) {
+		ProjectIndex projectIndex = projects.get(project.getProject());
+		if (projectIndex != null) {
+			projectIndex.remove(config);
+		}
+	}
+
+	/**
+	 * Removes the index of all projects but the given ones.
+	 */
+	public synchronized void retainProjects(Collection<IBeansProject> beansProjects) {
+		Set<IProject> retainedProjects = new HashSet<IProject>();
+		for (IBeansProject beansProject : beansProjects) {
+			retainedProjects.add(beansProject.getProject());
+		}
+		projects.keySet().retainAll(retainedProjects);
+	}
+
+	/**
+	 * Returns the configs of the given project which contain a bean with the given bean class.
+	 */
+	public Set<IBeansConfig> getConfigsByBeanClass(IBeansProject project, String className) {
+		sync(project);
+		synchronized (this) {
+			Set<IBeansConfig> configs = getProjectIndex(project).configsByBeanClass.get(className);
+			return (configs != null ? new LinkedHashSet<IBeansConfig>(configs) : Collections.<IBeansConfig> emptySet());
+		}
+	}
+
+	/**
+	 * Returns the configs of the given project which contain a bean whose bean class is, extends or implements the
+	 * given type.
+	 */
+	public Set<IBeansConfig> getConfigsByType(IBeansProject project, String typeName, TypeHierarchyEngine typeEngine) {
+		sync(project);
+		Map<String, Long> unresolvedBeanClasses;
+		synchronized (this) {
+			unresolvedBeanClasses = new LinkedHashMap<String, Long>(getProjectIndex(project).unresolvedBeanClasses);
+		}
+
+		// Resolving the supertypes reads class files; don't hold the index lock meanwhile
+		Map<String, Set<String>> typesByBeanClass = ProjectIndex.resolveTypes(project.getProject(),
+				unresolvedBeanClasses.keySet(), typeEngine);
+
+		synchronized (this) {
+			ProjectIndex projectIndex = getProjectIndex(project);
+			projectIndex.putResolvedTypes(unresolvedBeanClasses, typesByBeanClass);
+
+			Set<IBeansConfig> configs = new LinkedHashSet<IBeansConfig>();
+			Set<String> beanClasses = projectIndex.beanClassesByType.get(typeName);
+			if (beanClasses != null) {
+				for (String beanClass : beanClasses) {
+					configs.addAll(projectIndex.configsByBeanClass.get(beanClass));
+				}
+			}
+			return configs;
+		}
+	}
+
+	/**
+	 * Discards the resolved supertypes of all bean classes whose hierarchy contains one of the given changed types.
+	 */
+	public synchronized void invalidateTypes(IBeansProject project, String[] typeNames) {
+		ProjectIndex projectIndex = projects.get(project.getProject());
+		if (projectIndex != null) {
+			for (String typeName : typeNames) {
+				Set<String> beanClasses = projectIndex.beanClassesByType.get(typeName);
+				if (beanClasses != null) {
+					for (String beanClass : new ArrayList<String>(beanClasses)) {
+						projectIndex.unresolve(beanClass);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Records the configs of the given project that are not in this index yet and drops the configs that have been
+	 * removed from the project.
+	 */
+	private void sync(IBeansProject project) {
+		Set<IBeansConfig> configs = project.getConfigs();
+		List<IBeansConfig> missingConfigs = new ArrayList<IBeansConfig>();
+		boolean firstSync;
+		synchronized (this) {
+			ProjectIndex projectIndex = getProjectIndex(project);
+			firstSync = projectIndex.beanClassesByConfig.isEmpty();
+			projectIndex.retain(configs);
+			for (IBeansConfig config : configs) {
+				if (!projectIndex.beanClassesByConfig.containsKey(config)) {
+					missingConfigs.add(config);
+				}
+			}
+		}
+
+		// Reading the bean classes may load the config; don't hold the index lock meanwhile. On the first sync of a
+		// project most of its configs usually haven't been loaded yet, so load them in parallel up front
+		if (firstSync && missingConfigs.size() > 1 && project instanceof BeansProject) {
+			((BeansProject) project).loadConfigs(new NullProgressMonitor());
+		}
+		for (IBeansConfig config : missingConfigs) {
+			update(project, config);
+		}
+	}
+
+	private ProjectIndex getProjectIndex(IBeansProject project) {
+		ProjectIndex projectIndex = projects.get(project.getProject());
+		if (projectIndex == null) {
+			projectIndex = new ProjectIndex();
+			projects.put(project.getProject(), projectIndex);
+		}
+		return projectIndex;
+	}
+
+	/**
+	 * Index of the configs of a single project.
+	 */
+	private static class ProjectIndex {
+
+		private final Map<IBeansConfig, Set<String>> beanClassesByConfig = new HashMap<IBeansConfig, Set<String>>();
+
+		private final Map<String, Set<IBeansConfig>> configsByBeanClass = new HashMap<String, Set<IBeansConfig>>();
+
+		/**
+		 * Bean classes whose supertypes have not been resolved yet, with a stamp that changes whenever the bean class
+		 * becomes unresolved again
+		 */
+		private final Map<String, Long> unresolvedBeanClasses = new LinkedHashMap<String, Long>();
+
+		private long stamp;
+
+		/** Resolved supertypes of the bean classes, each including the bean class itself */
+		private final Map<String, Set<String>> typesByBeanClass = new HashMap<String, Set<String>>();
+
+		private final Map<String, Set<String>> beanClassesByType = new HashMap<String, Set<String>>();
+
+		public void put(IBeansConfig config, Set<String> beanClasses) {
+			remove(config);
+			beanClassesByConfig.put(config, beanClasses);
+			for (String beanClass : beanClasses) {
+				Set<IBeansConfig> configs = configsByBeanClass.get(beanClass);
+				if (configs == null) {
+					configs = new LinkedHashSet<IBeansConfig>();
+					configsByBeanClass.put(beanClass, configs);
+					unresolvedBeanClasses.put(beanClass, ++stamp);
+				}
+				configs.add(config);
+			}
+		}
+
+		public void remove(IBeansConfig config) {
+			Set<String> beanClasses = beanClassesByConfig.remove(config);
+			if (beanClasses != null) {
+				for (String beanClass : beanClasses) {
+					Set<IBeansConfig> configs = configsByBeanClass.get(beanClass);
+					configs.remove(config);
+					if (configs.isEmpty()) {
+						configsByBeanClass.remove(beanClass);
+						unresolve(beanClass);
+						unresolvedBeanClasses.remove(beanClass);
+					}
+				}
+			}
+		}
+
+		public void retain(Set<IBeansConfig> configs) {
+			for (IBeansConfig config : new ArrayList<IBeansConfig>(beanClassesByConfig.keySet())) {
+				if (!configs.contains(config)) {
+					remove(config);
+				}
+			}
+		}
+
+		/**
+		 * Resolves the supertypes of the given bean classes. Doesn't access the index.
+		 */
+		public static Map<String, Set<String>> resolveTypes(IProject project, Collection<String> beanClasses,
+				TypeHierarchyEngine typeEngine) {
+			Map<String, Set<String>> typesByBeanClass = new HashMap<String, Set<String>>();
+			Map<String, Set<String>> resolvedTypes = new HashMap<String, Set<String>>();
+			for (String beanClass : beanClasses) {
+				typesByBeanClass.put(beanClass, getTypes(project, beanClass, typeEngine, resolvedTypes));
+			}
+			return typesByBeanClass;
+		}
+
+		/**
+		 * Stores the supertypes resolved for the given bean classes. Bean classes that have been removed, resolved or
+		 * invalidated again since their stamp has been taken are skipped.
+		 */
+		public void putResolvedTypes(Map<String, Long> stamps, Map<String, Set<String>> resolvedTypesByBeanClass) {
+			for (Map.Entry<String, Set<String>> entry : resolvedTypesByBeanClass.entrySet()) {
+				String beanClass = entry.getKey();
+				Long currentStamp = unresolvedBeanClasses.get(beanClass);
+				if (currentStamp == null || !currentStamp.equals(stamps.get(beanClass))) {
+					continue;
+				}
+				unresolvedBeanClasses.remove(beanClass);
+				Set<String> types = entry.getValue();
+				typesByBeanClass.put(beanClass, types);
+				for (String type : types) {
+					Set<String> beanClasses = beanClassesByType.get(type);
+					if (beanClasses == null) {
+						beanClasses = new HashSet<String>();
+						beanClassesByType.put(type, beanClasses);
+					}
+					beanClasses.add(beanClass);
+				}
+			}
+		}
+
+		public void unresolve(String beanClass) {
+			Set<String> types = typesByBeanClass.remove(beanClass);
+			if (types != null) {
+				for (String type : types) {
+					Set<String> beanClasses = beanClassesByType.get(type);
+					beanClasses.remove(beanClass);
+					if (beanClasses.isEmpty()) {
+						beanClassesByType.remove(type);
+					}
+				}
+			}
+			if (configsByBeanClass.containsKey(beanClass)) {
+				unresolvedBeanClasses.put(beanClass, ++stamp);
+			}
+		}
+
+		/**
+		 * Returns the given type, its superclasses and all interfaces they implement. Types shared by several bean
+		 * classes are only resolved once per call of {@link #resolveTypes(IProject, Collection, TypeHierarchyEngine)}.
+		 */
+		private static Set<String> getTypes(IProject project, String type, TypeHierarchyEngine typeEngine,
+				Map<String, Set<String>> resolvedTypes) {
+			Set<String> types = resolvedTypes.get(type);
+			if (types == null) {
+				types = new LinkedHashSet<String>();
+				types.add(type);
+				// Guards against cycles in broken hierarchies
+				resolvedTypes.put(type, types);
+
+				String supertype = typeEngine.getSupertype(project, type);
+				if (supertype != null) {
+					types.addAll(getTypes(project, supertype, typeEngine, resolvedTypes));
+				}
+				String[] interfaces = typeEngine.getInterfaces(project, type);
+				if (interfaces != null) {
+					for (String interfaceName : interfaces) {
+						types.addAll(getTypes(project, interfaceName, typeEngine, resolvedTypes));
+					}
+				}
+			}
+			return types;
+		}
+	}
+
+}
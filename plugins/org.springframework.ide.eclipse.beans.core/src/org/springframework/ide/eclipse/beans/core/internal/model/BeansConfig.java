@@ -13,6 +13,7 @@ package org.springframework.ide.eclipse.beans.core.internal.model;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -24,8 +25,6 @@ import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.FutureTask;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import org.eclipse.core.resources.IContainer;
@@ -90,6 +89,7 @@ import org.springframework.ide.eclipse.beans.core.internal.model.namespaces.XmlC
 import org.springframework.ide.eclipse.beans.core.internal.model.process.BeansConfigPostProcessorFactory;
 import org.springframework.ide.eclipse.beans.core.internal.parser.BeansDtdResolver;
 import org.springframework.ide.eclipse.beans.core.model.IBean;
+import org.springframework.ide.eclipse.beans.core.model.IBeanAlias;
 import org.springframework.ide.eclipse.beans.core.model.IBeansComponent;
 import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
 import org.springframework.ide.eclipse.beans.core.model.IBeansConfigEventListener;
@@ -144,6 +144,17 @@ public class BeansConfig extends AbstractBeansConfig implements IBeansConfig, IL
 	/** The default element provider used for non-namespaced elements */
 	public static final IModelElementProvider DEFAULT_ELEMENT_PROVIDER = new DefaultModelElementProvider();
 
+	/** The include-filter child element of component-scan */
+	private static final String INCLUDE_FILTER_ELEMENT_NAME = "include-filter";
+
+	/** The use-default-filters attribute of component-scan */
+	private static final String USE_DEFAULT_FILTERS_ATTRIBUTE = "use-default-filters";
+
+	/** Annotation types that Spring's default include filters of component-scan look for */
+	private static final Set<String> DEFAULT_COMPONENT_STEREOTYPES = Collections.unmodifiableSet(new HashSet<String>(
+			Arrays.asList("org.springframework.stereotype.Component", "javax.annotation.ManagedBean",
+					"javax.inject.Named")));
+
 	/** The resource that is currently being processed or null if non is processed */
 	private volatile IResource currentResource = null;
 
@@ -223,6 +234,10 @@ public class BeansConfig extends AbstractBeansConfig implements IBeansConfig, IL
 				isModelPopulated = false;
 				modificationTimestamp = IResource.NULL_STAMP;
 				defaults = null;
+				BeansModelSnapshot snapshot = BeansCorePlugin.getModelSnapshot();
+				if (snapshot != null) {
+					snapshot.discard(file);
+				}
 				imports.clear();
 				aliases.clear();
 				beans.clear();
@@ -331,17 +346,21 @@ public class BeansConfig extends AbstractBeansConfig implements IBeansConfig, IL
 					eventListener.onReadStart(this);
 				}
 
-				if (file != null && file.exists()) {
+				if (file != null && file.exists() && restoreFromSnapshot()) {
+					// Populated from the model snapshot of the previous session; no parsing required
+				}
+				else if (file != null && file.exists()) {
 
 					// Only install Eclipse-based resource loader if enabled in project properties
 					// IMPORTANT: the following block needs to stay before the w.lock()
 					// as it could otherwise create a runtime deadlock
+					final DocumentAccessor documentAccessor = new DocumentAccessor();
 					final ResourceLoader resourceLoader;
 					if (getElementParent() instanceof IBeansProject && ((IBeansProject) getElementParent()).isImportsEnabled()) {
-						resourceLoader = new EclipsePathMatchingResourcePatternResolver(file.getProject(), projectIncludingClassloader);
+						resourceLoader = new ComponentScanPatternResolver(file.getProject(), projectIncludingClassloader, documentAccessor);
 					}
 					else {
-						resourceLoader = new ClassResourceFilteringPatternResolver(file.getProject(), projectIncludingClassloader);
+						resourceLoader = new ClassResourceFilteringPatternResolver(file.getProject(), projectIncludingClassloader, documentAccessor);
 					}
 
 					modificationTimestamp = file.getModificationStamp();
@@ -366,7 +385,6 @@ public class BeansConfig extends AbstractBeansConfig implements IBeansConfig, IL
 
 					registry = new ScannedGenericBeanDefinitionSuppressingBeanDefinitionRegistry();
 					EntityResolver resolver = new XmlCatalogDelegatingEntityResolver(new BeansDtdResolver(), new PluggableSchemaResolver(namespaceResolvingClassloader));
-					final DocumentAccessor documentAccessor = new DocumentAccessor();
 					final SourceExtractor sourceExtractor = new DelegatingSourceExtractor(file.getProject());
 					final BeansConfigReaderEventListener eventListener = new BeansConfigReaderEventListener(this, resource, sourceExtractor, documentAccessor);
 					final NamespaceHandlerResolver namespaceHandlerResolver = new DelegatingNamespaceHandlerResolver(namespaceResolvingClassloader, this,	documentAccessor);
@@ -474,10 +492,8 @@ public class BeansConfig extends AbstractBeansConfig implements IBeansConfig, IL
 						};
 
 						try {
-							FutureTask<Integer> task = new FutureTask<Integer>(loadBeanDefinitionOperation);
-							BeansCorePlugin.getExecutorService().submit(task);
-							count = task.get(BeansCorePlugin.getDefault().getPreferenceStore().getInt(BeansCorePlugin.TIMEOUT_CONFIG_LOADING_PREFERENCE_ID),
-									TimeUnit.SECONDS);
+							count = BeansCorePlugin.getConfigLoadExecutor().load(file.getFullPath().toString(), loadBeanDefinitionOperation,
+									BeansCorePlugin.getDefault().getPreferenceStore().getInt(BeansCorePlugin.TIMEOUT_CONFIG_LOADING_PREFERENCE_ID));
 
 							// if we recored an exception use this instead of stupid concurrent exception
 							if (throwables.size() > 0) {
@@ -569,6 +585,43 @@ public class BeansConfig extends AbstractBeansConfig implements IBeansConfig, IL
 		}
 	}
 
+	/**
+	 * Populates this config from the model snapshot of the previous session if it holds an up-to-date entry for this
+	 * config.
+	 * <p>
+	 * This method must only be called while holding the write lock.
+	 */
+	private boolean restoreFromSnapshot() {
+		BeansModelSnapshot snapshot = BeansCorePlugin.getModelSnapshot();
+		if (snapshot == null || isArchived) {
+			return false;
+		}
+		Resource fileResource = new FileResource(file);
+		if (!snapshot.restore(this, fileResource)) {
+			return false;
+		}
+		modificationTimestamp = file.getModificationStamp();
+		resource = fileResource;
+		registry = new ScannedGenericBeanDefinitionSuppressingBeanDefinitionRegistry();
+		for (IBean bean : beans.values()) {
+			registry.registerBeanDefinition(bean.getElementName(), ((Bean) bean).getBeanDefinition());
+		}
+		for (IBeanAlias alias : aliases.values()) {
+			registry.registerAlias(alias.getBeanName(), alias.getElementName());
+		}
+		problemReporter = new BeansConfigProblemReporter();
+		beanNameGenerator = new UniqueBeanNameGenerator(this);
+		return true;
+	}
+
+	/**
+	 * Returns <code>true</code> if post processors have been detected in or contributed to this config.
+	 * @since 3.9.2
+	 */
+	public boolean hasPostProcessors() {
+		return (ownPostProcessors != null && !ownPostProcessors.isEmpty()) || !externalPostProcessors.isEmpty();
+	}
+
 	public ClassLoader getProjectRelatedClassLoader() {
 		if (file != null && file.exists()) {
 			return JdtUtils.getClassLoader(file.getProject(), BeansCorePlugin.getClassLoader());
@@ -1057,17 +1110,53 @@ public class BeansConfig extends AbstractBeansConfig implements IBeansConfig, IL
 		}
 	}
 
+	/**
+	 * {@link ResourcePatternResolver} that resolves the class files of the project for a
+	 * <code>&lt;context:component-scan&gt;</code> element with default filters from the project's stereotype index.
+	 * @since 3.9.2
+	 */
+	class ComponentScanPatternResolver extends EclipsePathMatchingResourcePatternResolver {
+
+		private final DocumentAccessor documentAccessor;
+
+		public ComponentScanPatternResolver(IProject project, ClassLoader classLoader, DocumentAccessor documentAccessor) {
+			super(project, classLoader);
+			this.documentAccessor = documentAccessor;
+		}
+
+		/**
+		 * Returns the stereotypes of Spring's default include filters if the current element is a component-scan that
+		 * uses these filters only; custom include filters may match classes without any annotation.
+		 */
+		@Override
+		protected Set<String> getRequiredStereotypes(String locationPattern) {
+			Node node = documentAccessor.getCurrentElement();
+			if (!(node instanceof Element) || !COMPONENT_SCAN_ELEMENT_NAME.equals(node.getLocalName())
+					|| !CONTEXT_NAMESPACE_URI.equals(node.getNamespaceURI())
+					|| "false".equals(((Element) node).getAttribute(USE_DEFAULT_FILTERS_ATTRIBUTE))) {
+				return null;
+			}
+			for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+				if (child instanceof Element && INCLUDE_FILTER_ELEMENT_NAME.equals(child.getLocalName())) {
+					return null;
+				}
+			}
+			return DEFAULT_COMPONENT_STEREOTYPES;
+		}
+	}
+
 	/**
 	 * {@link ResourcePatternResolver} that checks if <code>.class</code> resource are being requested.
 	 */
-	class ClassResourceFilteringPatternResolver extends EclipsePathMatchingResourcePatternResolver implements
+	class ClassResourceFilteringPatternResolver extends ComponentScanPatternResolver implements
 			ResourcePatternResolver {
 
 		/**
 		 * Creates a new {@link ClassResourceFilteringPatternResolver}
 		 */
-		public ClassResourceFilteringPatternResolver(IProject project, ClassLoader classLoader) {
-			super(project, classLoader);
+		public ClassResourceFilteringPatternResolver(IProject project, ClassLoader classLoader,
+				DocumentAccessor documentAccessor) {
+			super(project, classLoader, documentAccessor);
 		}
 
 		/**
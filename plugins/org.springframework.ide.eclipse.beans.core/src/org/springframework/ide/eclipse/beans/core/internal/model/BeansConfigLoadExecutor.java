@@ -0,0 +1,437 @@
+/*******************************************************************************
+ * Copyright (c) 2016, 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.internal.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+
+/**
+ * Bounded work-stealing pool that loads {@link BeansConfig}s and {@link BeansJavaConfig}s.
+ * <p>
+ * A load that exceeds its timeout is cancelled and its worker thread interrupted, so timed out loads no longer keep
+ * threads busy in the background. The interrupt is cleared before the worker picks up its next task.
+ * <p>
+ * Loads requested from a loader thread (e.g. a config that loads another config) run directly on that thread to
+ * prevent the bounded pool from starving. They share the deadline of the enclosing load: a nested load that is
+ * requested after that deadline fails right away, and one that is still running when the deadline passes is
+ * interrupted together with the enclosing load.
+ * <p>
+ * Work that loads several configs in a row (e.g. a group of configs that import each other) is {@link #submit
+ * submitted} as a {@link LoadTask}. Each config loaded by such a task gets its own timeout, which is enforced while
+ * someone waits for the task.
+ * <p>
+ * Queue depth, active loads, timeouts and the load latency per config are exposed through JMX.
+ * @since 3.9.2
+ */
+public class BeansConfigLoadExecutor implements BeansConfigLoadExecutorMBean {
+
+	public static final String OBJECT_NAME = BeansCorePlugin.PLUGIN_ID + ":type=BeansConfigLoadExecutor";
+
+	private final ForkJoinPool pool;
+
+	/** Deadline ({@link System#nanoTime()}) of the load running on the current loader thread */
+	private final ThreadLocal<Long> deadline = new ThreadLocal<Long>();
+
+	/** The {@link LoadTask} running on the current loader thread */
+	private final ThreadLocal<LoadTask<?>> currentTask = new ThreadLocal<LoadTask<?>>();
+
+	private final AtomicInteger activeLoads = new AtomicInteger();
+
+	private final AtomicLong completedLoads = new AtomicLong();
+
+	private final AtomicLong timedOutLoads = new AtomicLong();
+
+	private final ConcurrentMap<String, LoadStatistics> statistics = new ConcurrentHashMap<String, LoadStatistics>();
+
+	public BeansConfigLoadExecutor(int parallelism, ForkJoinWorkerThreadFactory threadFactory) {
+		this.pool = new ForkJoinPool(parallelism, threadFactory, null, true);
+	}
+
+	/**
+	 * Returns the underlying pool for background work that is not a config load.
+	 */
+	public ExecutorService getExecutorService() {
+		return pool;
+	}
+
+	/**
+	 * Runs the given load operation of the config with the given name on the pool and waits at most the given number
+	 * of seconds for it to finish.
+	 * @throws TimeoutException if the load took longer; the load has been cancelled
+	 */
+	public <T> T load(String configName, Callable<T> operation, long timeoutSeconds) throws InterruptedException,
+			ExecutionException, TimeoutException {
+		Callable<T> measuredOperation = new MeasuredLoad<T>(configName, operation);
+		if (isLoaderThread()) {
+			return loadNested(measuredOperation, timeoutSeconds);
+		}
+
+		final FutureTask<T> task = new FutureTask<T>(measuredOperation);
+		final long timeoutNanos = TimeUnit.SECONDS.toNanos(timeoutSeconds);
+		pool.execute(new Runnable() {
+			public void run() {
+				deadline.set(System.nanoTime() + timeoutNanos);
+				try {
+					task.run();
+				}
+				finally {
+					deadline.remove();
+					// a cancelled load interrupts its worker; FutureTask.run() only returns once that interrupt has
+					// been delivered, so clear it here instead of letting it fail the next load on this thread
+					Thread.interrupted();
+				}
+			}
+		});
+		try {
+			return task.get(timeoutSeconds, TimeUnit.SECONDS);
+		}
+		catch (TimeoutException e) {
+			timedOutLoads.incrementAndGet();
+			task.cancel(true);
+			throw e;
+		}
+		catch (InterruptedException e) {
+			task.cancel(true);
+			throw e;
+		}
+	}
+
+	/**
+	 * Submits the given operation, which may load a number of configs, to the pool. Unlike {@link #load}, the
+	 * operation itself has no timeout; each config it loads gets the given timeout instead.
+	 * <p>
+	 * The returned task interrupts a config load that exceeds its timeout only while a thread waits for the task
+	 * through {@link LoadTask#get()}.
+	 */
+	public <T> LoadTask<T> submit(Callable<T> operation) {
+		LoadTask<T> task = new LoadTask<T>(operation);
+		pool.execute(task);
+		return task;
+	}
+
+	/**
+	 * Runs a load requested from a loader thread on that thread. The caller waiting for the enclosing load enforces
+	 * the shared deadline by interrupting this thread. Loads of a submitted {@link LoadTask} that don't run within
+	 * another load get their own deadline, which the thread waiting for the task enforces.
+	 */
+	private <T> T loadNested(Callable<T> operation, long timeoutSeconds) throws InterruptedException,
+			ExecutionException, TimeoutException {
+		Long loadDeadline = deadline.get();
+		LoadTask<?> task = currentTask.get();
+		if (loadDeadline != null || task == null) {
+			if (loadDeadline != null && System.nanoTime() - loadDeadline >= 0) {
+				timedOutLoads.incrementAndGet();
+				throw new TimeoutException("deadline of the enclosing load has passed");
+			}
+			return call(operation);
+		}
+
+		loadDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+		deadline.set(loadDeadline);
+		task.startLoad(loadDeadline);
+		try {
+			return call(operation);
+		}
+		catch (InterruptedException e) {
+			if (task.endLoad()) {
+				timedOutLoads.incrementAndGet();
+				throw new TimeoutException();
+			}
+			throw e;
+		}
+		catch (ExecutionException e) {
+			if (task.endLoad()) {
+				timedOutLoads.incrementAndGet();
+				throw new TimeoutException();
+			}
+			throw e;
+		}
+		finally {
+			task.endLoad();
+			deadline.remove();
+		}
+	}
+
+	private <T> T call(Callable<T> operation) throws InterruptedException, ExecutionException {
+		// the interrupt of a cancelled enclosing load is kept, so that the enclosing load stops as well
+		if (Thread.currentThread().isInterrupted()) {
+			throw new InterruptedException();
+		}
+		try {
+			return operation.call();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw e;
+		}
+		catch (Exception e) {
+			throw new ExecutionException(e);
+		}
+	}
+
+	public void shutdown() {
+		pool.shutdownNow();
+	}
+
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+
+	public int getPoolSize() {
+		return pool.getPoolSize();
+	}
+
+	public long getQueueDepth() {
+		return pool.getQueuedSubmissionCount() + pool.getQueuedTaskCount();
+	}
+
+	public int getActiveLoads() {
+		return activeLoads.get();
+	}
+
+	public long getCompletedLoads() {
+		return completedLoads.get();
+	}
+
+	public long getTimedOutLoads() {
+		return timedOutLoads.get();
+	}
+
+	public void reset() {
+		completedLoads.set(0);
+		timedOutLoads.set(0);
+		statistics.clear();
+	}
+
+	public String[] getSlowestConfigs(int limit) {
+		List<LoadStatistics> sorted = getStatistics();
+		String[] result = new String[Math.min(Math.max(limit, 0), sorted.size())];
+		for (int i = 0; i < result.length; i++) {
+			LoadStatistics stats = sorted.get(i);
+			result[i] = String.format(Locale.ENGLISH, "%s: %d loads, max %.1fms, avg %.1fms, last %.1fms",
+					stats.getConfigName(), stats.getLoadCount(), stats.getMaxTime() / 1000000d,
+					stats.getTotalTime() / 1000000d / stats.getLoadCount(), stats.getLastTime() / 1000000d);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the load statistics of all configs, the config with the highest maximum load time first.
+	 */
+	public List<LoadStatistics> getStatistics() {
+		List<LoadStatistics> result = new ArrayList<LoadStatistics>(statistics.values());
+		Collections.sort(result, new Comparator<LoadStatistics>() {
+			public int compare(LoadStatistics stats1, LoadStatistics stats2) {
+				long max1 = stats1.getMaxTime();
+				long max2 = stats2.getMaxTime();
+				return (max1 < max2 ? 1 : (max1 == max2 ? 0 : -1));
+			}
+		});
+		return result;
+	}
+
+	void record(String configName, long time) {
+		LoadStatistics stats = statistics.get(configName);
+		if (stats == null) {
+			LoadStatistics newStats = new LoadStatistics(configName);
+			stats = statistics.putIfAbsent(configName, newStats);
+			if (stats == null) {
+				stats = newStats;
+			}
+		}
+		stats.add(time);
+		completedLoads.incrementAndGet();
+	}
+
+	/**
+	 * Returns <code>true</code> if the current thread is a thread of this executor's pool.
+	 */
+	public boolean isLoaderThread() {
+		Thread thread = Thread.currentThread();
+		return thread instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) thread).getPool() == pool;
+	}
+
+	/**
+	 * Task {@link #submit submitted} to the pool that loads a number of configs on a single loader thread.
+	 */
+	public class LoadTask<T> extends FutureTask<T> {
+
+		private static final long OVERDUE_CHECK_INTERVAL = 100;
+
+		private Thread runner;
+
+		/** Deadline ({@link System#nanoTime()}) of the config load currently running on this task, if any */
+		private Long loadDeadline;
+
+		private boolean interruptedForDeadline;
+
+		LoadTask(Callable<T> operation) {
+			super(operation);
+		}
+
+		@Override
+		public void run() {
+			synchronized (this) {
+				runner = Thread.currentThread();
+			}
+			currentTask.set(this);
+			try {
+				super.run();
+			}
+			finally {
+				currentTask.remove();
+				synchronized (this) {
+					runner = null;
+				}
+				// see load(): don't let a cancellation interrupt fail the next task on this thread
+				Thread.interrupted();
+			}
+		}
+
+		/**
+		 * Waits for this task to finish, interrupting config loads of this task that exceed their timeout meanwhile.
+		 */
+		@Override
+		public T get() throws InterruptedException, ExecutionException {
+			while (true) {
+				try {
+					return get(OVERDUE_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+				}
+				catch (TimeoutException e) {
+					interruptIfOverdue();
+				}
+			}
+		}
+
+		private synchronized void interruptIfOverdue() {
+			if (runner != null && loadDeadline != null && !interruptedForDeadline
+					&& System.nanoTime() - loadDeadline >= 0) {
+				interruptedForDeadline = true;
+				runner.interrupt();
+			}
+		}
+
+		private synchronized void startLoad(long deadline) {
+			loadDeadline = deadline;
+			interruptedForDeadline = false;
+		}
+
+		/**
+		 * Ends the current config load and clears the interrupt caused by its deadline.
+		 * @return <code>true</code> if the load has been interrupted because it exceeded its deadline
+		 */
+		private synchronized boolean endLoad() {
+			boolean overdue = interruptedForDeadline;
+			if (overdue) {
+				Thread.interrupted();
+			}
+			loadDeadline = null;
+			interruptedForDeadline = false;
+			return overdue;
+		}
+	}
+
+	/**
+	 * Load operation that keeps track of active loads and records its latency.
+	 */
+	private class MeasuredLoad<T> implements Callable<T> {
+
+		private final String configName;
+
+		private final Callable<T> operation;
+
+		public MeasuredLoad(String configName, Callable<T> operation) {
+			this.configName = configName;
+			this.operation = operation;
+		}
+
+		public T call() throws Exception {
+			activeLoads.incrementAndGet();
+			long start = System.nanoTime();
+			try {
+				return operation.call();
+			}
+			finally {
+				activeLoads.decrementAndGet();
+				record(configName, System.nanoTime() - start);
+			}
+		}
+	}
+
+	/**
+	 * Load count and latencies of a single config.
+	 */
+	public static class LoadStatistics {
+
+		private final String configName;
+
+		private long loadCount;
+
+		private long totalTime;
+
+		private long maxTime;
+
+		private long lastTime;
+
+		public LoadStatistics(String configName) {
+			this.configName = configName;
+		}
+
+		synchronized void add(long time) {
+			loadCount++;
+			totalTime += time;
+			maxTime = Math.max(maxTime, time);
+			lastTime = time;
+		}
+
+		public String getConfigName() {
+			return configName;
+		}
+
+		public synchronized long getLoadCount() {
+			return loadCount;
+		}
+
+		/**
+		 * Returns the total load time in nanoseconds.
+		 */
+		public synchronized long getTotalTime() {
+			return totalTime;
+		}
+
+		public synchronized long getMaxTime() {
+			return maxTime;
+		}
+
+		public synchronized long getLastTime() {
+			return lastTime;
+		}
+	}
+
+}
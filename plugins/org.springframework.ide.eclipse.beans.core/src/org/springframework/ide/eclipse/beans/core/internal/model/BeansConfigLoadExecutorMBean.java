@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.internal.model;
+
+/**
+ * JMX management interface of the {@link BeansConfigLoadExecutor}.
+ * @since 3.9.2
+ */
+public interface BeansConfigLoadExecutorMBean {
+
+	/**
+	 * Returns the maximum number of configs loaded at the same time.
+	 */
+	int getParallelism();
+
+	int getPoolSize();
+
+	/**
+	 * Returns the number of loads waiting for a loader thread.
+	 */
+	long getQueueDepth();
+
+	int getActiveLoads();
+
+	long getCompletedLoads();
+
+	long getTimedOutLoads();
+
+	/**
+	 * Returns one line per config, ordered by maximum load time: the slowest configs come first.
+	 */
+	String[] getSlowestConfigs(int limit);
+
+	/**
+	 * Discards the load counters and latencies recorded so far.
+	 */
+	void reset();
+
+}
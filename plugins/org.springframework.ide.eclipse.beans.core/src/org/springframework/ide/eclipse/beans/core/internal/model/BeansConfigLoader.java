@@ -0,0 +1,238 @@
+/*******************************************************************************
+ * Copyright (c) 2016, 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.internal.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
+import org.springframework.ide.eclipse.beans.core.model.IBeansImport;
+import org.springframework.ide.eclipse.beans.core.model.IImportedBeansConfig;
+import org.springframework.ide.eclipse.beans.core.model.IReloadableBeansConfig;
+import org.springframework.ide.eclipse.core.model.ILazyInitializedModelElement;
+
+/**
+ * Loads or reloads a number of {@link IBeansConfig}s, parsing configs that don't import each other in parallel.
+ * <p>
+ * Configs are grouped by the import relations known from their previous load; the configs of a group are loaded one
+ * after another by a task submitted to the {@link BeansConfigLoadExecutor}, imported configs first. The executor bounds
+ * the number of concurrent loads and enforces the loading timeout of each config.
+ * <p>
+ * Each config is only loaded by a single thread and only under its own lock. If the calling thread holds a lock of the
+ * {@link BeansModel} or of a {@link BeansProject} the configs are loaded on the calling thread, because loading a
+ * config may need those locks as well. The same applies to a loader thread of the executor, which must not wait for
+ * other loads.
+ * @since 3.9.2
+ */
+public class BeansConfigLoader {
+
+	/**
+	 * Reloads the given configs that are {@link IReloadableBeansConfig}s and waits until all of them are loaded
+	 * again. Reports one unit of work per reloaded config to the given monitor.
+	 */
+	public static void reload(Collection<IBeansConfig> configs, IProgressMonitor monitor) {
+		List<IBeansConfig> reloadableConfigs = new ArrayList<IBeansConfig>();
+		for (IBeansConfig config : configs) {
+			if (config instanceof IReloadableBeansConfig) {
+				reloadableConfigs.add(config);
+			}
+		}
+		List<List<IBeansConfig>> groups = getGroups(reloadableConfigs);
+		for (IBeansConfig config : reloadableConfigs) {
+			((IReloadableBeansConfig) config).reload();
+		}
+		load(groups, monitor);
+	}
+
+	/**
+	 * Loads the given configs that have not been loaded yet and waits until all of them are loaded. Reports one unit
+	 * of work per loaded config to the given monitor.
+	 */
+	public static void load(Collection<IBeansConfig> configs, IProgressMonitor monitor) {
+		List<IBeansConfig> unloadedConfigs = new ArrayList<IBeansConfig>();
+		for (IBeansConfig config : configs) {
+			if (config instanceof ILazyInitializedModelElement
+					&& !((ILazyInitializedModelElement) config).isInitialized()) {
+				unloadedConfigs.add(config);
+			}
+		}
+		load(getGroups(unloadedConfigs), monitor);
+	}
+
+	private static void load(List<List<IBeansConfig>> groups, IProgressMonitor monitor) {
+		BeansConfigLoadExecutor executor = BeansCorePlugin.getConfigLoadExecutor();
+		int parallelism = Math.min(groups.size(), executor.getParallelism());
+		if (parallelism <= 1 || executor.isLoaderThread() || isModelLockedByCurrentThread(groups)) {
+			for (List<IBeansConfig> group : groups) {
+				for (IBeansConfig config : group) {
+					if (monitor.isCanceled()) {
+						throw new OperationCanceledException();
+					}
+					load(config, monitor);
+				}
+			}
+			return;
+		}
+
+		List<Future<?>> tasks = new ArrayList<Future<?>>();
+		try {
+			for (final List<IBeansConfig> group : groups) {
+				tasks.add(executor.submit(new Callable<Object>() {
+
+					public Object call() {
+						for (IBeansConfig config : group) {
+							config.getBeans();
+						}
+						return null;
+					}
+				}));
+			}
+
+			for (int i = 0; i < tasks.size(); i++) {
+				if (monitor.isCanceled()) {
+					throw new OperationCanceledException();
+				}
+				List<IBeansConfig> group = groups.get(i);
+				monitor.subTask("Loading '" + getPath(group.get(0)) + "'");
+				try {
+					tasks.get(i).get();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new OperationCanceledException();
+				}
+				catch (ExecutionException e) {
+					BeansCorePlugin.log(e.getCause());
+				}
+				monitor.worked(group.size());
+			}
+		}
+		finally {
+			// stops the groups that are still running if loading has been cancelled
+			for (Future<?> task : tasks) {
+				task.cancel(true);
+			}
+		}
+	}
+
+	private static void load(IBeansConfig config, IProgressMonitor monitor) {
+		monitor.subTask("Loading '" + getPath(config) + "'");
+		config.getBeans();
+		monitor.worked(1);
+	}
+
+	/**
+	 * Groups the given configs by the import relations known from their previous load. Within a group, imported
+	 * configs come before the configs importing them.
+	 */
+	public static List<List<IBeansConfig>> getGroups(Collection<IBeansConfig> configs) {
+		Map<IResource, IBeansConfig> configsByResource = new LinkedHashMap<IResource, IBeansConfig>();
+		for (IBeansConfig config : configs) {
+			configsByResource.put(config.getElementResource(), config);
+		}
+
+		// Only configs that are still loaded know their imports; everything else is treated as independent
+		Map<IBeansConfig, Set<IBeansConfig>> importedConfigs = new HashMap<IBeansConfig, Set<IBeansConfig>>();
+		Map<IBeansConfig, IBeansConfig> parents = new HashMap<IBeansConfig, IBeansConfig>();
+		for (IBeansConfig config : configsByResource.values()) {
+			Set<IBeansConfig> imported = new LinkedHashSet<IBeansConfig>();
+			if (config instanceof ILazyInitializedModelElement
+					&& ((ILazyInitializedModelElement) config).isInitialized()) {
+				for (IBeansImport beansImport : config.getImports()) {
+					for (IImportedBeansConfig importedBeansConfig : beansImport.getImportedBeansConfigs()) {
+						IBeansConfig importedConfig = configsByResource.get(importedBeansConfig.getElementResource());
+						if (importedConfig != null && importedConfig != config) {
+							imported.add(importedConfig);
+							union(parents, config, importedConfig);
+						}
+					}
+				}
+			}
+			importedConfigs.put(config, imported);
+		}
+
+		Map<IBeansConfig, List<IBeansConfig>> groups = new LinkedHashMap<IBeansConfig, List<IBeansConfig>>();
+		Set<IBeansConfig> visited = new HashSet<IBeansConfig>();
+		for (IBeansConfig config : configsByResource.values()) {
+			IBeansConfig root = find(parents, config);
+			List<IBeansConfig> group = groups.get(root);
+			if (group == null) {
+				group = new ArrayList<IBeansConfig>();
+				groups.put(root, group);
+			}
+			addImportedFirst(config, importedConfigs, visited, group);
+		}
+		return new ArrayList<List<IBeansConfig>>(groups.values());
+	}
+
+	private static void addImportedFirst(IBeansConfig config, Map<IBeansConfig, Set<IBeansConfig>> importedConfigs,
+			Set<IBeansConfig> visited, List<IBeansConfig> group) {
+		if (visited.add(config)) {
+			for (IBeansConfig importedConfig : importedConfigs.get(config)) {
+				addImportedFirst(importedConfig, importedConfigs, visited, group);
+			}
+			group.add(config);
+		}
+	}
+
+	private static IBeansConfig find(Map<IBeansConfig, IBeansConfig> parents, IBeansConfig config) {
+		IBeansConfig parent = parents.get(config);
+		if (parent == null) {
+			return config;
+		}
+		IBeansConfig root = find(parents, parent);
+		parents.put(config, root);
+		return root;
+	}
+
+	private static void union(Map<IBeansConfig, IBeansConfig> parents, IBeansConfig config1, IBeansConfig config2) {
+		IBeansConfig root1 = find(parents, config1);
+		IBeansConfig root2 = find(parents, config2);
+		if (root1 != root2) {
+			parents.put(root2, root1);
+		}
+	}
+
+	private static boolean isModelLockedByCurrentThread(List<List<IBeansConfig>> groups) {
+		if (BeansCorePlugin.getModel() instanceof BeansModel
+				&& ((BeansModel) BeansCorePlugin.getModel()).isLockedByCurrentThread()) {
+			return true;
+		}
+		for (List<IBeansConfig> group : groups) {
+			for (IBeansConfig config : group) {
+				if (config.getElementParent() instanceof BeansProject
+						&& ((BeansProject) config.getElementParent()).isLockedByCurrentThread()) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static String getPath(IBeansConfig config) {
+		return config.getElementResource().getFullPath().toString().substring(1);
+	}
+
+}
@@ -19,8 +19,6 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.FutureTask;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import org.apache.commons.logging.LogFactory;
@@ -242,10 +240,8 @@ public class BeansJavaConfig extends AbstractBeansConfig implements IBeansConfig
 					}
 				};
 
-				FutureTask<Integer> task = new FutureTask<Integer>(loadBeanDefinitionOperation);
-				BeansCorePlugin.getExecutorService().submit(task);
-				task.get(BeansCorePlugin.getDefault().getPreferenceStore().getInt(BeansCorePlugin.TIMEOUT_CONFIG_LOADING_PREFERENCE_ID),
-						TimeUnit.SECONDS);
+				BeansCorePlugin.getConfigLoadExecutor().load(this.configClass.getFullyQualifiedName(), loadBeanDefinitionOperation,
+						BeansCorePlugin.getDefault().getPreferenceStore().getInt(BeansCorePlugin.TIMEOUT_CONFIG_LOADING_PREFERENCE_ID));
 			}
 			catch (TimeoutException e) {
 				problems.add(new ValidationProblem(IMarker.SEVERITY_ERROR, "Loading of configuration '"
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 Spring IDE Developers
+ * Copyright (c) 2004, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -42,6 +42,7 @@ import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
 import org.springframework.ide.eclipse.beans.core.internal.model.resources.BeansResourceChangeListener;
 import org.springframework.ide.eclipse.beans.core.internal.model.resources.IBeansResourceChangeEvents;
 import org.springframework.ide.eclipse.beans.core.internal.model.update.BeansModelUpdater;
+import org.springframework.ide.eclipse.beans.core.internal.model.validation.BeansConfigValidator;
 import org.springframework.ide.eclipse.beans.core.model.IBean;
 import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
 import org.springframework.ide.eclipse.beans.core.model.IBeansConfigSet;
@@ -87,6 +88,8 @@ public class BeansModel extends AbstractModel implements IBeansModel {
 	 */
 	private volatile Map<IProject, IBeansProject> projects = new HashMap<IProject, IBeansProject>();
 
+	private final BeanClassIndex beanClassIndex = new BeanClassIndex();
+
 	private IResourceChangeListener workspaceListener;
 
 	private IFacetedProjectListener facetedProjectListener;
@@ -113,6 +116,22 @@ public class BeansModel extends AbstractModel implements IBeansModel {
 		});
 	}
 
+	/**
+	 * Returns <code>true</code> if the current thread holds the read or write lock of this model.
+	 * @since 3.9.2
+	 */
+	public boolean isLockedByCurrentThread() {
+		return rwl.getReadHoldCount() > 0 || rwl.isWriteLockedByCurrentThread();
+	}
+
+	/**
+	 * Returns the index of the configs by bean class of this model's projects.
+	 * @since 3.9.2
+	 */
+	public BeanClassIndex getBeanClassIndex() {
+		return beanClassIndex;
+	}
+
 	@Override
 	public IModelElement[] getElementChildren() {
 		return getProjects().toArray(new IModelElement[getProjects().size()]);
@@ -342,12 +361,9 @@ public class BeansModel extends AbstractModel implements IBeansModel {
 		Set<IBeansConfig> configs = new LinkedHashSet<IBeansConfig>();
 		try {
 			r.lock();
+			beanClassIndex.retainProjects(projects.values());
 			for (IBeansProject project : projects.values()) {
-				for (IBeansConfig config : project.getConfigs()) {
-					if (config.isBeanClass(className)) {
-						configs.add(config);
-					}
-				}
+				configs.addAll(beanClassIndex.getConfigsByBeanClass(project, className));
 			}
 		}
 		finally {
@@ -493,6 +509,7 @@ public class BeansModel extends AbstractModel implements IBeansModel {
 				finally {
 					w.unlock();
 				}
+				BeansConfigValidator.getValidationDependencyGraph().remove(project);
 				if (proj != null) {
 					notifyListeners(proj, Type.CHANGED);
 				}
@@ -547,6 +564,7 @@ public class BeansModel extends AbstractModel implements IBeansModel {
 			finally {
 				w.unlock();
 			}
+			BeansConfigValidator.getValidationDependencyGraph().remove(project);
 			if (proj != null) {
 				notifyListeners(proj, Type.REMOVED);
 			}
@@ -564,6 +582,7 @@ public class BeansModel extends AbstractModel implements IBeansModel {
 			finally {
 				w.unlock();
 			}
+			BeansConfigValidator.getValidationDependencyGraph().remove(project);
 			if (proj != null) {
 				notifyListeners(proj, Type.REMOVED);
 			}
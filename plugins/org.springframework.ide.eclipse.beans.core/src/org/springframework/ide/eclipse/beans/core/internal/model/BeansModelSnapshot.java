@@ -0,0 +1,940 @@
+/*******************************************************************************
+ * Copyright (c) 2016, 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.internal.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaModelException;
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.ConstructorArgumentValues.ValueHolder;
+import org.springframework.beans.factory.config.RuntimeBeanNameReference;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.config.TypedStringValue;
+import org.springframework.beans.factory.parsing.AliasDefinition;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.GenericBeanDefinition;
+import org.springframework.beans.factory.xml.DocumentDefaultsDefinition;
+import org.springframework.core.io.Resource;
+import org.springframework.ide.eclipse.beans.core.model.IBean;
+import org.springframework.ide.eclipse.beans.core.model.IBeanAlias;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
+import org.springframework.ide.eclipse.beans.core.model.IBeansModel;
+import org.springframework.ide.eclipse.beans.core.model.IBeansProject;
+import org.springframework.ide.eclipse.core.java.JdtUtils;
+import org.springframework.ide.eclipse.core.model.DefaultModelSourceLocation;
+import org.springframework.ide.eclipse.core.model.IModelSourceLocation;
+import org.springframework.ide.eclipse.core.model.ModelUtils;
+import org.springframework.ide.eclipse.core.model.validation.ValidationProblem;
+import org.springframework.ide.eclipse.core.model.validation.ValidationProblemAttribute;
+import org.springframework.ide.eclipse.core.model.xml.XmlSourceLocation;
+
+/**
+ * Compact binary snapshot of the beans of {@link BeansConfig}s, used to populate configs on startup without parsing
+ * them.
+ * <p>
+ * An entry is keyed by the full path of its config file and is only used if the modification stamp of the config
+ * file and the classpath stamp of its project still match. The classpath stamp covers the project's
+ * <code>.classpath</code>, the libraries on its resolved classpath and, transitively, the classpath of the projects it
+ * depends on. Entries are used once: configs that are reloaded afterwards are parsed again.
+ * <p>
+ * Only configs that can be restored completely are written: no imports, components or post processors, and only
+ * beans of {@link GenericBeanDefinition}s whose property and constructor argument values are strings or bean
+ * references. The parsing problems of a config are stored with it, so that restored configs report them again.
+ * @since 3.9.2
+ */
+public class BeansModelSnapshot {
+
+	private static final int MAGIC = 0x5342534d;
+
+	private static final int VERSION = 2;
+
+	private static final String CLASSPATH_FILE = ".classpath";
+
+	private static final byte VALUE_NULL = 0;
+
+	private static final byte VALUE_STRING = 1;
+
+	private static final byte VALUE_TYPED_STRING = 2;
+
+	private static final byte VALUE_BEAN_REFERENCE = 3;
+
+	private static final byte VALUE_BEAN_NAME_REFERENCE = 4;
+
+	private static final byte LOCATION_NONE = 0;
+
+	private static final byte LOCATION_XML = 1;
+
+	private static final byte LOCATION_DEFAULT = 2;
+
+	private static final byte ATTRIBUTE_STRING = 0;
+
+	private static final byte ATTRIBUTE_INTEGER = 1;
+
+	private static final byte ATTRIBUTE_BOOLEAN = 2;
+
+	private final Map<String, ConfigEntry> entries = new LinkedHashMap<String, ConfigEntry>();
+
+	/** Classpath stamps per project; cleared whenever a config is reloaded, e.g. after a classpath change */
+	private final Map<IProject, Long> classpathStamps = new HashMap<IProject, Long>();
+
+	/**
+	 * Reads the snapshot from the given file. Returns an empty snapshot if the file doesn't exist or can't be read.
+	 */
+	public static BeansModelSnapshot read(File file) {
+		BeansModelSnapshot snapshot = new BeansModelSnapshot();
+		if (file.exists()) {
+			DataInputStream in = null;
+			try {
+				in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+				snapshot.readEntries(new Input(in));
+			}
+			catch (IOException e) {
+				snapshot.entries.clear();
+			}
+			finally {
+				close(in);
+			}
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Writes the loaded configs of the given model, together with the entries of this snapshot that have not been used
+	 * and are still up-to-date, to the given file.
+	 */
+	public void write(File file, IBeansModel model) throws IOException {
+		List<IBeansConfig> configs = new ArrayList<IBeansConfig>();
+		for (IBeansProject project : model.getProjects()) {
+			if (!(project instanceof BeansProject) || ((BeansProject) project).isInitialized()) {
+				configs.addAll(project.getConfigs());
+			}
+		}
+		write(file, configs);
+	}
+
+	/**
+	 * Writes the given configs that are loaded, together with the entries of this snapshot that have not been used
+	 * and are still up-to-date, to the given file.
+	 */
+	public synchronized void write(File file, Collection<IBeansConfig> configs) throws IOException {
+		Map<String, ConfigEntry> current = new LinkedHashMap<String, ConfigEntry>();
+		for (Map.Entry<String, ConfigEntry> entry : entries.entrySet()) {
+			if (isUpToDate(entry.getValue(), getFile(entry.getKey()))) {
+				current.put(entry.getKey(), entry.getValue());
+			}
+		}
+		for (IBeansConfig config : configs) {
+			if (config instanceof BeansConfig && ((BeansConfig) config).isInitialized()) {
+				ConfigEntry entry = createEntry((BeansConfig) config,
+						getClasspathStamp(config.getElementResource().getProject()));
+				if (entry != null) {
+					current.put(config.getElementResource().getFullPath().toString(), entry);
+				}
+				else {
+					current.remove(config.getElementResource().getFullPath().toString());
+				}
+			}
+		}
+
+		File tempFile = new File(file.getPath() + ".tmp");
+		DataOutputStream out = null;
+		try {
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+			Output output = new Output(out);
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(current.size());
+			for (Map.Entry<String, ConfigEntry> entry : current.entrySet()) {
+				output.writeString(entry.getKey());
+				entry.getValue().write(output);
+			}
+		}
+		finally {
+			close(out);
+		}
+		if (file.exists() && !file.delete()) {
+			throw new IOException("Cannot replace model snapshot '" + file + "'");
+		}
+		if (!tempFile.renameTo(file)) {
+			throw new IOException("Cannot write model snapshot '" + file + "'");
+		}
+	}
+
+	/**
+	 * Populates the beans, aliases and defaults of the given config from its entry, if there is an up-to-date one.
+	 * The entry is removed from this snapshot.
+	 * <p>
+	 * This method must only be called while holding the config's write lock.
+	 * @param resource the resource the restored source locations refer to
+	 * @return <code>true</code> if the config has been populated
+	 */
+	public boolean restore(BeansConfig config, Resource resource) {
+		IFile file = (IFile) config.getElementResource();
+		ConfigEntry entry;
+		synchronized (this) {
+			entry = entries.remove(file.getFullPath().toString());
+		}
+		if (entry == null || !isUpToDate(entry, file)) {
+			return false;
+		}
+		entry.restore(config, resource);
+		return true;
+	}
+
+	/**
+	 * Removes the entry of the given config file, so that the config gets parsed on its next load.
+	 */
+	public synchronized void discard(IResource file) {
+		if (file != null) {
+			entries.remove(file.getFullPath().toString());
+		}
+		synchronized (classpathStamps) {
+			classpathStamps.clear();
+		}
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	private void readEntries(Input in) throws IOException {
+		if (in.in.readInt() != MAGIC || in.in.readInt() != VERSION) {
+			return;
+		}
+		int count = in.in.readInt();
+		for (int i = 0; i < count; i++) {
+			String path = in.readString();
+			entries.put(path, ConfigEntry.read(in));
+		}
+	}
+
+	private boolean isUpToDate(ConfigEntry entry, IFile file) {
+		return file.exists() && file.getModificationStamp() == entry.modificationStamp
+				&& getClasspathStamp(file.getProject()) == entry.classpathStamp;
+	}
+
+	private long getClasspathStamp(IProject project) {
+		synchronized (classpathStamps) {
+			Long stamp = classpathStamps.get(project);
+			if (stamp == null) {
+				try {
+					stamp = computeClasspathStamp(project, new HashSet<IProject>());
+					if (stamp == IResource.NULL_STAMP) {
+						stamp = 0L;
+					}
+				}
+				catch (JavaModelException e) {
+					stamp = (long) IResource.NULL_STAMP;
+				}
+				classpathStamps.put(project, stamp);
+			}
+			return stamp;
+		}
+	}
+
+	/**
+	 * Returns a snapshot entry for the given config or <code>null</code> if it can't be restored completely.
+	 */
+	static ConfigEntry createEntry(BeansConfig config, long classpathStamp) {
+		IResource file = config.getElementResource();
+		if (config.isElementArchived() || !(file instanceof IFile) || classpathStamp == IResource.NULL_STAMP
+				|| !config.getImports().isEmpty() || !config.getComponents().isEmpty() || config.hasPostProcessors()) {
+			return null;
+		}
+		List<ProblemEntry> problems = new ArrayList<ProblemEntry>();
+		for (ValidationProblem problem : config.getProblems()) {
+			if (!file.equals(problem.getResource()) || !ProblemEntry.isSupported(problem)) {
+				return null;
+			}
+			problems.add(new ProblemEntry(problem));
+		}
+		List<BeanEntry> beans = new ArrayList<BeanEntry>();
+		for (IBean bean : config.getBeans()) {
+			BeanDefinition definition = ((Bean) bean).getBeanDefinition();
+			if (definition.getClass() != GenericBeanDefinition.class || !isSupported((AbstractBeanDefinition) definition)) {
+				return null;
+			}
+			beans.add(new BeanEntry(bean.getElementName(), bean.getAliases(), (GenericBeanDefinition) definition));
+		}
+		List<String[]> aliases = new ArrayList<String[]>();
+		List<IModelSourceLocation> aliasLocations = new ArrayList<IModelSourceLocation>();
+		for (IBeanAlias alias : config.getAliases()) {
+			aliases.add(new String[] { alias.getBeanName(), alias.getElementName() });
+			aliasLocations.add(alias.getElementSourceLocation());
+		}
+		return new ConfigEntry(file.getModificationStamp(), classpathStamp, config.defaults, aliases, aliasLocations,
+				beans, problems);
+	}
+
+	private static boolean isSupported(AbstractBeanDefinition definition) {
+		if (!definition.getMethodOverrides().isEmpty() || !definition.getQualifiers().isEmpty()) {
+			return false;
+		}
+		for (PropertyValue propertyValue : definition.getPropertyValues().getPropertyValues()) {
+			if (!isSupportedValue(propertyValue.getValue())) {
+				return false;
+			}
+		}
+		ConstructorArgumentValues cargValues = definition.getConstructorArgumentValues();
+		for (ValueHolder valueHolder : cargValues.getGenericArgumentValues()) {
+			if (!isSupportedValue(valueHolder.getValue())) {
+				return false;
+			}
+		}
+		for (ValueHolder valueHolder : cargValues.getIndexedArgumentValues().values()) {
+			if (!isSupportedValue(valueHolder.getValue())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isSupportedValue(Object value) {
+		return value == null || value instanceof String || value.getClass() == TypedStringValue.class
+				|| value.getClass() == RuntimeBeanReference.class || value.getClass() == RuntimeBeanNameReference.class;
+	}
+
+	/**
+	 * Combines the stamp of the project's <code>.classpath</code> with the paths, sizes and modification times of the
+	 * libraries on its resolved classpath and the stamps of the projects it depends on.
+	 */
+	private static long computeClasspathStamp(IProject project, Set<IProject> visited) throws JavaModelException {
+		long stamp = project.getFile(CLASSPATH_FILE).getModificationStamp();
+		IJavaProject javaProject = JdtUtils.getJavaProject(project);
+		if (!visited.add(project) || javaProject == null) {
+			return stamp;
+		}
+		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+		for (IClasspathEntry entry : javaProject.getResolvedClasspath(true)) {
+			stamp = 31 * stamp + entry.getPath().toString().hashCode();
+			if (entry.getEntryKind() == IClasspathEntry.CPE_LIBRARY) {
+				File library = getLocation(root, entry.getPath());
+				stamp = 31 * stamp + library.lastModified();
+				stamp = 31 * stamp + library.length();
+			}
+			else if (entry.getEntryKind() == IClasspathEntry.CPE_PROJECT) {
+				stamp = 31 * stamp + computeClasspathStamp(root.getProject(entry.getPath().lastSegment()), visited);
+			}
+		}
+		return stamp;
+	}
+
+	private static File getLocation(IWorkspaceRoot root, IPath path) {
+		IResource resource = root.findMember(path);
+		if (resource != null && resource.getLocation() != null) {
+			return resource.getLocation().toFile();
+		}
+		return path.toFile();
+	}
+
+	private static IFile getFile(String path) {
+		return ResourcesPlugin.getWorkspace().getRoot().getFile(new Path(path));
+	}
+
+	private static void close(java.io.Closeable closeable) {
+		if (closeable != null) {
+			try {
+				closeable.close();
+			}
+			catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
+	/**
+	 * Snapshot of a single config.
+	 */
+	static class ConfigEntry {
+
+		private final long modificationStamp;
+
+		private final long classpathStamp;
+
+		private final String[] defaults;
+
+		private final List<String[]> aliases;
+
+		private final List<IModelSourceLocation> aliasLocations;
+
+		private final List<BeanEntry> beans;
+
+		private final List<ProblemEntry> problems;
+
+		ConfigEntry(long modificationStamp, long classpathStamp, DocumentDefaultsDefinition defaults,
+				List<String[]> aliases, List<IModelSourceLocation> aliasLocations, List<BeanEntry> beans,
+				List<ProblemEntry> problems) {
+			this(modificationStamp, classpathStamp, (defaults != null ? new String[] { defaults.getLazyInit(),
+					defaults.getMerge(), defaults.getAutowire(), defaults.getDependencyCheck(),
+					defaults.getAutowireCandidates(), defaults.getInitMethod(), defaults.getDestroyMethod() } : null),
+					aliases, aliasLocations, beans, problems);
+		}
+
+		private ConfigEntry(long modificationStamp, long classpathStamp, String[] defaults, List<String[]> aliases,
+				List<IModelSourceLocation> aliasLocations, List<BeanEntry> beans, List<ProblemEntry> problems) {
+			this.modificationStamp = modificationStamp;
+			this.classpathStamp = classpathStamp;
+			this.defaults = defaults;
+			this.aliases = aliases;
+			this.aliasLocations = aliasLocations;
+			this.beans = beans;
+			this.problems = problems;
+		}
+
+		void restore(BeansConfig config, Resource resource) {
+			if (defaults != null) {
+				DocumentDefaultsDefinition defaultsDefinition = new DocumentDefaultsDefinition();
+				defaultsDefinition.setLazyInit(defaults[0]);
+				defaultsDefinition.setMerge(defaults[1]);
+				defaultsDefinition.setAutowire(defaults[2]);
+				defaultsDefinition.setDependencyCheck(defaults[3]);
+				defaultsDefinition.setAutowireCandidates(defaults[4]);
+				defaultsDefinition.setInitMethod(defaults[5]);
+				defaultsDefinition.setDestroyMethod(defaults[6]);
+				config.defaults = defaultsDefinition;
+			}
+			for (int i = 0; i < aliases.size(); i++) {
+				String[] alias = aliases.get(i);
+				config.aliases.put(alias[1], new BeanAlias(config, new AliasDefinition(alias[0], alias[1],
+						withResource(aliasLocations.get(i), resource))));
+			}
+			for (BeanEntry bean : beans) {
+				config.beans.put(bean.name, new Bean(config, bean.name, bean.aliases, bean.createDefinition(resource)));
+			}
+			for (ProblemEntry problem : problems) {
+				config.problems.add(problem.createProblem(config.getElementResource()));
+			}
+		}
+
+		void write(Output out) throws IOException {
+			out.out.writeLong(modificationStamp);
+			out.out.writeLong(classpathStamp);
+			out.writeStrings(defaults);
+			out.out.writeInt(aliases.size());
+			for (int i = 0; i < aliases.size(); i++) {
+				out.writeString(aliases.get(i)[0]);
+				out.writeString(aliases.get(i)[1]);
+				out.writeLocation(aliasLocations.get(i));
+			}
+			out.out.writeInt(beans.size());
+			for (BeanEntry bean : beans) {
+				bean.write(out);
+			}
+			out.out.writeInt(problems.size());
+			for (ProblemEntry problem : problems) {
+				problem.write(out);
+			}
+		}
+
+		static ConfigEntry read(Input in) throws IOException {
+			long modificationStamp = in.in.readLong();
+			long classpathStamp = in.in.readLong();
+			String[] defaults = in.readStrings();
+			int aliasCount = in.in.readInt();
+			List<String[]> aliases = new ArrayList<String[]>(aliasCount);
+			List<IModelSourceLocation> aliasLocations = new ArrayList<IModelSourceLocation>(aliasCount);
+			for (int i = 0; i < aliasCount; i++) {
+				aliases.add(new String[] { in.readString(), in.readString() });
+				aliasLocations.add(in.readLocation());
+			}
+			int beanCount = in.in.readInt();
+			List<BeanEntry> beans = new ArrayList<BeanEntry>(beanCount);
+			for (int i = 0; i < beanCount; i++) {
+				beans.add(BeanEntry.read(in));
+			}
+			int problemCount = in.in.readInt();
+			List<ProblemEntry> problems = new ArrayList<ProblemEntry>(problemCount);
+			for (int i = 0; i < problemCount; i++) {
+				problems.add(ProblemEntry.read(in));
+			}
+			return new ConfigEntry(modificationStamp, classpathStamp, defaults, aliases, aliasLocations, beans,
+					problems);
+		}
+	}
+
+	/**
+	 * Snapshot of a parsing problem reported on the config file itself.
+	 */
+	static class ProblemEntry {
+
+		private final ValidationProblem problem;
+
+		ProblemEntry(ValidationProblem problem) {
+			this.problem = problem;
+		}
+
+		static boolean isSupported(ValidationProblem problem) {
+			if (problem.getAttributes() != null) {
+				for (ValidationProblemAttribute attribute : problem.getAttributes()) {
+					Object value = attribute.getValue();
+					if (!(value == null || value instanceof String || value instanceof Integer
+							|| value instanceof Boolean)) {
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+
+		ValidationProblem createProblem(IResource resource) {
+			return new ValidationProblem(problem.getRuleId(), problem.getErrorId(), problem.getSeverity(),
+					problem.getMessage(), resource, problem.getLine(), problem.getAttributes());
+		}
+
+		void write(Output out) throws IOException {
+			out.writeString(problem.getRuleId());
+			out.writeString(problem.getErrorId());
+			out.out.writeInt(problem.getSeverity());
+			out.writeString(problem.getMessage());
+			out.out.writeInt(problem.getLine());
+			ValidationProblemAttribute[] attributes = problem.getAttributes();
+			if (attributes == null) {
+				out.out.writeInt(-1);
+				return;
+			}
+			out.out.writeInt(attributes.length);
+			for (ValidationProblemAttribute attribute : attributes) {
+				out.writeString(attribute.getKey());
+				Object value = attribute.getValue();
+				if (value instanceof Integer) {
+					out.out.writeByte(ATTRIBUTE_INTEGER);
+					out.out.writeInt((Integer) value);
+				}
+				else if (value instanceof Boolean) {
+					out.out.writeByte(ATTRIBUTE_BOOLEAN);
+					out.out.writeBoolean((Boolean) value);
+				}
+				else {
+					out.out.writeByte(ATTRIBUTE_STRING);
+					out.writeString((String) value);
+				}
+			}
+		}
+
+		static ProblemEntry read(Input in) throws IOException {
+			String ruleId = in.readString();
+			String errorId = in.readString();
+			int severity = in.in.readInt();
+			String message = in.readString();
+			int line = in.in.readInt();
+			int attributeCount = in.in.readInt();
+			ValidationProblemAttribute[] attributes = null;
+			if (attributeCount >= 0) {
+				attributes = new ValidationProblemAttribute[attributeCount];
+				for (int i = 0; i < attributeCount; i++) {
+					String key = in.readString();
+					byte kind = in.in.readByte();
+					Object value;
+					if (kind == ATTRIBUTE_INTEGER) {
+						value = in.in.readInt();
+					}
+					else if (kind == ATTRIBUTE_BOOLEAN) {
+						value = in.in.readBoolean();
+					}
+					else {
+						value = in.readString();
+					}
+					attributes[i] = new ValidationProblemAttribute(key, value);
+				}
+			}
+			return new ProblemEntry(new ValidationProblem(ruleId, errorId, severity, message, null, line,
+					attributes));
+		}
+	}
+
+	/**
+	 * Snapshot of a single bean and its {@link GenericBeanDefinition}.
+	 */
+	static class BeanEntry {
+
+		private final String name;
+
+		private final String[] aliases;
+
+		private final GenericBeanDefinition definition;
+
+		BeanEntry(String name, String[] aliases, GenericBeanDefinition definition) {
+			this.name = name;
+			this.aliases = aliases;
+			this.definition = definition;
+		}
+
+		/**
+		 * Returns a copy of the stored definition whose source locations refer to the given resource.
+		 */
+		GenericBeanDefinition createDefinition(Resource resource) {
+			GenericBeanDefinition copy = new GenericBeanDefinition(definition);
+			copy.setSource(withResource(ModelUtils.getSourceLocation(definition), resource));
+			copy.setResource(resource);
+
+			MutablePropertyValues propertyValues = new MutablePropertyValues();
+			for (PropertyValue propertyValue : definition.getPropertyValues().getPropertyValues()) {
+				PropertyValue value = new PropertyValue(propertyValue.getName(), withResource(propertyValue.getValue(),
+						resource));
+				value.setSource(withResource(ModelUtils.getSourceLocation(propertyValue), resource));
+				propertyValues.addPropertyValue(value);
+			}
+			copy.setPropertyValues(propertyValues);
+
+			ConstructorArgumentValues cargValues = new ConstructorArgumentValues();
+			for (ValueHolder valueHolder : definition.getConstructorArgumentValues().getGenericArgumentValues()) {
+				cargValues.addGenericArgumentValue(withResource(valueHolder, resource));
+			}
+			for (Map.Entry<Integer, ValueHolder> entry : definition.getConstructorArgumentValues()
+					.getIndexedArgumentValues().entrySet()) {
+				cargValues.addIndexedArgumentValue(entry.getKey(), withResource(entry.getValue(), resource));
+			}
+			copy.setConstructorArgumentValues(cargValues);
+			return copy;
+		}
+
+		void write(Output out) throws IOException {
+			out.writeString(name);
+			out.writeStrings(aliases);
+			out.writeString(definition.getBeanClassName());
+			out.writeString(definition.getParentName());
+			out.writeString(definition.getScope());
+			out.writeString(definition.getFactoryBeanName());
+			out.writeString(definition.getFactoryMethodName());
+			out.writeString(definition.getInitMethodName());
+			out.writeString(definition.getDestroyMethodName());
+			out.writeString(definition.getDescription());
+			out.writeStrings(definition.getDependsOn());
+			out.out.writeBoolean(definition.isAbstract());
+			out.out.writeBoolean(definition.isLazyInit());
+			out.out.writeBoolean(definition.isAutowireCandidate());
+			out.out.writeBoolean(definition.isPrimary());
+			out.out.writeBoolean(definition.isEnforceInitMethod());
+			out.out.writeBoolean(definition.isEnforceDestroyMethod());
+			out.out.writeInt(definition.getAutowireMode());
+			out.out.writeInt(definition.getDependencyCheck());
+			out.out.writeInt(definition.getRole());
+			out.writeLocation(ModelUtils.getSourceLocation(definition));
+
+			PropertyValue[] propertyValues = definition.getPropertyValues().getPropertyValues();
+			out.out.writeInt(propertyValues.length);
+			for (PropertyValue propertyValue : propertyValues) {
+				out.writeString(propertyValue.getName());
+				out.writeValue(propertyValue.getValue());
+				out.writeLocation(ModelUtils.getSourceLocation(propertyValue));
+			}
+
+			ConstructorArgumentValues cargValues = definition.getConstructorArgumentValues();
+			out.out.writeInt(cargValues.getGenericArgumentValues().size());
+			for (ValueHolder valueHolder : cargValues.getGenericArgumentValues()) {
+				out.writeValueHolder(valueHolder);
+			}
+			out.out.writeInt(cargValues.getIndexedArgumentValues().size());
+			for (Map.Entry<Integer, ValueHolder> entry : cargValues.getIndexedArgumentValues().entrySet()) {
+				out.out.writeInt(entry.getKey());
+				out.writeValueHolder(entry.getValue());
+			}
+		}
+
+		static BeanEntry read(Input in) throws IOException {
+			String name = in.readString();
+			String[] aliases = in.readStrings();
+			GenericBeanDefinition definition = new GenericBeanDefinition();
+			definition.setBeanClassName(in.readString());
+			definition.setParentName(in.readString());
+			definition.setScope(in.readString());
+			definition.setFactoryBeanName(in.readString());
+			definition.setFactoryMethodName(in.readString());
+			definition.setInitMethodName(in.readString());
+			definition.setDestroyMethodName(in.readString());
+			definition.setDescription(in.readString());
+			definition.setDependsOn(in.readStrings());
+			definition.setAbstract(in.in.readBoolean());
+			definition.setLazyInit(in.in.readBoolean());
+			definition.setAutowireCandidate(in.in.readBoolean());
+			definition.setPrimary(in.in.readBoolean());
+			definition.setEnforceInitMethod(in.in.readBoolean());
+			definition.setEnforceDestroyMethod(in.in.readBoolean());
+			definition.setAutowireMode(in.in.readInt());
+			definition.setDependencyCheck(in.in.readInt());
+			definition.setRole(in.in.readInt());
+			definition.setSource(in.readLocation());
+
+			int propertyCount = in.in.readInt();
+			for (int i = 0; i < propertyCount; i++) {
+				PropertyValue propertyValue = new PropertyValue(in.readString(), in.readValue());
+				propertyValue.setSource(in.readLocation());
+				definition.getPropertyValues().addPropertyValue(propertyValue);
+			}
+
+			int genericCount = in.in.readInt();
+			for (int i = 0; i < genericCount; i++) {
+				definition.getConstructorArgumentValues().addGenericArgumentValue(in.readValueHolder());
+			}
+			int indexedCount = in.in.readInt();
+			for (int i = 0; i < indexedCount; i++) {
+				int index = in.in.readInt();
+				definition.getConstructorArgumentValues().addIndexedArgumentValue(index, in.readValueHolder());
+			}
+			return new BeanEntry(name, aliases, definition);
+		}
+	}
+
+	private static ValueHolder withResource(ValueHolder valueHolder, Resource resource) {
+		ValueHolder copy = new ValueHolder(withResource(valueHolder.getValue(), resource), valueHolder.getType(),
+				valueHolder.getName());
+		copy.setSource(withResource(ModelUtils.getSourceLocation(valueHolder), resource));
+		return copy;
+	}
+
+	private static Object withResource(Object value, Resource resource) {
+		if (value instanceof TypedStringValue) {
+			TypedStringValue typedStringValue = (TypedStringValue) value;
+			TypedStringValue copy = new TypedStringValue(typedStringValue.getValue(), typedStringValue
+					.getTargetTypeName());
+			copy.setSource(withResource(ModelUtils.getSourceLocation(typedStringValue), resource));
+			return copy;
+		}
+		else if (value instanceof RuntimeBeanReference) {
+			RuntimeBeanReference reference = (RuntimeBeanReference) value;
+			RuntimeBeanReference copy = new RuntimeBeanReference(reference.getBeanName(), reference.isToParent());
+			copy.setSource(withResource(ModelUtils.getSourceLocation(reference), resource));
+			return copy;
+		}
+		else if (value instanceof RuntimeBeanNameReference) {
+			RuntimeBeanNameReference reference = (RuntimeBeanNameReference) value;
+			RuntimeBeanNameReference copy = new RuntimeBeanNameReference(reference.getBeanName());
+			copy.setSource(withResource(ModelUtils.getSourceLocation(reference), resource));
+			return copy;
+		}
+		return value;
+	}
+
+	private static IModelSourceLocation withResource(IModelSourceLocation location, Resource resource) {
+		if (location instanceof XmlSourceLocation) {
+			XmlSourceLocation copy = new XmlSourceLocation((XmlSourceLocation) location);
+			copy.setResource(resource);
+			return copy;
+		}
+		else if (location != null) {
+			return new DefaultModelSourceLocation(location.getStartLine(), location.getEndLine(), resource);
+		}
+		return null;
+	}
+
+	/**
+	 * Writes strings through a table, so that every distinct string is only written once.
+	 */
+	private static class Output {
+
+		private final DataOutputStream out;
+
+		private final Map<String, Integer> strings = new HashMap<String, Integer>();
+
+		Output(DataOutputStream out) {
+			this.out = out;
+		}
+
+		void writeString(String value) throws IOException {
+			if (value == null) {
+				out.writeInt(-1);
+				return;
+			}
+			Integer id = strings.get(value);
+			if (id != null) {
+				out.writeInt(id);
+			}
+			else {
+				id = strings.size();
+				strings.put(value, id);
+				out.writeInt(id);
+				out.writeUTF(value);
+			}
+		}
+
+		void writeStrings(String[] values) throws IOException {
+			if (values == null) {
+				out.writeInt(-1);
+				return;
+			}
+			out.writeInt(values.length);
+			for (String value : values) {
+				writeString(value);
+			}
+		}
+
+		void writeValue(Object value) throws IOException {
+			if (value instanceof String) {
+				out.writeByte(VALUE_STRING);
+				writeString((String) value);
+			}
+			else if (value instanceof TypedStringValue) {
+				TypedStringValue typedStringValue = (TypedStringValue) value;
+				out.writeByte(VALUE_TYPED_STRING);
+				writeString(typedStringValue.getValue());
+				writeString(typedStringValue.getTargetTypeName());
+				writeLocation(ModelUtils.getSourceLocation(typedStringValue));
+			}
+			else if (value instanceof RuntimeBeanReference) {
+				RuntimeBeanReference reference = (RuntimeBeanReference) value;
+				out.writeByte(VALUE_BEAN_REFERENCE);
+				writeString(reference.getBeanName());
+				out.writeBoolean(reference.isToParent());
+				writeLocation(ModelUtils.getSourceLocation(reference));
+			}
+			else if (value instanceof RuntimeBeanNameReference) {
+				RuntimeBeanNameReference reference = (RuntimeBeanNameReference) value;
+				out.writeByte(VALUE_BEAN_NAME_REFERENCE);
+				writeString(reference.getBeanName());
+				writeLocation(ModelUtils.getSourceLocation(reference));
+			}
+			else {
+				out.writeByte(VALUE_NULL);
+			}
+		}
+
+		void writeValueHolder(ValueHolder valueHolder) throws IOException {
+			writeValue(valueHolder.getValue());
+			writeString(valueHolder.getType());
+			writeString(valueHolder.getName());
+			writeLocation(ModelUtils.getSourceLocation(valueHolder));
+		}
+
+		void writeLocation(IModelSourceLocation location) throws IOException {
+			if (location instanceof XmlSourceLocation) {
+				XmlSourceLocation xmlLocation = (XmlSourceLocation) location;
+				out.writeByte(LOCATION_XML);
+				writeString(xmlLocation.getLocalName());
+				writeString(xmlLocation.getPrefix());
+				writeString(xmlLocation.getNamespaceURI());
+				out.writeInt(xmlLocation.getStartLine());
+				out.writeInt(xmlLocation.getEndLine());
+			}
+			else if (location != null) {
+				out.writeByte(LOCATION_DEFAULT);
+				out.writeInt(location.getStartLine());
+				out.writeInt(location.getEndLine());
+			}
+			else {
+				out.writeByte(LOCATION_NONE);
+			}
+		}
+	}
+
+	/**
+	 * Counterpart of {@link Output}.
+	 */
+	private static class Input {
+
+		private final DataInputStream in;
+
+		private final List<String> strings = new ArrayList<String>();
+
+		Input(DataInputStream in) {
+			this.in = in;
+		}
+
+		String readString() throws IOException {
+			int id = in.readInt();
+			if (id < 0) {
+				return null;
+			}
+			if (id == strings.size()) {
+				strings.add(in.readUTF());
+			}
+			else if (id > strings.size()) {
+				throw new IOException("Corrupt model snapshot");
+			}
+			return strings.get(id);
+		}
+
+		String[] readStrings() throws IOException {
+			int length = in.readInt();
+			if (length < 0) {
+				return null;
+			}
+			String[] values = new String[length];
+			for (int i = 0; i < length; i++) {
+				values[i] = readString();
+			}
+			return values;
+		}
+
+		Object readValue() throws IOException {
+			byte kind = in.readByte();
+			switch (kind) {
+			case VALUE_STRING:
+				return readString();
+			case VALUE_TYPED_STRING:
+				TypedStringValue typedStringValue = new TypedStringValue(readString(), readString());
+				typedStringValue.setSource(readLocation());
+				return typedStringValue;
+			case VALUE_BEAN_REFERENCE:
+				RuntimeBeanReference reference = new RuntimeBeanReference(readString(), in.readBoolean());
+				reference.setSource(readLocation());
+				return reference;
+			case VALUE_BEAN_NAME_REFERENCE:
+				RuntimeBeanNameReference nameReference = new RuntimeBeanNameReference(readString());
+				nameReference.setSource(readLocation());
+				return nameReference;
+			default:
+				return null;
+			}
+		}
+
+		ValueHolder readValueHolder() throws IOException {
+			Object value = readValue();
+			ValueHolder valueHolder = new ValueHolder(value, readString(), readString());
+			valueHolder.setSource(readLocation());
+			return valueHolder;
+		}
+
+		IModelSourceLocation readLocation() throws IOException {
+			byte kind = in.readByte();
+			if (kind == LOCATION_XML) {
+				XmlSourceLocation location = new XmlSourceLocation(null, null, 0, 0);
+				location.setLocalName(readString());
+				location.setPrefix(readString());
+				location.setNamespaceURI(readString());
+				location.setStartLine(in.readInt());
+				location.setEndLine(in.readInt());
+				return location;
+			}
+			else if (kind == LOCATION_DEFAULT) {
+				return new DefaultModelSourceLocation(in.readInt(), in.readInt(), null);
+			}
+			return null;
+		}
+	}
+
+}
@@ -1310,6 +1310,12 @@ public abstract class BeansModelUtils {
 							changedTypeIsInterface[i] = types[i].isInterface();
 						}
 						
+						BeanClassIndex index = null;
+						if (BeansCorePlugin.getModel() instanceof BeansModel) {
+							index = ((BeansModel) BeansCorePlugin.getModel()).getBeanClassIndex();
+							index.retainProjects(projects);
+						}
+
 						for (IBeansProject project : projects) {
 							if (project != null) {
 
@@ -1318,6 +1324,15 @@ public abstract class BeansModelUtils {
 									continue;
 								}
 								
+								if (index != null) {
+									for (String changedTypeName : changedTypeNames) {
+										files.addAll(index.getConfigsByType(project, changedTypeName, typeEngine));
+									}
+									// the hierarchies of the changed types may have changed as well
+									index.invalidateTypes(project, changedTypeNames);
+									continue;
+								}
+
 								Set<IBeansConfig> configs = project.getConfigs();
 								for (IBeansConfig config : configs) {
 									boolean configAdded = false;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2016 Spring IDE Developers
+ * Copyright (c) 2004, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -717,6 +717,16 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 		}
 	}
 
+	/**
+	 * Loads all configs of this project that have not been loaded yet, configs that don't import each other in
+	 * parallel, and waits until they are loaded.
+	 * @since 3.9.2
+	 * @see BeansConfigLoader#load(java.util.Collection, IProgressMonitor)
+	 */
+	public void loadConfigs(IProgressMonitor monitor) {
+		BeansConfigLoader.load(getConfigs(), monitor);
+	}
+
 	/**
 	 * Updates the {@link BeansConfigSet}s defined within this project.
 	 * <p>
@@ -1040,6 +1050,14 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 		return BeansConfigFactory.getConfigName(file, this.project);
 	}
 
+	/**
+	 * Returns <code>true</code> if the current thread holds the read or write lock of this project.
+	 * @since 3.9.2
+	 */
+	public boolean isLockedByCurrentThread() {
+		return rwl.getReadHoldCount() > 0 || rwl.isWriteLockedByCurrentThread();
+	}
+
 	/**
 	 * Populate the project's model with the information read from project
 	 * description (an XML file defined in
@@ -1372,6 +1390,9 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 		 */
 		@Override
 		public void onReadEnd(IBeansConfig config) {
+			if (getElementParent() instanceof BeansModel) {
+				((BeansModel) getElementParent()).getBeanClassIndex().update(BeansProject.this, config);
+			}
 		}
 
 		/**
@@ -1386,6 +1407,9 @@ public class BeansProject extends AbstractResourceModelElement implements IBeans
 		 */
 		@Override
 		public void onReset(IBeansConfig config) {
+			if (getElementParent() instanceof BeansModel) {
+				((BeansModel) getElementParent()).getBeanClassIndex().remove(BeansProject.this, config);
+			}
 			for (IBeansProject project : BeansCorePlugin.getModel().getProjects()) {
 				for (IBeansConfigSet configSet : project.getConfigSets()) {
 					if (configSet.hasConfig((IFile) config.getElementResource())) {
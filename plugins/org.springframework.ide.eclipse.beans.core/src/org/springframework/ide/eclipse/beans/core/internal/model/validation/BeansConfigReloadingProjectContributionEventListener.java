@@ -28,6 +28,7 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.SubProgressMonitor;
 import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
 import org.springframework.ide.eclipse.beans.core.BeansCoreUtils;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansConfigLoader;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansModel;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelUtils;
 import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
@@ -35,7 +36,6 @@ import org.springframework.ide.eclipse.beans.core.model.IBeansConfigSet;
 import org.springframework.ide.eclipse.beans.core.model.IBeansImport;
 import org.springframework.ide.eclipse.beans.core.model.IBeansProject;
 import org.springframework.ide.eclipse.beans.core.model.IImportedBeansConfig;
-import org.springframework.ide.eclipse.beans.core.model.IReloadableBeansConfig;
 import org.springframework.ide.eclipse.core.internal.model.validation.ValidatorDefinition;
 import org.springframework.ide.eclipse.core.java.ITypeStructureCache;
 import org.springframework.ide.eclipse.core.java.JdtUtils;
@@ -101,16 +101,7 @@ public class BeansConfigReloadingProjectContributionEventListener extends Projec
 		if (configs.size() > 0) {
 			IProgressMonitor subMonitor = new SubProgressMonitor(monitor, 1);
 			subMonitor.beginTask("Initializing Spring Model", configs.size());
-			for (IBeansConfig config : configs) {
-				subMonitor.subTask("Loading '" + config.getElementResource().getFullPath().toString().substring(1)
-						+ "'");
-				
-				if (config instanceof IReloadableBeansConfig) {
-					((IReloadableBeansConfig) config).reload();
-					config.getBeans();
-					subMonitor.worked(1);
-				}
-			}
+			BeansConfigLoader.reload(configs, subMonitor);
 			subMonitor.done();
 		}
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2014 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,8 +10,11 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.beans.core.internal.model.validation;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.core.resources.IFile;
@@ -20,8 +23,12 @@ import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.core.IAnnotation;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelUtils;
@@ -34,10 +41,13 @@ import org.springframework.ide.eclipse.beans.core.model.IBeansModelElement;
 import org.springframework.ide.eclipse.beans.core.model.IBeansProject;
 import org.springframework.ide.eclipse.beans.core.model.IImportedBeansConfig;
 import org.springframework.ide.eclipse.core.MarkerUtils;
+import org.springframework.ide.eclipse.core.SpringCore;
 import org.springframework.ide.eclipse.core.java.ITypeStructureCache;
 import org.springframework.ide.eclipse.core.java.JdtUtils;
 import org.springframework.ide.eclipse.core.java.TypeStructureState;
+import org.springframework.ide.eclipse.core.internal.model.validation.ValidationRuleDefinition;
 import org.springframework.ide.eclipse.core.model.IModelElement;
+import org.springframework.ide.eclipse.core.model.IModelElementVisitor;
 import org.springframework.ide.eclipse.core.model.IResourceModelElement;
 import org.springframework.ide.eclipse.core.model.ISpringProject;
 import org.springframework.ide.eclipse.core.model.validation.AbstractValidator;
@@ -45,6 +55,7 @@ import org.springframework.ide.eclipse.core.model.validation.IValidationContext;
 import org.springframework.ide.eclipse.core.model.validation.IValidationElementLifecycleManager;
 import org.springframework.ide.eclipse.core.model.validation.IValidationElementLifecycleManagerExtension;
 import org.springframework.ide.eclipse.core.model.validation.IValidator;
+import org.springframework.ide.eclipse.core.model.validation.ValidationDependencyGraph;
 
 /**
  * {@link IValidator} implementation that is responsible for validating the {@link IBeansModelElement}s.
@@ -55,8 +66,28 @@ import org.springframework.ide.eclipse.core.model.validation.IValidator;
  */
 public class BeansConfigValidator extends AbstractValidator {
 
+	/** Types read by the rule invocations on every beans config; outlives the validator instance of a build */
+	private static final ValidationDependencyGraph DEPENDENCY_GRAPH = new ValidationDependencyGraph();
+
 	private Set<String> affectedBeans = new LinkedHashSet<String>();
 
+	/** Configs whose beans are all revalidated */
+	private Set<IResource> completeResources = new HashSet<IResource>();
+
+	/** Configs of which only the beans of changed classes are revalidated */
+	private Set<IResource> partialResources = new HashSet<IResource>();
+
+	/** Rule invocations to rerun per config if it is revalidated incrementally */
+	private Map<IResource, Set<String>> incrementalInvocations = new HashMap<IResource, Set<String>>();
+
+	/**
+	 * Returns the graph of the types read by the rule invocations on all beans configs.
+	 * @since 3.9.2
+	 */
+	public static ValidationDependencyGraph getValidationDependencyGraph() {
+		return DEPENDENCY_GRAPH;
+	}
+
 	public Set<IResource> deriveResources(Object object) {
 		Set<IResource> resources = new LinkedHashSet<IResource>();
 		if (object instanceof ISpringProject) {
@@ -86,6 +117,8 @@ public class BeansConfigValidator extends AbstractValidator {
 	@Override
 	public void cleanup(IResource resource, IProgressMonitor monitor) throws CoreException {
 		MarkerUtils.deleteAllMarkers(resource, getMarkerId());
+		// complete validations record the dependencies again, clean builds drop them
+		DEPENDENCY_GRAPH.remove(resource);
 	}
 
 	public Set<IResource> getAffectedResources(IResource resource, int kind, int deltaKind) throws CoreException {
@@ -109,6 +142,9 @@ public class BeansConfigValidator extends AbstractValidator {
 						addBeans(beansConfig);
 					}
 				}
+				if (deltaKind == IResourceDelta.REMOVED) {
+					DEPENDENCY_GRAPH.remove(resource);
+				}
 
 				// Add resources that are in a config set with the changed resources
 				propagateChangedResourceToConfigSets(resources);
@@ -133,7 +169,11 @@ public class BeansConfigValidator extends AbstractValidator {
 						propagateChangedResourceToProject(resource, resources);
 					}
 					else {
-						for (IBean bean : hierachyState.getBeansByContainingTypes(resource)) {
+						Set<IBean> changedBeans = hierachyState.getBeansByContainingTypes(resource);
+						if (addIncrementalInvocations(resource, changedBeans, resources)) {
+							return resources;
+						}
+						for (IBean bean : changedBeans) {
 							IBeansConfig beansConfig = BeansModelUtils.getConfig(bean);
 							// Resolve imported config files to their root importing one
 							if (beansConfig instanceof IImportedBeansConfig) {
@@ -141,11 +181,13 @@ public class BeansConfigValidator extends AbstractValidator {
 										IBeansConfig.class);
 								if (importingConfig != null) {
 									resources.add(importingConfig.getElementResource());
+									partialResources.add(importingConfig.getElementResource());
 									affectedBeans.add(bean.getElementID());
 								}
 							}
 							else {
 								resources.add(beansConfig.getElementResource());
+								partialResources.add(beansConfig.getElementResource());
 								affectedBeans.add(bean.getElementID());
 							}
 							
@@ -161,20 +203,183 @@ public class BeansConfigValidator extends AbstractValidator {
 		return resources;
 	}
 
+	/**
+	 * Looks up the rule invocations that read one of the types declared in the given changed Java file in the
+	 * dependency graph and schedules those to be rerun. On top of that, all rules are rerun on the beans of the changed
+	 * classes and on every element that no invocations have been recorded for yet (e.g. beans that were added by a
+	 * component scan or whose class has just appeared), as rules may read types that are not tracked by the graph.
+	 * @return <code>false</code> if the affected invocations can't be determined from the graph and the beans of the
+	 * changed classes need to be revalidated instead
+	 */
+	private boolean addIncrementalInvocations(IResource resource, Set<IBean> changedBeans, Set<IResource> resources) {
+		if (!isIncrementalValidationEnabled() || !resource.getName().endsWith(JdtUtils.JAVA_FILE_EXTENSION)) {
+			return false;
+		}
+
+		// Only configs that have completely been validated with dependency tracking can be validated incrementally
+		IBeansProject beansProject = BeansCorePlugin.getModel().getProject(resource.getProject());
+		if (beansProject == null) {
+			return false;
+		}
+		for (IBeansConfig beansConfig : beansProject.getConfigs()) {
+			if (!DEPENDENCY_GRAPH.isTracked(beansConfig.getElementResource())) {
+				return false;
+			}
+		}
+
+		IJavaElement javaElement = JavaCore.create((IFile) resource);
+		if (!(javaElement instanceof ICompilationUnit)) {
+			return false;
+		}
+		Set<String> changedTypes = new HashSet<String>();
+		try {
+			for (IType type : ((ICompilationUnit) javaElement).getAllTypes()) {
+				// a changed configuration class changes the beans it defines, not only their dependencies
+				if (isConfigurationType(type)) {
+					return false;
+				}
+				changedTypes.add(type.getFullyQualifiedName('$'));
+			}
+		}
+		catch (JavaModelException e) {
+			return false;
+		}
+
+		// Beans of the changed classes are revalidated completely, in whatever config they are defined
+		Map<IResource, Set<String>> changedBeansByConfig = new HashMap<IResource, Set<String>>();
+		for (IBean bean : changedBeans) {
+			IBeansConfig beansConfig = BeansModelUtils.getConfig(bean);
+			// Resolve imported config files to their root importing one
+			if (beansConfig instanceof IImportedBeansConfig) {
+				beansConfig = BeansModelUtils.getParentOfClass(beansConfig, IBeansConfig.class);
+			}
+			if (beansConfig != null) {
+				IResource configResource = beansConfig.getElementResource();
+				if (!DEPENDENCY_GRAPH.isTracked(configResource)) {
+					// config of another project without dependency tracking, revalidate the bean the old way
+					resources.add(configResource);
+					partialResources.add(configResource);
+					affectedBeans.add(bean.getElementID());
+					continue;
+				}
+				Set<String> beanIds = changedBeansByConfig.get(configResource);
+				if (beanIds == null) {
+					beanIds = new HashSet<String>();
+					changedBeansByConfig.put(configResource, beanIds);
+				}
+				beanIds.add(bean.getElementID());
+			}
+		}
+
+		Map<IResource, Set<String>> invocationsByConfig = DEPENDENCY_GRAPH.getInvocations(changedTypes, null);
+		for (IBeansConfig beansConfig : beansProject.getConfigs()) {
+			// picks up elements that have been added since the last validation
+			if (!invocationsByConfig.containsKey(beansConfig.getElementResource())) {
+				invocationsByConfig.put(beansConfig.getElementResource(), new HashSet<String>());
+			}
+		}
+		for (IResource configResource : changedBeansByConfig.keySet()) {
+			if (!invocationsByConfig.containsKey(configResource)) {
+				invocationsByConfig.put(configResource, new HashSet<String>());
+			}
+		}
+
+		for (Map.Entry<IResource, Set<String>> entry : invocationsByConfig.entrySet()) {
+			IResource configResource = entry.getKey();
+			IBeansConfig beansConfig = BeansCorePlugin.getModel().getConfig((IFile) configResource);
+			if (beansConfig == null) {
+				DEPENDENCY_GRAPH.remove(configResource);
+				continue;
+			}
+
+			Set<String> invocations = new HashSet<String>(entry.getValue());
+			Set<String> changedBeanIds = changedBeansByConfig.get(configResource);
+			invocations.addAll(getCompleteInvocations(beansConfig,
+					changedBeanIds != null ? changedBeanIds : Collections.<String> emptySet(),
+					DEPENDENCY_GRAPH.getValidatedElements(configResource)));
+			if (invocations.isEmpty()) {
+				continue;
+			}
+
+			resources.add(configResource);
+			// visit all beans; the invocation filter decides which rules are rerun on them
+			for (IBean bean : BeansModelUtils.getBeans(beansConfig)) {
+				affectedBeans.add(bean.getElementID());
+			}
+			Set<String> configInvocations = incrementalInvocations.get(configResource);
+			if (configInvocations == null) {
+				configInvocations = new HashSet<String>();
+				incrementalInvocations.put(configResource, configInvocations);
+			}
+			configInvocations.addAll(invocations);
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the keys of all rule invocations on the given changed beans (including their nested elements) and on the
+	 * elements of the given config that are not contained in the given validated elements.
+	 */
+	private Set<String> getCompleteInvocations(IBeansConfig beansConfig, final Set<String> changedBeanIds,
+			final Set<String> validatedElements) {
+		final Set<String> elementIds = new HashSet<String>();
+		beansConfig.accept(new IModelElementVisitor() {
+
+			public boolean visit(IModelElement element, IProgressMonitor monitor) {
+				// mirrors supports(): the validation of every bean of the config is reconsidered
+				if (!(element instanceof IBeansModelElement || element instanceof IBeansImport)) {
+					return false;
+				}
+				String elementId = element.getElementID();
+				if (!validatedElements.contains(elementId) || isInChangedBean(element, changedBeanIds)) {
+					elementIds.add(elementId);
+				}
+				return true;
+			}
+		}, new NullProgressMonitor());
+
+		Set<String> invocations = new HashSet<String>();
+		if (!elementIds.isEmpty()) {
+			Set<ValidationRuleDefinition> ruleDefinitions = getRuleDefinitions(beansConfig.getElementResource());
+			for (String elementId : elementIds) {
+				for (ValidationRuleDefinition ruleDefinition : ruleDefinitions) {
+					invocations.add(ValidationDependencyGraph.getInvocationKey(elementId, ruleDefinition.getId()));
+				}
+			}
+		}
+		return invocations;
+	}
+
+	private boolean isInChangedBean(IModelElement element, Set<String> changedBeanIds) {
+		while (element != null && !(element instanceof IBeansConfig)) {
+			if (element instanceof IBean && changedBeanIds.contains(element.getElementID())) {
+				return true;
+			}
+			element = element.getElementParent();
+		}
+		return false;
+	}
+
+	private boolean isIncrementalValidationEnabled() {
+		return SpringCore.getDefault() != null
+				&& SpringCore.getDefault().getPluginPreferences().getBoolean(SpringCore.USE_INCREMENTAL_VALIDATION);
+	}
+
 	private boolean isConfigurationBean(IBean bean) {
 		IType beanType = BeansModelUtils.resolveBeanType(bean);
-		if (beanType != null) {
-			try {
-				for(IAnnotation annotation : beanType.getAnnotations()) {
-					if ("Configuration".equals(annotation.getElementName())) {
-						return true;
-					}
+		return beanType != null && isConfigurationType(beanType);
+	}
+
+	private boolean isConfigurationType(IType type) {
+		try {
+			for(IAnnotation annotation : type.getAnnotations()) {
+				if ("Configuration".equals(annotation.getElementName())) {
+					return true;
 				}
-			} catch (JavaModelException e) {
-				// ignore, no annotations can be found
 			}
+		} catch (JavaModelException e) {
+			// ignore, no annotations can be found
 		}
-		
 		return false;
 	}
 
@@ -231,6 +436,38 @@ public class BeansConfigValidator extends AbstractValidator {
 		return null;
 	}
 
+	/**
+	 * Beans configs are validated independently of each other; the set of affected beans is only read during
+	 * validation.
+	 */
+	@Override
+	protected boolean supportsParallelValidation() {
+		return true;
+	}
+
+	@Override
+	protected ValidationDependencyGraph getDependencyGraph(IResource resource) {
+		if (!isIncrementalValidationEnabled()) {
+			// incremental validation may have been turned off since the dependencies have been recorded
+			DEPENDENCY_GRAPH.clear();
+			return null;
+		}
+		if (partialResources.contains(resource) && !completeResources.contains(resource)) {
+			// dependencies of the beans that are not revalidated would get lost
+			DEPENDENCY_GRAPH.remove(resource);
+			return null;
+		}
+		return DEPENDENCY_GRAPH;
+	}
+
+	@Override
+	protected Set<String> getInvocationsToValidate(IResource resource) {
+		if (completeResources.contains(resource) || partialResources.contains(resource)) {
+			return null;
+		}
+		return incrementalInvocations.get(resource);
+	}
+
 	@Override
 	protected boolean supports(IModelElement element) {
 		// Validate only those beans that have been changed
@@ -262,6 +499,7 @@ public class BeansConfigValidator extends AbstractValidator {
 	}
 
 	private void addBeans(IBeansConfig beansConfig) {
+		completeResources.add(beansConfig.getElementResource());
 		for (IBean bean : BeansModelUtils.getBeans(beansConfig)) {
 			affectedBeans.add(bean.getElementID());
 		}
@@ -11,6 +11,7 @@
 package org.springframework.ide.eclipse.boot.dash.livexp;
 
 import java.time.Duration;
+import java.util.Objects;
 
 import javax.inject.Provider;
 
@@ -25,6 +26,9 @@ import org.springsource.ide.eclipse.commons.livexp.core.LiveExpression;
  * <p>
  * The expression, when created, starts out in a 'sleeping' state. It will not start refreshing/computing
  * its value until methods like 'refreshOnce', 'refreshFor' or 'refreshForever' are called.
+ * <p>
+ * Optionally, the time between refreshes can grow while the value doesn't change (see 'backoff'), and
+ * polling can be stopped while some other mechanism takes care of triggering refreshes (see 'pollWhile').
  *
  * @author Kris De Volder
  */
@@ -39,13 +43,42 @@ public abstract class PollingLiveExp<T> extends LiveExpression<T> {
 	 */
 	private long sleepBetweenRefreshes = 500;
 
+	/**
+	 * Upper bound in ms for the time to 'sleep' between refreshes, which doubles after each refresh that
+	 * doesn't change the value. When not greater than 'sleepBetweenRefreshes' the time stays fixed.
+	 */
+	private long maxSleepBetweenRefreshes = 0;
+
+	private volatile long currentSleep = sleepBetweenRefreshes;
+
 	private Provider<Boolean> continueRefreshing = STOP_REFRESHING;
 
+	private Provider<Boolean> needsPolling = () -> true;
+
 	/**
 	 * Override the default 'sleepBetweenRefreshes' value.
 	 */
 	public PollingLiveExp<T> sleepBetweenRefreshes(Duration duration) {
 		this.sleepBetweenRefreshes = duration.toMillis();
+		this.currentSleep = sleepBetweenRefreshes;
+		return this;
+	}
+
+	/**
+	 * Double the time between refreshes, up to the given maximum, every time a refresh doesn't change
+	 * the value. The time is reset to 'sleepBetweenRefreshes' when the value changes.
+	 */
+	public PollingLiveExp<T> backoff(Duration maxSleepBetweenRefreshes) {
+		this.maxSleepBetweenRefreshes = maxSleepBetweenRefreshes.toMillis();
+		return this;
+	}
+
+	/**
+	 * Only keep polling while the given condition holds, e.g. while changes can't be detected by
+	 * listening for events. Refreshes requested explicitly still happen.
+	 */
+	public PollingLiveExp<T> pollWhile(Provider<Boolean> needsPolling) {
+		this.needsPolling = needsPolling;
 		return this;
 	}
 
@@ -53,9 +86,10 @@ public abstract class PollingLiveExp<T> extends LiveExpression<T> {
 		Job job = new Job("Refresh PollingLiveExp") {
 			@Override
 			protected IStatus run(IProgressMonitor monitor) {
+				T oldValue = getValue();
 				refresh();
-				if (continueRefreshing.get()) {
-					this.schedule(sleepBetweenRefreshes);
+				if (continueRefreshing.get() && needsPolling.get()) {
+					this.schedule(nextSleep(oldValue));
 				}
 				return Status.OK_STATUS;
 			}
@@ -64,6 +98,26 @@ public abstract class PollingLiveExp<T> extends LiveExpression<T> {
 		return job;
 	}
 
+	private long nextSleep(T oldValue) {
+		long sleep = currentSleep;
+		if (!Objects.equals(oldValue, getValue())) {
+			sleep = sleepBetweenRefreshes;
+		}
+		if (maxSleepBetweenRefreshes > sleepBetweenRefreshes) {
+			currentSleep = Math.min(maxSleepBetweenRefreshes, sleep * 2);
+		}
+		return sleep;
+	}
+
+	/**
+	 * Run the refresh job right away, also if it is currently sleeping until its next poll.
+	 */
+	private void scheduleNow(Job job) {
+		currentSleep = sleepBetweenRefreshes;
+		job.wakeUp();
+		job.schedule();
+	}
+
 	@Override
 	public void refresh() {
 		if (continueRefreshing.get()) {
@@ -86,7 +140,7 @@ public abstract class PollingLiveExp<T> extends LiveExpression<T> {
 		if (job!=null) {
 			long stopRefrestingAfter = System.currentTimeMillis() + duration.toMillis();
 			this.continueRefreshing = () -> System.currentTimeMillis() <= stopRefrestingAfter;
-			job.schedule();
+			scheduleNow(job);
 		}
 	}
 
@@ -97,7 +151,7 @@ public abstract class PollingLiveExp<T> extends LiveExpression<T> {
 		Job job = refreshJob;
 		if (job!=null) {
 			continueRefreshing = () -> true;
-			job.schedule();
+			scheduleNow(job);
 		}
 		return this;
 	}
@@ -118,7 +172,7 @@ public abstract class PollingLiveExp<T> extends LiveExpression<T> {
 					}
 				}
 			};
-			job.schedule();
+			scheduleNow(job);
 		}
 		return this;
 	}
@@ -89,6 +89,11 @@ public abstract class AbstractLaunchConfigurationsDashElement<T> extends Wrappin
 
 	private static final Duration LIVE_DATA_REFRESH_TIMEOUT = Duration.ofMinutes(2);
 
+	/**
+	 * Upper bound for the time between polls of live data that doesn't change.
+	 */
+	private static final Duration LIVE_DATA_MAX_REFRESH_INTERVAL = Duration.ofSeconds(30);
+
 	private LiveExpression<RunState> runState;
 	private LiveExpression<Integer> livePort;
 	private LiveExpression<Integer> actuatorPort;
@@ -100,6 +105,7 @@ public abstract class AbstractLaunchConfigurationsDashElement<T> extends Wrappin
 
 	private PollingLiveExp<List<RequestMapping>> liveRequestMappings;
 	private PollingLiveExp<LiveBeansModel> liveBeans;
+	private ActuatorClient actuatorClient;
 
 	public AbstractLaunchConfigurationsDashElement(LocalBootDashModel bootDashModel, T delegate) {
 		super(bootDashModel, delegate);
@@ -511,8 +517,14 @@ public abstract class AbstractLaunchConfigurationsDashElement<T> extends Wrappin
 		return exp;
 	}
 
-	protected ActuatorClient getActuatorClient() {
-		return new JMXActuatorClient(getTypeLookup(), this::getJmxPort);
+	/**
+	 * @return The actuator client shared by all the live data of this element.
+	 */
+	protected synchronized ActuatorClient getActuatorClient() {
+		if (actuatorClient==null) {
+			actuatorClient = addDisposableChild(new JMXActuatorClient(getTypeLookup(), this::getJmxPort));
+		}
+		return actuatorClient;
 	}
 
 	@Override
@@ -523,13 +535,7 @@ public abstract class AbstractLaunchConfigurationsDashElement<T> extends Wrappin
 				liveRequestMappings = PollingLiveExp.create(client::getRequestMappings);
 				addElementState(liveRequestMappings);
 				addDisposableChild(liveRequestMappings);
-				runState.addListener((e, runstate) -> {
-					if (READY_STATES.contains(runstate)) {
-						liveRequestMappings.refreshFor(LIVE_DATA_REFRESH_TIMEOUT);
-					} else {
-						liveRequestMappings.refreshOnce();
-					}
-				});
+				refreshLiveData(liveRequestMappings, client);
 			}
 			return liveRequestMappings.getValue();
 		}
@@ -542,20 +548,32 @@ public abstract class AbstractLaunchConfigurationsDashElement<T> extends Wrappin
 				liveBeans = PollingLiveExp.create(client::getBeans);
 				addElementState(liveBeans);
 				addDisposableChild(liveBeans);
-				runState.addListener((e, runstate) -> {
-					if (READY_STATES.contains(runstate)) {
-						// After the app is running refresh for 2 minutes every 5 sec
-						liveBeans.sleepBetweenRefreshes(Duration.ofSeconds(5));
-						liveBeans.refreshFor(LIVE_DATA_REFRESH_TIMEOUT);
-					} else {
-						liveBeans.refreshOnce();
-					}
-				});
+				// After the app is running poll every 5 sec at first
+				liveBeans.sleepBetweenRefreshes(Duration.ofSeconds(5));
+				refreshLiveData(liveBeans, client);
 			}
 			return liveBeans.getValue();
 		}
 	}
 
+	/**
+	 * Refresh live data whenever the actuator client notices that it may have changed. Where the client
+	 * can't notice changes, the data is polled for a while after the app becomes ready, less often the
+	 * longer it stays the same.
+	 */
+	private void refreshLiveData(PollingLiveExp<?> liveData, ActuatorClient client) {
+		liveData.backoff(LIVE_DATA_MAX_REFRESH_INTERVAL);
+		liveData.pollWhile(() -> !client.notifiesChanges());
+		client.addChangeListener(liveData::refreshOnce);
+		runState.addListener((e, runstate) -> {
+			if (READY_STATES.contains(runstate)) {
+				liveData.refreshFor(LIVE_DATA_REFRESH_TIMEOUT);
+			} else {
+				liveData.refreshOnce();
+			}
+		});
+	}
+
 	private int getJmxPort() {
 		for (ILaunchConfiguration c : getLaunchConfigs()) {
 			for (ILaunch l : LaunchUtils.getLaunches(c)) {
@@ -243,6 +243,22 @@ public abstract class ActuatorClient {
 		return null;
 	}
 
+	/**
+	 * Register a listener that is called when the data of the app may have changed (e.g. because
+	 * its actuator endpoints were re-registered after a restart). Clients that can't detect changes
+	 * never call it.
+	 */
+	public void addChangeListener(Runnable listener) {
+	}
+
+	/**
+	 * @return true if listeners registered with {@link #addChangeListener(Runnable)} are currently
+	 * notified of changes, so that the data doesn't need to be polled.
+	 */
+	public boolean notifiesChanges() {
+		return false;
+	}
+
 	protected abstract ImmutablePair<String, String> getRequestMappingData() throws Exception;
 
 	protected abstract ImmutablePair<String, String> getBeansData() throws Exception;
@@ -10,7 +10,10 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.boot.dash.model.actuator;
 
+import java.io.IOException;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.inject.Provider;
 import javax.management.InstanceNotFoundException;
@@ -18,6 +21,8 @@ import javax.management.InstanceNotFoundException;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.springframework.ide.eclipse.beans.ui.live.model.TypeLookup;
 import org.springframework.ide.eclipse.boot.launch.util.JMXClient;
+import org.springframework.ide.eclipse.boot.launch.util.JMXClientPool;
+import org.springsource.ide.eclipse.commons.livexp.ui.Disposable;
 import org.springsource.ide.eclipse.commons.livexp.util.ExceptionUtil;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -26,13 +31,22 @@ import com.google.common.collect.ImmutableSet;
 /**
  * Concretization of abstract {@link ActuatorClient} which uses JMX to connect
  * to actuator endpoint(s).
+ * <p>
+ * The JMX connection is obtained from the {@link JMXClientPool}, and held until
+ * the port changes or this client is disposed. While connected, change listeners
+ * are notified whenever mbeans in the spring boot domain (such as the actuator
+ * endpoints) are registered or unregistered.
  *
  * @author Kris De Volder
  */
-public class JMXActuatorClient extends ActuatorClient {
+public class JMXActuatorClient extends ActuatorClient implements Disposable {
+
+	private static final String SPRING_BOOT_DOMAIN = "org.springframework.boot";
 
 	private final Provider<Integer> portProvider;
 
+	private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
+
 	static class OperationInfo {
 		final String objectName;
 		final String operationName;
@@ -54,7 +68,8 @@ public class JMXActuatorClient extends ActuatorClient {
 			new OperationInfo("org.springframework.boot:type=Endpoint,name=beansEndpoint", "getData", "1") //Boot 1.x
 	};
 
-	private JMXClient client = null;
+	private volatile JMXClient client = null;
+	private volatile Disposable registrationListener = null;
 	private Integer port = null;
 
 	public JMXActuatorClient(TypeLookup typeLookup, Provider<Integer> jmxPort) {
@@ -64,47 +79,52 @@ public class JMXActuatorClient extends ActuatorClient {
 
 	@Override
 	protected ImmutablePair<String, String> getRequestMappingData() throws Exception {
-		try {
-			JMXClient client = getClient();
-			if (client!=null) {
-				for (OperationInfo op : REQUEST_MAPPINGS_OPERATIONS) {
-					try {
-						Object obj = client.callOperation(op.objectName, op.operationName);
-						if (obj!=null) {
-							return ImmutablePair.of(new ObjectMapper().writeValueAsString(obj), op.version);
-						}
-					} catch (InstanceNotFoundException e) {
-						//Ignore and try other mbean
-					}
-				}
-			}
-		} catch (Exception e) {
-			disposeClient(); //Client may be in broken state, do not reuse.
-			if (!isExpectedException(e)) {
-				throw e;
-			}
-		}
-		return null;
+		return getData(REQUEST_MAPPINGS_OPERATIONS);
 	}
 
 	@Override
 	protected ImmutablePair<String, String> getBeansData() throws Exception {
+		return getData(BEANS_OPERATIONS);
+	}
+
+	@Override
+	public void addChangeListener(Runnable listener) {
+		changeListeners.add(listener);
+	}
+
+	@Override
+	public boolean notifiesChanges() {
+		JMXClient client = this.client;
+		return client!=null && !client.isClosed() && registrationListener!=null;
+	}
+
+	@Override
+	public synchronized void dispose() {
+		releaseClient();
+		changeListeners.clear();
+	}
+
+	private ImmutablePair<String, String> getData(OperationInfo[] operations) throws Exception {
 		try {
 			JMXClient client = getClient();
 			if (client!=null) {
-				for (OperationInfo op : BEANS_OPERATIONS) {
+				for (OperationInfo op : operations) {
+					Object obj;
 					try {
-						Object obj = client.callOperation(op.objectName, op.operationName);
-						if (obj!=null) {
-							return ImmutablePair.of(new ObjectMapper().writeValueAsString(obj), op.version);
-						}
+						obj = client.callOperation(op.objectName, op.operationName);
 					} catch (InstanceNotFoundException e) {
 						//Ignore and try other mbean
+						continue;
+					} catch (IOException e) {
+						invalidateClient(client); //Client is in broken state, do not reuse.
+						throw e;
+					}
+					if (obj!=null) {
+						return ImmutablePair.of(new ObjectMapper().writeValueAsString(obj), op.version);
 					}
 				}
 			}
 		} catch (Exception e) {
-			disposeClient(); //Client may be in broken state, do not reuse.
 			if (!isExpectedException(e)) {
 				throw e;
 			}
@@ -125,20 +145,56 @@ public class JMXActuatorClient extends ActuatorClient {
 
 	private synchronized JMXClient getClient() throws Exception {
 		Integer currentPort = portProvider.get();
-		if (currentPort==null) return null;
-		if (!currentPort.equals(port) || client==null) {
-			disposeClient();
+		if (currentPort==null || currentPort<=0) {
+			releaseClient();
+			return null;
+		}
+		if (client!=null && (!currentPort.equals(port) || client.isClosed())) {
+			releaseClient();
+		}
+		if (client==null) {
+			client = JMXClientPool.getDefault().acquire(currentPort);
 			port = currentPort;
-			client = new JMXClient(currentPort);
+			listenForChanges(client);
 		}
 		return client;
 	}
 
-	private void disposeClient() {
+	private void listenForChanges(JMXClient client) {
+		try {
+			registrationListener = client.addMBeanRegistrationListener(SPRING_BOOT_DOMAIN, name -> {
+				for (Runnable listener : changeListeners) {
+					listener.run();
+				}
+			});
+		} catch (Exception e) {
+			//Not a problem, data just has to be polled.
+			registrationListener = null;
+		}
+	}
+
+	private synchronized void invalidateClient(JMXClient broken) {
+		if (client==broken) {
+			stopListening();
+			client = null;
+			JMXClientPool.getDefault().invalidate(broken);
+		}
+	}
+
+	private synchronized void releaseClient() {
 		JMXClient client = this.client;
 		if (client!=null) {
+			stopListening();
 			this.client = null;
-			client.dispose();
+			JMXClientPool.getDefault().release(client);
+		}
+	}
+
+	private void stopListening() {
+		Disposable listener = registrationListener;
+		if (listener!=null) {
+			registrationListener = null;
+			listener.dispose();
 		}
 	}
 
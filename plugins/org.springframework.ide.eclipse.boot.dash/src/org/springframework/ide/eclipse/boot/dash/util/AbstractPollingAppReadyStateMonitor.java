@@ -23,6 +23,8 @@ import org.springsource.ide.eclipse.commons.livexp.core.LiveVariable;
  * An instance of this class starts checking an application's lifecyle
  * repeatedly with a short delay between polls. This continues until either the
  * monitor object is disposed, or the application enters the 'ready' state.
+ * The delay grows while the application is not ready, up to {@link #MAX_POLLING_INTERVAL};
+ * subclasses that learn that the state may have changed can call {@link #checkNow()}.
  * <p>
  * When the application reaches ready state then its 'ready' LiveExp will change
  * value from false to true. Clients who wish to respond to this 'event' can
@@ -35,9 +37,11 @@ import org.springsource.ide.eclipse.commons.livexp.core.LiveVariable;
 public abstract class AbstractPollingAppReadyStateMonitor implements ReadyStateMonitor {
 
 	public static final long POLLING_INTERVAL = 500/*ms*/;
+	public static final long MAX_POLLING_INTERVAL = 2000/*ms*/;
 
 	private Job job;
 	private LiveVariable<Boolean> ready = new LiveVariable<>(false);
+	private volatile long pollingInterval = POLLING_INTERVAL;
 
 	final public void startPolling() {
 		initPollingJob();
@@ -50,7 +54,9 @@ public abstract class AbstractPollingAppReadyStateMonitor implements ReadyStateM
 				if (r!=null) { //null means disposed. Job may be lagging behind
 					r.setValue(checkReady());
 					if (!r.getValue()) {
-						this.schedule(POLLING_INTERVAL);
+						long delay = pollingInterval;
+						pollingInterval = Math.min(MAX_POLLING_INTERVAL, delay * 3 / 2);
+						this.schedule(delay);
 					} else {
 						// don't reschedule
 					}
@@ -62,6 +68,18 @@ public abstract class AbstractPollingAppReadyStateMonitor implements ReadyStateM
 		job.schedule();
 	}
 
+	/**
+	 * Check the ready state right away rather than waiting for the next poll, and
+	 * go back to polling with the shortest delay.
+	 */
+	final protected void checkNow() {
+		pollingInterval = POLLING_INTERVAL;
+		Job j = job;
+		if (j!=null) {
+			j.wakeUp();
+		}
+	}
+
 	final public LiveExpression<Boolean> getReady() {
 		return ready;
 	}
@@ -10,9 +10,14 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.boot.dash.util;
 
+import java.io.IOException;
+
 import org.eclipse.debug.core.ILaunch;
+import org.springframework.ide.eclipse.boot.launch.util.JMXClient;
 import org.springframework.ide.eclipse.boot.launch.util.SpringApplicationLifeCycleClientManager;
 import org.springframework.ide.eclipse.boot.launch.util.SpringApplicationLifecycleClient;
+import org.springsource.ide.eclipse.commons.livexp.ui.Disposable;
+import org.springsource.ide.eclipse.commons.livexp.util.ExceptionUtil;
 
 /**
  * An instance of this class starts checking a spring application's lifecyle using
@@ -20,6 +25,10 @@ import org.springframework.ide.eclipse.boot.launch.util.SpringApplicationLifecyc
  * polls. This continues until either the  SpringApplicationReadyStateMonitor is disposed,
  * or the application enters the 'ready' state.
  * <p>
+ * The 'Ready' attribute doesn't send change notifications, but the application registers
+ * its mbeans (e.g. the actuator endpoints) right before it becomes ready. So, once connected,
+ * every mbean registration in the spring boot domain triggers an immediate check.
+ * <p>
  * When the application reaches ready state then its 'ready' LiveExp will change value from
  * false to true. Clients who wish to respond to this 'event' can attach a listener to
  * the livexp.
@@ -28,14 +37,20 @@ import org.springframework.ide.eclipse.boot.launch.util.SpringApplicationLifecyc
  */
 public class SpringApplicationReadyStateMonitor extends AbstractPollingAppReadyStateMonitor {
 
+	private static final String SPRING_BOOT_DOMAIN = "org.springframework.boot";
+
 	private SpringApplicationLifeCycleClientManager clientManager;
 
+	private JMXClient listeningTo;
+	private Disposable registrationListener;
+
 	public SpringApplicationReadyStateMonitor(ILaunch launch) {
 		super();
 		clientManager = new SpringApplicationLifeCycleClientManager(launch);
 	}
 
 	public void dispose() {
+		stopListening();
 		if (clientManager != null) {
 			clientManager.disposeClient();
 		}
@@ -46,16 +61,44 @@ public class SpringApplicationReadyStateMonitor extends AbstractPollingAppReadyS
 		try {
 			SpringApplicationLifecycleClient client = clientManager.getLifeCycleClient();
 			if (client!=null) {
+				listenForRegistrations();
 				return client.isReady();
 			}
 		} catch (Exception e) {
 			//Something went wrong asking client for ready state.
 			// most likely process died.
 			if (clientManager != null) {
-				clientManager.disposeClient();
+				if (ExceptionUtil.getDeepestCause(e) instanceof IOException) {
+					clientManager.invalidateClient();
+				} else {
+					clientManager.disposeClient();
+				}
 			}
 		}
 		return false;
 	}
 
+	private synchronized void listenForRegistrations() {
+		JMXClient jmxClient = clientManager.getJMXClient();
+		if (jmxClient!=listeningTo) {
+			stopListening();
+			listeningTo = jmxClient;
+			if (jmxClient!=null) {
+				try {
+					registrationListener = jmxClient.addMBeanRegistrationListener(SPRING_BOOT_DOMAIN, name -> checkNow());
+				} catch (Exception e) {
+					//Not a problem, we just keep polling.
+				}
+			}
+		}
+	}
+
+	private synchronized void stopListening() {
+		if (registrationListener!=null) {
+			registrationListener.dispose();
+			registrationListener = null;
+		}
+		listeningTo = null;
+	}
+
 }
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.launch.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.rmi.server.UnicastRemoteObject;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import javax.management.remote.JMXConnectorServer;
+import javax.management.remote.JMXConnectorServerFactory;
+import javax.management.remote.JMXServiceURL;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.boot.launch.util.JMXClient;
+import org.springframework.ide.eclipse.boot.launch.util.JMXClientPool;
+import org.springframework.ide.eclipse.boot.launch.util.PortFinder;
+import org.springsource.ide.eclipse.commons.livexp.ui.Disposable;
+
+/**
+ * Tests for {@link JMXClientPool}, against a JMX connector server exposing the platform
+ * mbean server of the test process itself.
+ */
+public class JMXClientPoolTest {
+
+	private static final String TEST_DOMAIN = "org.springframework.ide.eclipse.boot.launch.test";
+
+	private int port;
+	private Registry registry;
+	private JMXConnectorServer server;
+
+	@Before
+	public void setUp() throws Exception {
+		port = PortFinder.findFreePort();
+		registry = LocateRegistry.createRegistry(port);
+		JMXServiceURL url = new JMXServiceURL("service:jmx:rmi:///jndi/rmi://127.0.0.1:" + port + "/jmxrmi");
+		server = JMXConnectorServerFactory.newJMXConnectorServer(url, null, ManagementFactory.getPlatformMBeanServer());
+		server.start();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		server.stop();
+		UnicastRemoteObject.unexportObject(registry, true);
+	}
+
+	@Test
+	public void clientIsSharedUntilLastRelease() throws Exception {
+		JMXClientPool pool = new JMXClientPool(Duration.ZERO);
+		JMXClient c1 = pool.acquire(port);
+		JMXClient c2 = pool.acquire(port);
+		assertSame(c1, c2);
+		assertEquals(1, pool.size());
+
+		pool.release(c1);
+		assertFalse(c2.isClosed());
+		assertEquals("Java Virtual Machine Specification", c2.getAttribute(String.class, "java.lang:type=Runtime", "SpecName"));
+
+		pool.release(c2);
+		assertTrue(c1.isClosed());
+		assertEquals(0, pool.size());
+	}
+
+	@Test
+	public void idleClientIsReused() throws Exception {
+		JMXClientPool pool = new JMXClientPool(Duration.ofMinutes(10));
+		JMXClient c1 = pool.acquire(port);
+		pool.release(c1);
+		assertFalse(c1.isClosed());
+
+		JMXClient c2 = pool.acquire(port);
+		assertSame(c1, c2);
+		pool.release(c2);
+	}
+
+	@Test
+	public void invalidatedClientIsReplaced() throws Exception {
+		JMXClientPool pool = new JMXClientPool(Duration.ZERO);
+		JMXClient c1 = pool.acquire(port);
+		JMXClient c2 = pool.acquire(port);
+
+		pool.invalidate(c1);
+		assertTrue(c2.isClosed());
+
+		JMXClient c3 = pool.acquire(port);
+		assertNotSame(c1, c3);
+		assertFalse(c3.isClosed());
+
+		pool.release(c2);
+		assertFalse(c3.isClosed());
+		pool.release(c3);
+		assertTrue(c3.isClosed());
+		assertEquals(0, pool.size());
+	}
+
+	@Test
+	public void failedConnectionIsNotPooled() throws Exception {
+		JMXClientPool pool = new JMXClientPool(Duration.ofMinutes(10));
+		try {
+			pool.acquire(PortFinder.findFreePort());
+			fail("Should not be able to connect");
+		} catch (IOException e) {
+			//expected
+		}
+		assertEquals(0, pool.size());
+	}
+
+	@Test
+	public void registrationListener() throws Exception {
+		JMXClientPool pool = new JMXClientPool(Duration.ZERO);
+		JMXClient client = pool.acquire(port);
+		List<ObjectName> registered = new CopyOnWriteArrayList<>();
+		Disposable listener = client.addMBeanRegistrationListener(TEST_DOMAIN, registered::add);
+
+		MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+		ObjectName otherName = new ObjectName("org.springframework.ide.other:type=Test");
+		ObjectName name = new ObjectName(TEST_DOMAIN + ":type=Test");
+		mbeanServer.registerMBean(new StandardMBean(() -> {}, Runnable.class), otherName);
+		mbeanServer.registerMBean(new StandardMBean(() -> {}, Runnable.class), name);
+		try {
+			long timeout = System.currentTimeMillis() + 10_000;
+			while (registered.isEmpty() && System.currentTimeMillis() < timeout) {
+				Thread.sleep(50);
+			}
+			assertEquals(1, registered.size());
+			assertEquals(name, registered.get(0));
+		} finally {
+			listener.dispose();
+			mbeanServer.unregisterMBean(name);
+			mbeanServer.unregisterMBean(otherName);
+			pool.release(client);
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 Pivotal, Inc.
+ * Copyright (c) 2015, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -124,7 +124,8 @@ public class BootProcessFactory implements IProcessFactory {
 						//ignore... nice termination failed.
 						//BootActivator.log(e);
 					} finally {
-						clientMgr.disposeClient();
+						//The process is going away, so the (shared) connection to it is of no further use
+						clientMgr.invalidateClient();
 					}
 				}
 				return false;
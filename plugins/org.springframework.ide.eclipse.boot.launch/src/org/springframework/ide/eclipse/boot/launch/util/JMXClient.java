@@ -11,14 +11,20 @@
 package org.springframework.ide.eclipse.boot.launch.util;
 
 import java.io.IOException;
+import java.util.function.Consumer;
 
 import javax.management.AttributeNotFoundException;
 import javax.management.InstanceNotFoundException;
 import javax.management.MBeanException;
 import javax.management.MBeanServerConnection;
+import javax.management.MBeanServerDelegate;
+import javax.management.MBeanServerNotification;
 import javax.management.MalformedObjectNameException;
+import javax.management.NotificationListener;
 import javax.management.ObjectName;
 import javax.management.ReflectionException;
+import javax.management.relation.MBeanServerNotificationFilter;
+import javax.management.remote.JMXConnectionNotification;
 import javax.management.remote.JMXConnector;
 import javax.management.remote.JMXConnectorFactory;
 import javax.management.remote.JMXServiceURL;
@@ -36,19 +42,22 @@ public class JMXClient implements Disposable {
 	private static final Object[] NO_PARAMS = new Object[0];
 	private static final String[] NO_SIGNATURES = new String[0];
 
-	private JMXConnector connector;
-	private MBeanServerConnection connection;
+	private final int port;
+	private final JMXConnector connector;
+	private final MBeanServerConnection connection;
+	private volatile boolean closed = false;
 
 	public JMXClient(int port) throws IOException {
-		this(createLocalJmxConnector(port));
+		this(port, createLocalJmxConnector(port));
 	}
 
-	private JMXClient(JMXConnector connector) throws IOException {
-		this(connector, connector.getMBeanServerConnection());
+	private JMXClient(int port, JMXConnector connector) throws IOException {
+		this(port, connector, connector.getMBeanServerConnection());
 	}
 
 	@Override
 	public void dispose() {
+		closed = true;
 		try {
 			this.connector.close();
 		} catch (IOException e) {
@@ -56,9 +65,59 @@ public class JMXClient implements Disposable {
 		}
 	}
 
-	private JMXClient(JMXConnector connector, MBeanServerConnection connection) {
+	private JMXClient(int port, JMXConnector connector, MBeanServerConnection connection) {
+		this.port = port;
 		this.connector = connector;
 		this.connection = connection;
+		connector.addConnectionNotificationListener((notification, handback) -> {
+			String type = notification.getType();
+			if (JMXConnectionNotification.CLOSED.equals(type) || JMXConnectionNotification.FAILED.equals(type)) {
+				closed = true;
+			}
+		}, null, null);
+	}
+
+	public int getPort() {
+		return port;
+	}
+
+	/**
+	 * @return true if this client has been disposed, or its connection was closed or failed.
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+
+	public MBeanServerConnection getConnection() {
+		return connection;
+	}
+
+	/**
+	 * Registers a listener that is called whenever an mbean in the given domain is registered
+	 * or unregistered.
+	 *
+	 * @return Disposable that removes the listener again.
+	 */
+	public Disposable addMBeanRegistrationListener(String domain, Consumer<ObjectName> listener) throws InstanceNotFoundException, IOException {
+		//Notifications are filtered in the remote process, so we can only use a filter class from the JRE here
+		MBeanServerNotificationFilter filter = new MBeanServerNotificationFilter();
+		filter.enableAllObjectNames();
+		NotificationListener notificationListener = (notification, handback) -> {
+			if (notification instanceof MBeanServerNotification) {
+				ObjectName name = ((MBeanServerNotification) notification).getMBeanName();
+				if (domain.equals(name.getDomain())) {
+					listener.accept(name);
+				}
+			}
+		};
+		this.connection.addNotificationListener(MBeanServerDelegate.DELEGATE_NAME, notificationListener, filter, null);
+		return () -> {
+			try {
+				this.connection.removeNotificationListener(MBeanServerDelegate.DELEGATE_NAME, notificationListener, filter, null);
+			} catch (Exception e) {
+				//Ignore, the connection is most likely gone already
+			}
+		};
 	}
 
 	@SuppressWarnings("unchecked")
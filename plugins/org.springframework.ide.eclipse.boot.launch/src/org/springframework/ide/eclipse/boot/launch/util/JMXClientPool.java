@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.launch.util;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shares a single {@link JMXClient} per JMX port, i.e. per running process, between
+ * all the consumers that need to talk to that process (ready state, port,
+ * request mappings, live beans, ...).
+ * <p>
+ * Consumers {@link #acquire(int)} a client and {@link #release(JMXClient)} it when
+ * they no longer need it. A client that is no longer used by anyone is kept open for
+ * a short while, so that consumers that only connect briefly (e.g. to read a property)
+ * don't open a new connection each time.
+ * <p>
+ * A consumer that finds the connection broken should call {@link #invalidate(JMXClient)}
+ * instead of {@link #release(JMXClient)}, so that the next {@link #acquire(int)} opens
+ * a new connection.
+ */
+public class JMXClientPool {
+
+	private static final JMXClientPool DEFAULT = new JMXClientPool(Duration.ofSeconds(30));
+
+	public static JMXClientPool getDefault() {
+		return DEFAULT;
+	}
+
+	private final long idleTimeout;
+
+	/**
+	 * Guarded by 'this'.
+	 */
+	private final Map<Integer, Entry> entries = new HashMap<>();
+
+	private final ScheduledThreadPoolExecutor idleCloser = new ScheduledThreadPoolExecutor(1, runnable -> {
+		Thread thread = new Thread(runnable, "JMX client pool");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * @param idleTimeout How long to keep a connection open after its last consumer released it.
+	 */
+	public JMXClientPool(Duration idleTimeout) {
+		this.idleTimeout = idleTimeout.toMillis();
+		idleCloser.setRemoveOnCancelPolicy(true);
+	}
+
+	/**
+	 * Get the client for the process exposing JMX on a given port, connecting to it
+	 * if no consumer is connected already.
+	 *
+	 * @throws IOException if the connection could not be established.
+	 */
+	public JMXClient acquire(int port) throws IOException {
+		Entry entry;
+		synchronized (this) {
+			entry = entries.computeIfAbsent(port, Entry::new);
+			entry.leases++;
+			if (entry.idleClose!=null) {
+				entry.idleClose.cancel(false);
+				entry.idleClose = null;
+			}
+		}
+		try {
+			return entry.getClient();
+		} catch (IOException | RuntimeException e) {
+			release(port);
+			throw e;
+		}
+	}
+
+	/**
+	 * Signal that a client obtained from {@link #acquire(int)} is no longer used by the caller.
+	 */
+	public void release(JMXClient client) {
+		release(client.getPort());
+	}
+
+	/**
+	 * Like {@link #release(JMXClient)}, but also closes the client's connection because it is
+	 * assumed to be broken. Other consumers of the same client will get a new connection
+	 * the next time they call {@link #acquire(int)}.
+	 */
+	public void invalidate(JMXClient client) {
+		Entry entry;
+		synchronized (this) {
+			entry = entries.get(client.getPort());
+		}
+		if (entry!=null) {
+			entry.invalidate(client);
+		} else {
+			client.dispose();
+		}
+		release(client);
+	}
+
+	/**
+	 * @return The number of ports for which a client is currently pooled.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	private void release(int port) {
+		Entry entry;
+		synchronized (this) {
+			entry = entries.get(port);
+			if (entry==null || --entry.leases>0) {
+				return;
+			}
+			if (idleTimeout>0 && entry.hasClient()) {
+				Entry idleEntry = entry;
+				entry.idleClose = idleCloser.schedule(() -> closeIfIdle(idleEntry), idleTimeout, TimeUnit.MILLISECONDS);
+				return;
+			}
+			entries.remove(port);
+		}
+		//Close outside of the pool lock, closing a connection to a dead process may be slow
+		entry.close();
+	}
+
+	private void closeIfIdle(Entry entry) {
+		synchronized (this) {
+			if (entry.leases>0 || entries.get(entry.port)!=entry) {
+				return;
+			}
+			entries.remove(entry.port);
+		}
+		entry.close();
+	}
+
+	private static class Entry {
+
+		private final int port;
+
+		/**
+		 * Guarded by 'JMXClientPool.this'.
+		 */
+		private int leases = 0;
+		private ScheduledFuture<?> idleClose = null;
+
+		/**
+		 * Guarded by 'this'.
+		 */
+		private JMXClient client = null;
+
+		Entry(int port) {
+			this.port = port;
+		}
+
+		synchronized JMXClient getClient() throws IOException {
+			if (client==null || client.isClosed()) {
+				if (client!=null) {
+					client.dispose();
+					//Don't keep the closed client around if we fail to reconnect
+					client = null;
+				}
+				client = new JMXClient(port);
+			}
+			return client;
+		}
+
+		synchronized boolean hasClient() {
+			return client!=null && !client.isClosed();
+		}
+
+		synchronized void invalidate(JMXClient broken) {
+			if (client==broken) {
+				client = null;
+			}
+			broken.dispose();
+		}
+
+		synchronized void close() {
+			if (client!=null) {
+				client.dispose();
+				client = null;
+			}
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 Pivotal, Inc.
+ * Copyright (c) 2015, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,7 +10,7 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.boot.launch.util;
 
-import java.io.IOException;
+import java.util.function.IntSupplier;
 
 import javax.inject.Provider;
 import javax.management.remote.JMXConnector;
@@ -21,13 +21,19 @@ import org.springframework.ide.eclipse.boot.launch.BootLaunchConfigurationDelega
 
 /**
  * Creates and manages an instance of {@link SpringApplicationLifecycleClient}.
+ * <p>
+ * When created for a JMX port (or a launch), the JMX connection is obtained from
+ * the {@link JMXClientPool} and therefore shared with other consumers talking to
+ * the same process.
  *
  * @author Kris De Volder
  */
 public class SpringApplicationLifeCycleClientManager {
 
 	private Provider<JMXConnector> connectionProvider;
+	private IntSupplier jmxPortProvider;
 	private JMXConnector connector;
+	private JMXClient pooledClient;
 	private SpringApplicationLifecycleClient client;
 
 	public SpringApplicationLifeCycleClientManager(Provider<JMXConnector> connectionProvider) {
@@ -35,35 +41,30 @@ public class SpringApplicationLifeCycleClientManager {
 		this.connectionProvider = connectionProvider;
 	}
 
+	private SpringApplicationLifeCycleClientManager(IntSupplier jmxPortProvider) {
+		this.jmxPortProvider = jmxPortProvider;
+	}
+
 	/**
 	 * Convenenience method, use ILaunch as the jmxPort provider.
 	 */
 	public SpringApplicationLifeCycleClientManager(ILaunch l) {
-		this(() -> createJMXConnection(BootLaunchConfigurationDelegate.getJMXPortAsInt(l)));
-	}
-
-	private static JMXConnector createJMXConnection(int port) {
-		if (port <=0) {
-			throw new IllegalStateException("JMX port not specified");
-		}
-		try {
-			return JMXClient.createLocalJmxConnector(port);
-		} catch (IOException e) {
-			return null;
-		}
+		this((IntSupplier) () -> BootLaunchConfigurationDelegate.getJMXPortAsInt(l));
 	}
 
 	/**
 	 * Convenenience method, use a given fixed port.
 	 */
 	public SpringApplicationLifeCycleClientManager(int resolvedPort) {
-		this(() -> createJMXConnection(resolvedPort));
+		this((IntSupplier) () -> resolvedPort);
 	}
 
 	/**
 	 * Dispose of current client and JMX connection. This does not
 	 * make the manager itself unusable, as an attempt will be made to
 	 * re-establish the connection the next time it is needed.
+	 * <p>
+	 * A pooled JMX connection is only closed once no other consumer uses it.
 	 */
 	public synchronized void disposeClient() {
 		try {
@@ -73,21 +74,53 @@ public class SpringApplicationLifeCycleClientManager {
 		} catch (Exception e) {
 			//ignore
 		}
+		if (pooledClient!=null) {
+			JMXClientPool.getDefault().release(pooledClient);
+		}
 		client = null;
 		connector = null;
+		pooledClient = null;
+	}
+
+	/**
+	 * Like {@link #disposeClient()}, but a pooled JMX connection is closed as well
+	 * because it is assumed to be broken.
+	 */
+	public synchronized void invalidateClient() {
+		if (pooledClient!=null) {
+			JMXClientPool.getDefault().invalidate(pooledClient);
+			pooledClient = null;
+		}
+		disposeClient();
 	}
 
 	/**
 	 * Try to obtain a client, may return null if a connection could not be established.
 	 */
-	public SpringApplicationLifecycleClient getLifeCycleClient() {
+	public synchronized SpringApplicationLifecycleClient getLifeCycleClient() {
 		try {
+			if (pooledClient!=null && pooledClient.isClosed()) {
+				//Some other consumer found the shared connection broken
+				disposeClient();
+			}
 			if (client==null) {
-				connector = connectionProvider.get();
-				client = new SpringApplicationLifecycleClient(
-						connector.getMBeanServerConnection(),
-						SpringApplicationLifecycleClient.DEFAULT_OBJECT_NAME
-				);
+				if (jmxPortProvider!=null) {
+					int port = jmxPortProvider.getAsInt();
+					if (port <=0) {
+						throw new IllegalStateException("JMX port not specified");
+					}
+					pooledClient = JMXClientPool.getDefault().acquire(port);
+					client = new SpringApplicationLifecycleClient(
+							pooledClient.getConnection(),
+							SpringApplicationLifecycleClient.DEFAULT_OBJECT_NAME
+					);
+				} else {
+					connector = connectionProvider.get();
+					client = new SpringApplicationLifecycleClient(
+							connector.getMBeanServerConnection(),
+							SpringApplicationLifecycleClient.DEFAULT_OBJECT_NAME
+					);
+				}
 			}
 			return client;
 		} catch (Exception e) {
@@ -99,4 +132,12 @@ public class SpringApplicationLifeCycleClientManager {
 		return null;
 	}
 
+	/**
+	 * @return The pooled JMX client the current lifecycle client uses, or null if there is
+	 * no current lifecycle client or it doesn't use a pooled connection.
+	 */
+	public synchronized JMXClient getJMXClient() {
+		return client!=null ? pooledClient : null;
+	}
+
 }
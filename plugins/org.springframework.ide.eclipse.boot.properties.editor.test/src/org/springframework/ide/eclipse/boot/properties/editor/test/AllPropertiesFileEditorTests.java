@@ -20,6 +20,7 @@ import org.junit.runners.Suite.SuiteClasses;
 @RunWith(Suite.class)
 @SuiteClasses({
 	LoggerNameProviderTest.class,
+	CachingValueProviderTest.class,
 	QuickfixCreationTests.class,
 	IgnoreProblemTypeInWorkspaceQuickfixTests.class,
 	IgnoreProblemTypeInProjectQuickfixTests.class,
@@ -27,6 +28,8 @@ import org.junit.runners.Suite.SuiteClasses;
 	SpringPropertiesEditorTests.class,
 	TypeUtilTests.class,
 	FuzzyMapTests.class,
+	BinaryMetadataCodecTests.class,
+	SpringPropertiesIndexManagerTest.class,
 	TypeParserTest.class,
 
 	YamlASTTests.class,
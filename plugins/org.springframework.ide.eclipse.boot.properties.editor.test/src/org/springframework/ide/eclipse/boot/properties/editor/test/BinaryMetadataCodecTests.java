@@ -0,0 +1,233 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.properties.editor.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import junit.framework.TestCase;
+
+import org.springframework.boot.configurationmetadata.BinaryMetadataCodec;
+import org.springframework.boot.configurationmetadata.ConfigurationMetadataGroup;
+import org.springframework.boot.configurationmetadata.ConfigurationMetadataProperty;
+import org.springframework.boot.configurationmetadata.ConfigurationMetadataRepository;
+import org.springframework.boot.configurationmetadata.ConfigurationMetadataRepositoryJsonBuilder;
+import org.springframework.boot.configurationmetadata.ConfigurationMetadataSource;
+import org.springframework.boot.configurationmetadata.Deprecation;
+import org.springframework.boot.configurationmetadata.ValueHint;
+import org.springframework.boot.configurationmetadata.ValueProvider;
+import org.springframework.ide.eclipse.boot.properties.editor.metadata.PropertyInfo;
+import org.springframework.ide.eclipse.boot.properties.editor.metadata.ValueProviderRegistry;
+
+public class BinaryMetadataCodecTests extends TestCase {
+
+	private static final String JSON = "{\n" +
+			"  \"groups\": [{\n" +
+			"    \"name\": \"server\",\n" +
+			"    \"type\": \"org.example.ServerProperties\",\n" +
+			"    \"description\": \"Server settings. Applies to the embedded container.\",\n" +
+			"    \"sourceType\": \"org.example.ServerProperties\"\n" +
+			"  }],\n" +
+			"  \"properties\": [{\n" +
+			"    \"name\": \"server.port\",\n" +
+			"    \"type\": \"java.lang.Integer\",\n" +
+			"    \"description\": \"Server HTTP port. Use 0 for a random port.\",\n" +
+			"    \"sourceType\": \"org.example.ServerProperties\",\n" +
+			"    \"defaultValue\": 8080\n" +
+			"  }, {\n" +
+			"    \"name\": \"server.compression.mime-types\",\n" +
+			"    \"type\": \"java.lang.String[]\",\n" +
+			"    \"sourceType\": \"org.example.ServerProperties\",\n" +
+			"    \"defaultValue\": [\"text/html\", \"text/xml\"]\n" +
+			"  }, {\n" +
+			"    \"name\": \"server.ratio\",\n" +
+			"    \"type\": \"java.lang.Double\",\n" +
+			"    \"defaultValue\": 0.75\n" +
+			"  }, {\n" +
+			"    \"name\": \"server.old-name\",\n" +
+			"    \"type\": \"java.lang.String\",\n" +
+			"    \"deprecation\": {\n" +
+			"      \"level\": \"error\",\n" +
+			"      \"reason\": \"No longer supported.\",\n" +
+			"      \"replacement\": \"server.display-name\"\n" +
+			"    }\n" +
+			"  }, {\n" +
+			"    \"name\": \"logging.enabled\",\n" +
+			"    \"type\": \"java.lang.Boolean\",\n" +
+			"    \"defaultValue\": true,\n" +
+			"    \"deprecated\": true\n" +
+			"  }],\n" +
+			"  \"hints\": [{\n" +
+			"    \"name\": \"server.old-name\",\n" +
+			"    \"values\": [{\n" +
+			"      \"value\": \"none\",\n" +
+			"      \"description\": \"No name \\u00e9.\"\n" +
+			"    }, {\n" +
+			"      \"value\": 42\n" +
+			"    }],\n" +
+			"    \"providers\": [{\n" +
+			"      \"name\": \"handle-as\",\n" +
+			"      \"parameters\": {\n" +
+			"        \"target\": \"java.lang.String\",\n" +
+			"        \"limit\": 10000000000\n" +
+			"      }\n" +
+			"    }]\n" +
+			"  }]\n" +
+			"}";
+
+	public void testSameRepositoryAsJson() throws Exception {
+		ConfigurationMetadataRepository expected = ConfigurationMetadataRepositoryJsonBuilder.create(
+				new ByteArrayInputStream(JSON.getBytes(StandardCharsets.UTF_8))).build();
+		ConfigurationMetadataRepository actual = ConfigurationMetadataRepositoryJsonBuilder.create()
+				.withBinaryResource(encode(JSON))
+				.build();
+
+		assertEquals(expected.getAllGroups().keySet(), actual.getAllGroups().keySet());
+		for (ConfigurationMetadataGroup group : expected.getAllGroups().values()) {
+			Map<String, ConfigurationMetadataSource> actualSources = actual.getAllGroups().get(group.getId()).getSources();
+			assertEquals(group.getSources().keySet(), actualSources.keySet());
+			for (ConfigurationMetadataSource source : group.getSources().values()) {
+				ConfigurationMetadataSource actualSource = actualSources.get(source.getType());
+				assertEquals(source.getGroupId(), actualSource.getGroupId());
+				assertEquals(source.getDescription(), actualSource.getDescription());
+				assertEquals(source.getShortDescription(), actualSource.getShortDescription());
+				assertEquals(source.getSourceType(), actualSource.getSourceType());
+				assertEquals(source.getSourceMethod(), actualSource.getSourceMethod());
+				assertEquals(source.getProperties().keySet(), actualSource.getProperties().keySet());
+			}
+		}
+
+		assertEquals(expected.getAllProperties().keySet(), actual.getAllProperties().keySet());
+		for (ConfigurationMetadataProperty property : expected.getAllProperties().values()) {
+			assertProperty(property, actual.getAllProperties().get(property.getId()));
+		}
+	}
+
+	public void testBufferCanBeReused() throws Exception {
+		ByteBuffer buffer = encode(JSON);
+		ConfigurationMetadataRepository first = ConfigurationMetadataRepositoryJsonBuilder.create()
+				.withBinaryResource(buffer)
+				.build();
+		ConfigurationMetadataRepository second = ConfigurationMetadataRepositoryJsonBuilder.create()
+				.withBinaryResource(buffer)
+				.build();
+
+		ConfigurationMetadataProperty firstProperty = first.getAllProperties().get("server.old-name");
+		ConfigurationMetadataProperty secondProperty = second.getAllProperties().get("server.old-name");
+		assertNotSame(firstProperty, secondProperty);
+		assertEquals(2, firstProperty.getHints().getValueHints().size());
+		assertEquals(2, secondProperty.getHints().getValueHints().size());
+		assertEquals("No name \u00e9.", secondProperty.getHints().getValueHints().get(0).getDescription());
+		assertEquals(0, buffer.position());
+	}
+
+	public void testDescriptionSupplier() throws Exception {
+		ConfigurationMetadataRepository repository = ConfigurationMetadataRepositoryJsonBuilder.create()
+				.withBinaryResource(encode(JSON))
+				.build();
+		ConfigurationMetadataProperty property = repository.getAllProperties().get("server.port");
+		Supplier<String> encoded = property.getDescriptionSupplier();
+		assertEquals("Server HTTP port. Use 0 for a random port.", encoded.get());
+		assertEquals(encoded.get(), new PropertyInfo(ValueProviderRegistry.getDefault(), property).getDescription());
+
+		assertEquals(encoded.get(), property.getDescription());
+		assertEquals(encoded.get(), property.getDescriptionSupplier().get());
+	}
+
+	public void testStringsAreShared() throws Exception {
+		ConfigurationMetadataRepository repository = ConfigurationMetadataRepositoryJsonBuilder.create()
+				.withBinaryResource(encode(JSON))
+				.build();
+		assertSame(repository.getAllProperties().get("server.old-name").getType(),
+				repository.getAllProperties().get("server.old-name").getHints().getValueProviders().get(0).getParameters().get("target"));
+	}
+
+	public void testUnsupportedBuffer() throws Exception {
+		ByteBuffer buffer = encode(JSON);
+		assertTrue(BinaryMetadataCodec.isSupported(buffer));
+
+		ByteBuffer corrupt = ByteBuffer.wrap(Arrays.copyOf(buffer.array(), buffer.remaining()));
+		corrupt.putInt(4, 9999);
+		assertFalse(BinaryMetadataCodec.isSupported(corrupt));
+		try {
+			ConfigurationMetadataRepositoryJsonBuilder.create().withBinaryResource(corrupt);
+			fail("Unsupported version should be rejected");
+		} catch (IOException e) {
+			//expected
+		}
+
+		ByteBuffer truncated = ByteBuffer.wrap(Arrays.copyOf(buffer.array(), buffer.remaining() / 2));
+		try {
+			ConfigurationMetadataRepositoryJsonBuilder.create().withBinaryResource(truncated);
+			fail("Truncated buffer should be rejected");
+		} catch (IOException e) {
+			//expected
+		}
+	}
+
+	private void assertProperty(ConfigurationMetadataProperty expected, ConfigurationMetadataProperty actual) {
+		assertEquals(expected.getId(), actual.getId());
+		assertEquals(expected.getName(), actual.getName());
+		assertEquals(expected.getType(), actual.getType());
+		assertEquals(expected.getDescription(), actual.getDescription());
+		assertEquals(expected.getShortDescription(), actual.getShortDescription());
+		assertEquals(valueString(expected.getDefaultValue()), valueString(actual.getDefaultValue()));
+		assertDeprecation(expected.getDeprecation(), actual.getDeprecation());
+
+		assertValueHints(expected.getHints().getValueHints().toArray(new ValueHint[0]),
+				actual.getHints().getValueHints().toArray(new ValueHint[0]));
+		assertValueHints(expected.getHints().getKeyHints().toArray(new ValueHint[0]),
+				actual.getHints().getKeyHints().toArray(new ValueHint[0]));
+		assertEquals(expected.getHints().getValueProviders().size(), actual.getHints().getValueProviders().size());
+		for (int i = 0; i < expected.getHints().getValueProviders().size(); i++) {
+			ValueProvider expectedProvider = expected.getHints().getValueProviders().get(i);
+			ValueProvider actualProvider = actual.getHints().getValueProviders().get(i);
+			assertEquals(expectedProvider.getName(), actualProvider.getName());
+			assertEquals(expectedProvider.getParameters(), actualProvider.getParameters());
+		}
+	}
+
+	private void assertDeprecation(Deprecation expected, Deprecation actual) {
+		if (expected == null) {
+			assertNull(actual);
+		} else {
+			assertEquals(expected.getLevel(), actual.getLevel());
+			assertEquals(expected.getReason(), actual.getReason());
+			assertEquals(expected.getReplacement(), actual.getReplacement());
+		}
+	}
+
+	private void assertValueHints(ValueHint[] expected, ValueHint[] actual) {
+		assertEquals(expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(valueString(expected[i].getValue()), valueString(actual[i].getValue()));
+			assertEquals(expected[i].getDescription(), actual[i].getDescription());
+			assertEquals(expected[i].getShortDescription(), actual[i].getShortDescription());
+		}
+	}
+
+	private String valueString(Object value) {
+		if (value instanceof Object[]) {
+			return Arrays.toString((Object[]) value);
+		}
+		return value == null ? null : value.getClass().getName() + ":" + value;
+	}
+
+	private ByteBuffer encode(String json) throws IOException {
+		return ByteBuffer.wrap(BinaryMetadataCodec.encode(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))));
+	}
+
+}
@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.properties.editor.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.jdt.core.IJavaProject;
+import org.junit.Test;
+import org.springframework.ide.eclipse.boot.properties.editor.metadata.CachingValueProvider;
+import org.springframework.ide.eclipse.boot.properties.editor.metadata.StsValueHint;
+import org.springframework.ide.eclipse.editor.support.util.FuzzyMatcher;
+
+import reactor.core.publisher.EmitterProcessor;
+import reactor.core.publisher.Flux;
+
+/**
+ * Tests for the reuse of cached prefix query results by {@link CachingValueProvider}.
+ */
+public class CachingValueProviderTest {
+
+	private static final List<String> VALUES = Arrays.asList(
+			"org.jboss",
+			"org.jboss.logging",
+			"org.springframework.instrument.classloading.jboss",
+			"com.example.Other"
+	);
+
+	/**
+	 * Searches a fixed list of values and records the queries it searched for.
+	 */
+	private static class TestValueProvider extends CachingValueProvider {
+
+		final List<String> searches = new ArrayList<>();
+		private final List<String> values;
+		private Flux<StsValueHint> nextSearch = null;
+
+		TestValueProvider(List<String> values) {
+			this.values = values;
+		}
+
+		@Override
+		protected Flux<StsValueHint> getValuesAsycn(IJavaProject javaProject, String query) {
+			searches.add(query);
+			if (nextSearch!=null) {
+				Flux<StsValueHint> search = nextSearch;
+				nextSearch = null;
+				return search;
+			}
+			return Flux.fromIterable(values)
+					.filter((v) -> 0!=FuzzyMatcher.matchScore(query, v))
+					.map(StsValueHint::create);
+		}
+	}
+
+	@Test
+	public void sameQuery() throws Exception {
+		TestValueProvider p = new TestValueProvider(VALUES);
+		assertEquals(getExpected("jboss"), getResults(p, "jboss"));
+		assertEquals(getExpected("jboss"), getResults(p, "jboss"));
+
+		assertEquals(Arrays.asList("jboss"), p.searches);
+		assertEquals(1, p.getHits());
+		assertEquals(1, p.getMisses());
+	}
+
+	@Test
+	public void longerQueryFiltersCompletedQuery() throws Exception {
+		TestValueProvider p = new TestValueProvider(VALUES);
+		String fullQuery = "jboss";
+		for (int i = 0; i <= fullQuery.length(); i++) {
+			String query = fullQuery.substring(0, i);
+			assertEquals(getExpected(query), getResults(p, query));
+		}
+		assertEquals(Arrays.asList(""), p.searches);
+		assertEquals(fullQuery.length(), p.getPrefixHits());
+	}
+
+	@Test
+	public void longerQueryFiltersRunningQuery() throws Exception {
+		TestValueProvider p = new TestValueProvider(VALUES);
+		EmitterProcessor<StsValueHint> search = EmitterProcessor.create();
+		p.nextSearch = search;
+		p.getValues(null, "jb");
+		search.onNext(StsValueHint.create("org.jboss"));
+
+		Flux<StsValueHint> longer = p.getValues(null, "jbo");
+		search.onNext(StsValueHint.create("com.example.Other"));
+		search.onNext(StsValueHint.create("org.jboss.logging"));
+		search.onComplete();
+
+		assertEquals(Arrays.asList("org.jboss", "org.jboss.logging"), toStrings(longer));
+		assertEquals(Arrays.asList("jb"), p.searches);
+	}
+
+	@Test
+	public void longerQuerySearchesWhenResultsWereTruncated() throws Exception {
+		List<String> manyValues = new ArrayList<>();
+		for (int i = 0; i < 600; i++) {
+			manyValues.add("org.jboss.Type"+i);
+		}
+		TestValueProvider p = new TestValueProvider(manyValues);
+		assertEquals(500, getResults(p, "jb").size());
+		assertEquals(500, getResults(p, "jbo").size());
+		assertEquals(Arrays.asList("jb", "jbo"), p.searches);
+	}
+
+	@Test
+	public void failedSearchIsNotCached() throws Exception {
+		TestValueProvider p = new TestValueProvider(VALUES);
+		p.nextSearch = Flux.error(new IllegalStateException("search failed"));
+		try {
+			getResults(p, "jboss");
+		} catch (Exception e) {
+			//expected
+		}
+		assertEquals(getExpected("jboss"), getResults(p, "jboss"));
+		assertEquals(Arrays.asList("jboss", "jboss"), p.searches);
+	}
+
+	private List<String> getExpected(String query) {
+		return VALUES.stream()
+				.filter((v) -> 0!=FuzzyMatcher.matchScore(query, v))
+				.collect(Collectors.toList());
+	}
+
+	private List<String> getResults(CachingValueProvider p, String query) {
+		return toStrings(p.getValues(null, query));
+	}
+
+	private List<String> toStrings(Flux<StsValueHint> hints) {
+		return hints.toStream()
+		.map((h) -> h.getValue().toString())
+		.collect(Collectors.toList());
+	}
+
+}
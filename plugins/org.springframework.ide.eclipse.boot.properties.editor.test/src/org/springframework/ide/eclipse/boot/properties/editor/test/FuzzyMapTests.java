@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.boot.properties.editor.test;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -133,6 +134,50 @@ public class FuzzyMapTests extends TestCase {
 	}
 
 
+	public void testIndexedFindSameAsExhaustiveSearch() {
+		String[] entries = {
+				"server.port",
+				"server.port-mapping",
+				"server.address",
+				"spring.application.name",
+				"spring.aop.auto",
+				"spring.datasource.url",
+				"spring.datasource.username",
+				"spring.jpa.hibernate.ddl-auto",
+				"piano.sorting",
+				"zspring",
+				"asprouting",
+				"logging.level",
+				"aa.bb"
+		};
+		String[] patterns = {
+				"p", "port", "sport", "spox", "spring", "sdu", "aa", "ab", "a.b", "ddl", "gl", "zz", "server.port",
+				"spring.datasource.username.x"
+		};
+		TestMap map = new TestMap(entries);
+		for (String pattern : patterns) {
+			List<Match<String>> found = map.find(pattern);
+			List<String> expected = new ArrayList<>();
+			List<Double> expectedScores = new ArrayList<>();
+			for (String data : map) {
+				double score = FuzzyMatcher.matchScore(pattern, data);
+				if (score!=0.0) {
+					expected.add(data);
+					expectedScores.add(score);
+				}
+			}
+			assertEquals(pattern, expected.size(), found.size());
+			for (int i = 0; i < found.size(); i++) {
+				assertEquals(pattern, expected.get(i), found.get(i).data);
+				assertEquals(pattern, expectedScores.get(i), found.get(i).score);
+			}
+		}
+
+		//the index must be updated when entries are added after a search
+		map.add("sport.club");
+		assertEquals(1, map.find("club").size());
+	}
+
 	private void assertMatchOrder(String pattern, String... datas) {
 		TestMap map = new TestMap(datas);
 		List<Match<String>> found = map.find(pattern);
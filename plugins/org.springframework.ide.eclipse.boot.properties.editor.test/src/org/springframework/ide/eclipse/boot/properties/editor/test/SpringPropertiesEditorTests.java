@@ -21,6 +21,7 @@ import org.eclipse.core.resources.IProject;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
 import org.springframework.ide.eclipse.boot.properties.editor.SpringPropertiesCompletionEngine;
 import org.springframework.ide.eclipse.boot.properties.editor.StsConfigMetadataRepositoryJsonLoader;
@@ -266,6 +267,32 @@ public class SpringPropertiesEditorTests extends SpringPropertiesEditorTestHarne
 
 	}
 
+	public void testIncrementalReconcile() throws Exception {
+		defaultTestData();
+		MockEditor editor = newEditor(
+				"server.port=8080\n" +
+				"server.port.extracrap=8080\n" +
+				"# comment\n" +
+				"logging.snuggem=what?\n" +
+				"bogus.no.good=true\n"
+		);
+		IRegion region = assertIncrementalReconcile(editor, editor.middleOf("snuggem"), 0);
+		assertEquals("logging.snuggem=what?", editor.textUnder(region).trim());
+
+		region = assertIncrementalReconcile(editor, editor.startOf("extracrap"), "extracrap=8080".length());
+		assertEquals("server.port.extracrap=8080", editor.textUnder(region).trim());
+
+		assertNotNull(assertIncrementalReconcile(editor, editor.middleOf("comment"), 0));
+
+		//Duplicates are reported on each occurrence of the name
+		editor = newEditor(
+				"server.port=8080\n" +
+				"logging.snuggem=what?\n" +
+				"server.port=8888\n"
+		);
+		assertNull(assertIncrementalReconcile(editor, editor.middleOf("8888"), 0));
+	}
+
 	public void testReconcilePojoArray() throws Exception {
 		IProject p = createPredefinedMavenProject("demo-list-of-pojo");
 		IJavaProject jp = JavaCore.create(p);
@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.properties.editor.test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.springframework.boot.configurationmetadata.ConfigurationMetadataRepository;
+import org.springframework.ide.eclipse.boot.properties.editor.FuzzyMap;
+import org.springframework.ide.eclipse.boot.properties.editor.SpringPropertiesEditorPlugin;
+import org.springframework.ide.eclipse.boot.properties.editor.StsConfigMetadataRepositoryJsonLoader;
+import org.springframework.ide.eclipse.boot.properties.editor.metadata.PropertyInfo;
+import org.springframework.ide.eclipse.boot.properties.editor.metadata.ValueProviderRegistry;
+import org.springframework.ide.eclipse.boot.properties.editor.util.SpringPropertiesIndexManager;
+
+/**
+ * Tests for the rebuilding of the indexes of {@link SpringPropertiesIndexManager} and the jar metadata
+ * caches of {@link StsConfigMetadataRepositoryJsonLoader}.
+ */
+public class SpringPropertiesIndexManagerTest extends TestCase {
+
+	private static final long TIMEOUT = 30000;
+
+	private final List<IProject> projects = new ArrayList<>();
+
+	private File jarFolder;
+
+	@Override
+	protected void tearDown() throws Exception {
+		for (IProject p : projects) {
+			p.delete(true, true, null);
+		}
+		if (jarFolder!=null) {
+			for (File jar : jarFolder.listFiles()) {
+				jar.delete();
+			}
+			jarFolder.delete();
+		}
+		super.tearDown();
+	}
+
+	public void testClasspathChangeRebuildsIndexesOfDependentProjects() throws Exception {
+		IJavaProject library = createJavaProject("index-manager-library");
+		IJavaProject app = createJavaProject("index-manager-app");
+		File first = createMetadataJar("first.jar", "library.first");
+		File hidden = createMetadataJar("hidden.jar", "library.hidden");
+		library.setRawClasspath(new IClasspathEntry[] {
+				JavaCore.newLibraryEntry(new Path(first.getAbsolutePath()), null, null, true),
+				JavaCore.newLibraryEntry(new Path(hidden.getAbsolutePath()), null, null, false)
+		}, null);
+		app.setRawClasspath(new IClasspathEntry[] {
+				JavaCore.newProjectEntry(library.getPath())
+		}, null);
+
+		SpringPropertiesIndexManager indexManager = new SpringPropertiesIndexManager(ValueProviderRegistry.getDefault());
+		FuzzyMap<PropertyInfo> index = indexManager.get(app);
+		assertNotNull(index.get("library.first"));
+		assertNull(index.get("library.hidden"));
+
+		// only the classpath of the library changes, but the app sees its exported entries
+		File second = createMetadataJar("second.jar", "library.second");
+		library.setRawClasspath(new IClasspathEntry[] {
+				JavaCore.newLibraryEntry(new Path(first.getAbsolutePath()), null, null, true),
+				JavaCore.newLibraryEntry(new Path(hidden.getAbsolutePath()), null, null, false),
+				JavaCore.newLibraryEntry(new Path(second.getAbsolutePath()), null, null, true)
+		}, null);
+
+		waitFor(() -> indexManager.get(app).get("library.second")!=null);
+		assertNotNull(indexManager.get(app).get("library.first"));
+		assertNull(indexManager.get(app).get("library.hidden"));
+	}
+
+	public void testClosedProjectIndexIsDropped() throws Exception {
+		IJavaProject library = createJavaProject("index-manager-closed-library");
+		IJavaProject app = createJavaProject("index-manager-closed-app");
+		File jar = createMetadataJar("first.jar", "library.first");
+		library.setRawClasspath(new IClasspathEntry[] {
+				JavaCore.newLibraryEntry(new Path(jar.getAbsolutePath()), null, null, true)
+		}, null);
+		app.setRawClasspath(new IClasspathEntry[] {
+				JavaCore.newProjectEntry(library.getPath())
+		}, null);
+
+		SpringPropertiesIndexManager indexManager = new SpringPropertiesIndexManager(ValueProviderRegistry.getDefault());
+		FuzzyMap<PropertyInfo> libraryIndex = indexManager.get(library);
+		assertNotNull(libraryIndex.get("library.first"));
+		assertNotNull(indexManager.get(app).get("library.first"));
+
+		library.getProject().close(null);
+
+		waitFor(() -> indexManager.get(app).get("library.first")==null);
+		assertNotSame(libraryIndex, indexManager.get(library));
+	}
+
+	public void testChangedJarIsReadAgain() throws Exception {
+		IJavaProject project = createJavaProject("index-manager-jar");
+		File jarFile = createMetadataJar("metadata.jar", "jar.before");
+		project.setRawClasspath(new IClasspathEntry[] {
+				JavaCore.newLibraryEntry(new Path(jarFile.getAbsolutePath()), null, null)
+		}, null);
+
+		ConfigurationMetadataRepository repository = new StsConfigMetadataRepositoryJsonLoader().load(project);
+		assertTrue(repository.getAllProperties().containsKey("jar.before"));
+
+		long lastModified = jarFile.lastModified();
+		writeMetadataJar(jarFile, "jar.after");
+		assertTrue(jarFile.setLastModified(lastModified + 10000));
+
+		repository = new StsConfigMetadataRepositoryJsonLoader().load(project);
+		assertTrue(repository.getAllProperties().containsKey("jar.after"));
+		assertFalse(repository.getAllProperties().containsKey("jar.before"));
+	}
+
+	public void testCacheFilesOfDeletedJarsAreCleaned() throws Exception {
+		IJavaProject project = createJavaProject("index-manager-deleted-jar");
+		File jarFile = createMetadataJar("deleted-metadata.jar", "jar.deleted");
+		project.setRawClasspath(new IClasspathEntry[] {
+				JavaCore.newLibraryEntry(new Path(jarFile.getAbsolutePath()), null, null)
+		}, null);
+		new StsConfigMetadataRepositoryJsonLoader().load(project);
+
+		File cacheFolder = SpringPropertiesEditorPlugin.getDefault().getStateLocation().append("metadata").toFile();
+		FilenameFilter cacheFiles = (dir, name) -> name.startsWith("deleted-metadata.jar-") && name.endsWith(".bin");
+		assertEquals(1, cacheFolder.list(cacheFiles).length);
+
+		StsConfigMetadataRepositoryJsonLoader.cleanCacheFolder();
+		assertEquals(1, cacheFolder.list(cacheFiles).length);
+
+		assertTrue(jarFile.delete());
+		StsConfigMetadataRepositoryJsonLoader.cleanCacheFolder();
+		assertEquals(0, cacheFolder.list(cacheFiles).length);
+	}
+
+	private IJavaProject createJavaProject(String name) throws Exception {
+		IProject p = ResourcesPlugin.getWorkspace().getRoot().getProject(name);
+		p.create(null);
+		projects.add(p);
+		p.open(null);
+		IProjectDescription description = p.getDescription();
+		description.setNatureIds(new String[] { JavaCore.NATURE_ID });
+		p.setDescription(description, null);
+		p.getFolder("bin").create(true, true, null);
+		IJavaProject jp = JavaCore.create(p);
+		jp.setRawClasspath(new IClasspathEntry[0], p.getFolder("bin").getFullPath(), null);
+		return jp;
+	}
+
+	private File createMetadataJar(String name, String property) throws Exception {
+		if (jarFolder==null) {
+			jarFolder = Files.createTempDirectory("index-manager-test").toFile();
+		}
+		File jar = new File(jarFolder, name);
+		writeMetadataJar(jar, property);
+		return jar;
+	}
+
+	private void writeMetadataJar(File file, String property) throws Exception {
+		String json = "{\"properties\": [{\"name\": \"" + property + "\", \"type\": \"java.lang.String\"}]}";
+		try (JarOutputStream out = new JarOutputStream(new FileOutputStream(file))) {
+			out.putNextEntry(new ZipEntry("META-INF/spring-configuration-metadata.json"));
+			out.write(json.getBytes(StandardCharsets.UTF_8));
+			out.closeEntry();
+		}
+	}
+
+	private void waitFor(BooleanSupplier condition) throws Exception {
+		long end = System.currentTimeMillis() + TIMEOUT;
+		while (!condition.getAsBoolean()) {
+			assertTrue("Timed out", System.currentTimeMillis() < end);
+			Thread.sleep(100);
+		}
+	}
+
+}
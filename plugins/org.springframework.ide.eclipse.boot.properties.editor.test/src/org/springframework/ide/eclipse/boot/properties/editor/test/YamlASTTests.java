@@ -10,12 +10,20 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.boot.properties.editor.test;
 
+import java.io.StringReader;
 import java.util.List;
 
+import org.eclipse.jface.text.Document;
 import org.junit.Test;
 import org.springframework.ide.eclipse.editor.support.yaml.ast.NodeRef;
+import org.springframework.ide.eclipse.editor.support.yaml.ast.YamlASTProvider;
 import org.springframework.ide.eclipse.editor.support.yaml.ast.YamlFileAST;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.nodes.MappingNode;
 import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.SequenceNode;
 
 /**
  * @author Kris De Volder
@@ -110,6 +118,72 @@ public class YamlASTTests extends ApplicationYamlEditorTestHarness {
 		);
 	}
 
+	public void testIncrementalParse() throws Exception {
+		YamlASTProvider provider = new YamlASTProvider(new Yaml());
+		Document doc = new Document(
+				"spring:\n" +
+				"  application:\n" +
+				"    name: foofoo\n" +
+				"server:\n" +
+				"  port: 8888\n" +
+				"list:\n" +
+				"- &a one\n" +
+				"- *a\n" +
+				"---\n" +
+				"other:\n" +
+				"  key: value\n"
+		);
+		assertSameAST(provider, doc);
+
+		doc.replace(doc.get().indexOf("foofoo"), 0, "bar");
+		assertSameAST(provider, doc);
+
+		doc.replace(doc.get().indexOf("8888"), 4, "9999\n  address: localhost");
+		assertSameAST(provider, doc);
+
+		doc.replace(0, 0, "# comment\r\n");
+		assertSameAST(provider, doc);
+
+		doc.replace(doc.get().indexOf("---"), 0, "extra: *a\n");
+		assertSameAST(provider, doc);
+
+		doc.replace(doc.get().indexOf("---"), 3, "---\n\n");
+		assertSameAST(provider, doc);
+	}
+
+	private void assertSameAST(YamlASTProvider provider, Document doc) {
+		StringBuilder expected = new StringBuilder();
+		for (Node node : new Yaml().composeAll(new StringReader(doc.get()))) {
+			dump(node, expected);
+		}
+		StringBuilder actual = new StringBuilder();
+		for (Node node : provider.getAST(doc).getNodes()) {
+			dump(node, actual);
+		}
+		assertEquals(expected.toString(), actual.toString());
+	}
+
+	private void dump(Node node, StringBuilder buf) {
+		buf.append(node.getNodeId()).append(' ').append(node.getTag());
+		dump(node.getStartMark(), buf);
+		dump(node.getEndMark(), buf);
+		buf.append('\n');
+		if (node instanceof MappingNode) {
+			for (NodeTuple tuple : ((MappingNode) node).getValue()) {
+				dump(tuple.getKeyNode(), buf);
+				dump(tuple.getValueNode(), buf);
+			}
+		} else if (node instanceof SequenceNode) {
+			for (Node item : ((SequenceNode) node).getValue()) {
+				dump(item, buf);
+			}
+		}
+	}
+
+	private void dump(Mark mark, StringBuilder buf) {
+		buf.append(" ").append(mark.getIndex()).append('@').append(mark.getLine()).append(':').append(mark.getColumn());
+	}
+
 	protected void assertPath(MockYamlEditor input, String nodeText, String expected) {
 		YamlFileAST ast = input.parse();
 		String path = pathString(ast.findPath(input.middleOf(nodeText)));
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015, 2016 Pivotal, Inc.
+ * Copyright (c) 2015, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,6 +17,7 @@ import org.eclipse.core.resources.IProject;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
 import org.eclipse.ui.part.EditorActionBarContributor;
 import org.springframework.ide.eclipse.boot.properties.editor.metadata.CachingValueProvider;
@@ -298,6 +299,63 @@ public class YamlEditorTests extends ApplicationYamlEditorTestHarness {
 		);
 	}
 
+	public void testIncrementalReconcile() throws Exception {
+		defaultTestData();
+		YamlEditor editor = new YamlEditor(
+				"server:\n" +
+				"  port: \n" +
+				"    extracrap: 8080\n" +
+				"logging:\n"+
+				"  level:\n" +
+				"    com.acme: INFO\n" +
+				"  snuggem: what?\n" +
+				"bogus:\n" +
+				"  no: \n" +
+				"    good: true\n"
+		);
+		IRegion region = assertIncrementalReconcile(editor, editor.middleOf("snuggem"), 0);
+		assertEquals(
+				"logging:\n"+
+				"  level:\n" +
+				"    com.acme: INFO\n" +
+				"  snuggem: what?",
+				editor.textUnder(region).trim()
+		);
+
+		//Syntax errors and duplicate top-level keys need the whole document to be reconciled
+		editor = new YamlEditor(
+				"server:\n" +
+				"  port: 8080\n" +
+				"logging: [\n"
+		);
+		assertNull(assertIncrementalReconcile(editor, editor.middleOf("8080"), 0));
+
+		editor = new YamlEditor(
+				"server:\n" +
+				"  port: 8080\n" +
+				"server:\n" +
+				"  port: 8888\n"
+		);
+		assertNull(assertIncrementalReconcile(editor, editor.middleOf("8080"), 0));
+	}
+
+	public void testIncrementalReconcileOfLargeDocument() throws Exception {
+		defaultTestData();
+		StringBuilder contents = new StringBuilder();
+		for (int i = 0; i < 300; i++) {
+			contents.append("entry" + i + ":\n");
+			contents.append("  port: " + i + "\n");
+		}
+		YamlEditor editor = new YamlEditor(contents.toString());
+
+		//Only the edited top-level entry is rechecked, not the other 299
+		IRegion region = assertIncrementalReconcile(editor, editor.middleOf("entry150:"), 0);
+		String affected = editor.textUnder(region).trim();
+		assertTrue(affected, affected.startsWith("entry150:"));
+		assertFalse(affected, affected.contains("entry149:"));
+		assertFalse(affected, affected.contains("entry152:"));
+	}
+
 	public void testReconcileIntegerScalar() throws Exception {
 		data("server.port", "java.lang.Integer", null, "Port of server");
 		data("server.threads", "java.lang.Integer", null, "Number of threads for server threadpool");
@@ -13,6 +13,7 @@ package org.springframework.ide.eclipse.boot.properties.editor.test;
 import static org.springsource.ide.eclipse.commons.tests.util.StsTestCase.assertContains;
 import static org.springsource.ide.eclipse.commons.tests.util.StsTestCase.assertElements;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
@@ -35,6 +36,7 @@ import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Region;
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
 import org.eclipse.jface.text.contentassist.ICompletionProposalExtension6;
 import org.eclipse.jface.viewers.StyledString;
@@ -682,6 +684,41 @@ public abstract class YamlOrPropertyEditorTestHarness extends TestCase {
 		return problems.getAllProblems();
 	}
 
+	/**
+	 * Reconciles the part of the editor affected by editing the given range of it, like the
+	 * reconcile strategy does, and checks that this finds the same problems in that part as
+	 * reconciling the whole editor.
+	 *
+	 * @return The region that has been reconciled, or null if the engine has to reconcile the whole editor.
+	 */
+	public IRegion assertIncrementalReconcile(MockEditor editor, int offset, int length) throws Exception {
+		IReconcileEngine reconciler = createReconcileEngine();
+		MockProblemCollector allProblems = new MockProblemCollector(ignoredTypes);
+		reconciler.reconcile(editor.document, allProblems, new NullProgressMonitor());
+		IRegion region = reconciler.getAffectedRegion(editor.document, new Region(offset, length));
+		if (region!=null) {
+			assertTrue(region.getOffset()<=offset && offset+length<=region.getOffset()+region.getLength());
+			MockProblemCollector problems = new MockProblemCollector(ignoredTypes);
+			reconciler.reconcile(editor.document, region, problems, new NullProgressMonitor());
+			assertEquals(
+					problemSumary(editor, problemsIn(region, allProblems.getAllProblems())),
+					problemSumary(editor, problemsIn(region, problems.getAllProblems()))
+			);
+		}
+		return region;
+	}
+
+	private List<ReconcileProblem> problemsIn(IRegion region, List<ReconcileProblem> problems) {
+		List<ReconcileProblem> problemsInRegion = new ArrayList<>();
+		for (ReconcileProblem p : problems) {
+			if (p.getOffset()>=region.getOffset() && p.getOffset()<=region.getOffset()+region.getLength()) {
+				problemsInRegion.add(p);
+			}
+		}
+		Collections.sort(problemsInRegion, PROBLEM_COMPARATOR);
+		return problemsInRegion;
+	}
+
 	public void ignoreProblem(ProblemType type) {
 		ignoredTypes.add(type);
 	}
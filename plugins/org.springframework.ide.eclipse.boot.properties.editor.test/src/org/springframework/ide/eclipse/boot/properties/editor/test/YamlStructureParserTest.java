@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 Pivotal, Inc.
+ * Copyright (c) 2015, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,10 +10,15 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.boot.properties.editor.test;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.regex.Pattern;
 
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
 import org.springframework.ide.eclipse.editor.support.util.DocumentUtil;
+import org.springframework.ide.eclipse.editor.support.yaml.YamlDocument;
+import org.springframework.ide.eclipse.editor.support.yaml.path.KeyAliases;
 import org.springframework.ide.eclipse.editor.support.yaml.path.YamlPath;
 import org.springframework.ide.eclipse.editor.support.yaml.path.YamlPathSegment;
 import org.springframework.ide.eclipse.editor.support.yaml.structure.YamlStructureParser;
@@ -22,6 +27,7 @@ import org.springframework.ide.eclipse.editor.support.yaml.structure.YamlStructu
 import org.springframework.ide.eclipse.editor.support.yaml.structure.YamlStructureParser.SKeyNode;
 import org.springframework.ide.eclipse.editor.support.yaml.structure.YamlStructureParser.SNode;
 import org.springframework.ide.eclipse.editor.support.yaml.structure.YamlStructureParser.SRootNode;
+import org.springframework.ide.eclipse.editor.support.yaml.structure.YamlStructureProvider;
 
 public class YamlStructureParserTest extends ApplicationYamlEditorTestHarness {
 
@@ -832,6 +838,30 @@ public class YamlStructureParserTest extends ApplicationYamlEditorTestHarness {
 		assertMatch(YamlStructureParser.DOCUMENT_SEPERATOR, "...#");
 	}
 
+	public void testCachingStructureProvider() throws Exception {
+		YamlStructureProvider provider = YamlStructureProvider.withAliases(KeyAliases.NONE);
+		IDocument document = new Document("hello:\n  world: message\n");
+		SRootNode structure = provider.getStructure(new YamlDocument(document, provider));
+		assertSame(structure, provider.getStructure(new YamlDocument(document, provider)));
+
+		document.replace(0, 0, "#comment\n");
+		SRootNode changed = provider.getStructure(new YamlDocument(document, provider));
+		assertNotSame(structure, changed);
+		assertSame(changed, provider.getStructure(new YamlDocument(document, provider)));
+
+		// the structure of another document replaces the cached one, which must not be kept alive
+		WeakReference<IDocument> documentRef = new WeakReference<>(document);
+		document = null;
+		structure = null;
+		changed = null;
+		provider.getStructure(new YamlDocument(new Document("other: document\n"), provider));
+		for (int i = 0; i < 50 && documentRef.get()!=null; i++) {
+			System.gc();
+			Thread.sleep(20);
+		}
+		assertNull(documentRef.get());
+	}
+
 	private void assertMatch(Pattern pat, String string) {
 		assertTrue("Doesn't match: '"+string+"'", pat.matcher(string).matches());
 	}
@@ -21,6 +21,7 @@ import java.util.Set;
 import java.util.regex.Pattern;
 
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jface.text.IRegion;
 import org.springframework.boot.configurationmetadata.Deprecation;
 import org.springframework.boot.configurationmetadata.Deprecation.Level;
 import org.springframework.ide.eclipse.boot.properties.editor.metadata.PropertyInfo;
@@ -70,6 +71,40 @@ public class ApplicationYamlASTReconciler implements YamlASTReconciler {
 		reconcile(ast, nav, mon);
 	}
 
+	/**
+	 * The problems of a top-level entry only depend on the entry itself, so only the entries
+	 * intersecting the region are checked. Apart from the duplicate keys, which are checked for
+	 * the whole mapping.
+	 */
+	@Override
+	public void reconcile(YamlFileAST ast, IRegion region, IProgressMonitor mon) {
+		if (region==null) {
+			reconcile(ast, nav, mon);
+			return;
+		}
+		List<Node> nodes = ast.getNodes();
+		if (nodes!=null && !nodes.isEmpty()) {
+			mon.beginTask("Reconcile", nodes.size());
+			try {
+				for (Node node : nodes) {
+					if (node.getNodeId()==NodeId.mapping) {
+						checkForDuplicateKeys((MappingNode)node);
+						for (NodeTuple entry : ((MappingNode)node).getValue()) {
+							if (NodeUtil.intersects(entry, region)) {
+								reconcile(entry, nav);
+							}
+						}
+					} else if (NodeUtil.intersects(node, region)) {
+						reconcile(node, nav);
+					}
+					mon.worked(1);
+				}
+			} finally {
+				mon.done();
+			}
+		}
+	}
+
 	protected void reconcile(YamlFileAST ast, IndexNavigator nav, IProgressMonitor mon) {
 		List<Node> nodes = ast.getNodes();
 		if (nodes!=null && !nodes.isEmpty()) {
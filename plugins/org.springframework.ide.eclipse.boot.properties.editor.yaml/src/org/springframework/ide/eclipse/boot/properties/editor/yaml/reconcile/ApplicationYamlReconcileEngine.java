@@ -13,6 +13,7 @@ package org.springframework.ide.eclipse.boot.properties.editor.yaml.reconcile;
 import static org.springframework.ide.eclipse.boot.properties.editor.reconciling.SpringPropertiesProblemType.YAML_SYNTAX_ERROR;
 
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
 import org.springframework.ide.eclipse.boot.properties.editor.FuzzyMap;
 import org.springframework.ide.eclipse.boot.properties.editor.metadata.PropertyInfo;
 import org.springframework.ide.eclipse.boot.properties.editor.reconciling.SpringPropertyProblem;
@@ -35,6 +36,11 @@ public class ApplicationYamlReconcileEngine extends YamlReconcileEngine {
 		this.typeUtilProvider = typeUtilProvider;
 	}
 
+	@Override
+	public IRegion getAffectedRegion(IDocument doc, IRegion dirtyRegion) {
+		return getAffectedTopLevelEntries(doc, dirtyRegion);
+	}
+
 	protected YamlASTReconciler getASTReconciler(IDocument doc, IProblemCollector problemCollector) {
 		FuzzyMap<PropertyInfo> index = indexProvider.getIndex(doc);
 		if (index!=null && !index.isEmpty()) {
@@ -0,0 +1,407 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.boot.configurationmetadata;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.ide.eclipse.org.json.JSONArray;
+import org.springframework.ide.eclipse.org.json.JSONException;
+import org.springframework.ide.eclipse.org.json.JSONObject;
+
+/**
+ * Compact binary form of a configuration metadata json document, which can be read
+ * back far more cheaply than the json itself.
+ * <p>
+ * All names, types and values are stored once in a string table and are interned when
+ * read. Descriptions are kept in a separate block of the buffer and are only decoded
+ * when they are asked for, so the buffer (typically memory-mapped) must not be modified
+ * while the metadata read from it is in use.
+ * <p>
+ * Reading a buffer always creates new metadata objects, so the same buffer can be added
+ * to any number of {@link ConfigurationMetadataRepositoryJsonBuilder builders}.
+ */
+public final class BinaryMetadataCodec {
+
+	private static final int MAGIC = 0x53434d44; // "SCMD"
+
+	private static final int VERSION = 1;
+
+	private static final int NULL = -1;
+
+	private static final byte NULL_VALUE = 0;
+
+	private static final byte STRING_VALUE = 1;
+
+	private static final byte BOOLEAN_VALUE = 2;
+
+	private static final byte INT_VALUE = 3;
+
+	private static final byte LONG_VALUE = 4;
+
+	private static final byte DOUBLE_VALUE = 5;
+
+	private static final byte ARRAY_VALUE = 6;
+
+	private static final byte JSON_NULL_VALUE = 7;
+
+	private static final byte JSON_OBJECT_VALUE = 8;
+
+	private static final byte JSON_ARRAY_VALUE = 9;
+
+	private BinaryMetadataCodec() {
+	}
+
+	/**
+	 * Parse the given configuration metadata json document and encode it in binary form.
+	 * <p>
+	 * Leaves the stream open when done.
+	 * @param inputStream the json document, in UTF-8
+	 * @return the encoded document
+	 * @throws IOException in case of I/O errors
+	 */
+	public static byte[] encode(InputStream inputStream) throws IOException {
+		RawConfigurationMetadata metadata;
+		try {
+			metadata = new JsonReader().read(inputStream,
+					ConfigurationMetadataRepositoryJsonBuilder.UTF_8);
+		}
+		catch (JSONException ex) {
+			throw new IllegalArgumentException(
+					"Invalid configuration " + "metadata document", ex);
+		}
+		return new Writer().write(metadata);
+	}
+
+	/**
+	 * Check whether the remaining content of the given buffer starts like a document
+	 * written by this version of {@link #encode(InputStream)}.
+	 * @param buffer the encoded document; its position is not changed
+	 * @return whether the document can be read
+	 */
+	public static boolean isSupported(ByteBuffer buffer) {
+		int position = buffer.position();
+		return buffer.remaining() >= 8 && buffer.getInt(position) == MAGIC
+				&& buffer.getInt(position + 4) == VERSION;
+	}
+
+	/**
+	 * Read metadata encoded by {@link #encode(InputStream)} from the remaining content of
+	 * the given buffer.
+	 * @param buffer the encoded document; its position is not changed
+	 * @return the metadata
+	 * @throws IOException if the buffer doesn't hold a document of the current version
+	 */
+	static RawConfigurationMetadata decode(ByteBuffer buffer) throws IOException {
+		try {
+			return new Reader(buffer.slice()).read();
+		}
+		catch (BufferUnderflowException | IndexOutOfBoundsException | JSONException ex) {
+			throw new IOException("Corrupt configuration metadata", ex);
+		}
+	}
+
+	private static class Writer {
+
+		private final Map<String, Integer> strings = new LinkedHashMap<>();
+
+		private final ByteArrayOutputStream descriptions = new ByteArrayOutputStream();
+
+		private final ByteArrayOutputStream records = new ByteArrayOutputStream();
+
+		private final DataOutputStream out = new DataOutputStream(this.records);
+
+		public byte[] write(RawConfigurationMetadata metadata) throws IOException {
+			this.out.writeInt(metadata.getSources().size());
+			for (ConfigurationMetadataSource source : metadata.getSources()) {
+				writeString(source.getGroupId());
+				writeString(source.getType());
+				writeDescription(source.getDescription());
+				writeString(source.getSourceType());
+				writeString(source.getSourceMethod());
+			}
+			this.out.writeInt(metadata.getItems().size());
+			for (ConfigurationMetadataItem item : metadata.getItems()) {
+				writeString(item.getId());
+				writeString(item.getType());
+				writeDescription(item.getDescription());
+				writeValue(item.getDefaultValue());
+				writeDeprecation(item.getDeprecation());
+				writeString(item.getSourceType());
+				writeString(item.getSourceMethod());
+			}
+			this.out.writeInt(metadata.getHints().size());
+			for (ConfigurationMetadataHint hint : metadata.getHints()) {
+				writeString(hint.getId());
+				this.out.writeInt(hint.getValueHints().size());
+				for (ValueHint valueHint : hint.getValueHints()) {
+					writeValue(valueHint.getValue());
+					writeDescription(valueHint.getDescription());
+				}
+				this.out.writeInt(hint.getValueProviders().size());
+				for (ValueProvider valueProvider : hint.getValueProviders()) {
+					writeString(valueProvider.getName());
+					this.out.writeInt(valueProvider.getParameters().size());
+					for (Map.Entry<String, Object> parameter : valueProvider
+							.getParameters().entrySet()) {
+						writeString(parameter.getKey());
+						writeValue(parameter.getValue());
+					}
+				}
+			}
+			this.out.flush();
+
+			ByteArrayOutputStream result = new ByteArrayOutputStream(
+					this.records.size() + this.descriptions.size() + 1024);
+			DataOutputStream header = new DataOutputStream(result);
+			header.writeInt(MAGIC);
+			header.writeInt(VERSION);
+			header.writeInt(this.strings.size());
+			for (String string : this.strings.keySet()) {
+				byte[] bytes = string.getBytes(ConfigurationMetadataRepositoryJsonBuilder.UTF_8);
+				header.writeInt(bytes.length);
+				header.write(bytes);
+			}
+			header.writeInt(this.descriptions.size());
+			this.descriptions.writeTo(header);
+			this.records.writeTo(header);
+			header.flush();
+			return result.toByteArray();
+		}
+
+		private void writeString(String string) throws IOException {
+			if (string == null) {
+				this.out.writeInt(NULL);
+				return;
+			}
+			Integer index = this.strings.get(string);
+			if (index == null) {
+				index = this.strings.size();
+				this.strings.put(string, index);
+			}
+			this.out.writeInt(index);
+		}
+
+		private void writeDescription(String description) throws IOException {
+			if (description == null) {
+				this.out.writeInt(NULL);
+				return;
+			}
+			byte[] bytes = description.getBytes(ConfigurationMetadataRepositoryJsonBuilder.UTF_8);
+			this.out.writeInt(this.descriptions.size());
+			this.out.writeInt(bytes.length);
+			this.descriptions.write(bytes);
+		}
+
+		private void writeDeprecation(Deprecation deprecation) throws IOException {
+			if (deprecation == null) {
+				this.out.writeByte(0);
+				return;
+			}
+			this.out.writeByte(1);
+			this.out.writeByte(deprecation.getLevel().ordinal());
+			writeString(deprecation.getReason());
+			writeString(deprecation.getReplacement());
+		}
+
+		private void writeValue(Object value) throws IOException {
+			if (value == null) {
+				this.out.writeByte(NULL_VALUE);
+			}
+			else if (value == JSONObject.NULL) {
+				this.out.writeByte(JSON_NULL_VALUE);
+			}
+			else if (value instanceof Boolean) {
+				this.out.writeByte(BOOLEAN_VALUE);
+				this.out.writeBoolean((Boolean) value);
+			}
+			else if (value instanceof Integer) {
+				this.out.writeByte(INT_VALUE);
+				this.out.writeInt((Integer) value);
+			}
+			else if (value instanceof Long) {
+				this.out.writeByte(LONG_VALUE);
+				this.out.writeLong((Long) value);
+			}
+			else if (value instanceof Double) {
+				this.out.writeByte(DOUBLE_VALUE);
+				this.out.writeDouble((Double) value);
+			}
+			else if (value instanceof Object[]) {
+				Object[] array = (Object[]) value;
+				this.out.writeByte(ARRAY_VALUE);
+				this.out.writeInt(array.length);
+				for (Object element : array) {
+					writeValue(element);
+				}
+			}
+			else if (value instanceof JSONObject) {
+				this.out.writeByte(JSON_OBJECT_VALUE);
+				writeString(value.toString());
+			}
+			else if (value instanceof JSONArray) {
+				this.out.writeByte(JSON_ARRAY_VALUE);
+				writeString(value.toString());
+			}
+			else {
+				this.out.writeByte(STRING_VALUE);
+				writeString(value.toString());
+			}
+		}
+
+	}
+
+	private static class Reader {
+
+		private final ByteBuffer buffer;
+
+		private String[] strings;
+
+		private ByteBuffer descriptions;
+
+		Reader(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		public RawConfigurationMetadata read() throws IOException {
+			if (this.buffer.getInt() != MAGIC || this.buffer.getInt() != VERSION) {
+				throw new IOException("Unsupported configuration metadata format");
+			}
+			this.strings = new String[this.buffer.getInt()];
+			for (int i = 0; i < this.strings.length; i++) {
+				byte[] bytes = new byte[this.buffer.getInt()];
+				this.buffer.get(bytes);
+				this.strings[i] = new String(bytes,
+						ConfigurationMetadataRepositoryJsonBuilder.UTF_8).intern();
+			}
+			int descriptionsLength = this.buffer.getInt();
+			ByteBuffer descriptions = this.buffer.slice();
+			descriptions.limit(descriptionsLength);
+			this.descriptions = descriptions;
+			this.buffer.position(this.buffer.position() + descriptionsLength);
+
+			List<ConfigurationMetadataSource> sources = new ArrayList<>();
+			for (int i = this.buffer.getInt(); i > 0; i--) {
+				ConfigurationMetadataSource source = new ConfigurationMetadataSource();
+				source.setGroupId(readString());
+				source.setType(readString());
+				source.setDescription(readDescription());
+				source.setSourceType(readString());
+				source.setSourceMethod(readString());
+				sources.add(source);
+			}
+			List<ConfigurationMetadataItem> items = new ArrayList<>();
+			for (int i = this.buffer.getInt(); i > 0; i--) {
+				ConfigurationMetadataItem item = new ConfigurationMetadataItem();
+				item.setId(readString());
+				item.setType(readString());
+				item.setDescription(readDescription());
+				item.setDefaultValue(readValue());
+				item.setDeprecation(readDeprecation());
+				item.setSourceType(readString());
+				item.setSourceMethod(readString());
+				items.add(item);
+			}
+			List<ConfigurationMetadataHint> hints = new ArrayList<>();
+			for (int i = this.buffer.getInt(); i > 0; i--) {
+				ConfigurationMetadataHint hint = new ConfigurationMetadataHint();
+				hint.setId(readString());
+				for (int j = this.buffer.getInt(); j > 0; j--) {
+					ValueHint valueHint = new ValueHint();
+					valueHint.setValue(readValue());
+					valueHint.setDescription(readDescription());
+					hint.getValueHints().add(valueHint);
+				}
+				for (int j = this.buffer.getInt(); j > 0; j--) {
+					ValueProvider valueProvider = new ValueProvider();
+					valueProvider.setName(readString());
+					for (int k = this.buffer.getInt(); k > 0; k--) {
+						String key = readString();
+						valueProvider.getParameters().put(key, readValue());
+					}
+					hint.getValueProviders().add(valueProvider);
+				}
+				hints.add(hint);
+			}
+			return new RawConfigurationMetadata(sources, items, hints);
+		}
+
+		private String readString() {
+			int index = this.buffer.getInt();
+			return (index == NULL ? null : this.strings[index]);
+		}
+
+		private LazyDescription readDescription() {
+			int offset = this.buffer.getInt();
+			if (offset == NULL) {
+				return null;
+			}
+			int length = this.buffer.getInt();
+			if (offset + length > this.descriptions.limit()) {
+				throw new IndexOutOfBoundsException("Description out of bounds: " + offset);
+			}
+			return new LazyDescription(this.descriptions, offset, length);
+		}
+
+		private Deprecation readDeprecation() throws IOException {
+			if (this.buffer.get() == 0) {
+				return null;
+			}
+			Deprecation deprecation = new Deprecation();
+			deprecation.setLevel(Deprecation.Level.values()[this.buffer.get()]);
+			deprecation.setReason(readString());
+			deprecation.setReplacement(readString());
+			return deprecation;
+		}
+
+		private Object readValue() throws IOException {
+			byte type = this.buffer.get();
+			switch (type) {
+			case NULL_VALUE:
+				return null;
+			case JSON_NULL_VALUE:
+				return JSONObject.NULL;
+			case STRING_VALUE:
+				return readString();
+			case BOOLEAN_VALUE:
+				return this.buffer.get() != 0;
+			case INT_VALUE:
+				return this.buffer.getInt();
+			case LONG_VALUE:
+				return this.buffer.getLong();
+			case DOUBLE_VALUE:
+				return this.buffer.getDouble();
+			case ARRAY_VALUE:
+				Object[] array = new Object[this.buffer.getInt()];
+				for (int i = 0; i < array.length; i++) {
+					array[i] = readValue();
+				}
+				return array;
+			case JSON_OBJECT_VALUE:
+				return new JSONObject(readString());
+			case JSON_ARRAY_VALUE:
+				return new JSONArray(readString());
+			default:
+				throw new IOException("Unknown value type: " + type);
+			}
+		}
+
+	}
+
+}
@@ -16,7 +16,10 @@
 
 package org.springframework.boot.configurationmetadata;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.function.Supplier;
 
 /**
  * Define a configuration property. Each property is fully identified by its
@@ -40,6 +43,8 @@ public class ConfigurationMetadataProperty implements Serializable {
 
 	private String shortDescription;
 
+	private transient volatile LazyDescription lazyDescription;
+
 	private Object defaultValue;
 
 	private final Hints hints = new Hints();
@@ -100,10 +105,12 @@ public class ConfigurationMetadataProperty implements Serializable {
 	 * @see #getShortDescription()
 	 */
 	public String getDescription() {
+		resolveDescription();
 		return this.description;
 	}
 
 	public void setDescription(String description) {
+		resolveDescription();
 		this.description = description;
 	}
 
@@ -113,13 +120,48 @@ public class ConfigurationMetadataProperty implements Serializable {
 	 * @see #getDescription()
 	 */
 	public String getShortDescription() {
+		resolveDescription();
 		return this.shortDescription;
 	}
 
 	public void setShortDescription(String shortDescription) {
+		resolveDescription();
 		this.shortDescription = shortDescription;
 	}
 
+	/**
+	 * Supplies the description of the property. The supplier doesn't hold on to this
+	 * property: a description that is still encoded is decoded on every call.
+	 * @return the supplier of the description
+	 */
+	public Supplier<String> getDescriptionSupplier() {
+		LazyDescription lazyDescription = this.lazyDescription;
+		if (lazyDescription != null) {
+			return lazyDescription::getDescription;
+		}
+		String description = this.description;
+		return () -> description;
+	}
+
+	void setDescription(LazyDescription description) {
+		this.lazyDescription = description;
+	}
+
+	private void resolveDescription() {
+		LazyDescription lazyDescription = this.lazyDescription;
+		if (lazyDescription != null) {
+			this.description = lazyDescription.getDescription();
+			this.shortDescription = lazyDescription.getShortDescription(this.description);
+			// Published by the volatile write
+			this.lazyDescription = null;
+		}
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		resolveDescription();
+		out.defaultWriteObject();
+	}
+
 	/**
 	 * The default value, if any.
 	 * @return the default value
@@ -18,6 +18,7 @@ package org.springframework.boot.configurationmetadata;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
@@ -87,6 +88,27 @@ public final class ConfigurationMetadataRepositoryJsonBuilder {
 		return this;
 	}
 
+	/**
+	 * Add the content of a {@link ConfigurationMetadataRepository} defined by the
+	 * remaining content of the specified buffer, in the format written by
+	 * {@link BinaryMetadataCodec#encode(InputStream)}. If this metadata repository holds
+	 * items that were loaded previously, these are ignored.
+	 * <p>
+	 * Descriptions are decoded from the buffer when they are first accessed, so it must
+	 * not be modified afterwards.
+	 * @param buffer the encoded metadata
+	 * @return this builder
+	 * @throws IOException if the buffer doesn't hold supported metadata
+	 */
+	public ConfigurationMetadataRepositoryJsonBuilder withBinaryResource(ByteBuffer buffer)
+			throws IOException {
+		if (buffer == null) {
+			throw new IllegalArgumentException("Buffer must not be null.");
+		}
+		this.rawDatas.add(BinaryMetadataCodec.decode(buffer));
+		return this;
+	}
+
 	/**
 	 * Build a {@link ConfigurationMetadataRepository} with the current state of this
 	 * builder.
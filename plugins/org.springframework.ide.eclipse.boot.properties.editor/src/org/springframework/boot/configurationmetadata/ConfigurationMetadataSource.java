@@ -16,6 +16,8 @@
 
 package org.springframework.boot.configurationmetadata;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
@@ -38,6 +40,8 @@ public class ConfigurationMetadataSource implements Serializable {
 
 	private String shortDescription;
 
+	private transient volatile LazyDescription lazyDescription;
+
 	private String sourceType;
 
 	private String sourceMethod;
@@ -75,10 +79,12 @@ public class ConfigurationMetadataSource implements Serializable {
 	 * @see #getShortDescription()
 	 */
 	public String getDescription() {
+		resolveDescription();
 		return this.description;
 	}
 
 	void setDescription(String description) {
+		resolveDescription();
 		this.description = description;
 	}
 
@@ -88,13 +94,34 @@ public class ConfigurationMetadataSource implements Serializable {
 	 * @see #getDescription()
 	 */
 	public String getShortDescription() {
+		resolveDescription();
 		return this.shortDescription;
 	}
 
 	public void setShortDescription(String shortDescription) {
+		resolveDescription();
 		this.shortDescription = shortDescription;
 	}
 
+	void setDescription(LazyDescription description) {
+		this.lazyDescription = description;
+	}
+
+	private void resolveDescription() {
+		LazyDescription lazyDescription = this.lazyDescription;
+		if (lazyDescription != null) {
+			this.description = lazyDescription.getDescription();
+			this.shortDescription = lazyDescription.getShortDescription(this.description);
+			// Published by the volatile write
+			this.lazyDescription = null;
+		}
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		resolveDescription();
+		out.defaultWriteObject();
+	}
+
 	/**
 	 * The type where this source is defined. This can be identical to the
 	 * {@link #getType() type} if the source is self-defined.
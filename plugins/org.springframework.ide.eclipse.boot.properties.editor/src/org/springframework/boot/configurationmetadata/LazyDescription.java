@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.boot.configurationmetadata;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A description that is still encoded in a {@link BinaryMetadataCodec binary metadata}
+ * buffer and only decoded when it is first needed.
+ */
+final class LazyDescription {
+
+	private static final DescriptionExtractor descriptionExtractor = new DescriptionExtractor();
+
+	private final ByteBuffer buffer;
+
+	private final int offset;
+
+	private final int length;
+
+	LazyDescription(ByteBuffer buffer, int offset, int length) {
+		this.buffer = buffer;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	public String getDescription() {
+		byte[] bytes = new byte[this.length];
+		// Absolute reads on a private view, the buffer is shared between threads
+		ByteBuffer view = this.buffer.duplicate();
+		view.position(this.offset);
+		view.get(bytes);
+		return new String(bytes, ConfigurationMetadataRepositoryJsonBuilder.UTF_8);
+	}
+
+	public String getShortDescription(String description) {
+		return descriptionExtractor.getShortDescription(description);
+	}
+
+}
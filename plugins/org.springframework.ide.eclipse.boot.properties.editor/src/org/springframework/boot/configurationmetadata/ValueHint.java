@@ -16,6 +16,8 @@
 
 package org.springframework.boot.configurationmetadata;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 
 /**
@@ -34,6 +36,8 @@ public class ValueHint implements Serializable {
 
 	private String shortDescription;
 
+	private transient volatile LazyDescription lazyDescription;
+
 	/**
 	 * Return the hint value.
 	 * @return the value
@@ -52,10 +56,12 @@ public class ValueHint implements Serializable {
 	 * @see #getShortDescription()
 	 */
 	public String getDescription() {
+		resolveDescription();
 		return this.description;
 	}
 
 	public void setDescription(String description) {
+		resolveDescription();
 		this.description = description;
 	}
 
@@ -65,16 +71,37 @@ public class ValueHint implements Serializable {
 	 * @see #getDescription()
 	 */
 	public String getShortDescription() {
+		resolveDescription();
 		return this.shortDescription;
 	}
 
 	public void setShortDescription(String shortDescription) {
+		resolveDescription();
 		this.shortDescription = shortDescription;
 	}
 
+	void setDescription(LazyDescription description) {
+		this.lazyDescription = description;
+	}
+
+	private void resolveDescription() {
+		LazyDescription lazyDescription = this.lazyDescription;
+		if (lazyDescription != null) {
+			this.description = lazyDescription.getDescription();
+			this.shortDescription = lazyDescription.getShortDescription(this.description);
+			// Published by the volatile write
+			this.lazyDescription = null;
+		}
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		resolveDescription();
+		out.defaultWriteObject();
+	}
+
 	@Override
 	public String toString() {
-		return "ValueHint{" + "value=" + this.value + ", description='" + this.description
+		return "ValueHint{" + "value=" + this.value + ", description='" + getDescription()
 				+ '\'' + '}';
 	}
 
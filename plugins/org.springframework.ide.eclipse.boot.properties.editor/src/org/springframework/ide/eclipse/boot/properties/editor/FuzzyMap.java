@@ -11,10 +11,15 @@
 package org.springframework.ide.eclipse.boot.properties.editor;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.TreeMap;
 
 import org.springframework.ide.eclipse.editor.support.util.FuzzyMatcher;
@@ -68,6 +73,12 @@ public abstract class FuzzyMap<E> implements Iterable<E> {
 
 	private TreeMap<String,E> entries = new TreeMap<>();
 
+	/**
+	 * Index of the current entries, used to prune the keys to be scored by {@link #find(String)}. Created
+	 * lazily and discarded whenever an entry is added.
+	 */
+	private volatile KeyIndex<E> index;
+
 	protected abstract String getKey(E entry);
 
 	public void add(E value) {
@@ -76,6 +87,7 @@ public abstract class FuzzyMap<E> implements Iterable<E> {
 		E existing = entries.get(key);
 		if (existing==null) {
 			entries.put(getKey(value), value);
+			index = null;
 		} else {
 			SpringPropertiesEditorPlugin.warning(FuzzyMap.class.getName()+": Multiple entries for key "+key+" some entries discarded");
 		}
@@ -99,19 +111,29 @@ public abstract class FuzzyMap<E> implements Iterable<E> {
 			}
 			return matches;
 		} else {
-			//TODO: optimize somehow with a smarter index? (right now searches all map entries sequentially)
+			//Only score the keys that contain every pair of consecutive pattern chars in the right order.
+			//Candidates are visited in key order so the result is the same as when scoring all entries.
+			KeyIndex<E> index = getIndex();
 			ArrayList<Match<E>> matches = new ArrayList<>();
-			for (Entry<String, E> e : entries.entrySet()) {
-				String key = e.getKey();
-				double score = FuzzyMatcher.matchScore(pattern, key);
+			BitSet candidates = index.getCandidates(pattern);
+			for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i+1)) {
+				double score = FuzzyMatcher.matchScore(pattern, index.keys[i]);
 				if (score!=0.0) {
-					matches.add(new Match<>(pattern, score, e.getValue()));
+					matches.add(new Match<>(pattern, score, index.values.get(i)));
 				}
 			}
 			return matches;
 		}
 	}
 
+	private KeyIndex<E> getIndex() {
+		KeyIndex<E> index = this.index;
+		if (index==null) {
+			this.index = index = new KeyIndex<>(entries);
+		}
+		return index;
+	}
+
 	/**
 	 * Searches the index for the longest string which is both
 	 *  - a prefix of propertyName
@@ -164,4 +186,81 @@ public abstract class FuzzyMap<E> implements Iterable<E> {
 		return entries.size();
 	}
 
+	/**
+	 * Maps every character, and every ordered pair of characters, to the keys containing it.
+	 * <p>
+	 * A key can only match a pattern if, for every two consecutive chars 'a' and 'b' of the pattern, the key
+	 * contains an 'a' followed (not necessarily directly) by a 'b'. Intersecting the keys of all these pairs
+	 * leaves a (usually small) superset of the matching keys.
+	 */
+	private static class KeyIndex<E> {
+
+		final String[] keys;
+		final List<E> values;
+
+		private final Map<Character, BitSet> keysByChar = new HashMap<>();
+		private final Map<Integer, BitSet> keysByCharPair = new HashMap<>();
+
+		KeyIndex(TreeMap<String, E> entries) {
+			keys = new String[entries.size()];
+			values = new ArrayList<>(entries.size());
+			int i = 0;
+			for (Entry<String, E> e : entries.entrySet()) {
+				keys[i] = e.getKey();
+				values.add(e.getValue());
+				addKey(i++, e.getKey());
+			}
+		}
+
+		private void addKey(int keyIndex, String key) {
+			StringBuilder seen = new StringBuilder();
+			Set<Integer> pairs = new HashSet<>();
+			for (int pos = 0; pos < key.length(); pos++) {
+				char c = key.charAt(pos);
+				for (int j = 0; j < seen.length(); j++) {
+					int pair = pair(seen.charAt(j), c);
+					if (pairs.add(pair)) {
+						getBitSet(keysByCharPair, pair).set(keyIndex);
+					}
+				}
+				if (seen.indexOf(String.valueOf(c))<0) {
+					seen.append(c);
+					getBitSet(keysByChar, c).set(keyIndex);
+				}
+			}
+		}
+
+		/**
+		 * Returns the indices of all keys that may match the given non-empty pattern.
+		 */
+		BitSet getCandidates(String pattern) {
+			BitSet candidates = keysByChar.get(pattern.charAt(0));
+			if (candidates==null) {
+				return new BitSet();
+			}
+			candidates = (BitSet) candidates.clone();
+			for (int i = 1; i < pattern.length() && !candidates.isEmpty(); i++) {
+				BitSet keys = keysByCharPair.get(pair(pattern.charAt(i-1), pattern.charAt(i)));
+				if (keys==null) {
+					return new BitSet();
+				}
+				candidates.and(keys);
+			}
+			return candidates;
+		}
+
+		private static int pair(char first, char second) {
+			return (first << 16) | second;
+		}
+
+		private static <K> BitSet getBitSet(Map<K, BitSet> map, K key) {
+			BitSet bits = map.get(key);
+			if (bits==null) {
+				bits = new BitSet();
+				map.put(key, bits);
+			}
+			return bits;
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014 Pivotal, Inc.
+ * Copyright (c) 2014, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,8 +10,10 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.boot.properties.editor;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.core.runtime.preferences.DefaultScope;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
@@ -46,6 +48,7 @@ public class SpringPropertiesEditorPlugin extends AbstractUIPlugin {
 	public void start(BundleContext context) throws Exception {
 		super.start(context);
 		plugin = this;
+		new CleanMetadataCacheJob().schedule(CLEAN_METADATA_CACHE_DELAY);
 	}
 
 	/*
@@ -96,4 +99,25 @@ public class SpringPropertiesEditorPlugin extends AbstractUIPlugin {
 		return DefaultScope.INSTANCE.getNode(PLUGIN_ID);
 	}
 
+	private static final long CLEAN_METADATA_CACHE_DELAY = 60000;
+
+	/**
+	 * Deletes the metadata cache files of jars that are gone, see
+	 * {@link StsConfigMetadataRepositoryJsonLoader#cleanCacheFolder()}.
+	 */
+	private static class CleanMetadataCacheJob extends Job {
+
+		public CleanMetadataCacheJob() {
+			super("Clean Spring properties metadata cache");
+			setSystem(true);
+			setPriority(DECORATE);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			StsConfigMetadataRepositoryJsonLoader.cleanCacheFolder();
+			return Status.OK_STATUS;
+		}
+	}
+
 }
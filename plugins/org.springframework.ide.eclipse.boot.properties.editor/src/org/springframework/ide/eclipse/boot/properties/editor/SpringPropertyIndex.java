@@ -11,7 +11,10 @@
 package org.springframework.ide.eclipse.boot.properties.editor;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.jdt.core.IJavaProject;
 import org.springframework.boot.configurationmetadata.ConfigurationMetadataGroup;
@@ -25,13 +28,15 @@ public class SpringPropertyIndex extends FuzzyMap<PropertyInfo> {
 
 	private ValueProviderRegistry valueProviders;
 
+	private Set<String> projectDependencies = Collections.emptySet();
+
 	public SpringPropertyIndex(ValueProviderRegistry valueProviders, IJavaProject jp) {
 		this.valueProviders = valueProviders;
 		if (jp!=null) {
 			try {
 				StsConfigMetadataRepositoryJsonLoader loader = new StsConfigMetadataRepositoryJsonLoader();
 				ConfigurationMetadataRepository metadata = loader.load(jp);
-				//^^^ Should be done in bg? It seems fast enough for now.
+				projectDependencies = new HashSet<>(loader.getLoadedProjects());
 
 				Collection<ConfigurationMetadataProperty> allEntries = metadata.getAllProperties().values();
 				for (ConfigurationMetadataProperty item : allEntries) {
@@ -56,6 +61,13 @@ public class SpringPropertyIndex extends FuzzyMap<PropertyInfo> {
 		}
 	}
 
+	/**
+	 * @return The names of the projects whose output folder metadata is part of this index.
+	 */
+	public Set<String> getProjectDependencies() {
+		return projectDependencies;
+	}
+
 	public void add(ConfigurationMetadataProperty propertyInfo) {
 		add(new PropertyInfo(valueProviders, propertyInfo));
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014-2016 Pivotal, Inc.
+ * Copyright (c) 2014-2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,9 +12,30 @@ package org.springframework.ide.eclipse.boot.properties.editor;
 
 import static org.springframework.ide.eclipse.boot.properties.editor.SpringPropertiesCompletionEngine.debug;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.jar.JarFile;
 import java.util.zip.ZipEntry;
 
@@ -28,6 +49,8 @@ import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.springframework.boot.configurationmetadata.BinaryMetadataCodec;
 import org.springframework.boot.configurationmetadata.ConfigurationMetadataRepository;
 import org.springframework.boot.configurationmetadata.ConfigurationMetadataRepositoryJsonBuilder;
 import org.springframework.ide.eclipse.boot.util.FileUtil;
@@ -60,8 +83,43 @@ public class StsConfigMetadataRepositoryJsonLoader {
 		ADDITIONAL_SPRING_CONFIGURATION_METADATA_JSON
 	};
 
+	/**
+	 * Maximum number of jars kept in the {@link #jarCache}.
+	 */
+	private static final int MAX_CACHED_JARS = 500;
+
+	/**
+	 * The metadata documents of the jars loaded recently, shared by all projects, in the compact form
+	 * written by {@link BinaryMetadataCodec}. Jars are only opened again if their timestamp or size changed.
+	 * The least recently used jars are evicted, so jars that are no longer on any classpath don't stay
+	 * cached forever; evicted jars are read back from their cache file.
+	 * <p>
+	 * The documents are cached rather than the parsed metadata because building a repository adds hints
+	 * to the parsed properties.
+	 */
+	private static final Map<File, JarMetadata> jarCache = Collections.synchronizedMap(new LinkedHashMap<File, JarMetadata>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<File, JarMetadata> eldest) {
+			return size()>MAX_CACHED_JARS;
+		}
+	});
+
+	/**
+	 * Marks the files in the {@link #getCacheFolder() cache folder}, followed by the format version.
+	 */
+	private static final int CACHE_FILE_MAGIC = 0x53434d4a; // "SCMJ"
+
+	private static final int CACHE_FILE_VERSION = 1;
+
 	private ConfigurationMetadataRepositoryJsonBuilder builder = ConfigurationMetadataRepositoryJsonBuilder.create();
 
+	/**
+	 * Names of the projects whose output folders have been loaded.
+	 */
+	private final Set<String> loadedProjects = new LinkedHashSet<>();
+
 	/**
 	 * Load the {@link ConfigMetadataRepository} with the metadata of the current
 	 * classpath using the {@link #DEFAULT_LOCATION_PATTERN}. If the same config
@@ -96,10 +154,12 @@ public class StsConfigMetadataRepositoryJsonLoader {
 	private void loadFromProjectDependency(IClasspathEntry entry) {
 		try {
 			String pname = entry.getPath().segment(0);
-			if (pname!=null) {
+			if (pname!=null && !loadedProjects.contains(pname)) {
 				IProject p = ResourcesPlugin.getWorkspace().getRoot().getProject(pname);
 				if (p.isAccessible() && p.hasNature(JavaCore.NATURE_ID)) {
-					loadFromOutputFolder(JavaCore.create(p));
+					IJavaProject jp = JavaCore.create(p);
+					loadFromOutputFolder(jp);
+					loadFromExportedEntries(jp);
 				}
 			}
 		} catch (Exception e) {
@@ -107,7 +167,36 @@ public class StsConfigMetadataRepositoryJsonLoader {
 		}
 	}
 
+	/**
+	 * Loads the jars and projects a project dependency exports, as they are on the classpath of the
+	 * depending project as well.
+	 */
+	private void loadFromExportedEntries(IJavaProject project) throws JavaModelException {
+		for (IClasspathEntry e : project.getResolvedClasspath(true)) {
+			if (e.isExported()) {
+				int ekind = e.getEntryKind();
+				if (ekind==IClasspathEntry.CPE_LIBRARY && e.getContentKind()==IPackageFragmentRoot.K_BINARY) {
+					File jarFile = e.getPath().toFile();
+					if (FileUtil.isJarFile(jarFile)) {
+						loadFromJar(jarFile);
+					}
+				} else if (ekind==IClasspathEntry.CPE_PROJECT) {
+					loadFromProjectDependency(e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return The names of the projects whose output folder metadata or exported classpath entries have
+	 * been loaded, i.e. the loaded repository depends on.
+	 */
+	public Set<String> getLoadedProjects() {
+		return Collections.unmodifiableSet(loadedProjects);
+	}
+
 	private void loadFromOutputFolder(IJavaProject project) {
+		loadedProjects.add(project.getElementName());
 		try {
 			IPath outputLoc = project.getOutputLocation();
 			if (outputLoc!=null) {
@@ -143,7 +232,26 @@ public class StsConfigMetadataRepositoryJsonLoader {
 	}
 
 	private void loadFromJar(File f) {
+		JarMetadata metadata = jarCache.get(f);
+		if (metadata==null || !metadata.isUpToDate(f)) {
+			metadata = readCacheFile(f);
+			if (metadata==null) {
+				metadata = writeCacheFile(f, readJar(f));
+			}
+			jarCache.put(f, metadata);
+		}
+		for (ByteBuffer document : metadata.documents) {
+			try {
+				builder.withBinaryResource(document);
+			} catch (Throwable e) {
+				SpringPropertiesEditorPlugin.log(e);
+			}
+		}
+	}
+
+	private JarMetadata readJar(File f) {
 		debug("load from jar: "+f);
+		JarMetadata metadata = new JarMetadata(f.lastModified(), f.length());
 		JarFile jarFile = null;
 		try {
 			jarFile = new JarFile(f);
@@ -151,7 +259,15 @@ public class StsConfigMetadataRepositoryJsonLoader {
 			for (String loc : JAR_META_DATA_LOCATIONS) {
 				ZipEntry e = jarFile.getEntry(loc);
 				if (e!=null) {
-					loadFrom(jarFile, e);
+					byte[] json = read(jarFile, e);
+					if (json!=null) {
+						try {
+							byte[] document = BinaryMetadataCodec.encode(new ByteArrayInputStream(json));
+							metadata.documents.add(ByteBuffer.wrap(document));
+						} catch (Throwable ex) {
+							SpringPropertiesEditorPlugin.log(ex);
+						}
+					}
 				}
 			}
 		} catch (Throwable e) {
@@ -164,14 +280,166 @@ public class StsConfigMetadataRepositoryJsonLoader {
 				}
 			}
 		}
+		return metadata;
 	}
 
+	/**
+	 * Folder in the plugin's state location holding one cache file with the compact metadata documents
+	 * per jar file, so that the json in the jars doesn't have to be parsed again after a restart.
+	 *
+	 * @return The folder, or null if there is no state location.
+	 */
+	private static File getCacheFolder() {
+		try {
+			return SpringPropertiesEditorPlugin.getDefault().getStateLocation().append("metadata").toFile();
+		} catch (Throwable e) {
+			//No state location, e.g. when running without instance area
+			return null;
+		}
+	}
 
-	private void loadFrom(JarFile jarFile, ZipEntry ze) {
+	private static File getCacheFile(File jar) {
+		File folder = getCacheFolder();
+		if (folder!=null) {
+			String path = jar.getAbsolutePath();
+			return new File(folder, jar.getName()+"-"+Integer.toHexString(path.hashCode())+".bin");
+		}
+		return null;
+	}
+
+	/**
+	 * Deletes the cache files of jars that no longer exist, and those written in another format.
+	 * Cache files of changed jars are replaced when the jar is loaded again, but nothing else ever
+	 * touches the files of deleted jars (e.g. old versions removed from the local maven repository).
+	 */
+	public static void cleanCacheFolder() {
+		File folder = getCacheFolder();
+		File[] cacheFiles = folder==null ? null : folder.listFiles((dir, name) -> name.endsWith(".bin"));
+		if (cacheFiles==null) {
+			return;
+		}
+		for (File cacheFile : cacheFiles) {
+			boolean obsolete;
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+				if (in.readInt()!=CACHE_FILE_MAGIC || in.readInt()!=CACHE_FILE_VERSION) {
+					obsolete = true;
+				} else {
+					byte[] path = new byte[in.readInt()];
+					in.readFully(path);
+					obsolete = !new File(new String(path, StandardCharsets.UTF_8)).isFile();
+				}
+			} catch (Throwable e) {
+				//Corrupt cache file
+				obsolete = true;
+			}
+			if (obsolete) {
+				debug("delete cache file: "+cacheFile);
+				//Fails if the file is still mapped on Windows; tried again next session.
+				cacheFile.delete();
+			}
+		}
+	}
+
+	/**
+	 * Maps the cache file of the given jar into memory.
+	 *
+	 * @return The metadata of the jar, or null if the cache file doesn't exist or has been written for
+	 * another version of the jar.
+	 */
+	private JarMetadata readCacheFile(File jar) {
+		File cacheFile = getCacheFile(jar);
+		if (cacheFile==null || !cacheFile.isFile()) {
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.READ)) {
+			//The mapping stays valid after the channel is closed
+			ByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.getInt()!=CACHE_FILE_MAGIC || buffer.getInt()!=CACHE_FILE_VERSION) {
+				return null;
+			}
+			byte[] path = new byte[buffer.getInt()];
+			buffer.get(path);
+			JarMetadata metadata = new JarMetadata(buffer.getLong(), buffer.getLong());
+			if (!jar.getAbsolutePath().equals(new String(path, StandardCharsets.UTF_8)) || !metadata.isUpToDate(jar)) {
+				return null;
+			}
+			for (int i = buffer.getInt(); i > 0; i--) {
+				int length = buffer.getInt();
+				ByteBuffer document = buffer.slice();
+				document.limit(length);
+				if (!BinaryMetadataCodec.isSupported(document)) {
+					return null;
+				}
+				metadata.documents.add(document);
+				buffer.position(buffer.position()+length);
+			}
+			debug("load from cache: "+cacheFile);
+			return metadata;
+		} catch (Throwable e) {
+			//Corrupt cache file, e.g. written only partially. Will be replaced.
+			debug("Failed to read "+cacheFile+": "+e);
+			return null;
+		}
+	}
+
+	/**
+	 * Writes the given metadata to the cache file of the jar.
+	 *
+	 * @return The metadata read back from the cache file, or the given metadata if the cache file couldn't
+	 * be written.
+	 */
+	private JarMetadata writeCacheFile(File jar, JarMetadata metadata) {
+		File cacheFile = getCacheFile(jar);
+		if (cacheFile==null) {
+			return metadata;
+		}
+		File tmpFile = null;
+		try {
+			cacheFile.getParentFile().mkdirs();
+			tmpFile = File.createTempFile(cacheFile.getName(), ".tmp", cacheFile.getParentFile());
+			try (DataOutputStream out = new DataOutputStream(new FileOutputStream(tmpFile))) {
+				byte[] path = jar.getAbsolutePath().getBytes(StandardCharsets.UTF_8);
+				out.writeInt(CACHE_FILE_MAGIC);
+				out.writeInt(CACHE_FILE_VERSION);
+				out.writeInt(path.length);
+				out.write(path);
+				out.writeLong(metadata.lastModified);
+				out.writeLong(metadata.length);
+				out.writeInt(metadata.documents.size());
+				for (ByteBuffer document : metadata.documents) {
+					out.writeInt(document.remaining());
+					out.write(document.array(), document.arrayOffset()+document.position(), document.remaining());
+				}
+			}
+			//Readers of the cache file never see a partially written file
+			Files.move(tmpFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			tmpFile = null;
+			JarMetadata cached = readCacheFile(jar);
+			if (cached!=null) {
+				return cached;
+			}
+		} catch (Throwable e) {
+			//E.g. the old cache file is still mapped on Windows. Just keep the metadata in memory.
+			debug("Failed to write "+cacheFile+": "+e);
+		} finally {
+			if (tmpFile!=null) {
+				tmpFile.delete();
+			}
+		}
+		return metadata;
+	}
+
+	private byte[] read(JarFile jarFile, ZipEntry ze) {
 		InputStream is = null;
 		try {
 			is = jarFile.getInputStream(ze);
-			loadFromInputStream(jarFile.getName()+"["+ze.getName()+"]", is);
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = is.read(buffer))>=0) {
+				out.write(buffer, 0, read);
+			}
+			return out.toByteArray();
 		} catch (Throwable e) {
 			SpringPropertiesEditorPlugin.log(e);
 		} finally {
@@ -182,6 +450,26 @@ public class StsConfigMetadataRepositoryJsonLoader {
 				}
 			}
 		}
+		return null;
+	}
+
+	/**
+	 * The compact metadata documents of a jar file, together with the timestamp and size of the jar they
+	 * have been read from.
+	 */
+	private static class JarMetadata {
+		final long lastModified;
+		final long length;
+		final List<ByteBuffer> documents = new ArrayList<>(1);
+
+		JarMetadata(long lastModified, long length) {
+			this.lastModified = lastModified;
+			this.length = length;
+		}
+
+		boolean isUpToDate(File f) {
+			return lastModified==f.lastModified() && length==f.length();
+		}
 	}
 
 	private void loadFromInputStream(Object origin, InputStream is) throws IOException {
@@ -11,12 +11,14 @@
 package org.springframework.ide.eclipse.boot.properties.editor.metadata;
 
 import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.jdt.core.IJavaProject;
 import org.springframework.ide.eclipse.boot.properties.editor.metadata.ValueProviderRegistry.ValueProviderStrategy;
 import org.springframework.ide.eclipse.editor.support.util.FuzzyMatcher;
-import org.springsource.ide.eclipse.commons.frameworks.core.internal.cache.Cache;
-import org.springsource.ide.eclipse.commons.frameworks.core.internal.cache.LimitedTimeCache;
 
 import reactor.core.publisher.Flux;
 import reactor.util.function.Tuple2;
@@ -33,8 +35,11 @@ import reactor.util.function.Tuples;
  * This implementation therefore does the following:
  * <ul>
  *   <li>Limit the duration of time spent on the UI thread.
- *   <li>Cache results of searches for a limited time.
- *   <li>Speedup queries for successive queries by using the already cached result of a similar (prefix) query.
+ *   <li>Cache results of searches for a limited time, evicting the least recently used ones
+ *       when there are too many.
+ *   <li>Speedup queries for successive queries by filtering the cached result of a similar (prefix) query.
+ *       If the search for that query is still running, its results are filtered as they arrive rather
+ *       than starting another search.
  *   <li>When the time spent on UI thread waiting for a current search exceeds the allowed time limit,
  *       return immediately with whatever results have been found so far.
  * </ul>
@@ -46,14 +51,6 @@ import reactor.util.function.Tuples;
  */
 public abstract class CachingValueProvider implements ValueProviderStrategy {
 
-//	protected static final boolean DEBUG = (""+Platform.getLocation()).contains("kdvolder");
-//
-//	protected static void debug(String string) {
-//		if (DEBUG) {
-//			System.out.println(string);
-//		}
-//	}
-
 	private static final Duration DEFAULT_TIMEOUT = Duration.ofMillis(1000);
 
 	/**
@@ -69,26 +66,55 @@ public abstract class CachingValueProvider implements ValueProviderStrategy {
 	 */
 	private int MAX_RESULTS = 500;
 
-	private Cache<Tuple2<String,String>, CacheEntry> cache = createCache();
+	/**
+	 * The maximum number of queries whose results are cached.
+	 */
+	private static final int MAX_CACHE_ENTRIES = 100;
+
+	private static final Duration CACHE_EXPIRY = Duration.ofMinutes(1);
+
+	private final Map<Tuple2<String,String>, CacheEntry> cache = new LinkedHashMap<>(16, 0.75f, /*accessOrder*/true);
+
+	private final AtomicInteger hits = new AtomicInteger();
+	private final AtomicInteger prefixHits = new AtomicInteger();
+	private final AtomicInteger misses = new AtomicInteger();
 
 	private class CacheEntry {
-		boolean isComplete = false;
-		int count = 0;
-		Flux<StsValueHint> values;
+		final long created = System.currentTimeMillis();
+		volatile boolean isComplete = false;
+		volatile boolean isFailed = false;
+		final AtomicInteger count = new AtomicInteger();
+		final Flux<StsValueHint> values;
 
-		public CacheEntry(String query, Flux<StsValueHint> producer) {
+		public CacheEntry(Tuple2<String,String> key, Flux<StsValueHint> producer) {
 			values = producer
-//			.doOnNext((e) -> {
-//				count++;
-//				debug("onNext["+query+":"+count+"]: "+e.getValue().toString());
-//			})
-//			.doOnComplete(() -> {
-//				debug("onComplete["+query+":"+count+"]");
-//				isComplete = true;
-//			})
 			.take(MAX_RESULTS)
+			.doOnNext((e) -> count.incrementAndGet())
+			.doOnComplete(() -> {
+				// Reaching MAX_RESULTS means there might be more values we haven't seen.
+				isComplete = count.get()<MAX_RESULTS;
+			})
+			.doOnError((e) -> {
+				isFailed = true;
+				remove(key, this);
+			})
 			.cache(MAX_RESULTS);
-			values.subscribe(); // create infinite demand so that we actually force cache entries to be fetched upto the max.
+			values.subscribe(
+					(e) -> {},
+					(e) -> {} //Errors are handled above, the search is tried again on the next request.
+			); // create infinite demand so that we actually force cache entries to be fetched upto the max.
+		}
+
+		/**
+		 * @return Whether this entry may still produce all the values for its query,
+		 *   i.e. whether the values for a longer query can be obtained by filtering it.
+		 */
+		boolean isUsableForLongerQuery() {
+			return isComplete || !isFailed && count.get()<MAX_RESULTS;
+		}
+
+		boolean isExpired(long now) {
+			return now - created > CACHE_EXPIRY.toMillis();
 		}
 
 		@Override
@@ -100,50 +126,110 @@ public abstract class CachingValueProvider implements ValueProviderStrategy {
 
 	@Override
 	public final Flux<StsValueHint> getValues(IJavaProject javaProject, String query) {
-//		debug("CA query: "+query);
 		Tuple2<String, String> key = key(javaProject, query);
-		CacheEntry cached = cache.get(key);
+		CacheEntry cached = get(key);
 		if (cached==null) {
-			cache.put(key, cached = new CacheEntry(query, getValuesIncremental(javaProject, query)));
+			cached = new CacheEntry(key, getValuesIncremental(javaProject, query));
+			put(key, cached);
+		} else {
+			hits.incrementAndGet();
 		}
 		return cached.values;
 	}
 
 	/**
-	 * Tries to use an already cached, complete result for a query that is a prefix of the current query to speed things up.
+	 * Tries to use an already cached result for a query that is a prefix of the current query to speed things up.
+	 * If the search for the prefix query is still running, its results are filtered as they arrive. Should that
+	 * search turn out not to produce all its results after all, a search for the current query makes up for it.
 	 * <p>
 	 * Falls back on doing a full-blown search if there's no usable 'prefix-query' in the cache.
 	 */
 	private Flux<StsValueHint> getValuesIncremental(IJavaProject javaProject, String query) {
-//		debug("trying to solve "+query+" incrementally");
 		String subquery = query;
 		while (subquery.length()>=1) {
 			subquery = subquery.substring(0, subquery.length()-1);
-			CacheEntry cached = cache.get(key(javaProject, subquery));
-			if (cached!=null) {
-				System.out.println("cached "+subquery+": "+cached);
-				if (cached.isComplete) {
-//					debug("filtering "+subquery+" -> "+query);
-					return cached.values
-//							.doOnNext((hint) -> debug("filter["+query+"]: "+hint.getValue()))
-							.filter((hint) -> 0!=FuzzyMatcher.matchScore(query, hint.getValue().toString()));
-				} else {
-//					debug("subquery "+subquery+" cached but is incomplete");
-				}
+			CacheEntry cached = get(key(javaProject, subquery));
+			if (cached!=null && cached.isUsableForLongerQuery()) {
+				prefixHits.incrementAndGet();
+				return cached.values
+						.filter((hint) -> 0!=FuzzyMatcher.matchScore(query, hint.getValue().toString()))
+						.onErrorResume((e) -> Flux.empty())
+						.concatWith(Flux.defer(() -> cached.isComplete
+								? Flux.<StsValueHint>empty()
+								: getValuesAsycn(javaProject, query)
+						))
+						.distinct((hint) -> hint.getValue());
 			}
 		}
-//		debug("full search for: "+query);
+		misses.incrementAndGet();
 		return getValuesAsycn(javaProject, query);
 	}
 
 	protected abstract Flux<StsValueHint> getValuesAsycn(IJavaProject javaProject, String query);
 
 	private Tuple2<String,String> key(IJavaProject javaProject, String query) {
-		return Tuples.of(javaProject==null?null:javaProject.getElementName(), query);
+		return Tuples.of(javaProject==null?"":javaProject.getElementName(), query);
 	}
 
-	protected <K,V> Cache<K,V> createCache() {
-		return new LimitedTimeCache<>(Duration.ofMinutes(1));
+	private CacheEntry get(Tuple2<String,String> key) {
+		synchronized (cache) {
+			CacheEntry entry = cache.get(key);
+			if (entry!=null && entry.isExpired(System.currentTimeMillis())) {
+				cache.remove(key);
+				return null;
+			}
+			return entry;
+		}
+	}
+
+	private void put(Tuple2<String,String> key, CacheEntry entry) {
+		synchronized (cache) {
+			if (entry.isFailed) {
+				//Failed right away, try again on the next request
+				return;
+			}
+			cache.put(key, entry);
+			long now = System.currentTimeMillis();
+			Iterator<CacheEntry> iter = cache.values().iterator();
+			int size = cache.size();
+			// Least recently used entries come first
+			while (iter.hasNext()) {
+				CacheEntry e = iter.next();
+				if (size>MAX_CACHE_ENTRIES || e.isExpired(now)) {
+					iter.remove();
+					size--;
+				}
+			}
+		}
+	}
+
+	private void remove(Tuple2<String,String> key, CacheEntry entry) {
+		synchronized (cache) {
+			if (cache.get(key)==entry) {
+				cache.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * @return The number of queries answered with the cached values for the same query.
+	 */
+	public int getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return The number of queries answered by filtering the values of a prefix query.
+	 */
+	public int getPrefixHits() {
+		return prefixHits.get();
+	}
+
+	/**
+	 * @return The number of queries that needed a new search.
+	 */
+	public int getMisses() {
+		return misses.get();
 	}
 
 	public static void restoreDefaults() {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014-2016 Pivotal, Inc.
+ * Copyright (c) 2014-2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,7 @@ package org.springframework.ide.eclipse.boot.properties.editor.metadata;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
 import org.eclipse.core.runtime.Platform;
 import org.springframework.boot.configurationmetadata.ConfigurationMetadataProperty;
@@ -74,7 +75,11 @@ public class PropertyInfo {
 	private String type;
 	final private String name;
 	final private Object defaultValue;
-	final private String description;
+	/**
+	 * Supplies the description, which is only decoded from the metadata when needed. Doesn't
+	 * hold on to the {@link ConfigurationMetadataProperty}.
+	 */
+	final private Supplier<String> description;
 	private List<PropertySource> sources;
 	private Deprecation deprecation;
 	private ImmutableList<ValueHint> valueHints;
@@ -90,6 +95,16 @@ public class PropertyInfo {
 			ValueProviderStrategy valueProvider,
 			ValueProviderStrategy keyProvider,
 			List<PropertySource> sources) {
+		this(id, type, name, defaultValue, () -> description, deprecation, valueHints, keyHints, valueProvider, keyProvider, sources);
+	}
+	private PropertyInfo(String id, String type, String name,
+			Object defaultValue, Supplier<String> description,
+			Deprecation deprecation,
+			List<ValueHint> valueHints,
+			List<ValueHint> keyHints,
+			ValueProviderStrategy valueProvider,
+			ValueProviderStrategy keyProvider,
+			List<PropertySource> sources) {
 		super();
 		this.id = id;
 		this.type = type;
@@ -109,7 +124,7 @@ public class PropertyInfo {
 			prop.getType(),
 			prop.getName(),
 			prop.getDefaultValue(),
-			prop.getDescription(),
+			prop.getDescriptionSupplier(),
 			prop.getDeprecation(),
 			prop.getHints().getValueHints(),
 			prop.getHints().getKeyHints(),
@@ -142,7 +157,7 @@ public class PropertyInfo {
 		return defaultValue;
 	}
 	public String getDescription() {
-		return description;
+		return description.get();
 	}
 
 	public HintProvider getHints(TypeUtil typeUtil, boolean dimensionAware) {
@@ -38,6 +38,8 @@ public class DuplicateNameChecker {
 
 	IProblemCollector problems;
 
+	private boolean hasDuplicates = false;
+
 	public DuplicateNameChecker(IProblemCollector problems) {
 		this.problems = problems;
 	}
@@ -58,7 +60,15 @@ public class DuplicateNameChecker {
 		}
 	}
 
+	/**
+	 * @return Whether any duplicates have been reported.
+	 */
+	public boolean hasDuplicates() {
+		return hasDuplicates;
+	}
+
 	private void reportDuplicate(DocumentRegion nameRegion) {
+		hasDuplicates = true;
 		problems.accept(problem(PROP_DUPLICATE_KEY,
 				"Duplicate property '"+nameRegion+"'", nameRegion));
 	}
@@ -15,6 +15,10 @@ import static org.springframework.ide.eclipse.boot.properties.editor.reconciling
 import static org.springframework.ide.eclipse.boot.properties.editor.reconciling.SpringPropertyProblem.problem;
 import static org.springsource.ide.eclipse.commons.core.util.StringUtil.commonPrefix;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.regex.Pattern;
 
 import javax.inject.Provider;
@@ -26,6 +30,7 @@ import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.ITypedRegion;
+import org.eclipse.jface.text.Region;
 import org.eclipse.jface.text.TextUtilities;
 import org.springframework.boot.configurationmetadata.Deprecation;
 import org.springframework.boot.configurationmetadata.Deprecation.Level;
@@ -75,12 +80,57 @@ public class SpringPropertiesReconcileEngine implements IReconcileEngine {
 	private TypeUtil typeUtil;
 	private final DelimitedListReconciler commaListReconciler = new DelimitedListReconciler(COMMA, this::reconcileType);
 
+	/**
+	 * Documents in which the last reconcile found duplicate names.
+	 */
+	private final Set<IDocument> documentsWithDuplicates = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
 	public SpringPropertiesReconcileEngine(Provider<FuzzyMap<PropertyInfo>> provider, TypeUtil typeUtil) {
 		this.fIndexProvider = provider;
 		this.typeUtil = typeUtil;
 	}
 
 	public void reconcile(IDocument doc, IProblemCollector problemCollector, IProgressMonitor mon) {
+		reconcile(doc, null, problemCollector, mon);
+	}
+
+	/**
+	 * The problems of a property are all within its name and value, so only the properties
+	 * touching the edited region need to be checked again. Except for duplicate names, which
+	 * are reported for all occurrences of the name.
+	 */
+	@Override
+	public IRegion getAffectedRegion(IDocument doc, IRegion dirtyRegion) {
+		if (documentsWithDuplicates.contains(doc)) {
+			//Removing a duplicate changes the problems of its other occurrences
+			return null;
+		}
+		try {
+			int start = dirtyRegion.getOffset();
+			int end = dirtyRegion.getOffset() + dirtyRegion.getLength();
+			Set<String> names = new HashSet<>();
+			ITypedRegion[] regions = TextUtilities.computePartitioning(doc, IPropertiesFilePartitions.PROPERTIES_FILE_PARTITIONING, 0, doc.getLength(), true);
+			for (int i = 0; i < regions.length; i++) {
+				if (IDocument.DEFAULT_CONTENT_TYPE.equals(regions[i].getType())) {
+					String name = new DocumentRegion(doc, regions[i]).trim().toString();
+					if (!name.isEmpty() && !names.add(name)) {
+						//Adding a duplicate changes the problems of its other occurrences
+						return null;
+					}
+					if (isEntryInRegion(regions, i, dirtyRegion)) {
+						start = Math.min(start, regions[i].getOffset());
+						end = Math.max(end, getEntryEnd(regions, i));
+					}
+				}
+			}
+			return new Region(start, end - start);
+		} catch (BadLocationException e) {
+			return null;
+		}
+	}
+
+	@Override
+	public void reconcile(IDocument doc, IRegion region, IProblemCollector problemCollector, IProgressMonitor mon) {
 		FuzzyMap<PropertyInfo> index = getIndex();
 		if (index==null || index.isEmpty()) {
 			//don't report errors when index is empty, simply don't check (otherwise we will just reprot
@@ -108,6 +158,9 @@ public class SpringPropertiesReconcileEngine implements IReconcileEngine {
 								}
 							}
 							duplicateNameChecker.check(fullName);
+							if (region!=null && !isEntryInRegion(regions, i, region)) {
+								continue;
+							}
 							PropertyInfo validProperty = SpringPropertiesCompletionEngine.findLongestValidProperty(index, fullName.toString());
 							if (validProperty!=null) {
 								//TODO: Remove last remnants of 'IRegion trimmedRegion' here and replace
@@ -135,6 +188,11 @@ public class SpringPropertiesReconcileEngine implements IReconcileEngine {
 					}
 				} //end: for regions
 			}
+			if (duplicateNameChecker.hasDuplicates()) {
+				documentsWithDuplicates.add(doc);
+			} else {
+				documentsWithDuplicates.remove(doc);
+			}
 		} catch (Throwable e2) {
 			SpringPropertiesEditorPlugin.log(e2);
 		} finally {
@@ -204,6 +262,21 @@ public class SpringPropertiesReconcileEngine implements IReconcileEngine {
 		}
 	}
 
+	/**
+	 * @return The end of the value assigned to the name in the given region, or the end of the name if there is none.
+	 */
+	private static int getEntryEnd(ITypedRegion[] regions, int i) {
+		ITypedRegion r = regions[i];
+		if (i+1<regions.length && IPropertiesFilePartitions.PROPERTY_VALUE.equals(regions[i+1].getType())) {
+			r = regions[i+1];
+		}
+		return r.getOffset() + r.getLength();
+	}
+
+	private static boolean isEntryInRegion(ITypedRegion[] regions, int i, IRegion region) {
+		return regions[i].getOffset() <= region.getOffset() + region.getLength() && getEntryEnd(regions, i) >= region.getOffset();
+	}
+
 	private DocumentRegion getAssignedValue(IDocument doc, ITypedRegion[] regions, int i) {
 		int valueRegionIndex = i+1;
 		if (valueRegionIndex<regions.length) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014 Pivotal, Inc.
+ * Copyright (c) 2014, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,7 @@ package org.springframework.ide.eclipse.boot.properties.editor.util;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Map.Entry;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -23,6 +24,10 @@ import org.eclipse.core.resources.IResourceDeltaVisitor;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
 import org.springframework.ide.eclipse.boot.properties.editor.FuzzyMap;
@@ -37,17 +42,19 @@ import org.springframework.ide.eclipse.boot.properties.editor.metadata.ValueProv
  * file all make use of a per-project index of spring properties metadata extracted
  * from project's classpath. This Index manager is responsible for keeping at most
  * one index per-project and to keep the index up-to-date.
+ * <p>
+ * When the classpath or the live metadata of a project changes, only the indexes that
+ * depend on it are rebuilt (i.e. the index of the project itself and those of the projects
+ * consuming its output folder and exported classpath entries). The rebuild runs in the
+ * background; the stale index is served until the new one replaces it. The index of a closed
+ * or deleted project is dropped.
  *
  * @author Kris De Volder
  */
 public class SpringPropertiesIndexManager extends ListenerManager<Listener<SpringPropertiesIndexManager>> implements ClasspathListener {
 
-	//TODO: More precise cache flushing?
-	// right now, any detected change that may affect the cached metadata results.
-	// in clearing the entire cache.
-	// Probably this is okay, since reading the data is pretty fast.
-
 	private Map<String, SpringPropertyIndex> indexes = null;
+	private Map<String, RebuildIndexJob> rebuildJobs = new HashMap<>();
 	final private ValueProviderRegistry valueProviders;
 
 	public SpringPropertiesIndexManager(ValueProviderRegistry valueProviders) {
@@ -71,15 +78,41 @@ public class SpringPropertiesIndexManager extends ListenerManager<Listener<Sprin
 
 	@Override
 	public synchronized void classpathChanged(IJavaProject jp) {
-		clear();
+		//Projects depending on this one see its exported entries, so their indexes are rebuilt as well.
+		rebuildDependents(jp.getElementName());
 	}
 
-	private void clear() {
+	/**
+	 * Schedules the rebuild of all indexes that have loaded metadata from the given project.
+	 */
+	private void rebuildDependents(String projectName) {
 		if (indexes!=null) {
-			indexes.clear();
-			for (Listener<SpringPropertiesIndexManager> l : getListeners()) {
-				l.changed(this);
+			for (Entry<String, SpringPropertyIndex> e : indexes.entrySet()) {
+				if (e.getKey().equals(projectName) || e.getValue().getProjectDependencies().contains(projectName)) {
+					rebuild(e.getKey());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Schedules the rebuild of the index of the given project, if there is one.
+	 */
+	private void rebuild(String projectName) {
+		if (indexes!=null && indexes.containsKey(projectName)) {
+			RebuildIndexJob job = rebuildJobs.get(projectName);
+			if (job==null) {
+				job = new RebuildIndexJob(projectName);
+				rebuildJobs.put(projectName, job);
 			}
+			//If the job is running already, it runs once more when done.
+			job.schedule();
+		}
+	}
+
+	private void notifyListeners() {
+		for (Listener<SpringPropertiesIndexManager> l : getListeners()) {
+			l.changed(this);
 		}
 	}
 
@@ -92,7 +125,68 @@ public class SpringPropertiesIndexManager extends ListenerManager<Listener<Sprin
 	 * @param jsonFile The IFile in project's output folder that was changed.
 	 */
 	public synchronized void liveMetadataChanged(IJavaProject jp, IFile jsonFile) {
-		clear();
+		rebuildDependents(jp.getElementName());
+	}
+
+	/**
+	 * Called by LiveMetadataListener when a project has been closed or deleted. Drops the index
+	 * of the project and rebuilds the indexes that have loaded metadata from it.
+	 */
+	public synchronized void projectClosed(String projectName) {
+		if (indexes!=null) {
+			indexes.remove(projectName);
+		}
+		RebuildIndexJob job = rebuildJobs.remove(projectName);
+		if (job!=null) {
+			job.cancel();
+		}
+		rebuildDependents(projectName);
+	}
+
+	/**
+	 * Builds a new index for a project and replaces the stale one.
+	 */
+	private class RebuildIndexJob extends Job {
+
+		private final String projectName;
+
+		public RebuildIndexJob(String projectName) {
+			super("Rebuild Spring properties index for "+projectName);
+			this.projectName = projectName;
+			setSystem(true);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(projectName);
+			SpringPropertyIndex index = null;
+			try {
+				if (project.isAccessible() && project.hasNature(JavaCore.NATURE_ID)) {
+					index = new SpringPropertyIndex(valueProviders, JavaCore.create(project));
+				}
+			} catch (CoreException e) {
+				SpringPropertiesEditorPlugin.log(e);
+			}
+			synchronized (SpringPropertiesIndexManager.this) {
+				if (rebuildJobs.get(projectName)!=this || monitor.isCanceled()) {
+					//Dropped by projectClosed while running
+					return Status.CANCEL_STATUS;
+				}
+				if (indexes==null || !indexes.containsKey(projectName)) {
+					rebuildJobs.remove(projectName);
+					return Status.OK_STATUS;
+				}
+				if (index!=null) {
+					indexes.put(projectName, index);
+				} else {
+					//Closed or no longer a java project; a new index is created on the next access.
+					indexes.remove(projectName);
+					rebuildJobs.remove(projectName);
+				}
+			}
+			notifyListeners();
+			return Status.OK_STATUS;
+		}
 	}
 
 	private class LiveMetadataListener implements IResourceChangeListener, IResourceDeltaVisitor {
@@ -123,9 +217,9 @@ public class SpringPropertiesIndexManager extends ListenerManager<Listener<Sprin
 							liveMetadataChanged(jp, jsonFile);
 						}
 					}
-				} else {
-					//TODO: not accessible (closed or deleted?)
-					//  Do we need to do something with these?
+				} else if (!p.isAccessible()) {
+					//closed or deleted
+					projectClosed(p.getName());
 				}
 				return false;
 			default:
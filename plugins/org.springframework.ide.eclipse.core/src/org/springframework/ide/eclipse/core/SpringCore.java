@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2014 Spring IDE Developers
+ * Copyright (c) 2005, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,23 +10,32 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.core;
 
+import java.lang.management.ManagementFactory;
 import java.text.MessageFormat;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Plugin;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.osgi.framework.BundleContext;
 import org.springframework.ide.eclipse.core.internal.model.SpringModel;
+import org.springframework.ide.eclipse.core.internal.model.validation.ValidationRuleProfiler;
+import org.springframework.ide.eclipse.core.java.ClassFileCacheInvalidator;
 import org.springframework.ide.eclipse.core.java.ITypeStructureCache;
 import org.springframework.ide.eclipse.core.java.TypeStructureCache;
-import org.springframework.ide.eclipse.core.java.typehierarchy.BytecodeTypeHierarchyClassReaderFactory;
 import org.springframework.ide.eclipse.core.java.typehierarchy.DirectTypeHierarchyElementCacheFactory;
+import org.springframework.ide.eclipse.core.java.typehierarchy.IndexedTypeHierarchyClassReaderFactory;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyElementStore;
 import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyEngine;
 import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyResourceChangeListener;
 import org.springframework.ide.eclipse.core.model.ISpringModel;
@@ -74,6 +83,15 @@ public class SpringCore extends Plugin {
 	/** Temporally setting to enable or disable the use of XBean's non-locking classloader infrastructure */
 	public static final String USE_NON_LOCKING_CLASSLOADER = PLUGIN_ID + ".useNonLockingClassLoader";
 
+	/** Setting to enable or disable running independent project builders and validators concurrently */
+	public static final String USE_PARALLEL_PROJECT_CONTRIBUTORS = PLUGIN_ID + ".useParallelProjectContributors";
+
+	/** Setting to enable or disable validating resources concurrently in validators that support it */
+	public static final String USE_PARALLEL_VALIDATION = PLUGIN_ID + ".useParallelValidation";
+
+	/** Setting to enable or disable rerunning only the validation rules whose recorded dependencies changed */
+	public static final String USE_INCREMENTAL_VALIDATION = PLUGIN_ID + ".useIncrementalValidation";
+
 	/** The shared instance */
 	private static SpringCore plugin;
 
@@ -84,9 +102,15 @@ public class SpringCore extends Plugin {
 	private ResourceBundle resourceBundle;
 
 	private static TypeStructureCache typeStructureCache;
+
+	private static ClassFileCacheInvalidator classFileCacheInvalidator;
 	
 	private static TypeHierarchyEngine typeHierarchyEngine;
 
+	private static TypeHierarchyElementStore typeHierarchyElementStore;
+
+	private static final long CLEAN_TYPE_HIERARCHY_STORE_DELAY = 60000;
+
 	/**
 	 * Creates the Spring core plug-in.
 	 * <p>
@@ -96,9 +120,10 @@ public class SpringCore extends Plugin {
 		plugin = this;
 		model = new SpringModel();
 		typeStructureCache = new TypeStructureCache();
+		classFileCacheInvalidator = new ClassFileCacheInvalidator();
 
 		typeHierarchyEngine = new TypeHierarchyEngine(true);
-		typeHierarchyEngine.setClassReaderFactory(new BytecodeTypeHierarchyClassReaderFactory());
+		typeHierarchyEngine.setClassReaderFactory(new IndexedTypeHierarchyClassReaderFactory());
 		typeHierarchyEngine.setTypeHierarchyElementCacheFactory(new DirectTypeHierarchyElementCacheFactory());
 
 		TypeHierarchyResourceChangeListener resetListener = new TypeHierarchyResourceChangeListener();
@@ -117,19 +142,63 @@ public class SpringCore extends Plugin {
 		super.start(context);
 		model.startup();
 		typeStructureCache.startup();
+		classFileCacheInvalidator.startup();
 		// install default for incremtal compilation
 		plugin.getPluginPreferences().setDefault(USE_CHANGE_DETECTION_IN_JAVA_FILES, true);
 		// non.locking classloader is not enabled by default
 		plugin.getPluginPreferences().setDefault(USE_NON_LOCKING_CLASSLOADER, false);
+		// project builders and validators run one after another by default
+		plugin.getPluginPreferences().setDefault(USE_PARALLEL_PROJECT_CONTRIBUTORS, false);
+		// resources are validated one after another by default
+		plugin.getPluginPreferences().setDefault(USE_PARALLEL_VALIDATION, false);
+		// validation rules are rerun for all affected beans by default
+		plugin.getPluginPreferences().setDefault(USE_INCREMENTAL_VALIDATION, false);
+		registerValidationRuleProfiler();
+		if (TypeHierarchyElementStore.isEnabled()) {
+			new CleanTypeHierarchyStoreJob().schedule(CLEAN_TYPE_HIERARCHY_STORE_DELAY);
+		}
 	}
 
 	@Override
 	public void stop(BundleContext context) throws Exception {
+		unregisterValidationRuleProfiler();
 		model.shutdown();
 		typeStructureCache.shutdown();
+		classFileCacheInvalidator.shutdown();
+		synchronized (SpringCore.class) {
+			if (typeHierarchyElementStore != null) {
+				typeHierarchyElementStore.clear();
+			}
+		}
 		super.stop(context);
 	}
 
+	/**
+	 * Exposes the {@link ValidationRuleProfiler} through the platform MBean server.
+	 */
+	private void registerValidationRuleProfiler() {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(ValidationRuleProfiler.getInstance(),
+					new ObjectName(ValidationRuleProfiler.OBJECT_NAME));
+		}
+		catch (Exception e) {
+			log("Cannot register validation rule profiler", e);
+		}
+	}
+
+	private void unregisterValidationRuleProfiler() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(ValidationRuleProfiler.OBJECT_NAME);
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+		}
+		catch (Exception e) {
+			log("Cannot unregister validation rule profiler", e);
+		}
+	}
+
 	/**
 	 * Returns the single instance of the Spring core plug-in runtime class.
 	 */
@@ -152,6 +221,18 @@ public class SpringCore extends Plugin {
 		return typeHierarchyEngine;
 	}
 
+	/**
+	 * Returns the workspace-wide persistent store of jar type hierarchy indexes or <code>null</code>
+	 * if the store is disabled.
+	 * @since 3.9.2
+	 */
+	public static final synchronized TypeHierarchyElementStore getTypeHierarchyElementStore() {
+		if (typeHierarchyElementStore == null && TypeHierarchyElementStore.isEnabled() && plugin != null) {
+			typeHierarchyElementStore = new TypeHierarchyElementStore(plugin.getStateLocation().append("typehierarchy").toFile());
+		}
+		return typeHierarchyElementStore;
+	}
+
 	/**
 	 * Returns the workspace instance.
 	 */
@@ -223,4 +304,25 @@ public class SpringCore extends Plugin {
 	public static String getFormattedMessage(String key, Object... args) {
 		return MessageFormat.format(getResourceString(key), args);
 	}
+
+	/**
+	 * Deletes the persisted type hierarchy indexes of jars that have been removed or changed since.
+	 */
+	private static class CleanTypeHierarchyStoreJob extends Job {
+
+		public CleanTypeHierarchyStoreJob() {
+			super("Clean Spring type hierarchy store");
+			setSystem(true);
+			setPriority(DECORATE);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			TypeHierarchyElementStore store = getTypeHierarchyElementStore();
+			if (store != null) {
+				store.cleanup();
+			}
+			return Status.OK_STATUS;
+		}
+	}
 }
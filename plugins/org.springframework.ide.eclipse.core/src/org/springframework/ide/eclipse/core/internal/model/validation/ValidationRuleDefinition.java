@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -39,6 +39,8 @@ public class ValidationRuleDefinition extends PersistablePreferenceObjectSupport
 
 	private static final String CLASS_ATTRIBUTE = "class";
 
+	private static final String CONCURRENT_ATTRIBUTE = "concurrent";
+
 	private static final String DESCRIPTION_ATTRIBUTE = "description";
 
 	private static final String ENABLED_BY_DEFAULT_ATTRIBUTE = "enabledByDefault";
@@ -87,6 +89,8 @@ public class ValidationRuleDefinition extends PersistablePreferenceObjectSupport
 
 	private boolean rulePropertiesInitialized;
 
+	private boolean concurrent;
+
 	public ValidationRuleDefinition(String validatorID, IConfigurationElement element) throws CoreException {
 		this.validatorId = validatorID;
 		init(element);
@@ -116,7 +120,7 @@ public class ValidationRuleDefinition extends PersistablePreferenceObjectSupport
 		return ENABLEMENT_PREFIX + id;
 	}
 
-	public IValidationRule getRule() {
+	public synchronized IValidationRule getRule() {
 		if (propertyValues.size() > 0 && !rulePropertiesInitialized) {
 			BeanWrapper wrapper = new BeanWrapperImpl(rule);
 			for (Map.Entry<String, String> entry : propertyValues.entrySet()) {
@@ -136,6 +140,15 @@ public class ValidationRuleDefinition extends PersistablePreferenceObjectSupport
 		return validatorId;
 	}
 
+	/**
+	 * Returns <code>true</code> if the rule declared that it is thread-safe and may validate elements of several
+	 * resources at the same time.
+	 * @since 3.9.2
+	 */
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
 	private void init(IConfigurationElement element) throws CoreException {
 		Object executable = element.createExecutableExtension(CLASS_ATTRIBUTE);
 		if (executable instanceof IValidationRule) {
@@ -144,6 +157,7 @@ public class ValidationRuleDefinition extends PersistablePreferenceObjectSupport
 		id = element.getContributor().getName() + "." + element.getAttribute(ID_ATTRIBUTE) + "-" + validatorId;
 		name = element.getAttribute(NAME_ATTRIBUTE);
 		description = element.getAttribute(DESCRIPTION_ATTRIBUTE);
+		concurrent = Boolean.valueOf(element.getAttribute(CONCURRENT_ATTRIBUTE));
 		String enabledByDefault = element.getAttribute(ENABLED_BY_DEFAULT_ATTRIBUTE);
 		if (enabledByDefault != null) {
 			setEnabledByDefault(Boolean.valueOf(enabledByDefault));
@@ -201,11 +215,11 @@ public class ValidationRuleDefinition extends PersistablePreferenceObjectSupport
 		return new HashMap<String, Integer>(originalMessageSeverities);
 	}
 
-	public Map<String, String> getPropertyValues() {
+	public synchronized Map<String, String> getPropertyValues() {
 		return new HashMap<String, String>(propertyValues);
 	}
 
-	public Map<String, Integer> getMessageSeverities() {
+	public synchronized Map<String, Integer> getMessageSeverities() {
 		return new HashMap<String, Integer>(messageSeverities);
 	}
 
@@ -220,7 +234,10 @@ public class ValidationRuleDefinition extends PersistablePreferenceObjectSupport
 		return super.isEnabled(project);
 	}
 
-	protected void readSpecificConfiguration(IProject project) {
+	protected synchronized void readSpecificConfiguration(IProject project) {
+		// Only re-apply the properties to the rule if they changed, so that a rule that is running concurrently
+		// doesn't see its configuration being replaced
+		Map<String, String> previousPropertyValues = new HashMap<String, String>(propertyValues);
 		if (project != null && hasProjectSpecificOptions(project)) {
 			for (Map.Entry<String, String> entry : originalPropertyValues.entrySet()) {
 				String value = SpringCorePreferences.getProjectPreferences(project, SpringCore.PLUGIN_ID).getString(
@@ -248,7 +265,9 @@ public class ValidationRuleDefinition extends PersistablePreferenceObjectSupport
 				}
 			}
 		}
-		rulePropertiesInitialized = false;
+		if (!propertyValues.equals(previousPropertyValues)) {
+			rulePropertiesInitialized = false;
+		}
 	}
 
 	public void setSpecificConfiguration(Map<String, String> newPropertyValues,
@@ -0,0 +1,428 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.internal.model.validation;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.ide.eclipse.core.SpringCore;
+import org.springframework.ide.eclipse.core.model.validation.IValidationRule;
+
+/**
+ * Records invocation count, total and maximum wall time and allocated bytes of every {@link IValidationRule} per
+ * rule, validator and project.
+ * <p>
+ * Profiling is disabled by default and can be enabled with the system property
+ * {@value #ENABLE_PROPERTY} or through JMX. While disabled, {@link #start()} only reads a volatile flag and returns
+ * <code>null</code>.
+ * @since 3.9.2
+ */
+public class ValidationRuleProfiler implements ValidationRuleProfilerMBean {
+
+	public static final String ENABLE_PROPERTY = "org.springframework.ide.eclipse.core.validation.profileRules";
+
+	public static final String OBJECT_NAME = SpringCore.PLUGIN_ID + ":type=ValidationRuleProfiler";
+
+	private static final ValidationRuleProfiler INSTANCE = new ValidationRuleProfiler(Boolean.getBoolean(ENABLE_PROPERTY));
+
+	private final ConcurrentMap<Key, RuleStatistics> statistics = new ConcurrentHashMap<Key, RuleStatistics>();
+
+	private final AllocationCounter allocationCounter = new AllocationCounter();
+
+	private volatile boolean enabled;
+
+	public ValidationRuleProfiler(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public static ValidationRuleProfiler getInstance() {
+		return INSTANCE;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public void reset() {
+		statistics.clear();
+	}
+
+	/**
+	 * Starts measuring a rule invocation on the current thread. Returns <code>null</code> if profiling is disabled.
+	 */
+	public Measurement start() {
+		if (!enabled) {
+			return null;
+		}
+		return new Measurement(System.nanoTime(), allocationCounter.getAllocatedBytes());
+	}
+
+	/**
+	 * Records the invocation measured by the given {@link Measurement}. Must be called on the thread that started
+	 * the measurement.
+	 */
+	public void stop(Measurement measurement, String projectName, ValidationRuleDefinition ruleDefinition) {
+		if (measurement == null) {
+			return;
+		}
+		long time = System.nanoTime() - measurement.startTime;
+		long allocatedBytes = measurement.startAllocatedBytes >= 0 ? allocationCounter.getAllocatedBytes()
+				- measurement.startAllocatedBytes : 0;
+		record(projectName, ruleDefinition.getValidatorId(), ruleDefinition.getId(), time, allocatedBytes);
+	}
+
+	/**
+	 * Records a single rule invocation with the given wall time in nanoseconds.
+	 */
+	public void record(String projectName, String validatorId, String ruleId, long time, long allocatedBytes) {
+		Key key = new Key(projectName, validatorId, ruleId);
+		RuleStatistics ruleStatistics = statistics.get(key);
+		if (ruleStatistics == null) {
+			RuleStatistics newStatistics = new RuleStatistics(key);
+			ruleStatistics = statistics.putIfAbsent(key, newStatistics);
+			if (ruleStatistics == null) {
+				ruleStatistics = newStatistics;
+			}
+		}
+		ruleStatistics.record(time, allocatedBytes);
+	}
+
+	/**
+	 * Returns a snapshot of the recorded statistics, ordered by total time.
+	 */
+	public List<RuleStatistics> getStatistics() {
+		List<RuleStatistics> result = new ArrayList<RuleStatistics>(statistics.values());
+		Collections.sort(result, new Comparator<RuleStatistics>() {
+
+			public int compare(RuleStatistics o1, RuleStatistics o2) {
+				long t1 = o1.getTotalTime();
+				long t2 = o2.getTotalTime();
+				return t1 < t2 ? 1 : (t1 == t2 ? 0 : -1);
+			}
+		});
+		return result;
+	}
+
+	public String[] getHotRules(int limit) {
+		List<RuleStatistics> rules = getStatistics();
+		Map<String, Long> totals = getValidatorTotals(rules);
+
+		List<String> result = new ArrayList<String>();
+		for (RuleStatistics rule : rules) {
+			if (limit >= 0 && result.size() >= limit) {
+				break;
+			}
+			result.add(String.format(Locale.ENGLISH, "%s %.1f%% (%d invocations, %.3f ms total, %.3f ms max) [%s, %s]",
+					rule.getRuleId(), getShare(rule, totals), rule.getInvocationCount(), toMillis(rule.getTotalTime()),
+					toMillis(rule.getMaxTime()), rule.getValidatorId(), rule.getProjectName()));
+		}
+		return result.toArray(new String[result.size()]);
+	}
+
+	public String exportCsv() {
+		List<RuleStatistics> rules = getStatistics();
+		Map<String, Long> totals = getValidatorTotals(rules);
+
+		StringBuilder builder = new StringBuilder();
+		builder.append("project,validator,rule,invocations,totalMillis,maxMillis,allocatedBytes,share\n");
+		for (RuleStatistics rule : rules) {
+			builder.append(csv(rule.getProjectName())).append(',');
+			builder.append(csv(rule.getValidatorId())).append(',');
+			builder.append(csv(rule.getRuleId())).append(',');
+			builder.append(rule.getInvocationCount()).append(',');
+			builder.append(String.format(Locale.ENGLISH, "%.3f", toMillis(rule.getTotalTime()))).append(',');
+			builder.append(String.format(Locale.ENGLISH, "%.3f", toMillis(rule.getMaxTime()))).append(',');
+			builder.append(rule.getAllocatedBytes()).append(',');
+			builder.append(String.format(Locale.ENGLISH, "%.2f", getShare(rule, totals))).append('\n');
+		}
+		return builder.toString();
+	}
+
+	public String exportJson() {
+		List<RuleStatistics> rules = getStatistics();
+		Map<String, Long> totals = getValidatorTotals(rules);
+
+		StringBuilder builder = new StringBuilder("[");
+		for (int i = 0; i < rules.size(); i++) {
+			RuleStatistics rule = rules.get(i);
+			if (i > 0) {
+				builder.append(',');
+			}
+			builder.append("\n  {");
+			builder.append("\"project\":").append(json(rule.getProjectName())).append(',');
+			builder.append("\"validator\":").append(json(rule.getValidatorId())).append(',');
+			builder.append("\"rule\":").append(json(rule.getRuleId())).append(',');
+			builder.append("\"invocations\":").append(rule.getInvocationCount()).append(',');
+			builder.append("\"totalNanos\":").append(rule.getTotalTime()).append(',');
+			builder.append("\"maxNanos\":").append(rule.getMaxTime()).append(',');
+			builder.append("\"allocatedBytes\":").append(rule.getAllocatedBytes()).append(',');
+			builder.append("\"share\":").append(String.format(Locale.ENGLISH, "%.2f", getShare(rule, totals)));
+			builder.append('}');
+		}
+		builder.append(rules.isEmpty() ? "]\n" : "\n]\n");
+		return builder.toString();
+	}
+
+	public void exportReport(String path) throws IOException {
+		String report = path.toLowerCase(Locale.ENGLISH).endsWith(".json") ? exportJson() : exportCsv();
+		Writer writer = new OutputStreamWriter(new FileOutputStream(new File(path)), "UTF-8");
+		try {
+			writer.write(report);
+		}
+		finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Sums up the total time per project and validator; used to calculate the share of a single rule.
+	 */
+	private Map<String, Long> getValidatorTotals(List<RuleStatistics> rules) {
+		Map<String, Long> totals = new HashMap<String, Long>();
+		for (RuleStatistics rule : rules) {
+			String key = rule.getProjectName() + '\0' + rule.getValidatorId();
+			Long total = totals.get(key);
+			totals.put(key, (total != null ? total : 0L) + rule.getTotalTime());
+		}
+		return totals;
+	}
+
+	private double getShare(RuleStatistics rule, Map<String, Long> totals) {
+		Long total = totals.get(rule.getProjectName() + '\0' + rule.getValidatorId());
+		if (total == null || total == 0) {
+			return 0;
+		}
+		return rule.getTotalTime() * 100d / total;
+	}
+
+	private static double toMillis(long nanos) {
+		return nanos / 1000000d;
+	}
+
+	private static String csv(String value) {
+		if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0) {
+			return '"' + value.replace("\"", "\"\"") + '"';
+		}
+		return value;
+	}
+
+	private static String json(String value) {
+		StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				builder.append("\\\"");
+				break;
+			case '\\':
+				builder.append("\\\\");
+				break;
+			case '\n':
+				builder.append("\\n");
+				break;
+			case '\r':
+				builder.append("\\r");
+				break;
+			case '\t':
+				builder.append("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					builder.append(String.format("\\u%04x", (int) c));
+				}
+				else {
+					builder.append(c);
+				}
+			}
+		}
+		return builder.append('"').toString();
+	}
+
+	/**
+	 * Start values of a single rule invocation.
+	 */
+	public static class Measurement {
+
+		private final long startTime;
+
+		private final long startAllocatedBytes;
+
+		private Measurement(long startTime, long startAllocatedBytes) {
+			this.startTime = startTime;
+			this.startAllocatedBytes = startAllocatedBytes;
+		}
+	}
+
+	/**
+	 * Accumulated statistics of a rule for a single validator and project.
+	 */
+	public static class RuleStatistics {
+
+		private final Key key;
+
+		private final AtomicLong invocationCount = new AtomicLong();
+
+		private final AtomicLong totalTime = new AtomicLong();
+
+		private final AtomicLong maxTime = new AtomicLong();
+
+		private final AtomicLong allocatedBytes = new AtomicLong();
+
+		private RuleStatistics(Key key) {
+			this.key = key;
+		}
+
+		private void record(long time, long allocated) {
+			invocationCount.incrementAndGet();
+			totalTime.addAndGet(time);
+			allocatedBytes.addAndGet(allocated);
+			long max = maxTime.get();
+			while (time > max && !maxTime.compareAndSet(max, time)) {
+				max = maxTime.get();
+			}
+		}
+
+		public String getProjectName() {
+			return key.projectName;
+		}
+
+		public String getValidatorId() {
+			return key.validatorId;
+		}
+
+		public String getRuleId() {
+			return key.ruleId;
+		}
+
+		public long getInvocationCount() {
+			return invocationCount.get();
+		}
+
+		/**
+		 * Returns the total wall time in nanoseconds.
+		 */
+		public long getTotalTime() {
+			return totalTime.get();
+		}
+
+		/**
+		 * Returns the maximum wall time of a single invocation in nanoseconds.
+		 */
+		public long getMaxTime() {
+			return maxTime.get();
+		}
+
+		/**
+		 * Returns the bytes allocated by all invocations, or <code>0</code> if the VM can't measure allocations.
+		 */
+		public long getAllocatedBytes() {
+			return allocatedBytes.get();
+		}
+	}
+
+	private static class Key {
+
+		private final String projectName;
+
+		private final String validatorId;
+
+		private final String ruleId;
+
+		public Key(String projectName, String validatorId, String ruleId) {
+			this.projectName = projectName != null ? projectName : "";
+			this.validatorId = validatorId != null ? validatorId : "";
+			this.ruleId = ruleId != null ? ruleId : "";
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return projectName.equals(other.projectName) && validatorId.equals(other.validatorId)
+					&& ruleId.equals(other.ruleId);
+		}
+
+		@Override
+		public int hashCode() {
+			return (projectName.hashCode() * 31 + validatorId.hashCode()) * 31 + ruleId.hashCode();
+		}
+	}
+
+	/**
+	 * Reads the bytes allocated by the current thread through <code>com.sun.management.ThreadMXBean</code> if the
+	 * running VM provides it. The method is looked up reflectively because the bundle can't import the package.
+	 */
+	private static class AllocationCounter {
+
+		private final ThreadMXBean threadBean;
+
+		private final Method allocatedBytesMethod;
+
+		public AllocationCounter() {
+			ThreadMXBean bean = null;
+			Method method = null;
+			try {
+				bean = ManagementFactory.getThreadMXBean();
+				Class<?> sunThreadBean = Class.forName("com.sun.management.ThreadMXBean", false, null);
+				if (sunThreadBean.isInstance(bean)) {
+					Method supported = sunThreadBean.getMethod("isThreadAllocatedMemorySupported");
+					Method enabled = sunThreadBean.getMethod("isThreadAllocatedMemoryEnabled");
+					if (Boolean.TRUE.equals(supported.invoke(bean)) && Boolean.TRUE.equals(enabled.invoke(bean))) {
+						method = sunThreadBean.getMethod("getThreadAllocatedBytes", long.class);
+					}
+				}
+			}
+			catch (Throwable e) {
+				// allocation measurement is not available in this VM
+			}
+			this.threadBean = bean;
+			this.allocatedBytesMethod = method;
+		}
+
+		/**
+		 * Returns the bytes allocated by the current thread so far or <code>-1</code> if not available.
+		 */
+		public long getAllocatedBytes() {
+			if (allocatedBytesMethod == null) {
+				return -1;
+			}
+			try {
+				return (Long) allocatedBytesMethod.invoke(threadBean, Thread.currentThread().getId());
+			}
+			catch (Exception e) {
+				return -1;
+			}
+		}
+	}
+
+}
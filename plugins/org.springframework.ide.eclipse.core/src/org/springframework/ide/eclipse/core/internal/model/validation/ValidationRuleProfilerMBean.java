@@ -0,0 +1,45 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.internal.model.validation;
+
+import java.io.IOException;
+
+/**
+ * JMX management interface of the {@link ValidationRuleProfiler}.
+ * @since 3.9.2
+ */
+public interface ValidationRuleProfilerMBean {
+
+	boolean isEnabled();
+
+	void setEnabled(boolean enabled);
+
+	/**
+	 * Discards all statistics recorded so far.
+	 */
+	void reset();
+
+	/**
+	 * Returns one line per rule, validator and project, ordered by total time: the hottest rules come first.
+	 */
+	String[] getHotRules(int limit);
+
+	String exportCsv();
+
+	String exportJson();
+
+	/**
+	 * Writes the current statistics to the given file, as JSON if the file name ends with <code>.json</code> and
+	 * as CSV otherwise.
+	 */
+	void exportReport(String path) throws IOException;
+
+}
@@ -21,6 +21,7 @@ import org.springframework.ide.eclipse.core.SpringCore;
 import org.springframework.ide.eclipse.core.model.ISpringProject;
 import org.springframework.ide.eclipse.core.model.validation.AbstractValidator;
 import org.springframework.ide.eclipse.core.model.validation.IValidator;
+import org.springframework.ide.eclipse.core.project.ProjectBuilderDefinition;
 import org.springframework.util.StringUtils;
 
 /**
@@ -34,6 +35,10 @@ public class ValidatorDefinition extends PersistablePreferenceObjectSupport {
 
 	private static final String CLASS_ATTRIBUTE = "class";
 
+	private static final String CONCURRENT_ATTRIBUTE = "concurrent";
+
+	private static final String DEPENDS_ON_ATTRIBUTE = "dependsOn";
+
 	private static final String DESCRIPTION_ATTRIBUTE = "description";
 
 	private static final String ENABLED_BY_DEFAULT_ATTRIBUTE = "enabledByDefault";
@@ -50,6 +55,10 @@ public class ValidatorDefinition extends PersistablePreferenceObjectSupport {
 
 	private static final String ORDER_ATTRIBUTE = "order";
 
+	private boolean concurrent;
+
+	private Set<String> dependsOn;
+
 	private String description;
 
 	private String iconUri;
@@ -93,6 +102,23 @@ public class ValidatorDefinition extends PersistablePreferenceObjectSupport {
 		}
 	}
 
+	/**
+	 * Returns <code>true</code> if the validator declared that it may run concurrently with other concurrent
+	 * validators.
+	 * @since 3.9.2
+	 */
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * Returns the ids of the validators that need to be finished before this validator can be started.
+	 * @since 3.9.2
+	 */
+	public Set<String> getDependsOn() {
+		return dependsOn;
+	}
+
 	public String getDescription() {
 		return description;
 	}
@@ -150,6 +176,8 @@ public class ValidatorDefinition extends PersistablePreferenceObjectSupport {
 		}
 		markerId = element.getContributor().getName() + "."
 				+ element.getAttribute(MARKER_ID_ATTRIBUTE);
+		concurrent = Boolean.valueOf(element.getAttribute(CONCURRENT_ATTRIBUTE));
+		dependsOn = ProjectBuilderDefinition.parseDependsOn(element.getAttribute(DEPENDS_ON_ATTRIBUTE));
 		namespaceUri = element.getDeclaringExtension().getNamespaceIdentifier();
 		String enabledByDefault = element
 				.getAttribute(ENABLED_BY_DEFAULT_ATTRIBUTE);
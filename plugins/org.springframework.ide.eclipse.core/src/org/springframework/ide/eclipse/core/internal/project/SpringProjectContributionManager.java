@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2013 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,11 +10,21 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.core.internal.project;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
@@ -27,8 +37,10 @@ import org.eclipse.core.resources.IncrementalProjectBuilder;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.ISafeRunnable;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.core.runtime.SubProgressMonitor;
+import org.springframework.ide.eclipse.core.SpringCore;
 import org.springframework.ide.eclipse.core.SpringCoreUtils;
 import org.springframework.ide.eclipse.core.internal.model.validation.ValidatorDefinition;
 import org.springframework.ide.eclipse.core.internal.model.validation.ValidatorDefinitionFactory;
@@ -55,6 +67,10 @@ import org.springframework.ide.eclipse.core.project.ProjectContributionEventList
  * <p>
  * {@link IProjectBuilder} or {@link IValidator} implementations that want to access the state should implement the
  * {@link IProjectContributorStateAware} interface to a call back with the current state.
+ * <p>
+ * If {@link SpringCore#USE_PARALLEL_PROJECT_CONTRIBUTORS} is enabled the affected resources of all builders (and
+ * later of all validators) are collected in a single pass over the resource tree or delta, and contributors that are
+ * declared as <code>concurrent</code> run on a bounded thread pool.
  * 
  * @author Torsten Juergeleit
  * @author Christian Dupuis
@@ -70,6 +86,11 @@ public class SpringProjectContributionManager extends IncrementalProjectBuilder
 	
 	private static Object dummyMapObject = new Object();
 	private static Map<String, Object> classpathChanged = new ConcurrentHashMap<String, Object>();
+
+	private static final String THREAD_NAME_TEMPLATE = "Spring Project Contributor (%s) %d";
+
+	/** Serializes listener callbacks of contributors that run concurrently */
+	private final Object listenerLock = new Object();
 	
 	/**
 	 * indicate that the classpath changed for the given project since the last build
@@ -115,20 +136,27 @@ public class SpringProjectContributionManager extends IncrementalProjectBuilder
 
 		}
 
-		// At first run all builders
-		for (ProjectBuilderDefinition builderDefinition : builderDefinitions) {
-			if (builderDefinition.isEnabled(project)) {
-				Set<IResource> affectedResources = getAffectedResources(builderDefinition.getProjectBuilder(), project,
-						buildKind, delta);
-				runBuilder(builderDefinition, affectedResources, buildKind, monitor, listeners);
-			}
+		if (SpringCore.getDefault().getPluginPreferences().getBoolean(SpringCore.USE_PARALLEL_PROJECT_CONTRIBUTORS)) {
+			runContributorsInParallel(project, buildKind, delta, builderDefinitions, validatorDefinitions, monitor,
+					listeners);
 		}
+		else {
+			// At first run all builders
+			for (ProjectBuilderDefinition builderDefinition : builderDefinitions) {
+				if (builderDefinition.isEnabled(project)) {
+					Set<IResource> affectedResources = getAffectedResources(builderDefinition.getProjectBuilder(),
+							project, buildKind, delta);
+					runBuilder(builderDefinition, affectedResources, buildKind, monitor, listeners);
+				}
+			}
 
-		// Finally run all validators
-		for (ValidatorDefinition validatorDefinition : validatorDefinitions) {
-			if (validatorDefinition.isEnabled(project)) {
-				Set<IResource> affectedResources = getAffectedResources(validatorDefinition.getValidator(), project, buildKind, delta);
-				runValidator(validatorDefinition, affectedResources, buildKind, monitor, listeners);
+			// Finally run all validators
+			for (ValidatorDefinition validatorDefinition : validatorDefinitions) {
+				if (validatorDefinition.isEnabled(project)) {
+					Set<IResource> affectedResources = getAffectedResources(validatorDefinition.getValidator(),
+							project, buildKind, delta);
+					runValidator(validatorDefinition, affectedResources, buildKind, monitor, listeners);
+				}
 			}
 		}
 
@@ -163,6 +191,139 @@ public class SpringProjectContributionManager extends IncrementalProjectBuilder
 		return affectedResources;
 	}
 
+	/**
+	 * Collects the affected resources of all given {@link IProjectContributor}s in a single pass over the resource tree
+	 * or the given {@link IResourceDelta}. The returned list contains the resources in the order of the contributors.
+	 */
+	private List<Set<IResource>> getAffectedResources(List<IProjectContributor> contributors, IProject project,
+			int kind, IResourceDelta delta) throws CoreException {
+		if (contributors.isEmpty()) {
+			return Collections.emptyList();
+		}
+		if (delta == null || kind == IncrementalProjectBuilder.FULL_BUILD) {
+			ResourceTreeVisitor visitor = new ResourceTreeVisitor(contributors);
+			project.accept(visitor);
+			return visitor.getAllResources();
+		}
+		else {
+			ResourceDeltaVisitor visitor = new ResourceDeltaVisitor(contributors, kind);
+			delta.accept(visitor);
+			return visitor.getAllResources();
+		}
+	}
+
+	/**
+	 * Runs all enabled builders and afterwards all enabled validators. Within each of the two groups the contributors
+	 * are started in their defined order: concurrent contributors are handed to a thread pool bounded by the number of
+	 * available processors and wait for the contributors they depend on; all other contributors run on the build
+	 * thread as soon as every contributor started before them has finished.
+	 */
+	private void runContributorsInParallel(IProject project, int kind, IResourceDelta delta,
+			List<ProjectBuilderDefinition> builderDefinitions, List<ValidatorDefinition> validatorDefinitions,
+			IProgressMonitor monitor, List<IProjectContributionEventListener> listeners) throws CoreException {
+
+		ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+				new ContributorThreadFactory(project.getName()));
+		try {
+			List<ContributorRun> builderRuns = new ArrayList<ContributorRun>();
+			for (ProjectBuilderDefinition builderDefinition : builderDefinitions) {
+				if (builderDefinition.isEnabled(project)) {
+					builderRuns.add(new ContributorRun(builderDefinition));
+				}
+			}
+			runContributors(builderRuns, project, kind, delta, executor, monitor, listeners);
+
+			List<ContributorRun> validatorRuns = new ArrayList<ContributorRun>();
+			for (ValidatorDefinition validatorDefinition : validatorDefinitions) {
+				if (validatorDefinition.isEnabled(project)) {
+					validatorRuns.add(new ContributorRun(validatorDefinition));
+				}
+			}
+			runContributors(validatorRuns, project, kind, delta, executor, monitor, listeners);
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	private void runContributors(List<ContributorRun> runs, IProject project, final int kind, IResourceDelta delta,
+			ExecutorService executor, IProgressMonitor monitor, final List<IProjectContributionEventListener> listeners)
+			throws CoreException {
+
+		List<IProjectContributor> contributors = new ArrayList<IProjectContributor>(runs.size());
+		for (ContributorRun run : runs) {
+			contributors.add(run.getContributor());
+		}
+		List<Set<IResource>> affectedResources = getAffectedResources(contributors, project, kind, delta);
+
+		// Progress monitors are not thread-safe; concurrent contributors only get to see the cancellation state
+		final IProgressMonitor concurrentMonitor = new ConcurrentContributorProgressMonitor(monitor);
+
+		Map<String, Future<?>> startedRuns = new HashMap<String, Future<?>>();
+		List<Future<?>> runningRuns = new ArrayList<Future<?>>();
+		for (int i = 0; i < runs.size(); i++) {
+			final ContributorRun run = runs.get(i);
+			final Set<IResource> runAffectedResources = affectedResources.get(i);
+
+			if (run.isConcurrent()) {
+				final List<Future<?>> dependencies = new ArrayList<Future<?>>();
+				for (String id : run.getDependsOn()) {
+					Future<?> dependency = startedRuns.get(id);
+					if (dependency != null) {
+						dependencies.add(dependency);
+					}
+				}
+
+				// Dependencies have always been submitted earlier, so they never queue up behind this task
+				Future<?> future = executor.submit(new Callable<Object>() {
+
+					public Object call() throws CoreException {
+						waitFor(dependencies);
+						run.execute(runAffectedResources, kind, concurrentMonitor, listeners);
+						return null;
+					}
+				});
+				startedRuns.put(run.getId(), future);
+				runningRuns.add(future);
+			}
+			else {
+				waitFor(runningRuns);
+				runningRuns.clear();
+				run.execute(runAffectedResources, kind, monitor, listeners);
+			}
+		}
+		waitFor(runningRuns);
+	}
+
+	/**
+	 * Waits for all given contributor runs to finish. Like on the build thread, an exception that escapes a
+	 * contributor fails the build: the first one is rethrown once all runs have finished. A run that depends on a
+	 * failed run doesn't start and fails with the same exception.
+	 */
+	private void waitFor(List<Future<?>> futures) throws CoreException {
+		Throwable failure = null;
+		for (Future<?> future : futures) {
+			try {
+				future.get();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			catch (ExecutionException e) {
+				if (failure == null) {
+					failure = e.getCause();
+				}
+			}
+		}
+		if (failure instanceof CoreException) {
+			throw (CoreException) failure;
+		}
+		else if (failure != null) {
+			throw new CoreException(SpringCore.createErrorStatus(failure.getMessage(), failure));
+		}
+	}
+
 	/**
 	 * Instantiate the {@link IProjectContributorState} object. The state object is then passed to any
 	 * {@link IProjectBuilder} and {@link IValidator} that implements the {@link IProjectContributorStateAware}
@@ -207,8 +368,10 @@ public class SpringProjectContributionManager extends IncrementalProjectBuilder
 
 				@SuppressWarnings("deprecation")
 				public void execute(IProgressMonitor subMonitor) throws Exception {
-					listener.startContributor(builderDefinition.getProjectBuilder(), affectedResources, subMonitor);
-					listener.startProjectBuilder(builderDefinition, affectedResources, subMonitor);
+					synchronized (listenerLock) {
+						listener.startContributor(builderDefinition.getProjectBuilder(), affectedResources, subMonitor);
+						listener.startProjectBuilder(builderDefinition, affectedResources, subMonitor);
+					}
 				}
 			}, monitor);
 
@@ -227,8 +390,10 @@ public class SpringProjectContributionManager extends IncrementalProjectBuilder
 				
 				@SuppressWarnings("deprecation")
 				public void execute(IProgressMonitor subMonitor) throws Exception {
-					listener.finishContributor(builderDefinition.getProjectBuilder(), affectedResources, subMonitor);
-					listener.finishProjectBuilder(builderDefinition, affectedResources, subMonitor);
+					synchronized (listenerLock) {
+						listener.finishContributor(builderDefinition.getProjectBuilder(), affectedResources, subMonitor);
+						listener.finishProjectBuilder(builderDefinition, affectedResources, subMonitor);
+					}
 				}
 			}, monitor);
 			
@@ -247,8 +412,10 @@ public class SpringProjectContributionManager extends IncrementalProjectBuilder
 
 				@SuppressWarnings("deprecation")
 				public void execute(IProgressMonitor subMonitor) throws Exception {
-					listener.startContributor(validatorDefinition.getValidator(), affectedResources, subMonitor);
-					listener.startValidator(validatorDefinition, affectedResources, subMonitor);
+					synchronized (listenerLock) {
+						listener.startContributor(validatorDefinition.getValidator(), affectedResources, subMonitor);
+						listener.startValidator(validatorDefinition, affectedResources, subMonitor);
+					}
 				}
 			}, monitor);
 
@@ -267,8 +434,10 @@ public class SpringProjectContributionManager extends IncrementalProjectBuilder
 				
 				@SuppressWarnings("deprecation")
 				public void execute(IProgressMonitor subMonitor) throws Exception {
-					listener.finishContributor(validatorDefinition.getValidator(), affectedResources, subMonitor);
-					listener.finishValidator(validatorDefinition, affectedResources, subMonitor);
+					synchronized (listenerLock) {
+						listener.finishContributor(validatorDefinition.getValidator(), affectedResources, subMonitor);
+						listener.finishValidator(validatorDefinition, affectedResources, subMonitor);
+					}
 				}
 			}, monitor);
 			
@@ -302,24 +471,122 @@ public class SpringProjectContributionManager extends IncrementalProjectBuilder
 
 	}
 
+	/**
+	 * A builder or validator that is scheduled by {@link SpringProjectContributionManager#runContributorsInParallel}.
+	 */
+	private class ContributorRun {
+
+		private final ProjectBuilderDefinition builderDefinition;
+
+		private final ValidatorDefinition validatorDefinition;
+
+		public ContributorRun(ProjectBuilderDefinition builderDefinition) {
+			this.builderDefinition = builderDefinition;
+			this.validatorDefinition = null;
+		}
+
+		public ContributorRun(ValidatorDefinition validatorDefinition) {
+			this.builderDefinition = null;
+			this.validatorDefinition = validatorDefinition;
+		}
+
+		public String getId() {
+			return builderDefinition != null ? builderDefinition.getId() : validatorDefinition.getID();
+		}
+
+		public IProjectContributor getContributor() {
+			return builderDefinition != null ? builderDefinition.getProjectBuilder() : validatorDefinition.getValidator();
+		}
+
+		public boolean isConcurrent() {
+			return builderDefinition != null ? builderDefinition.isConcurrent() : validatorDefinition.isConcurrent();
+		}
+
+		public Set<String> getDependsOn() {
+			return builderDefinition != null ? builderDefinition.getDependsOn() : validatorDefinition.getDependsOn();
+		}
+
+		public void execute(Set<IResource> affectedResources, int kind, IProgressMonitor monitor,
+				List<IProjectContributionEventListener> listeners) {
+			if (builderDefinition != null) {
+				runBuilder(builderDefinition, affectedResources, kind, monitor, listeners);
+			}
+			else {
+				runValidator(validatorDefinition, affectedResources, kind, monitor, listeners);
+			}
+		}
+	}
+
+	/**
+	 * Progress monitor handed to concurrently running contributors. It only forwards the cancellation state of the
+	 * build's monitor, which is safe to query from any thread.
+	 */
+	private static class ConcurrentContributorProgressMonitor extends NullProgressMonitor {
+
+		private final IProgressMonitor monitor;
+
+		public ConcurrentContributorProgressMonitor(IProgressMonitor monitor) {
+			this.monitor = monitor;
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return super.isCanceled() || (monitor != null && monitor.isCanceled());
+		}
+	}
+
+	private static class ContributorThreadFactory implements ThreadFactory {
+
+		private final String projectName;
+
+		private final AtomicInteger threadCount = new AtomicInteger();
+
+		public ContributorThreadFactory(String projectName) {
+			this.projectName = projectName;
+		}
+
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, String.format(THREAD_NAME_TEMPLATE, projectName,
+					threadCount.incrementAndGet()));
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
 	/**
 	 * Create a list of affected resources from a resource delta.
 	 */
 	public static class ResourceDeltaVisitor implements IResourceDeltaVisitor {
 
-		private IProjectContributor contributor;
+		private List<? extends IProjectContributor> contributors;
 
 		private int kind = -1;
 
-		private Set<IResource> resources;
+		private List<Set<IResource>> resources;
 
 		public ResourceDeltaVisitor(IProjectContributor builder, int kind) {
-			this.contributor = builder;
-			this.resources = new LinkedHashSet<IResource>();
+			this(Collections.singletonList(builder), kind);
+		}
+
+		/**
+		 * Creates a visitor that collects the affected resources of several contributors in a single pass.
+		 * @since 3.9.2
+		 */
+		public ResourceDeltaVisitor(List<? extends IProjectContributor> contributors, int kind) {
+			this.contributors = contributors;
+			this.resources = createResourceSets(contributors.size());
 			this.kind = kind;
 		}
 
 		public Set<IResource> getResources() {
+			return resources.get(0);
+		}
+
+		/**
+		 * Returns the affected resources of every contributor, in the order the contributors were given.
+		 * @since 3.9.2
+		 */
+		public List<Set<IResource>> getAllResources() {
 			return resources;
 		}
 
@@ -332,23 +599,23 @@ public class SpringProjectContributionManager extends IncrementalProjectBuilder
 				// Only check projects with Spring beans nature
 				visitChildren = SpringCoreUtils.isSpringProject(resource);
 				if (visitChildren) {
-					resources.addAll(contributor.getAffectedResources(resource, kind, aDelta.getKind()));
+					addAffectedResources(contributors, resources, resource, kind, aDelta.getKind());
 				}
 			}
 			else if (resource instanceof IFolder) {
-				resources.addAll(contributor.getAffectedResources(resource, kind, aDelta.getKind()));
+				addAffectedResources(contributors, resources, resource, kind, aDelta.getKind());
 				visitChildren = true;
 			}
 			else if (resource instanceof IFile) {
 				switch (aDelta.getKind()) {
 				case IResourceDelta.ADDED:
 				case IResourceDelta.CHANGED:
-					resources.addAll(contributor.getAffectedResources(resource, kind, aDelta.getKind()));
+					addAffectedResources(contributors, resources, resource, kind, aDelta.getKind());
 					visitChildren = true;
 					break;
 
 				case IResourceDelta.REMOVED:
-					resources.addAll(contributor.getAffectedResources(resource, kind, aDelta.getKind()));
+					addAffectedResources(contributors, resources, resource, kind, aDelta.getKind());
 					break;
 				}
 			}
@@ -361,29 +628,60 @@ public class SpringProjectContributionManager extends IncrementalProjectBuilder
 	 */
 	public static class ResourceTreeVisitor implements IResourceVisitor {
 
-		private IProjectContributor contributor;
+		private List<? extends IProjectContributor> contributors;
 
-		private Set<IResource> resources;
+		private List<Set<IResource>> resources;
 
 		public ResourceTreeVisitor(IProjectContributor builder) {
-			this.contributor = builder;
-			this.resources = new LinkedHashSet<IResource>();
+			this(Collections.singletonList(builder));
+		}
+
+		/**
+		 * Creates a visitor that collects the affected resources of several contributors in a single pass.
+		 * @since 3.9.2
+		 */
+		public ResourceTreeVisitor(List<? extends IProjectContributor> contributors) {
+			this.contributors = contributors;
+			this.resources = createResourceSets(contributors.size());
 		}
 
 		public Set<IResource> getResources() {
+			return resources.get(0);
+		}
+
+		/**
+		 * Returns the affected resources of every contributor, in the order the contributors were given.
+		 * @since 3.9.2
+		 */
+		public List<Set<IResource>> getAllResources() {
 			return resources;
 		}
 
 		public boolean visit(IResource resource) throws CoreException {
 			if (resource instanceof IFile) {
-				resources.addAll(contributor.getAffectedResources(resource, IncrementalProjectBuilder.FULL_BUILD,
-						IResourceDelta.CHANGED));
+				addAffectedResources(contributors, resources, resource, IncrementalProjectBuilder.FULL_BUILD,
+						IResourceDelta.CHANGED);
 			}
 			else if (resource instanceof IProject) {
-				resources.addAll(contributor.getAffectedResources(resource, IncrementalProjectBuilder.FULL_BUILD,
-						IResourceDelta.CHANGED));
+				addAffectedResources(contributors, resources, resource, IncrementalProjectBuilder.FULL_BUILD,
+						IResourceDelta.CHANGED);
 			}
 			return true;
 		}
 	}
+
+	private static List<Set<IResource>> createResourceSets(int size) {
+		List<Set<IResource>> resources = new ArrayList<Set<IResource>>(size);
+		for (int i = 0; i < size; i++) {
+			resources.add(new LinkedHashSet<IResource>());
+		}
+		return resources;
+	}
+
+	private static void addAffectedResources(List<? extends IProjectContributor> contributors,
+			List<Set<IResource>> resources, IResource resource, int kind, int deltaKind) throws CoreException {
+		for (int i = 0; i < contributors.size(); i++) {
+			resources.get(i).addAll(contributors.get(i).getAffectedResources(resource, kind, deltaKind));
+		}
+	}
 }
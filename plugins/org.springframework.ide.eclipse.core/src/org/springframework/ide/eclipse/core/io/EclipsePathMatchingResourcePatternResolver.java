@@ -16,6 +16,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -45,8 +46,11 @@ import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.io.UrlResource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.ide.eclipse.core.SpringCore;
 import org.springframework.ide.eclipse.core.java.JdtUtils;
+import org.springframework.ide.eclipse.core.java.StereotypeIndex;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
 
 /**
  * Eclipse specific {@link ResourceLoader} implementation that understands the same rules applied by
@@ -138,12 +142,18 @@ public class EclipsePathMatchingResourcePatternResolver implements ResourcePatte
 	}
 
 	public Resource[] getResources(String locationPattern) throws IOException {
+		Set<String> stereotypes = null;
+		if (locationPattern.endsWith(ClassUtils.CLASS_FILE_SUFFIX)) {
+			stereotypes = getRequiredStereotypes(locationPattern);
+		}
+		String cacheKey = (stereotypes != null ? stereotypes + locationPattern : locationPattern);
+
 		// Check cache first
-		if (resolvedResources.containsKey(locationPattern)) {
-			return resolvedResources.get(locationPattern);
+		if (resolvedResources.containsKey(cacheKey)) {
+			return resolvedResources.get(cacheKey);
 		}
 
-		Resource[] resources = patternResolver.getResources(locationPattern);
+		Resource[] resources = getPatternResolver(stereotypes).getResources(locationPattern);
 		Set<Resource> foundResources = new HashSet<Resource>();
 
 		try {
@@ -173,11 +183,33 @@ public class EclipsePathMatchingResourcePatternResolver implements ResourcePatte
 		}
 
 		Resource[] result = foundResources.toArray(new Resource[foundResources.size()]);
-		resolvedResources.put(locationPattern, result);
+		resolvedResources.put(cacheKey, result);
 
 		return result;
 	}
 
+	/**
+	 * Returns the annotation types that class files matched by the given pattern need to carry, directly or as
+	 * meta-annotation; <code>null</code> if all matching class files are required.
+	 * <p>
+	 * If annotation types are returned, class files inside the project are looked up in its {@link StereotypeIndex}
+	 * instead of walking the output folders. The default implementation returns <code>null</code>.
+	 * @since 3.9.2
+	 */
+	protected Set<String> getRequiredStereotypes(String locationPattern) {
+		return null;
+	}
+
+	private PathMatchingResourcePatternResolver getPatternResolver(Set<String> stereotypes) {
+		if (stereotypes != null) {
+			StereotypeIndex index = SpringCore.getTypeStructureCache().getStereotypeIndex(project);
+			if (index != null) {
+				return new StereotypeIndexPatternResolver(getClassLoader(), index, stereotypes);
+			}
+		}
+		return patternResolver;
+	}
+
 	/**
 	 * Verify if the <code>resources</code> array contains a file matching <code>fileName</code>.
 	 */
@@ -367,4 +399,47 @@ public class EclipsePathMatchingResourcePatternResolver implements ResourcePatte
 		return null;
 	}
 
+	/**
+	 * {@link PathMatchingResourcePatternResolver} that answers class file patterns for folders inside the project
+	 * from the {@link StereotypeIndex} of the project.
+	 */
+	private static class StereotypeIndexPatternResolver extends PathMatchingResourcePatternResolver {
+
+		private final StereotypeIndex index;
+
+		private final Set<String> stereotypes;
+
+		public StereotypeIndexPatternResolver(ClassLoader classLoader, StereotypeIndex index, Set<String> stereotypes) {
+			super(classLoader);
+			this.index = index;
+			this.stereotypes = stereotypes;
+		}
+
+		@Override
+		protected Set<Resource> doFindPathMatchingFileResources(Resource rootDirResource, String subPattern)
+				throws IOException {
+			File rootDir = rootDirResource.getFile().getAbsoluteFile();
+			IPath rootDirLocation = new Path(rootDir.getPath());
+			if (!subPattern.endsWith(ClassUtils.CLASS_FILE_SUFFIX) || !index.covers(rootDirLocation)) {
+				return super.doFindPathMatchingFileResources(rootDirResource, subPattern);
+			}
+
+			// Same matching as PathMatchingResourcePatternResolver applies when walking the folder
+			String fullPattern = StringUtils.replace(rootDir.getPath(), File.separator, "/");
+			if (!subPattern.startsWith("/")) {
+				fullPattern += "/";
+			}
+			fullPattern = fullPattern + StringUtils.replace(subPattern, File.separator, "/");
+
+			Set<Resource> result = new LinkedHashSet<Resource>();
+			for (IFile file : index.getCandidates(rootDirLocation, stereotypes, getClassLoader())) {
+				File classFile = file.getLocation().toFile();
+				if (getPathMatcher().match(fullPattern, StringUtils.replace(classFile.getPath(), File.separator, "/"))) {
+					result.add(new FileSystemResource(classFile));
+				}
+			}
+			return result;
+		}
+	}
+
 }
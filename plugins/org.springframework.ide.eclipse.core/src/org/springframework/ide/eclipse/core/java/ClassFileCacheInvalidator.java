@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.springframework.ide.eclipse.core.SpringCore;
+import org.springframework.ide.eclipse.core.type.asm.ClassFileCache;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Keeps the shared {@link ClassFileCache}s in line with the workspace.
+ * <p>
+ * Changed class files of all projects invalidate the cached values of their classes, no matter whether the project
+ * is built by the Spring builder. Changes to classpaths, archives and the opening, closing or removal of projects
+ * invalidate everything, as the class loaders and class files a value has been read through might not be valid
+ * anymore.
+ * @since 3.9.2
+ */
+public class ClassFileCacheInvalidator implements IResourceChangeListener, IElementChangedListener {
+
+	private static final int CLASSPATH_CHANGE_FLAGS = IJavaElementDelta.F_CLASSPATH_CHANGED
+			| IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED | IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED
+			| IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED | IJavaElementDelta.F_ADDED_TO_CLASSPATH
+			| IJavaElementDelta.F_REMOVED_FROM_CLASSPATH;
+
+	public void startup() {
+		ResourcesPlugin.getWorkspace().addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+		JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
+	}
+
+	public void shutdown() {
+		JavaCore.removeElementChangedListener(this);
+		ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+	}
+
+	public void resourceChanged(IResourceChangeEvent event) {
+		if (event.getDelta() == null || isEmpty()) {
+			return;
+		}
+		ClassFileVisitor visitor = new ClassFileVisitor();
+		try {
+			event.getDelta().accept(visitor);
+		}
+		catch (CoreException e) {
+			SpringCore.log(e);
+			visitor.invalidateAll = true;
+		}
+
+		if (visitor.invalidateAll) {
+			ClassFileCache.invalidateAllClasses();
+		}
+		else {
+			for (Map.Entry<IProject, List<IResource>> entry : visitor.classFiles.entrySet()) {
+				invalidateClasses(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	public void elementChanged(ElementChangedEvent event) {
+		if (!isEmpty() && hasClasspathChanges(event.getDelta())) {
+			ClassFileCache.invalidateAllClasses();
+		}
+	}
+
+	/**
+	 * Removes the values read from the given class files of a project from all {@link ClassFileCache}s; if one of
+	 * the class files is not in an output folder of the project, all values are removed.
+	 */
+	public static void invalidateClasses(IProject project, Collection<IResource> classFiles) {
+		Set<String> classNames = null;
+		try {
+			classNames = getClassNames(project, classFiles);
+		}
+		catch (JavaModelException e) {
+			SpringCore.log(e);
+		}
+		if (classNames != null) {
+			ClassFileCache.invalidateClasses(classNames);
+		}
+		else {
+			ClassFileCache.invalidateAllClasses();
+		}
+	}
+
+	/**
+	 * Returns the class names of the given class files in the output folders of the project or <code>null</code> if
+	 * one of them is not in an output folder.
+	 */
+	private static Set<String> getClassNames(IProject project, Collection<IResource> resources)
+			throws JavaModelException {
+		IJavaProject javaProject = JdtUtils.getJavaProject(project);
+		if (javaProject == null) {
+			return null;
+		}
+		List<IPath> outputLocations = new ArrayList<IPath>();
+		outputLocations.add(javaProject.getOutputLocation());
+		for (IClasspathEntry entry : javaProject.getRawClasspath()) {
+			if (entry.getEntryKind() == IClasspathEntry.CPE_SOURCE && entry.getOutputLocation() != null) {
+				outputLocations.add(entry.getOutputLocation());
+			}
+		}
+
+		Set<String> classNames = new HashSet<String>();
+		resources: for (IResource resource : resources) {
+			IPath path = resource.getFullPath();
+			for (IPath outputLocation : outputLocations) {
+				if (outputLocation.isPrefixOf(path)) {
+					classNames.add(path.removeFirstSegments(outputLocation.segmentCount()).removeFileExtension()
+							.toString().replace('/', '.'));
+					continue resources;
+				}
+			}
+			return null;
+		}
+		return classNames;
+	}
+
+	private static boolean isEmpty() {
+		for (ClassFileCache<?, ?> cache : ClassFileCache.getCaches()) {
+			if (cache.size() > 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean hasClasspathChanges(IJavaElementDelta delta) {
+		if ((delta.getFlags() & CLASSPATH_CHANGE_FLAGS) != 0) {
+			return true;
+		}
+		int elementType = delta.getElement().getElementType();
+		if (elementType == IJavaElement.JAVA_PROJECT
+				&& (delta.getKind() == IJavaElementDelta.ADDED || delta.getKind() == IJavaElementDelta.REMOVED)) {
+			return true;
+		}
+		// Classpath related changes are reported on projects and package fragment roots only
+		if (elementType == IJavaElement.JAVA_MODEL || elementType == IJavaElement.JAVA_PROJECT) {
+			for (IJavaElementDelta child : delta.getAffectedChildren()) {
+				if (hasClasspathChanges(child)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Collects the changed class files by project; changed archives and opened, closed or removed projects require
+	 * all values to be removed.
+	 */
+	private static class ClassFileVisitor implements IResourceDeltaVisitor {
+
+		private final Map<IProject, List<IResource>> classFiles = new HashMap<IProject, List<IResource>>();
+
+		private boolean invalidateAll = false;
+
+		public boolean visit(IResourceDelta delta) {
+			if (invalidateAll) {
+				return false;
+			}
+			IResource resource = delta.getResource();
+			if (resource instanceof IProject) {
+				if (delta.getKind() != IResourceDelta.CHANGED || (delta.getFlags() & IResourceDelta.OPEN) != 0) {
+					invalidateAll = true;
+					return false;
+				}
+			}
+			else if (resource instanceof IFile && isContentChange(delta)) {
+				String name = resource.getName();
+				if (name.endsWith(ClassUtils.CLASS_FILE_SUFFIX)) {
+					List<IResource> projectClassFiles = classFiles.get(resource.getProject());
+					if (projectClassFiles == null) {
+						projectClassFiles = new ArrayList<IResource>();
+						classFiles.put(resource.getProject(), projectClassFiles);
+					}
+					projectClassFiles.add(resource);
+				}
+				else if (name.endsWith(".jar") || name.endsWith(".zip")) {
+					invalidateAll = true;
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private boolean isContentChange(IResourceDelta delta) {
+			return delta.getKind() != IResourceDelta.CHANGED
+					|| (delta.getFlags() & (IResourceDelta.CONTENT | IResourceDelta.REPLACED)) != 0;
+		}
+	}
+
+}
@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java;
+
+import org.eclipse.core.resources.IProject;
+
+/**
+ * Implementations of this interface are notified about the types that are looked up through
+ * {@link JdtUtils#getJavaType(IProject, String)} and the type hierarchy checks of the
+ * {@link org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyEngine}.
+ * @since 3.9.2
+ * @see TypeLookupListeners
+ */
+public interface ITypeLookupListener {
+
+	/**
+	 * Called on the looking up thread before the type with the given fully qualified name (using <code>$</code>
+	 * for inner types) is looked up in the given project.
+	 */
+	void typeLookedUp(IProject project, String className);
+
+}
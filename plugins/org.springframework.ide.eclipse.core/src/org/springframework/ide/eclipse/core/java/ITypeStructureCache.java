@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2009 Spring IDE Developers
+ * Copyright (c) 2008, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -51,11 +51,39 @@ public interface ITypeStructureCache {
 	 * @param resources the changed resources to process
 	 */
 	void recordTypeStructures(IProject project, IResource... resources);
+
+	/**
+	 * Records type structures for the given <code>project</code> and resources.
+	 * @param project the project to record changes for
+	 * @param full <code>true</code> if the resources are all class files of the project and previously recorded type
+	 * structures should be replaced
+	 * @param resources the changed resources to process
+	 * @since 3.9.2
+	 */
+	void recordTypeStructures(IProject project, boolean full, IResource... resources);
 	
 	/**
-	 * Clear recored type structures for the given <code>project</code>.
+	 * Clear recored type structures and the {@link StereotypeIndex} for the given <code>project</code>.
 	 * @param project the project to clear
 	 */
 	void clearStateForProject(IProject project);
 
+	/**
+	 * Returns the {@link StereotypeIndex} of the given <code>project</code> or <code>null</code> if none has been
+	 * recorded yet.
+	 * @param project the project to return the index for
+	 * @since 3.9.2
+	 */
+	StereotypeIndex getStereotypeIndex(IProject project);
+
+	/**
+	 * Record the class-level annotations of the given class files in the {@link StereotypeIndex} of the given
+	 * <code>project</code>.
+	 * @param project the project to record annotations for
+	 * @param full <code>true</code> if the resources are all class files of the project
+	 * @param resources the changed resources to process
+	 * @since 3.9.2
+	 */
+	void recordStereotypes(IProject project, boolean full, IResource... resources);
+
 }
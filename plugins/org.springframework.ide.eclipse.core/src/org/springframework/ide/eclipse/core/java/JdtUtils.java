@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -376,6 +376,7 @@ public class JdtUtils {
 	 * @return the requested Java type or null if the class is not defined or the project is not accessible
 	 */
 	public static IType getJavaType(IProject project, String className) {
+		TypeLookupListeners.fireTypeLookedUp(project, className);
 		IJavaProject javaProject = JdtUtils.getJavaProject(project);
 
 		if (className != null) {
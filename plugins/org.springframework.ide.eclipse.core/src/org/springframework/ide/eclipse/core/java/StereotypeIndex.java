@@ -0,0 +1,266 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFileReader;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFormatException;
+import org.eclipse.jdt.internal.compiler.env.IBinaryAnnotation;
+
+/**
+ * Index of the class-level annotations of all annotated class files of a project.
+ * <p>
+ * Used to answer which class files are candidates for component scanning, that is classes that carry one of a given
+ * set of stereotype annotations directly or as meta-annotation, without walking and reading every class file in the
+ * output folders of the project.
+ * @since 3.9.2
+ * @see TypeStructureCache#getStereotypeIndex(IProject)
+ */
+@SuppressWarnings("restriction")
+public class StereotypeIndex {
+
+	/** Marker for annotation types whose meta-annotations could not be read */
+	private static final Set<String> UNKNOWN_ANNOTATION_TYPES = Collections.unmodifiableSet(new HashSet<String>());
+
+	private final IProject project;
+
+	/** Annotated types keyed by full-qualified class names */
+	private final Map<String, IndexedType> typesByName = new ConcurrentHashMap<String, IndexedType>();
+
+	/** All direct and inherited meta-annotations keyed by full-qualified annotation type names */
+	private final Map<String, Set<String>> metaAnnotationTypes = new ConcurrentHashMap<String, Set<String>>();
+
+	public StereotypeIndex(IProject project) {
+		this.project = project;
+	}
+
+	/**
+	 * Records the class-level annotations of the given class files; class files that no longer exist are removed.
+	 */
+	public void record(IResource... resources) {
+		for (IResource resource : resources) {
+			if (resource instanceof IFile && "class".equals(resource.getFileExtension())) {
+				if (resource.exists()) {
+					record((IFile) resource);
+				}
+				else {
+					remove((IFile) resource);
+				}
+			}
+		}
+		metaAnnotationTypes.clear();
+	}
+
+	/**
+	 * Removes the given type and its inner types from the index.
+	 */
+	public void remove(String className) {
+		String innerClassName = className + "$";
+		for (String recordedClassName : typesByName.keySet()) {
+			if (className.equals(recordedClassName) || recordedClassName.startsWith(innerClassName)) {
+				typesByName.remove(recordedClassName);
+			}
+		}
+		metaAnnotationTypes.clear();
+	}
+
+	/**
+	 * Returns <code>true</code> if the given file system location is inside the project and therefore covered by this
+	 * index.
+	 */
+	public boolean covers(IPath location) {
+		IPath projectLocation = project.getLocation();
+		return projectLocation != null && projectLocation.isPrefixOf(location);
+	}
+
+	/**
+	 * Returns the class files below the given file system location whose types carry one of the given
+	 * <code>stereotypes</code> directly or as meta-annotation.
+	 * <p>
+	 * Annotation types that can't be read through the <code>classLoader</code> are considered to be stereotypes, so
+	 * that the result never misses a candidate.
+	 */
+	public List<IFile> getCandidates(IPath location, Set<String> stereotypes, ClassLoader classLoader) {
+		List<IFile> candidates = new ArrayList<IFile>();
+		for (IndexedType type : typesByName.values()) {
+			IPath typeLocation = type.file.getLocation();
+			if (typeLocation != null && location.isPrefixOf(typeLocation)
+					&& hasStereotype(type.annotationTypes, stereotypes, classLoader) && type.file.exists()) {
+				candidates.add(type.file);
+			}
+		}
+		return candidates;
+	}
+
+	private void record(IFile file) {
+		InputStream input = null;
+		try {
+			input = file.getContents();
+			ClassFileReader reader = ClassFileReader.read(input, file.getName());
+			String className = new String(reader.getName()).replace('/', '.');
+			String[] annotationTypes = getAnnotationTypes(reader);
+			if (annotationTypes.length > 0) {
+				typesByName.put(className, new IndexedType(file, annotationTypes));
+			}
+			else {
+				typesByName.remove(className);
+			}
+		}
+		catch (CoreException e) {
+		}
+		catch (ClassFormatException e) {
+		}
+		catch (IOException e) {
+		}
+		finally {
+			if (input != null) {
+				try {
+					input.close();
+				}
+				catch (IOException e) {
+				}
+			}
+		}
+	}
+
+	private void remove(IFile file) {
+		for (Map.Entry<String, IndexedType> entry : typesByName.entrySet()) {
+			if (entry.getValue().file.equals(file)) {
+				typesByName.remove(entry.getKey());
+			}
+		}
+	}
+
+	private boolean hasStereotype(String[] annotationTypes, Set<String> stereotypes, ClassLoader classLoader) {
+		for (String annotationType : annotationTypes) {
+			if (stereotypes.contains(annotationType)) {
+				return true;
+			}
+			Set<String> metaAnnotations = getMetaAnnotationTypes(annotationType, classLoader);
+			if (metaAnnotations == UNKNOWN_ANNOTATION_TYPES) {
+				return true;
+			}
+			for (String stereotype : stereotypes) {
+				if (metaAnnotations.contains(stereotype)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private Set<String> getMetaAnnotationTypes(String annotationType, ClassLoader classLoader) {
+		Set<String> metaAnnotations = metaAnnotationTypes.get(annotationType);
+		if (metaAnnotations == null) {
+			metaAnnotations = new HashSet<String>();
+			if (!collectMetaAnnotationTypes(annotationType, classLoader, metaAnnotations, new HashSet<String>())) {
+				metaAnnotations = UNKNOWN_ANNOTATION_TYPES;
+			}
+			metaAnnotationTypes.put(annotationType, metaAnnotations);
+		}
+		return metaAnnotations;
+	}
+
+	/**
+	 * Collects the meta-annotations of the given annotation type; returns <code>false</code> if one of the annotation
+	 * types could not be read.
+	 */
+	private boolean collectMetaAnnotationTypes(String annotationType, ClassLoader classLoader,
+			Set<String> metaAnnotations, Set<String> visited) {
+		// Annotations from the JDK like @Retention or @Documented never lead to a stereotype
+		if (annotationType.startsWith("java.") || !visited.add(annotationType)) {
+			return true;
+		}
+
+		String[] annotationTypes = null;
+		IndexedType indexedType = typesByName.get(annotationType);
+		if (indexedType != null) {
+			annotationTypes = indexedType.annotationTypes;
+		}
+		else {
+			annotationTypes = readAnnotationTypes(annotationType, classLoader);
+			if (annotationTypes == null) {
+				return false;
+			}
+		}
+
+		for (String metaAnnotationType : annotationTypes) {
+			metaAnnotations.add(metaAnnotationType);
+			if (!collectMetaAnnotationTypes(metaAnnotationType, classLoader, metaAnnotations, visited)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static String[] readAnnotationTypes(String className, ClassLoader classLoader) {
+		InputStream input = classLoader.getResourceAsStream(ClassUtils.getClassFileName(className));
+		if (input == null) {
+			return null;
+		}
+		try {
+			return getAnnotationTypes(ClassFileReader.read(input, className));
+		}
+		catch (ClassFormatException e) {
+		}
+		catch (IOException e) {
+		}
+		finally {
+			try {
+				input.close();
+			}
+			catch (IOException e) {
+			}
+		}
+		return null;
+	}
+
+	private static String[] getAnnotationTypes(ClassFileReader reader) {
+		IBinaryAnnotation[] annotations = reader.getAnnotations();
+		if (annotations == null) {
+			return new String[0];
+		}
+		String[] annotationTypes = new String[annotations.length];
+		for (int i = 0; i < annotations.length; i++) {
+			// Binary type names look like Lorg/springframework/stereotype/Component;
+			String typeName = new String(annotations[i].getTypeName());
+			annotationTypes[i] = typeName.substring(1, typeName.length() - 1).replace('/', '.');
+		}
+		return annotationTypes;
+	}
+
+	private static class IndexedType {
+
+		private final IFile file;
+
+		private final String[] annotationTypes;
+
+		public IndexedType(IFile file, String[] annotationTypes) {
+			this.file = file;
+			this.annotationTypes = annotationTypes;
+		}
+	}
+
+}
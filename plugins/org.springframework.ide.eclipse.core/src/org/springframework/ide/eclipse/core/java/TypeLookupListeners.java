@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.core.resources.IProject;
+
+/**
+ * Registry of the {@link ITypeLookupListener}s that are notified by the central type lookups. Lookups only check
+ * whether a listener is registered as long as none is, so listeners should be registered only while they need to be
+ * notified.
+ * @since 3.9.2
+ */
+public final class TypeLookupListeners {
+
+	private static final List<ITypeLookupListener> LISTENERS = new CopyOnWriteArrayList<ITypeLookupListener>();
+
+	private TypeLookupListeners() {
+	}
+
+	public static void addTypeLookupListener(ITypeLookupListener listener) {
+		LISTENERS.add(listener);
+	}
+
+	public static void removeTypeLookupListener(ITypeLookupListener listener) {
+		LISTENERS.remove(listener);
+	}
+
+	/**
+	 * Notifies the registered listeners that the type with the given fully qualified name is looked up in the
+	 * given project.
+	 */
+	public static void fireTypeLookedUp(IProject project, String className) {
+		if (LISTENERS.isEmpty() || className == null) {
+			return;
+		}
+		for (ITypeLookupListener listener : LISTENERS) {
+			listener.typeLookedUp(project, className);
+		}
+	}
+
+}
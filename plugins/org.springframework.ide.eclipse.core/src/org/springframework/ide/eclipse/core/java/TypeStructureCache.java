@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2016 Spring IDE Developers
+ * Copyright (c) 2008, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -77,6 +77,9 @@ public class TypeStructureCache implements ITypeStructureCache {
 	/** {@link TypeStructure} instances keyed by full-qualified class names */
 	private Map<IProject, Map<String, TypeStructure>> typeStructuresByProject = new ConcurrentHashMap<IProject, Map<String, TypeStructure>>();
 
+	/** {@link StereotypeIndex} instances keyed by project */
+	private Map<IProject, StereotypeIndex> stereotypeIndexesByProject = new ConcurrentHashMap<IProject, StereotypeIndex>();
+
 	protected final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock();
 
 	protected final Lock r = rwl.readLock();
@@ -92,15 +95,17 @@ public class TypeStructureCache implements ITypeStructureCache {
 		JavaCore.removeElementChangedListener(changedListener);
 		changedListener = null;
 		typeStructuresByProject = null;
+		stereotypeIndexesByProject = null;
 	}
 
 	/**
-	 * Removes {@link TypeStructure}s for a given project.
+	 * Removes {@link TypeStructure}s and the {@link StereotypeIndex} for a given project.
 	 */
 	public void clearStateForProject(IProject project) {
 		try {
 			w.lock();
 			typeStructuresByProject.remove(project);
+			stereotypeIndexesByProject.remove(project);
 		}
 		finally {
 			w.unlock();
@@ -124,10 +129,19 @@ public class TypeStructureCache implements ITypeStructureCache {
 	 * Record {@link TypeStructure} instances of the given <code>resources</code>.
 	 */
 	public void recordTypeStructures(IProject project, IResource... resources) {
+		recordTypeStructures(project, false, resources);
+	}
+
+	/**
+	 * Record {@link TypeStructure} instances of the given <code>resources</code>, replacing all previously recorded
+	 * ones if <code>full</code> is <code>true</code>.
+	 * @since 3.9.2
+	 */
+	public void recordTypeStructures(IProject project, boolean full, IResource... resources) {
 		try {
 			w.lock();
 			Map<String, TypeStructure> typeStructures = null;
-			if (!typeStructuresByProject.containsKey(project)) {
+			if (full || !typeStructuresByProject.containsKey(project)) {
 				typeStructures = new ConcurrentHashMap<String, TypeStructure>();
 				typeStructuresByProject.put(project, typeStructures);
 			}
@@ -167,6 +181,36 @@ public class TypeStructureCache implements ITypeStructureCache {
 		}
 	}
 
+	/**
+	 * Returns the {@link StereotypeIndex} of the given project or <code>null</code> if none has been recorded yet.
+	 * @since 3.9.2
+	 */
+	public StereotypeIndex getStereotypeIndex(IProject project) {
+		return stereotypeIndexesByProject.get(project);
+	}
+
+	/**
+	 * Records the class-level annotations of the given class file <code>resources</code> in the
+	 * {@link StereotypeIndex} of the project.
+	 * <p>
+	 * Other than the type structures, which need to reflect the state of the previous build, the index is meant to be
+	 * updated at the start of a build so that configs reloaded during the build see the new class files.
+	 * @param full <code>true</code> if the <code>resources</code> are all class files of the project and the existing
+	 * index should be replaced
+	 * @since 3.9.2
+	 */
+	public void recordStereotypes(IProject project, boolean full, IResource... resources) {
+		StereotypeIndex index = (full ? null : stereotypeIndexesByProject.get(project));
+		if (index == null) {
+			index = new StereotypeIndex(project);
+			index.record(resources);
+			stereotypeIndexesByProject.put(project, index);
+		}
+		else {
+			index.record(resources);
+		}
+	}
+
 	/**
 	 * Check if a given {@link IResource} representing a class file has structural changes.
 	 */
@@ -217,6 +261,11 @@ public class TypeStructureCache implements ITypeStructureCache {
 	 * Removes cached type structures by the given className.
 	 */
 	protected void removeRecordedTyeStructures(IProject project, String className) {
+		StereotypeIndex index = stereotypeIndexesByProject.get(project);
+		if (index != null) {
+			index.remove(className);
+		}
+
 		try {
 			w.lock();
 			if (!hasRecordedTypeStructures(project)) {
@@ -636,6 +685,12 @@ public class TypeStructureCache implements ITypeStructureCache {
 			for (IJavaElementDelta delta : deltas) {
 				if (delta.getElement() instanceof IJavaProject) {
 					javaProject[0] = (IJavaProject) delta.getElement();
+					// drop everything recorded for closed and deleted projects
+					if (delta.getKind() == IJavaElementDelta.REMOVED
+							|| (delta.getFlags() & IJavaElementDelta.F_CLOSED) != 0) {
+						clearStateForProject(javaProject[0].getProject());
+						continue;
+					}
 				}
 				// process removed element
 				IJavaElementDelta[] removedDeltas = delta.getRemovedChildren();
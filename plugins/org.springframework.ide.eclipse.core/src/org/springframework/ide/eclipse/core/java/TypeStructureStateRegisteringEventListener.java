@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2009 Spring IDE Developers
+ * Copyright (c) 2008, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -32,6 +32,7 @@ import org.springframework.ide.eclipse.core.project.IProjectContributor;
 import org.springframework.ide.eclipse.core.project.IProjectContributorState;
 import org.springframework.ide.eclipse.core.project.ProjectBuilderDefinition;
 import org.springframework.ide.eclipse.core.project.ProjectContributionEventListenerAdapter;
+import org.springframework.ide.eclipse.core.type.asm.ClassFileCache;
 import org.springframework.util.ClassUtils;
 
 /**
@@ -48,6 +49,12 @@ public class TypeStructureStateRegisteringEventListener extends ProjectContribut
 	public void start(int kind, IResourceDelta delta, List<ProjectBuilderDefinition> builderDefinitions,
 			List<ValidatorDefinition> validatorDefinitions, IProjectContributorState state, IProject project) {
 		state.hold(new TypeStructureState());
+		try {
+			// Update the stereotype index and class file caches before any config gets reloaded during this build
+			updateClassFileState(kind, project, delta);
+		}
+		catch (CoreException e) {
+		}
 	}
 
 	/**
@@ -89,20 +96,46 @@ public class TypeStructureStateRegisteringEventListener extends ProjectContribut
 		}
 	}
 
+	/**
+	 * Updates the stereotype index for a given project from the same class files as the type structures and removes
+	 * the changed class files from the shared {@link ClassFileCache}s.
+	 */
+	private void updateClassFileState(int kind, IProject project, IResourceDelta delta) throws CoreException {
+		ITypeStructureCache typeStructureCache = SpringCore.getTypeStructureCache();
+		if (delta == null || kind == IncrementalProjectBuilder.FULL_BUILD
+				|| kind == IncrementalProjectBuilder.CLEAN_BUILD
+				|| typeStructureCache.getStereotypeIndex(project) == null) {
+			JavaResourceRecordingProjectContributor contributor = new JavaResourceRecordingProjectContributor();
+			ResourceTreeVisitor visitor = new ResourceTreeVisitor(contributor);
+			project.accept(visitor);
+			typeStructureCache.recordStereotypes(project, true,
+					visitor.getResources().toArray(new IResource[visitor.getResources().size()]));
+			ClassFileCache.invalidateAllClasses();
+		}
+		else {
+			JavaResourceRecordingProjectContributor contributor = new JavaResourceRecordingProjectContributor();
+			ResourceDeltaVisitor visitor = new ResourceDeltaVisitor(contributor, kind);
+			delta.accept(visitor);
+			if (visitor.getResources().size() > 0) {
+				typeStructureCache.recordStereotypes(project, false,
+						visitor.getResources().toArray(new IResource[visitor.getResources().size()]));
+				ClassFileCacheInvalidator.invalidateClasses(project, visitor.getResources());
+			}
+		}
+	}
+
 	/**
 	 * Records a complete snapshot of the type structure of all java class files in the given project.
 	 */
 	private void recoredFullTypeStructures(IProject project) throws CoreException {
-		// remove pre-existing state as we are doing a clean build
-		SpringCore.getTypeStructureCache().clearStateForProject(project);
-
 		// collect all java class files
 		JavaResourceRecordingProjectContributor contributor = new JavaResourceRecordingProjectContributor();
 		ResourceTreeVisitor visitor = new ResourceTreeVisitor(contributor);
 		project.accept(visitor);
 
-		// record type strcutures for all collected class files
-		SpringCore.getTypeStructureCache().recordTypeStructures(project,
+		// record type strcutures for all collected class files, replacing the pre-existing state as we are doing a
+		// clean build; the stereotype index recorded at the start of this build is kept
+		SpringCore.getTypeStructureCache().recordTypeStructures(project, true,
 				visitor.getResources().toArray(new IResource[visitor.getResources().size()]));
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2014 Spring IDE Developers
+ * Copyright (c) 2012, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,39 +11,123 @@
 package org.springframework.ide.eclipse.core.java.classreading;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.lang.ref.WeakReference;
 
 import org.eclipse.jdt.core.IJavaProject;
 import org.springframework.core.io.Resource;
 import org.springframework.core.type.classreading.MetadataReader;
 import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.ide.eclipse.core.type.asm.ClassFileCache;
+import org.springframework.util.ObjectUtils;
 
 /**
+ * {@link MetadataReaderFactory} that caches the {@link MetadataReader}s of a {@link JdtMetadataReaderFactory}.
+ * <p>
+ * All instances share one cache, keyed by project, class loader and class name, that is bounded by an estimated size
+ * of the readers; its maximum size in bytes can be set with the system property
+ * <code>org.springframework.ide.eclipse.core.java.classreading.metadataReaderCacheSize</code>. As metadata includes
+ * meta-annotations read from other class files, the cache is invalidated on any class file change. The keys only
+ * weakly reference the class loaders, and all readers, which use their class loader, are removed on classpath
+ * changes.
  * @author Martin Lippert
  * @since 3.2.0
  */
 public class CachingJdtMetadataReaderFactory implements MetadataReaderFactory {
-	
+
+	private static final long CACHE_SIZE = Long.getLong(
+			"org.springframework.ide.eclipse.core.java.classreading.metadataReaderCacheSize", 16 * 1024 * 1024);
+
+	/**
+	 * Estimated weight of a reader in bytes; readers are created from the Java model and their size mostly depends
+	 * on the number of annotated methods, which is not known without visiting them
+	 */
+	private static final int READER_WEIGHT = 4 * 1024;
+
+	private static final ClassFileCache<MetadataReaderKey, MetadataReader> METADATA_READER_CACHE =
+		new ClassFileCache<MetadataReaderKey, MetadataReader>("Metadata readers", CACHE_SIZE) {
+
+			@Override
+			protected int getWeight(MetadataReaderKey key, MetadataReader metadataReader) {
+				return READER_WEIGHT;
+			}
+
+			@Override
+			protected String getClassName(MetadataReaderKey key, MetadataReader metadataReader) {
+				return null;
+			}
+		};
+
 	private final JdtMetadataReaderFactory factory;
-	private final Map<String, MetadataReader> cache = new HashMap<String, MetadataReader>();
+	private final IJavaProject project;
+	private final ClassLoader classloader;
+
+	private final ClassFileCache.Loader<MetadataReaderKey, MetadataReader> loader =
+		new ClassFileCache.Loader<MetadataReaderKey, MetadataReader>() {
+
+			public MetadataReader load(MetadataReaderKey key) throws IOException {
+				return factory.getMetadataReader(key.className);
+			}
+		};
 	
 	public CachingJdtMetadataReaderFactory(IJavaProject project, ClassLoader classloader) {
 		this.factory = new JdtMetadataReaderFactory(project, classloader);
+		this.project = project;
+		this.classloader = classloader;
 	}
 
 	public MetadataReader getMetadataReader(String className) throws IOException {
-		synchronized(cache) {
-			if (!cache.containsKey(className)) {
-				cache.put(className, factory.getMetadataReader(className));
-			}
-		}
-		
-		return cache.get(className);
+		return METADATA_READER_CACHE.get(new MetadataReaderKey(project, classloader, className), loader);
 	}
 
 	public MetadataReader getMetadataReader(Resource resource) throws IOException {
 		throw new JdtMetadataReaderException("'getMetadataReader' is not supported");
 	}
 
+	/**
+	 * Returns the cache shared by all instances.
+	 * @since 3.9.2
+	 */
+	public static ClassFileCache<?, MetadataReader> getSharedCache() {
+		return METADATA_READER_CACHE;
+	}
+
+	private static class MetadataReaderKey {
+
+		private final IJavaProject project;
+
+		private final WeakReference<ClassLoader> classloader;
+
+		private final String className;
+
+		private final int hashCode;
+
+		public MetadataReaderKey(IJavaProject project, ClassLoader classloader, String className) {
+			this.project = project;
+			this.classloader = new WeakReference<ClassLoader>(classloader);
+			this.className = className;
+			this.hashCode = 31 * (31 * ObjectUtils.nullSafeHashCode(project) + System.identityHashCode(classloader))
+					+ className.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof MetadataReaderKey)) {
+				return false;
+			}
+			MetadataReaderKey that = (MetadataReaderKey) other;
+			ClassLoader classloader = this.classloader.get();
+			// keys of class loaders that have been collected only equal themselves
+			return classloader != null && classloader == that.classloader.get() && this.hashCode == that.hashCode
+					&& this.className.equals(that.className) && ObjectUtils.nullSafeEquals(this.project, that.project);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+
 }
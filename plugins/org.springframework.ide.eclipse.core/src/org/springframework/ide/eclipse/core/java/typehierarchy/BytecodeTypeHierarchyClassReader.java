@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2015 Spring IDE Developers
+ * Copyright (c) 2013, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -27,9 +27,11 @@ import org.springframework.ide.eclipse.core.SpringCore;
 public class BytecodeTypeHierarchyClassReader implements TypeHierarchyClassReader {
 	
 	private ClasspathLookup lookup;
+	private TypeNameTable typeNames;
 
-	public BytecodeTypeHierarchyClassReader(ClasspathLookup lookup) {
+	public BytecodeTypeHierarchyClassReader(ClasspathLookup lookup, TypeNameTable typeNames) {
 		this.lookup = lookup;
+		this.typeNames = typeNames;
 	}
 
 	public TypeHierarchyElement readTypeHierarchyInformation(char[] fullyQualifiedClassName, IProject project) {
@@ -68,101 +70,113 @@ public class BytecodeTypeHierarchyClassReader implements TypeHierarchyClassReade
 
 	public TypeHierarchyElement readTypeHierarchy(InputStream stream) {
 		try {
-			DataInputStream dis = new DataInputStream(new BufferedInputStream(stream));
-			int magic = dis.readInt(); // magic 0xCAFEBABE
-			if (magic != 0xCAFEBABE) {
-				throw new IllegalStateException("not bytecode, magic was 0x" + Integer.toString(magic, 16));
-			}
-			skip(dis, 4);
-			
-			int constantPoolCount = dis.readShort();
-			Object[] constantPoolData = new Object[constantPoolCount];
-			for (int i = 1; i < constantPoolCount; i++) {
-				int tag = dis.readByte();
-				switch (tag) {
-					case ClassFileConstants.Utf8Tag :
-						constantPoolData[i] = dis.readUTF();
-						break;
-					case ClassFileConstants.IntegerTag :
-						skip(dis, 4);
-						break;
-					case ClassFileConstants.FloatTag :
-						skip(dis, 4);
-						break;
-					case ClassFileConstants.LongTag :
-						skip(dis, 8);
-						i++;
-						break;
-					case ClassFileConstants.DoubleTag :
-						skip(dis, 8);
-						i++;
-						break;
-					case ClassFileConstants.ClassTag :
-						constantPoolData[i] = dis.readShort();
-						break;
-					case ClassFileConstants.StringTag :
-						skip(dis, 2);
-						break;
-					case ClassFileConstants.FieldRefTag :
-						skip(dis, 4);
-						break;
-					case ClassFileConstants.MethodRefTag :
-						skip(dis, 4);
-						break;
-					case ClassFileConstants.InterfaceMethodRefTag :
-						skip(dis, 4);
-						break;
-					case ClassFileConstants.NameAndTypeTag :
-						skip(dis, 4);
-						break;
-					case 15 : // ClassFileConstants.MethodHandleTag
-						skip(dis, 3);
-						break;
-					case 16 : // ClassFileConstants.MethodTypeTag
-						skip(dis, 2);
-						break;
-					case 18 : // ClassFileConstants.InvokeDynamicTag
-						skip(dis, 4);
-						break;
-				}
+			return readTypeHierarchyElement(stream, typeNames);
+		} catch(Exception e) {
+			SpringCore.log(e);
+		}
+		
+		return null;
+	}
+
+	/**
+	 * Reads the class name, superclass name and interface names from the given class file stream and
+	 * interns them into the given table.
+	 * In contrast to {@link #readTypeHierarchy(InputStream)} this method does not log problems, but
+	 * propagates them to the caller.
+	 * @since 3.9.2
+	 */
+	public static TypeHierarchyElement readTypeHierarchyElement(InputStream stream, TypeNameTable typeNames)
+			throws IOException {
+		DataInputStream dis = new DataInputStream(new BufferedInputStream(stream));
+		int magic = dis.readInt(); // magic 0xCAFEBABE
+		if (magic != 0xCAFEBABE) {
+			throw new IllegalStateException("not bytecode, magic was 0x" + Integer.toString(magic, 16));
+		}
+		skip(dis, 4);
+		
+		int constantPoolCount = dis.readShort();
+		Object[] constantPoolData = new Object[constantPoolCount];
+		for (int i = 1; i < constantPoolCount; i++) {
+			int tag = dis.readByte();
+			switch (tag) {
+				case ClassFileConstants.Utf8Tag :
+					constantPoolData[i] = dis.readUTF();
+					break;
+				case ClassFileConstants.IntegerTag :
+					skip(dis, 4);
+					break;
+				case ClassFileConstants.FloatTag :
+					skip(dis, 4);
+					break;
+				case ClassFileConstants.LongTag :
+					skip(dis, 8);
+					i++;
+					break;
+				case ClassFileConstants.DoubleTag :
+					skip(dis, 8);
+					i++;
+					break;
+				case ClassFileConstants.ClassTag :
+					constantPoolData[i] = dis.readShort();
+					break;
+				case ClassFileConstants.StringTag :
+					skip(dis, 2);
+					break;
+				case ClassFileConstants.FieldRefTag :
+					skip(dis, 4);
+					break;
+				case ClassFileConstants.MethodRefTag :
+					skip(dis, 4);
+					break;
+				case ClassFileConstants.InterfaceMethodRefTag :
+					skip(dis, 4);
+					break;
+				case ClassFileConstants.NameAndTypeTag :
+					skip(dis, 4);
+					break;
+				case 15 : // ClassFileConstants.MethodHandleTag
+					skip(dis, 3);
+					break;
+				case 16 : // ClassFileConstants.MethodTypeTag
+					skip(dis, 2);
+					break;
+				case 18 : // ClassFileConstants.InvokeDynamicTag
+					skip(dis, 4);
+					break;
 			}
-			
-			skip(dis, 2);
+		}
+		
+		skip(dis, 2);
 
-			// classname
-			short classNameIndex = dis.readShort();
-			short classNameUTF8index = (Short) constantPoolData[classNameIndex];
-			char[] className = ((String) constantPoolData[classNameUTF8index]).toCharArray();
+		// classname
+		short classNameIndex = dis.readShort();
+		short classNameUTF8index = (Short) constantPoolData[classNameIndex];
+		char[] className = ((String) constantPoolData[classNameUTF8index]).toCharArray();
 
-			// superclass name
-			short superclassNameIndex = dis.readShort();
-			char[] superclassName = null;
-			if (superclassNameIndex != 0) {
-				short superclassNameUTF8index = (Short) constantPoolData[superclassNameIndex];
-				superclassName = ((String) constantPoolData[superclassNameUTF8index]).toCharArray();
-			}
+		// superclass name
+		short superclassNameIndex = dis.readShort();
+		char[] superclassName = null;
+		if (superclassNameIndex != 0) {
+			short superclassNameUTF8index = (Short) constantPoolData[superclassNameIndex];
+			superclassName = ((String) constantPoolData[superclassNameUTF8index]).toCharArray();
+		}
 
-			// interfaces
-			short interfacesCount = dis.readShort();
-			char[][] interfaceNames = null;
-			if (interfacesCount != 0) {
-				interfaceNames = new char[interfacesCount][];
-				for (int i = 0; i < interfacesCount; i++) {
-					short interfaceNameIndex = dis.readShort();
-					short interfaceNameUTF8index = (Short) constantPoolData[interfaceNameIndex];
-					interfaceNames[i] = ((String) constantPoolData[interfaceNameUTF8index]).toCharArray();
-				}
+		// interfaces
+		short interfacesCount = dis.readShort();
+		char[][] interfaceNames = null;
+		if (interfacesCount != 0) {
+			interfaceNames = new char[interfacesCount][];
+			for (int i = 0; i < interfacesCount; i++) {
+				short interfaceNameIndex = dis.readShort();
+				short interfaceNameUTF8index = (Short) constantPoolData[interfaceNameIndex];
+				interfaceNames[i] = ((String) constantPoolData[interfaceNameUTF8index]).toCharArray();
 			}
-			
-			return new TypeHierarchyElement(className, superclassName, interfaceNames);
-		} catch(Exception e) {
-			SpringCore.log(e);
 		}
 		
-		return null;
+		return new TypeHierarchyElement(typeNames, className, superclassName, interfaceNames);
 	}
 	
-	private void skip(InputStream stream, long n) throws IOException {
+	private static void skip(InputStream stream, long n) throws IOException {
 		long bytesToSkip = n;
 		do {
 			long skipped = stream.skip(bytesToSkip);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2015 Spring IDE Developers
+ * Copyright (c) 2013, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -19,14 +19,14 @@ import org.springframework.ide.eclipse.core.java.JdtUtils;
  */
 public class BytecodeTypeHierarchyClassReaderFactory implements TypeHierarchyClassReaderFactory {
 
-	public TypeHierarchyClassReader createClassReader(IProject project) {
+	public TypeHierarchyClassReader createClassReader(IProject project, TypeNameTable typeNames) {
 //		List<URL> urls = ProjectClassLoaderCache.getClassPathUrls(project, null);
 //		ClasspathLookup lookup = new ClasspathLookupDirect(urls.toArray(new URL[0]));
 		
 		ClassLoader loader = JdtUtils.getClassLoader(project, null);
 		ClasspathLookup lookup = new ClasspathLookupClassloader(loader);
 
-		return new BytecodeTypeHierarchyClassReader(lookup);
+		return new BytecodeTypeHierarchyClassReader(lookup, typeNames);
 	}
 
 }
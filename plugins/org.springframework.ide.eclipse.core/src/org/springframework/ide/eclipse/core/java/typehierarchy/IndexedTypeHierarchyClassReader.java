@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java.typehierarchy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.resources.IProject;
+import org.springframework.ide.eclipse.core.SpringCore;
+
+/**
+ * {@link TypeHierarchyClassReader} that walks the classpath of a project in order and serves classes from
+ * jar files out of the persistent {@link TypeHierarchyElementStore}. Output folders are read directly, and
+ * everything that can't be found on the project classpath (e.g. classes of the boot classpath) is
+ * delegated to the given fallback reader.
+ * <p>
+ * The jar indexes are shared with the readers of all other projects. Each reader acquires the indexes it
+ * uses and releases them again when it is {@link #dispose() disposed}.
+ *
+ * @since 3.9.2
+ */
+public class IndexedTypeHierarchyClassReader implements TypeHierarchyClassReader {
+
+	private final TypeHierarchyElementStore store;
+	private final TypeHierarchyClassReader fallbackReader;
+	private final TypeNameTable typeNames;
+
+	private final File[] jars;
+	private final ClasspathElementDirectory[] directories;
+	private final TypeHierarchyJarIndex[] indexes;
+	private final boolean[] indexesResolved;
+
+	public IndexedTypeHierarchyClassReader(TypeHierarchyElementStore store, List<URL> classpath,
+			TypeHierarchyClassReader fallbackReader, TypeNameTable typeNames) {
+		this.store = store;
+		this.fallbackReader = fallbackReader;
+		this.typeNames = typeNames;
+
+		List<File> jars = new ArrayList<File>();
+		List<ClasspathElementDirectory> directories = new ArrayList<ClasspathElementDirectory>();
+
+		Set<URL> usedURLs = new HashSet<URL>();
+		for (URL url : classpath) {
+			if (usedURLs.add(url)) {
+				try {
+					File file = new File(url.toURI());
+					// like the URLClassLoader used by the fallback reader, treat everything that is not a
+					// directory as an archive, so that .zip files and the like are indexed as well
+					if (!isDirectory(url, file)) {
+						jars.add(file);
+						directories.add(null);
+					}
+					else {
+						jars.add(null);
+						directories.add(new ClasspathElementDirectory(file));
+					}
+				}
+				catch (Exception e) {
+					SpringCore.log(e);
+				}
+			}
+		}
+
+		this.jars = jars.toArray(new File[jars.size()]);
+		this.directories = directories.toArray(new ClasspathElementDirectory[directories.size()]);
+		this.indexes = new TypeHierarchyJarIndex[this.jars.length];
+		this.indexesResolved = new boolean[this.jars.length];
+	}
+
+	public TypeHierarchyElement readTypeHierarchyInformation(char[] fullyQualifiedClassName, IProject project) {
+		String fullyQualifiedClassFileName = null;
+		String packageName = "";
+		String className = null;
+
+		for (int i = 0; i < jars.length; i++) {
+			if (jars[i] != null) {
+				TypeHierarchyJarIndex index = getIndex(i);
+				if (index != null) {
+					TypeHierarchyElement element = index.getTypeHierarchyElement(fullyQualifiedClassName, typeNames);
+					if (element != null) {
+						return element;
+					}
+				}
+			}
+			else {
+				if (fullyQualifiedClassFileName == null) {
+					fullyQualifiedClassFileName = new String(fullyQualifiedClassName) + ".class";
+					className = fullyQualifiedClassFileName;
+					int lastIndexOf = fullyQualifiedClassFileName.lastIndexOf('/');
+					if (lastIndexOf > -1) {
+						packageName = fullyQualifiedClassFileName.substring(0, lastIndexOf);
+						className = fullyQualifiedClassFileName.substring(lastIndexOf + 1);
+					}
+				}
+
+				TypeHierarchyElement element = readFromDirectory(directories[i], fullyQualifiedClassFileName, packageName, className);
+				if (element != null) {
+					return element;
+				}
+			}
+		}
+
+		return fallbackReader.readTypeHierarchyInformation(fullyQualifiedClassName, project);
+	}
+
+	public void cleanup() {
+		for (ClasspathElementDirectory directory : directories) {
+			if (directory != null) {
+				directory.cleanup();
+			}
+		}
+		fallbackReader.cleanup();
+	}
+
+	/**
+	 * Releases the shared jar indexes used by this reader. The reader must not be used afterwards.
+	 */
+	public void dispose() {
+		synchronized (indexes) {
+			for (int i = 0; i < indexes.length; i++) {
+				if (indexes[i] != null) {
+					store.releaseIndex(indexes[i], typeNames);
+					indexes[i] = null;
+				}
+				indexesResolved[i] = false;
+			}
+		}
+	}
+
+	private static boolean isDirectory(URL url, File file) {
+		return url.getPath().endsWith("/") || file.isDirectory();
+	}
+
+	private TypeHierarchyJarIndex getIndex(int i) {
+		synchronized (indexes) {
+			if (!indexesResolved[i]) {
+				indexes[i] = store.acquireIndex(jars[i], typeNames);
+				indexesResolved[i] = true;
+			}
+			return indexes[i];
+		}
+	}
+
+	private TypeHierarchyElement readFromDirectory(ClasspathElementDirectory directory, String fullyQualifiedClassFileName,
+			String packageName, String className) {
+		InputStream stream = null;
+		try {
+			stream = directory.getStream(fullyQualifiedClassFileName, packageName, className);
+			if (stream != null) {
+				return BytecodeTypeHierarchyClassReader.readTypeHierarchyElement(stream, typeNames);
+			}
+		}
+		catch (Exception e) {
+			SpringCore.log(e);
+		}
+		finally {
+			if (stream != null) {
+				try {
+					stream.close();
+				} catch (IOException e) {
+					SpringCore.log(e);
+				}
+			}
+		}
+		return null;
+	}
+
+}
@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java.typehierarchy;
+
+import java.net.URL;
+import java.util.List;
+
+import org.eclipse.core.resources.IProject;
+import org.springframework.ide.eclipse.core.SpringCore;
+import org.springframework.ide.eclipse.core.java.ProjectClassLoaderCache;
+
+/**
+ * Creates {@link IndexedTypeHierarchyClassReader}s that use the workspace-wide {@link TypeHierarchyElementStore}.
+ * Falls back to plain {@link BytecodeTypeHierarchyClassReader}s if the store is disabled or not available.
+ *
+ * @since 3.9.2
+ */
+public class IndexedTypeHierarchyClassReaderFactory implements TypeHierarchyClassReaderFactory {
+
+	private final BytecodeTypeHierarchyClassReaderFactory bytecodeReaderFactory = new BytecodeTypeHierarchyClassReaderFactory();
+
+	public TypeHierarchyClassReader createClassReader(IProject project, TypeNameTable typeNames) {
+		TypeHierarchyClassReader reader = bytecodeReaderFactory.createClassReader(project, typeNames);
+
+		TypeHierarchyElementStore store = SpringCore.getTypeHierarchyElementStore();
+		if (store == null) {
+			return reader;
+		}
+
+		List<URL> classpath = ProjectClassLoaderCache.getClassPathUrls(project, null);
+		return new IndexedTypeHierarchyClassReader(store, classpath, reader, typeNames);
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013 Spring IDE Developers
+ * Copyright (c) 2013, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -18,6 +18,9 @@ import org.eclipse.core.resources.IProject;
  */
 public interface TypeHierarchyClassReaderFactory {
 	
-	public TypeHierarchyClassReader createClassReader(IProject project);
+	/**
+	 * Creates a reader for the given project that interns the names of the types it reads into the given table.
+	 */
+	public TypeHierarchyClassReader createClassReader(IProject project, TypeNameTable typeNames);
 
 }
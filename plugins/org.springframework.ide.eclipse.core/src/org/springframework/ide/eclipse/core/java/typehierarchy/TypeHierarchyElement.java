@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013 Spring IDE Developers
+ * Copyright (c) 2013, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,41 +10,93 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.core.java.typehierarchy;
 
-import java.util.Arrays;
-
 /**
  * Implementation that can hold type hierarchy information about Java class files.
  * Used to check if classes are related to each other in terms of their types.
+ * <p>
+ * Type names are not stored in the element itself, but interned in the {@link TypeNameTable} of the
+ * {@link TypeHierarchyEngine} that reads the element. The element only keeps the IDs of its own name,
+ * its superclass and its interfaces, which are only comparable with IDs of the same table.
  * 
  * @author Martin Lippert
  * @since 3.3.0
  */
 public class TypeHierarchyElement {
 	
-	public final char[] className;
-	public final char[] superclassName;
+	public final TypeNameTable typeNames;
+	
+	public final int classNameId;
+	public final int superclassNameId; // TypeNameTable.NO_TYPE if there is no superclass
 	public TypeHierarchyElement superclassElement; // lazy set
 	
-	public final char[][] interfaces;
+	public final int[] interfaceIds; // null if there are no interfaces
 	public TypeHierarchyElement[] interfacesElements; // array initialized, but elements being set lazy
 	
-	public TypeHierarchyElement(char[] className, char[] superclassName, char[][] interfaces) {
+	/**
+	 * Shared elements are used by multiple projects at the same time (see {@link TypeHierarchyJarIndex}).
+	 * Their supertypes can resolve differently depending on the classpath of the project, therefore the
+	 * lazy superclass and interface elements are never set for them.
+	 */
+	public final boolean shared;
+	
+	public TypeHierarchyElement(TypeNameTable typeNames, char[] className, char[] superclassName, char[][] interfaces) {
+		this(typeNames, className, superclassName, interfaces, false);
+	}
+	
+	public TypeHierarchyElement(TypeNameTable typeNames, char[] className, char[] superclassName, char[][] interfaces,
+			boolean shared) {
+		this(typeNames, typeNames.intern(className),
+				superclassName != null ? typeNames.intern(superclassName) : TypeNameTable.NO_TYPE,
+				internAll(typeNames, interfaces), shared);
+	}
+	
+	public TypeHierarchyElement(TypeNameTable typeNames, int classNameId, int superclassNameId, int[] interfaceIds,
+			boolean shared) {
 		super();
-		this.className = className;
-		this.superclassName = superclassName;
+		this.typeNames = typeNames;
+		this.classNameId = classNameId;
+		this.superclassNameId = superclassNameId;
+		this.shared = shared;
 		
-		this.interfaces = interfaces;
-		if (this.interfaces != null) {
-			this.interfacesElements = new TypeHierarchyElement[this.interfaces.length];
+		this.interfaceIds = interfaceIds;
+		if (this.interfaceIds != null && !shared) {
+			this.interfacesElements = new TypeHierarchyElement[this.interfaceIds.length];
 		}
 	}
 	
+	public char[] getClassName() {
+		return typeNames.getName(classNameId);
+	}
+	
+	public char[] getSuperclassName() {
+		return typeNames.getName(superclassNameId);
+	}
+	
+	public char[][] getInterfaces() {
+		if (interfaceIds == null) {
+			return null;
+		}
+		char[][] result = new char[interfaceIds.length][];
+		for (int i = 0; i < interfaceIds.length; i++) {
+			result[i] = typeNames.getName(interfaceIds[i]);
+		}
+		return result;
+	}
+	
+	private static int[] internAll(TypeNameTable typeNames, char[][] names) {
+		if (names == null) {
+			return null;
+		}
+		int[] result = new int[names.length];
+		for (int i = 0; i < names.length; i++) {
+			result[i] = typeNames.intern(names[i]);
+		}
+		return result;
+	}
+	
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = prime * result + Arrays.hashCode(className);
-		return result;
+		return 31 + classNameId;
 	}
 
 	@Override
@@ -56,9 +108,7 @@ public class TypeHierarchyElement {
 		if (getClass() != obj.getClass())
 			return false;
 		TypeHierarchyElement other = (TypeHierarchyElement) obj;
-		if (!Arrays.equals(className, other.className))
-			return false;
-		return true;
+		return classNameId == other.classNameId;
 	}
 
 }
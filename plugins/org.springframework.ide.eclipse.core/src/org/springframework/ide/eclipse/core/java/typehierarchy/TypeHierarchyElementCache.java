@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013 Spring IDE Developers
+ * Copyright (c) 2013, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,6 +14,9 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * Per-project cache of {@link TypeHierarchyElement}s, keyed by the ID of the type name in the
+ * {@link TypeNameTable} of the owning {@link TypeHierarchyEngine}.
+ * 
  * @author Martin Lippert
  * @since 3.3.0
  */
@@ -25,20 +28,12 @@ public class TypeHierarchyElementCache {
 		this.cache = new ConcurrentHashMap<Integer, TypeHierarchyElement>();
 	}
 
-	public TypeHierarchyElement get(char[] fullyQualifiedClassName) {
-		return cache.get(charArrayToHashcode(fullyQualifiedClassName));
+	public TypeHierarchyElement get(int typeNameId) {
+		return cache.get(typeNameId);
 	}
 
-	public void put(char[] fullyQualifiedClassName, TypeHierarchyElement typeElement) {
-		cache.put(charArrayToHashcode(fullyQualifiedClassName), typeElement);
-	}
-	
-	private int charArrayToHashcode(char[] characters) {
-		int h = 0;
-		for (int i = 0; i < characters.length; i++) {
-			h = 31*h + characters[i];
-		}
-        return h;
+	public void put(int typeNameId, TypeHierarchyElement typeElement) {
+		cache.put(typeNameId, typeElement);
 	}
 
 }
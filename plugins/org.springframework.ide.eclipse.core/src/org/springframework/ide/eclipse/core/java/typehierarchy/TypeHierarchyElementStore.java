@@ -0,0 +1,231 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java.typehierarchy;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.ide.eclipse.core.SpringCore;
+
+/**
+ * Workspace-wide, persistent store of {@link TypeHierarchyJarIndex} instances, one per jar file.
+ * <p>
+ * Each index is written to its own file inside the store directory and is keyed by the path, size and
+ * modification time of the jar (the same triple that is used by the package cache of
+ * {@link ClasspathElementJar}). Nothing is read at startup: an index file is memory-mapped the first time
+ * a class from the corresponding jar is requested, and it is re-created only if the jar has changed.
+ * <p>
+ * Readers {@link #acquireIndex(File, TypeNameTable) acquire} the indexes they use. An index that is released
+ * by its last reader is evicted, so that its mapping can be reclaimed and its file can be replaced or deleted.
+ * Files of jars that have been deleted or changed are removed by {@link #cleanup()}.
+ *
+ * @since 3.9.2
+ */
+public class TypeHierarchyElementStore {
+
+	public static final String ENABLE_PROPERTY = "org.springframework.ide.eclipse.core.java.enableTypeHierarchyStore";
+
+	private static final String INDEX_FILE_EXTENSION = ".thidx";
+
+	private final File directory;
+
+	private final ConcurrentMap<String, TypeHierarchyJarIndex> indexes;
+	private final ConcurrentMap<String, Object> locks;
+
+	public TypeHierarchyElementStore(File directory) {
+		this.directory = directory;
+		this.indexes = new ConcurrentHashMap<String, TypeHierarchyJarIndex>();
+		this.locks = new ConcurrentHashMap<String, Object>();
+	}
+
+	public static boolean isEnabled() {
+		return System.getProperty(ENABLE_PROPERTY, "true").equals("true");
+	}
+
+	/**
+	 * Returns the up-to-date index for the given jar file, creating and persisting it if necessary.
+	 * Returns <code>null</code> if the jar doesn't exist or can't be read.
+	 */
+	public TypeHierarchyJarIndex getIndex(File jar) {
+		String jarPath = jar.getAbsolutePath();
+		long lastModified = jar.lastModified();
+		long fileSize = jar.length();
+		if (lastModified == 0) {
+			return null;
+		}
+
+		TypeHierarchyJarIndex index = indexes.get(jarPath);
+		if (index != null && index.isUpToDate(jarPath, fileSize, lastModified)) {
+			return index;
+		}
+
+		synchronized (getLock(jarPath)) {
+			index = indexes.get(jarPath);
+			if (index != null && index.isUpToDate(jarPath, fileSize, lastModified)) {
+				return index;
+			}
+
+			File indexFile = getIndexFile(jar);
+			index = readIndex(indexFile);
+			if (index == null || !index.isUpToDate(jarPath, fileSize, lastModified)) {
+				index = createIndex(jar, indexFile, fileSize, lastModified);
+			}
+
+			if (index != null) {
+				indexes.put(jarPath, index);
+			}
+			else {
+				indexes.remove(jarPath);
+			}
+			return index;
+		}
+	}
+
+	/**
+	 * Returns the up-to-date index for the given jar file like {@link #getIndex(File)} and registers a user
+	 * of it that interns names into the given table. Returns <code>null</code> if the jar doesn't exist or
+	 * can't be read.
+	 */
+	public TypeHierarchyJarIndex acquireIndex(File jar, TypeNameTable typeNames) {
+		synchronized (getLock(jar.getAbsolutePath())) {
+			TypeHierarchyJarIndex index = getIndex(jar);
+			if (index != null) {
+				index.acquire(typeNames);
+			}
+			return index;
+		}
+	}
+
+	/**
+	 * Unregisters a user of the given index and evicts the index once it isn't used anymore.
+	 */
+	public void releaseIndex(TypeHierarchyJarIndex index, TypeNameTable typeNames) {
+		String jarPath = index.getJarPath();
+		synchronized (getLock(jarPath)) {
+			index.release(typeNames);
+			if (index.getReferenceCount() == 0) {
+				indexes.remove(jarPath, index);
+			}
+		}
+	}
+
+	/**
+	 * Deletes the index files of jars that don't exist anymore or have changed since their index has been
+	 * written, as well as index files in an outdated format.
+	 */
+	public void cleanup() {
+		File[] indexFiles = directory.listFiles();
+		if (indexFiles == null) {
+			return;
+		}
+		for (File indexFile : indexFiles) {
+			if (indexFile.getName().endsWith(INDEX_FILE_EXTENSION) && TypeHierarchyJarIndex.isObsolete(indexFile)) {
+				// fails if the file is still mapped on Windows, tried again next session
+				indexFile.delete();
+			}
+		}
+	}
+
+	/**
+	 * Releases all in-memory references to loaded indexes. The persisted index files are kept.
+	 */
+	public void clear() {
+		indexes.clear();
+	}
+
+	protected File getIndexFile(File jar) {
+		String jarPath = jar.getAbsolutePath();
+		return new File(directory, jar.getName() + "-" + Integer.toHexString(jarPath.hashCode()) + INDEX_FILE_EXTENSION);
+	}
+
+	protected TypeHierarchyJarIndex readIndex(File indexFile) {
+		if (!indexFile.isFile()) {
+			return null;
+		}
+
+		try {
+			RandomAccessFile file = new RandomAccessFile(indexFile, "r");
+			try {
+				FileChannel channel = file.getChannel();
+				// the mapping stays valid after the channel has been closed
+				ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+				return new TypeHierarchyJarIndex(buffer);
+			}
+			finally {
+				file.close();
+			}
+		}
+		catch (IOException e) {
+			// outdated format or partially written file, will be re-created
+			return null;
+		}
+	}
+
+	protected TypeHierarchyJarIndex createIndex(File jar, File indexFile, long fileSize, long lastModified) {
+		byte[] data;
+		try {
+			data = TypeHierarchyJarIndex.createIndexData(jar, fileSize, lastModified);
+		}
+		catch (IOException e) {
+			// not a valid jar, let the regular class lookup deal with it
+			return null;
+		}
+
+		try {
+			writeIndex(indexFile, data);
+		}
+		catch (IOException e) {
+			SpringCore.log("Error writing type hierarchy index for " + jar.getAbsolutePath(), e);
+		}
+
+		try {
+			return new TypeHierarchyJarIndex(ByteBuffer.wrap(data));
+		}
+		catch (IOException e) {
+			SpringCore.log(e);
+			return null;
+		}
+	}
+
+	private void writeIndex(File indexFile, byte[] data) throws IOException {
+		if (!directory.exists() && !directory.mkdirs()) {
+			throw new IOException("Unable to create directory " + directory);
+		}
+
+		// write to a temporary file first, so that a crash never leaves a partially written index behind
+		File tempFile = new File(directory, indexFile.getName() + ".tmp");
+		FileOutputStream out = new FileOutputStream(tempFile);
+		try {
+			out.write(data);
+		}
+		finally {
+			out.close();
+		}
+
+		if (indexFile.exists() && !indexFile.delete() || !tempFile.renameTo(indexFile)) {
+			// the old index might still be mapped (e.g. on Windows), try again next session
+			tempFile.delete();
+		}
+	}
+
+	private Object getLock(String jarPath) {
+		Object lock = new Object();
+		Object existingLock = locks.putIfAbsent(jarPath, lock);
+		return existingLock != null ? existingLock : lock;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2014 Spring IDE Developers
+ * Copyright (c) 2013, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,16 +11,23 @@
 package org.springframework.ide.eclipse.core.java.typehierarchy;
 
 import java.util.ArrayDeque;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IType;
-import org.eclipse.jdt.core.compiler.CharOperation;
+import org.springframework.ide.eclipse.core.java.TypeLookupListeners;
 
 /**
+ * Answers type hierarchy questions by reading the supertypes of classes from their class files.
+ * <p>
+ * The names of the types that have been read are interned into a {@link TypeNameTable} that is owned by the
+ * engine and dropped together with it. Queries only look up the names they are given, so asking for types
+ * that don't exist doesn't grow the table.
+ * 
  * @author Martin Lippert
  * @since 3.3.0
  */
@@ -31,8 +38,9 @@ public class TypeHierarchyEngine {
 	private TypeHierarchyClassReaderFactory classReaderFactory;
 	private TypeHierarchyElementCacheFactory elementCacheFactory;
 
-	private final Map<IProject, TypeHierarchyElementCache> cache;
-	private final Map<IProject, TypeHierarchyClassReader> readers;
+	private final ConcurrentMap<IProject, TypeHierarchyElementCache> cache;
+	private final ConcurrentMap<IProject, TypeHierarchyClassReader> readers;
+	private final TypeNameTable typeNames;
 
 	private final boolean autoCleanup;
 	
@@ -40,6 +48,7 @@ public class TypeHierarchyEngine {
 		this.autoCleanup = autoCleanup;
 		this.cache = new ConcurrentHashMap<IProject, TypeHierarchyElementCache>();
 		this.readers = new ConcurrentHashMap<IProject, TypeHierarchyClassReader>();
+		this.typeNames = new TypeNameTable();
 	}
 
 	public void setClassReaderFactory(TypeHierarchyClassReaderFactory classReaderFactory) {
@@ -65,7 +74,7 @@ public class TypeHierarchyEngine {
 
 	public void clearCache(IProject project) {
 		cleanup(project);
-		this.readers.remove(project);
+		dispose(this.readers.remove(project));
 		this.cache.remove(project);
 	}
 	
@@ -75,6 +84,14 @@ public class TypeHierarchyEngine {
 		}
 	}
 
+	/**
+	 * Returns the table the names of all types read by this engine are interned into.
+	 * @since 3.9.2
+	 */
+	public TypeNameTable getTypeNameTable() {
+		return typeNames;
+	}
+
 	public String getSupertype(IType type) {
 		IJavaElement ancestor = type.getAncestor(IJavaElement.JAVA_PROJECT);
 		if (ancestor != null && ancestor instanceof IJavaProject) {
@@ -89,8 +106,8 @@ public class TypeHierarchyEngine {
 		try {
 			TypeHierarchyElementCache elementCache = getTypeHierarchyElementCache(project);
 			TypeHierarchyElement typeElement = getTypeElement(typeName, project, elementCache);
-			if (typeElement != null && typeElement.superclassName != null) {
-				return new String(typeElement.superclassName).replace("/", ".");
+			if (typeElement != null && typeElement.superclassNameId != TypeNameTable.NO_TYPE) {
+				return new String(typeElement.getSuperclassName()).replace("/", ".");
 			}
 		}
 		finally {
@@ -104,10 +121,10 @@ public class TypeHierarchyEngine {
 		try {
 			TypeHierarchyElementCache elementCache = getTypeHierarchyElementCache(project);
 			TypeHierarchyElement typeElement = getTypeElement(typeName, project, elementCache);
-			if (typeElement != null && typeElement.interfaces != null) {
-				String[] result = new String[typeElement.interfaces.length];
+			if (typeElement != null && typeElement.interfaceIds != null) {
+				String[] result = new String[typeElement.interfaceIds.length];
 				for (int i = 0; i < result.length; i++) {
-					result[i] = new String(typeElement.interfaces[i]).replace("/", ".");;
+					result[i] = new String(typeNames.getName(typeElement.interfaceIds[i])).replace("/", ".");
 				}
 				return result;
 			}
@@ -128,37 +145,37 @@ public class TypeHierarchyEngine {
 	}
 	
 	public boolean doesExtend(String type, String className, IProject project) {
+		TypeLookupListeners.fireTypeLookedUp(project, type);
 		char[] typeName = type.replace('.', '/').toCharArray();
 		char[] superTypeName = className.replace('.',  '/').toCharArray();
+		if (Arrays.equals(typeName, superTypeName)) {
+			return true;
+		}
 	
 		TypeHierarchyElementCache elementCache = getTypeHierarchyElementCache(project);
 		
 		try {
-			TypeHierarchyElement typeElement = null;
-			TypeHierarchyElement previousTypeElement = null;
+			TypeHierarchyElement typeElement = getTypeElement(typeName, project, elementCache);
+			int superTypeNameId = TypeNameTable.NO_TYPE;
 
-			do {
-				if (CharOperation.equals(typeName, superTypeName)) {
+			while (typeElement != null && typeElement.superclassNameId != TypeNameTable.NO_TYPE) {
+				// the name of the supertype is only known once a class referring to it has been read
+				if (superTypeNameId == TypeNameTable.NO_TYPE) {
+					superTypeNameId = typeNames.lookup(superTypeName);
+				}
+				if (typeElement.superclassNameId == superTypeNameId) {
 					return true;
 				}
-				else {
-					if (typeElement == null) {
-						typeElement = getTypeElement(typeName, project, elementCache);
-						if (previousTypeElement != null) {
-							previousTypeElement.superclassElement = typeElement;
-						}
-					}
-					previousTypeElement = typeElement;
 
-					if (typeElement != null) {
-						typeName = typeElement.superclassName;
-						typeElement = typeElement.superclassElement;
-					}
-					else {
-						typeName = null;
+				TypeHierarchyElement superclassElement = typeElement.superclassElement;
+				if (superclassElement == null) {
+					superclassElement = getTypeElement(typeElement.superclassNameId, project, elementCache);
+					if (!typeElement.shared) {
+						typeElement.superclassElement = superclassElement;
 					}
 				}
-			} while (typeName != null);
+				typeElement = superclassElement;
+			}
 		}
 		finally {
 			if (autoCleanup) cleanup(project);
@@ -176,15 +193,17 @@ public class TypeHierarchyEngine {
 	}
 	
 	public boolean doesImplement(final String type, final String interfaceName, IProject project) {
+		TypeLookupListeners.fireTypeLookedUp(project, type);
 		char[] classTypeName = type.replace('.', '/').toCharArray();
 		char[] interfaceTypeName = interfaceName.replace('.',  '/').toCharArray();
 
 		try {
 			TypeHierarchyElementCache elementCache = getTypeHierarchyElementCache(project);
+			TypeHierarchyElement classTypeElement = getTypeElement(classTypeName, project, elementCache);
 			
 			// cached items first
-			boolean result = doesImplement(project, classTypeName, interfaceTypeName, true, elementCache)
-					|| doesImplement(project, classTypeName, interfaceTypeName, false, elementCache);
+			boolean result = doesImplement(project, classTypeElement, interfaceTypeName, true, elementCache)
+					|| doesImplement(project, classTypeElement, interfaceTypeName, false, elementCache);
 			return result;
 		}
 		finally {
@@ -192,34 +211,41 @@ public class TypeHierarchyEngine {
 		}
 	}
 
-	protected boolean doesImplement(final IProject project, char[] classTypeName, final char[] interfaceTypeName,
-			final boolean cachedItemsOnly, TypeHierarchyElementCache elementCache) {
+	protected boolean doesImplement(final IProject project, TypeHierarchyElement classTypeElement,
+			final char[] interfaceTypeName, final boolean cachedItemsOnly, TypeHierarchyElementCache elementCache) {
 		
-		TypeHierarchyElement classTypeElement = getTypeElement(classTypeName, project, elementCache);
+		int classTypeNameId = TypeNameTable.NO_TYPE;
+		int interfaceTypeNameId = TypeNameTable.NO_TYPE;
 		do {
 			if (classTypeElement != null) {
-				if (classTypeElement.interfaces != null) {
+				if (classTypeElement.interfaceIds != null) {
 					ArrayDeque<TypeHierarchyElement> elementStack = new ArrayDeque<TypeHierarchyElement>();
 					elementStack.add(classTypeElement);
 
 					while (!elementStack.isEmpty()) {
 						TypeHierarchyElement element = elementStack.pop();
-						for (char[] interfaceToAnalyze : element.interfaces) {
-							if (CharOperation.equals(interfaceToAnalyze, interfaceTypeName)) {
+						// the name of the interface is only known once a type referring to it has been read
+						if (interfaceTypeNameId == TypeNameTable.NO_TYPE) {
+							interfaceTypeNameId = typeNames.lookup(interfaceTypeName);
+						}
+						for (int interfaceToAnalyze : element.interfaceIds) {
+							if (interfaceToAnalyze == interfaceTypeNameId) {
 								return true;
 							}
 						}
 
-						for (int i = 0; i < element.interfaces.length; i++) {
-							char[] interfaceToAnalyze = element.interfaces[i];
-							TypeHierarchyElement interfaceToAnalyzeElement = element.interfacesElements[i];
+						for (int i = 0; i < element.interfaceIds.length; i++) {
+							int interfaceToAnalyze = element.interfaceIds[i];
+							TypeHierarchyElement interfaceToAnalyzeElement = element.shared ? null : element.interfacesElements[i];
 
 							if (!cachedItemsOnly || interfaceToAnalyzeElement != null || elementCache.get(interfaceToAnalyze) != null) {
 								if (interfaceToAnalyzeElement == null) {
 									interfaceToAnalyzeElement = getTypeElement(interfaceToAnalyze, project, elementCache);
-									element.interfacesElements[i] = interfaceToAnalyzeElement;
+									if (!element.shared) {
+										element.interfacesElements[i] = interfaceToAnalyzeElement;
+									}
 								}
-								if (interfaceToAnalyzeElement != null && interfaceToAnalyzeElement.interfaces != null) {
+								if (interfaceToAnalyzeElement != null && interfaceToAnalyzeElement.interfaceIds != null) {
 									elementStack.add(interfaceToAnalyzeElement);
 								}
 							}
@@ -227,33 +253,51 @@ public class TypeHierarchyEngine {
 					}
 				}
 				
-				classTypeName = classTypeElement.superclassName;
+				classTypeNameId = classTypeElement.superclassNameId;
 				
 				TypeHierarchyElement superClassTypeElement = classTypeElement.superclassElement;
-				if (superClassTypeElement == null && classTypeName != null && (!cachedItemsOnly || elementCache.get(classTypeName) != null)) {
-					superClassTypeElement = getTypeElement(classTypeName, project, elementCache);
-					classTypeElement.superclassElement = superClassTypeElement;
+				if (superClassTypeElement == null && classTypeNameId != TypeNameTable.NO_TYPE
+						&& (!cachedItemsOnly || elementCache.get(classTypeNameId) != null)) {
+					superClassTypeElement = getTypeElement(classTypeNameId, project, elementCache);
+					if (!classTypeElement.shared) {
+						classTypeElement.superclassElement = superClassTypeElement;
+					}
 				}
 				
 				classTypeElement = superClassTypeElement;
 				
-				if (cachedItemsOnly && classTypeName != null && classTypeElement == null && elementCache.get(classTypeName) == null) {
-					classTypeName = null;
+				if (cachedItemsOnly && classTypeNameId != TypeNameTable.NO_TYPE && classTypeElement == null
+						&& elementCache.get(classTypeNameId) == null) {
+					classTypeNameId = TypeNameTable.NO_TYPE;
 				}
 			}
 			else {
-				classTypeName = null;
+				classTypeNameId = TypeNameTable.NO_TYPE;
 			}
-		} while (classTypeName != null);
+		} while (classTypeNameId != TypeNameTable.NO_TYPE);
 		return false;
 	}
 	
-	private TypeHierarchyElement getTypeElement(char[] fullyQualifiedClassName, IProject project, TypeHierarchyElementCache elementCache) {
-		TypeHierarchyElement result = elementCache.get(fullyQualifiedClassName);
+	private TypeHierarchyElement getTypeElement(char[] typeName, IProject project, TypeHierarchyElementCache elementCache) {
+		int typeNameId = typeNames.lookup(typeName);
+		if (typeNameId != TypeNameTable.NO_TYPE) {
+			return getTypeElement(typeNameId, project, elementCache);
+		}
+
+		// never read before, so it can't be cached either; only the name read from the class file is interned
+		TypeHierarchyElement result = getClassReader(project).readTypeHierarchyInformation(typeName, project);
+		if (result != null) {
+			elementCache.put(result.classNameId, result);
+		}
+		return result;
+	}
+
+	private TypeHierarchyElement getTypeElement(int typeNameId, IProject project, TypeHierarchyElementCache elementCache) {
+		TypeHierarchyElement result = elementCache.get(typeNameId);
 		if (result == null) {
-			result = getClassReader(project).readTypeHierarchyInformation(fullyQualifiedClassName, project);
+			result = getClassReader(project).readTypeHierarchyInformation(typeNames.getName(typeNameId), project);
 			if (result != null) {
-				elementCache.put(fullyQualifiedClassName, result);
+				elementCache.put(typeNameId, result);
 			}
 		}
 		return result;
@@ -262,8 +306,11 @@ public class TypeHierarchyEngine {
 	protected TypeHierarchyElementCache getTypeHierarchyElementCache(IProject project) {
 		TypeHierarchyElementCache elementCache = this.cache.get(project);
 		if (elementCache == null) {
-			elementCache = this.elementCacheFactory.createTypeHierarchyElementCache();
-			this.cache.put(project, elementCache);
+			TypeHierarchyElementCache newElementCache = this.elementCacheFactory.createTypeHierarchyElementCache();
+			elementCache = this.cache.putIfAbsent(project, newElementCache);
+			if (elementCache == null) {
+				elementCache = newElementCache;
+			}
 		}
 		return elementCache;
 	}
@@ -271,10 +318,24 @@ public class TypeHierarchyEngine {
 	private TypeHierarchyClassReader getClassReader(IProject project) {
 		TypeHierarchyClassReader result = this.readers.get(project);
 		if (result == null) {
-			result = classReaderFactory.createClassReader(project);
-			this.readers.put(project, result);
+			TypeHierarchyClassReader newReader = classReaderFactory.createClassReader(project, typeNames);
+			result = this.readers.putIfAbsent(project, newReader);
+			if (result == null) {
+				result = newReader;
+			}
+			else {
+				// another thread created a reader for the project concurrently, release the one we don't use
+				newReader.cleanup();
+				dispose(newReader);
+			}
 		}
 		return result;
 	}
 
+	private static void dispose(TypeHierarchyClassReader reader) {
+		if (reader instanceof IndexedTypeHierarchyClassReader) {
+			((IndexedTypeHierarchyClassReader) reader).dispose();
+		}
+	}
+
 }
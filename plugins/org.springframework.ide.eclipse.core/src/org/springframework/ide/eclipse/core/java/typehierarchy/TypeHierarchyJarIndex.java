@@ -0,0 +1,382 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java.typehierarchy;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+
+/**
+ * Read-only index of the type hierarchy information of all classes inside a single jar file.
+ * <p>
+ * The index is backed by a {@link ByteBuffer} (usually memory-mapped from the
+ * {@link TypeHierarchyElementStore}) and is never decoded as a whole. Lookups do a binary search over
+ * the sorted class names directly on the buffer and decode only the matching record, so the jar itself
+ * doesn't need to be opened as long as its size and modification time are unchanged.
+ * <p>
+ * Layout of the data (version 1):
+ * <pre>
+ * int magic, int version, long fileSize, long lastModified, name jarPath, int classCount,
+ * int[classCount] record offsets (sorted by class name, relative to the first record),
+ * records: name className, name superclassName, int interfaceCount, name[interfaceCount] interfaces
+ * </pre>
+ * where a name is written as its length followed by its chars, and a length of <code>-1</code>
+ * represents <code>null</code>.
+ * <p>
+ * A single index instance is shared by all projects that have the jar on their classpath. Decoded elements
+ * are cached per {@link TypeNameTable} and handed out as {@link TypeHierarchyElement#shared shared}
+ * elements, so that every class of the jar exists only once per {@link TypeHierarchyEngine}, no matter how
+ * many projects use it. Users of the index have to {@link #acquire(TypeNameTable)} and
+ * {@link #release(TypeNameTable)} it with the table they intern names into; the elements decoded for a table
+ * are dropped as soon as the last user of that table released the index.
+ *
+ * @since 3.9.2
+ */
+public class TypeHierarchyJarIndex {
+
+	public static final int MAGIC = 0x54484958; // "THIX"
+	public static final int VERSION = 1;
+
+	private final ByteBuffer buffer;
+
+	private final String jarPath;
+	private final long fileSize;
+	private final long lastModified;
+
+	private final int classCount;
+	private final int offsetsStart;
+	private final int recordsStart;
+
+	private final ConcurrentMap<TypeNameTable, SharedElements> sharedElements; // modified while holding this
+	private int references; // guarded by this
+
+	/**
+	 * Creates the index on top of the given data.
+	 * @throws IOException if the data is not a valid index in the current format version
+	 */
+	public TypeHierarchyJarIndex(ByteBuffer buffer) throws IOException {
+		this.buffer = buffer;
+		this.sharedElements = new ConcurrentHashMap<TypeNameTable, SharedElements>();
+		try {
+			if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+				throw new IOException("unknown type hierarchy index format");
+			}
+			this.fileSize = buffer.getLong(8);
+			this.lastModified = buffer.getLong(16);
+			this.jarPath = new String(readName(24));
+			int pos = 24 + nameLength(24);
+			this.classCount = buffer.getInt(pos);
+			this.offsetsStart = pos + 4;
+			this.recordsStart = offsetsStart + 4 * classCount;
+			if (classCount < 0 || recordsStart > buffer.limit()) {
+				throw new IOException("corrupt type hierarchy index for " + jarPath);
+			}
+		}
+		catch (IndexOutOfBoundsException e) {
+			throw new IOException("truncated type hierarchy index", e);
+		}
+	}
+
+	public String getJarPath() {
+		return jarPath;
+	}
+
+	public int getClassCount() {
+		return classCount;
+	}
+
+	/**
+	 * Returns <code>true</code> if the index has been created for the jar file in the given state.
+	 */
+	public boolean isUpToDate(String jarPath, long fileSize, long lastModified) {
+		return this.fileSize == fileSize && this.lastModified == lastModified && this.jarPath.equals(jarPath);
+	}
+
+	/**
+	 * Registers a new user of this index that interns names into the given table.
+	 */
+	public synchronized void acquire(TypeNameTable typeNames) {
+		SharedElements shared = sharedElements.get(typeNames);
+		if (shared == null) {
+			shared = new SharedElements();
+			sharedElements.put(typeNames, shared);
+		}
+		shared.references++;
+		references++;
+	}
+
+	/**
+	 * Unregisters a user of this index and drops the elements decoded for the given table once the index is
+	 * not used with that table anymore.
+	 * @throws IllegalStateException if the index is released more often than it has been acquired
+	 */
+	public synchronized void release(TypeNameTable typeNames) {
+		SharedElements shared = sharedElements.get(typeNames);
+		if (shared == null) {
+			throw new IllegalStateException("type hierarchy index for " + jarPath + " released more often than acquired");
+		}
+		if (--shared.references == 0) {
+			sharedElements.remove(typeNames);
+		}
+		references--;
+	}
+
+	public synchronized int getReferenceCount() {
+		return references;
+	}
+
+	public boolean contains(char[] fullyQualifiedClassName) {
+		return find(fullyQualifiedClassName) >= 0;
+	}
+
+	/**
+	 * Returns the shared {@link TypeHierarchyElement} for the given class (in slash notation) with its names
+	 * interned into the given table, or <code>null</code> if the jar doesn't contain such a class. Elements
+	 * are only cached while the index is acquired for the table.
+	 */
+	public TypeHierarchyElement getTypeHierarchyElement(char[] fullyQualifiedClassName, TypeNameTable typeNames) {
+		SharedElements shared = sharedElements.get(typeNames);
+		String key = new String(fullyQualifiedClassName);
+		if (shared != null) {
+			TypeHierarchyElement element = shared.elements.get(key);
+			if (element != null) {
+				return element;
+			}
+		}
+
+		int record = find(fullyQualifiedClassName);
+		if (record < 0) {
+			return null;
+		}
+
+		TypeHierarchyElement element = readTypeHierarchyElement(record, typeNames);
+		if (shared != null) {
+			TypeHierarchyElement existingElement = shared.elements.putIfAbsent(key, element);
+			if (existingElement != null) {
+				return existingElement;
+			}
+		}
+		return element;
+	}
+
+	private TypeHierarchyElement readTypeHierarchyElement(int record, TypeNameTable typeNames) {
+		int pos = record;
+		char[] className = readName(pos);
+		pos += nameLength(pos);
+
+		char[] superclassName = readName(pos);
+		pos += nameLength(pos);
+
+		int interfacesCount = buffer.getInt(pos);
+		pos += 4;
+		char[][] interfaces = null;
+		if (interfacesCount > 0) {
+			interfaces = new char[interfacesCount][];
+			for (int i = 0; i < interfacesCount; i++) {
+				interfaces[i] = readName(pos);
+				pos += nameLength(pos);
+			}
+		}
+		return new TypeHierarchyElement(typeNames, className, superclassName, interfaces, true);
+	}
+
+	private int find(char[] name) {
+		int low = 0;
+		int high = classCount - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int record = recordsStart + buffer.getInt(offsetsStart + 4 * mid);
+			int cmp = compareName(record, name);
+			if (cmp < 0) {
+				low = mid + 1;
+			}
+			else if (cmp > 0) {
+				high = mid - 1;
+			}
+			else {
+				return record;
+			}
+		}
+		return -1;
+	}
+
+	private int compareName(int pos, char[] name) {
+		int length = buffer.getInt(pos);
+		int common = Math.min(length, name.length);
+		for (int i = 0; i < common; i++) {
+			char c = buffer.getChar(pos + 4 + 2 * i);
+			if (c != name[i]) {
+				return c - name[i];
+			}
+		}
+		return length - name.length;
+	}
+
+	private char[] readName(int pos) {
+		int length = buffer.getInt(pos);
+		if (length < 0) {
+			return null;
+		}
+		char[] result = new char[length];
+		for (int i = 0; i < length; i++) {
+			result[i] = buffer.getChar(pos + 4 + 2 * i);
+		}
+		return result;
+	}
+
+	private int nameLength(int pos) {
+		int length = buffer.getInt(pos);
+		return 4 + (length > 0 ? 2 * length : 0);
+	}
+
+	/**
+	 * Returns <code>true</code> if the given index file has been written in an unknown format version or for a
+	 * jar file that doesn't exist anymore or has changed since. Only the header of the file is read.
+	 */
+	public static boolean isObsolete(File indexFile) {
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+			try {
+				if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+					return true;
+				}
+				long fileSize = in.readLong();
+				long lastModified = in.readLong();
+				int length = in.readInt();
+				if (length < 0 || length > Short.MAX_VALUE) {
+					return true;
+				}
+				char[] jarPath = new char[length];
+				for (int i = 0; i < length; i++) {
+					jarPath[i] = in.readChar();
+				}
+				File jar = new File(new String(jarPath));
+				return jar.lastModified() != lastModified || jar.length() != fileSize;
+			}
+			finally {
+				in.close();
+			}
+		}
+		catch (IOException e) {
+			// partially written or unreadable file
+			return true;
+		}
+	}
+
+	/**
+	 * Reads the type hierarchy information of all classes inside the given jar file and returns
+	 * the serialized index data.
+	 */
+	public static byte[] createIndexData(File jar, long fileSize, long lastModified) throws IOException {
+		Map<String, TypeHierarchyElement> elements = new TreeMap<String, TypeHierarchyElement>();
+		TypeNameTable typeNames = new TypeNameTable();
+
+		JarFile jarFile = new JarFile(jar);
+		try {
+			for (Enumeration<? extends ZipEntry> e = jarFile.entries(); e.hasMoreElements();) {
+				ZipEntry entry = e.nextElement();
+				String entryName = entry.getName();
+				if (entry.isDirectory() || !entryName.endsWith(".class") || entryName.startsWith("META-INF/")
+						|| entryName.endsWith("module-info.class")) {
+					continue;
+				}
+
+				InputStream stream = jarFile.getInputStream(entry);
+				try {
+					TypeHierarchyElement element = BytecodeTypeHierarchyClassReader.readTypeHierarchyElement(stream, typeNames);
+					elements.put(entryName.substring(0, entryName.length() - ".class".length()), element);
+				}
+				catch (Exception ex) {
+					// broken class files are left out of the index, same as if they can't be read
+				}
+				finally {
+					stream.close();
+				}
+			}
+		}
+		finally {
+			jarFile.close();
+		}
+
+		ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(elements.size() * 128);
+		DataOutputStream records = new DataOutputStream(recordBytes);
+		int[] offsets = new int[elements.size()];
+		int i = 0;
+		for (Map.Entry<String, TypeHierarchyElement> entry : elements.entrySet()) {
+			offsets[i++] = records.size();
+			TypeHierarchyElement element = entry.getValue();
+			writeName(records, entry.getKey().toCharArray());
+			writeName(records, element.getSuperclassName());
+			char[][] interfaces = element.getInterfaces();
+			if (interfaces != null) {
+				records.writeInt(interfaces.length);
+				for (char[] interfaceName : interfaces) {
+					writeName(records, interfaceName);
+				}
+			}
+			else {
+				records.writeInt(0);
+			}
+		}
+		records.flush();
+
+		ByteArrayOutputStream result = new ByteArrayOutputStream(recordBytes.size() + offsets.length * 4 + 256);
+		DataOutputStream out = new DataOutputStream(result);
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeLong(fileSize);
+		out.writeLong(lastModified);
+		writeName(out, jar.getAbsolutePath().toCharArray());
+		out.writeInt(offsets.length);
+		for (int offset : offsets) {
+			out.writeInt(offset);
+		}
+		recordBytes.writeTo(out);
+		out.flush();
+		return result.toByteArray();
+	}
+
+	private static void writeName(DataOutputStream out, char[] name) throws IOException {
+		if (name == null) {
+			out.writeInt(-1);
+		}
+		else {
+			out.writeInt(name.length);
+			for (char c : name) {
+				out.writeChar(c);
+			}
+		}
+	}
+
+	/**
+	 * The elements decoded for one {@link TypeNameTable} and the number of users of that table.
+	 */
+	private static class SharedElements {
+
+		private final ConcurrentMap<String, TypeHierarchyElement> elements = new ConcurrentHashMap<String, TypeHierarchyElement>();
+		private int references; // guarded by the index
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014 Spring IDE Developers
+ * Copyright (c) 2014, 2016 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -37,7 +37,7 @@ public class TypeHierarchyStateRegisteringEventListener extends ProjectContribut
 //		System.out.println("type hierarchy engine created");
 
 		TypeHierarchyEngine engine = new TypeHierarchyEngine(false);
-		engine.setClassReaderFactory(new BytecodeTypeHierarchyClassReaderFactory());
+		engine.setClassReaderFactory(new IndexedTypeHierarchyClassReaderFactory());
 		engine.setTypeHierarchyElementCacheFactory(new DirectTypeHierarchyElementCacheFactory());
 		state.hold(engine);
 	}
@@ -48,7 +48,7 @@ public class TypeHierarchyStateRegisteringEventListener extends ProjectContribut
 	public void finish(int kind, IResourceDelta delta, List<ProjectBuilderDefinition> builderDefinitions,
 			List<ValidatorDefinition> validatorDefinitions, IProjectContributorState state, IProject project) {
 		TypeHierarchyEngine engine = state.get(TypeHierarchyEngine.class);
-		engine.cleanup();
+		engine.clearCache();
 	}
 
 	/**
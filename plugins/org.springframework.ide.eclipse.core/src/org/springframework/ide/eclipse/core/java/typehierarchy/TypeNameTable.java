@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java.typehierarchy;
+
+/**
+ * Table of interned type names (in slash notation). Each distinct name is stored exactly once and is
+ * identified by an <code>int</code> ID, so that {@link TypeHierarchyElement}s can refer to their
+ * supertypes by ID and hierarchy checks compare IDs instead of char arrays.
+ * <p>
+ * Every {@link TypeHierarchyEngine} owns its own table, which is dropped together with the engine. Only
+ * names read from class files and indexes are interned; queries use {@link #lookup(char[])}, so that names
+ * of types that don't exist never end up in the table.
+ * <p>
+ * The table is an open-addressing hash table of IDs plus parallel arrays of names and hash codes. Lookups
+ * don't lock: they only trust entries that have been published through the volatile size, and fall back
+ * to a synchronized lookup otherwise. New names are added under the table lock.
+ *
+ * @since 3.9.2
+ */
+public class TypeNameTable {
+
+	public static final int NO_TYPE = -1;
+
+	private final Object lock = new Object();
+
+	private volatile char[][] names = new char[256][];
+	private volatile int[] hashes = new int[256];
+	private volatile int[] table = new int[512]; // ID + 1, 0 marks an empty slot
+	private volatile int size = 0;
+
+	/**
+	 * Returns the ID of the given name, adding it to the table if necessary.
+	 */
+	public int intern(char[] name) {
+		int id = lookup(name);
+		if (id != NO_TYPE) {
+			return id;
+		}
+
+		synchronized (lock) {
+			int hash = hash(name);
+			id = find(table, names, hashes, size, name, hash);
+			if (id != NO_TYPE) {
+				return id;
+			}
+
+			id = size;
+			if (id == names.length) {
+				grow();
+			}
+			if ((id + 1) * 2 > table.length) {
+				rehash(table.length * 2);
+			}
+
+			names[id] = name.clone();
+			hashes[id] = hash;
+			insert(table, id, hash);
+			size = id + 1; // publishes the new entry to unsynchronized readers
+			return id;
+		}
+	}
+
+	/**
+	 * Returns the ID of the given name or {@link #NO_TYPE} if the name has never been interned.
+	 */
+	public int lookup(char[] name) {
+		int hash = hash(name);
+		int publishedSize = size;
+		int id = find(table, names, hashes, publishedSize, name, hash);
+		if (id != NO_TYPE) {
+			return id;
+		}
+
+		synchronized (lock) {
+			return find(table, names, hashes, size, name, hash);
+		}
+	}
+
+	/**
+	 * Returns the name for the given ID. The returned array is shared and must not be modified.
+	 */
+	public char[] getName(int id) {
+		if (id == NO_TYPE) {
+			return null;
+		}
+		char[] name = id < size ? names[id] : null;
+		if (name == null) {
+			synchronized (lock) {
+				name = names[id];
+			}
+		}
+		return name;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	private static int find(int[] table, char[][] names, int[] hashes, int publishedSize, char[] name, int hash) {
+		int mask = table.length - 1;
+		int slot = hash & mask;
+		while (true) {
+			int entry = table[slot];
+			if (entry == 0) {
+				return NO_TYPE;
+			}
+
+			int id = entry - 1;
+			if (id < publishedSize && id < hashes.length && hashes[id] == hash) {
+				char[] candidate = names[id];
+				if (candidate != null && equals(candidate, name)) {
+					return id;
+				}
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	private static void insert(int[] table, int id, int hash) {
+		int mask = table.length - 1;
+		int slot = hash & mask;
+		while (table[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		table[slot] = id + 1;
+	}
+
+	private void grow() {
+		int capacity = names.length * 2;
+
+		char[][] newNames = new char[capacity][];
+		System.arraycopy(names, 0, newNames, 0, size);
+		int[] newHashes = new int[capacity];
+		System.arraycopy(hashes, 0, newHashes, 0, size);
+
+		hashes = newHashes;
+		names = newNames;
+	}
+
+	private void rehash(int capacity) {
+		int[] newTable = new int[capacity];
+		for (int id = 0; id < size; id++) {
+			insert(newTable, id, hashes[id]);
+		}
+		table = newTable;
+	}
+
+	private static int hash(char[] name) {
+		int h = 0;
+		for (int i = 0; i < name.length; i++) {
+			h = 31 * h + name[i];
+		}
+		// spread the bits, since the table size is a power of two
+		return h ^ (h >>> 16);
+	}
+
+	private static boolean equals(char[] a, char[] b) {
+		if (a.length != b.length) {
+			return false;
+		}
+		for (int i = 0; i < a.length; i++) {
+			if (a[i] != b[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -22,6 +22,7 @@ import org.springframework.ide.eclipse.core.MarkerUtils;
 import org.springframework.ide.eclipse.core.SpringCore;
 import org.springframework.ide.eclipse.core.internal.model.validation.ValidationRuleDefinition;
 import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyEngine;
+import org.springframework.ide.eclipse.core.model.IModelElement;
 import org.springframework.ide.eclipse.core.model.IResourceModelElement;
 import org.springframework.ide.eclipse.core.model.ISourceModelElement;
 import org.springframework.ide.eclipse.core.project.IProjectContributorState;
@@ -42,6 +43,8 @@ public abstract class AbstractValidationContext implements IValidationContext, I
 
 	private ValidationRuleDefinition currentRuleDefinition;
 
+	private IModelElement currentElement;
+
 	private Set<ValidationProblem> problems;
 
 	private IResourceModelElement rootElement;
@@ -133,6 +136,15 @@ public abstract class AbstractValidationContext implements IValidationContext, I
 		currentRuleDefinition = ruleDefinition;
 	}
 
+	/**
+	 * Sets the element the current rule is validating. Problems reported afterwards carry the ID of that element in
+	 * the {@link IValidationProblemMarker#VALIDATED_ELEMENT_ID} attribute.
+	 * @since 3.9.2
+	 */
+	public void setCurrentElement(IModelElement element) {
+		currentElement = element;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -209,6 +221,10 @@ public abstract class AbstractValidationContext implements IValidationContext, I
 		List<ValidationProblemAttribute> attributeList = new ArrayList<ValidationProblemAttribute>(Arrays
 				.asList(attributes));
 		attributeList.add(new ValidationProblemAttribute(MarkerUtils.ELEMENT_ID_KEY, elementId));
+		if (currentElement != null) {
+			attributeList.add(new ValidationProblemAttribute(IValidationProblemMarker.VALIDATED_ELEMENT_ID,
+					currentElement.getElementID()));
+		}
 
 		return new ValidationProblem((currentRuleDefinition != null ? currentRuleDefinition.getId() : "UNKOWN"),
 				problemId, getSeverity(problemId, severity), message, element.getElementResource(), line, attributeList
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2014 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,18 +10,39 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.core.model.validation;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
 import org.springframework.ide.eclipse.core.MarkerUtils;
+import org.springframework.ide.eclipse.core.SpringCore;
 import org.springframework.ide.eclipse.core.internal.model.validation.ValidationRuleDefinition;
 import org.springframework.ide.eclipse.core.internal.model.validation.ValidationRuleDefinitionFactory;
+import org.springframework.ide.eclipse.core.internal.model.validation.ValidationRuleProfiler;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyEngine;
 import org.springframework.ide.eclipse.core.model.IModelElement;
 import org.springframework.ide.eclipse.core.model.IModelElementVisitor;
 import org.springframework.ide.eclipse.core.model.IResourceModelElement;
@@ -32,6 +53,11 @@ import org.springframework.ide.eclipse.core.project.IProjectContributorStateAwar
 /**
  * Base {@link IValidator} implementation that abstracts model visiting and provides implementation hooks for sub
  * classes.
+ * <p>
+ * Validators that {@link #supportsParallelValidation() support it} validate their affected resources concurrently on
+ * a shared {@link ForkJoinPool} if {@link SpringCore#USE_PARALLEL_VALIDATION} is enabled and all enabled rules are
+ * declared {@link ValidationRuleDefinition#isConcurrent() concurrent}. The problem markers of all resources are then
+ * created in a single workspace operation once validation has finished.
  * @author Torsten Juergeleit
  * @author Christian Dupuis
  * @author Martin Lippert
@@ -39,6 +65,12 @@ import org.springframework.ide.eclipse.core.project.IProjectContributorStateAwar
  */
 public abstract class AbstractValidator implements IValidator, IProjectContributorStateAware {
 
+	/** Interval in milliseconds in which progress of a parallel validation is reported */
+	private static final long PARALLEL_PROGRESS_INTERVAL = 200;
+
+	/** Pool shared by all validators that validate their resources in parallel */
+	private static ForkJoinPool validationPool;
+
 	/** Internal state object */
 	private IProjectContributorState contributorState;
 
@@ -78,13 +110,19 @@ public abstract class AbstractValidator implements IValidator, IProjectContribut
 	 */
 	public final void validate(Set<IResource> affectedResources, int kind, IProgressMonitor monitor)
 			throws CoreException {
+		if (affectedResources.size() > 1 && isParallelValidationEnabled(affectedResources)) {
+			validateInParallel(affectedResources, kind, monitor);
+			return;
+		}
+
 		SubProgressMonitor subMonitor = new SubProgressMonitor(monitor, affectedResources.size());
 		try {
 			for (IResource resource : affectedResources) {
 				String progressMessage = "Validating '" + resource.getFullPath().toString().substring(1) + "'";
 				reportProgress(progressMessage, subMonitor);
 
-				cleanup(resource, subMonitor);
+				Set<String> invocations = getInvocationsToValidate(resource);
+				cleanup(resource, invocations, subMonitor);
 				if (subMonitor.isCanceled()) {
 					throw new OperationCanceledException();
 				}
@@ -101,7 +139,8 @@ public abstract class AbstractValidator implements IValidator, IProjectContribut
 
 				Set<ValidationRuleDefinition> ruleDefinitions = getRuleDefinitions(resource);
 				if (rootElement != null && ruleDefinitions != null && ruleDefinitions.size() > 0) {
-					Set<ValidationProblem> problems = validate(callback, ruleDefinitions, subMonitor);
+					Set<ValidationProblem> problems = validate(resource, callback, ruleDefinitions, invocations,
+							subMonitor);
 					ValidationUtils.createProblemMarkers(resource, problems, getMarkerId());
 				}
 
@@ -119,6 +158,147 @@ public abstract class AbstractValidator implements IValidator, IProjectContribut
 		}
 	}
 
+	/**
+	 * Validates the given resources concurrently. Each resource is validated with its own lifecycle manager and
+	 * validation contexts; the problems are collected per resource and turned into markers in one
+	 * {@link IWorkspaceRunnable} at the end.
+	 */
+	private void validateInParallel(Set<IResource> affectedResources, int kind, IProgressMonitor monitor)
+			throws CoreException {
+		final IResource[] resources = affectedResources.toArray(new IResource[affectedResources.size()]);
+		final Map<IResource, Set<ValidationProblem>> problems = new ConcurrentHashMap<IResource, Set<ValidationProblem>>();
+		AtomicInteger validatedResources = new AtomicInteger();
+
+		// Workers only get to see the cancellation state; progress is reported from this thread
+		NullProgressMonitor workerMonitor = new NullProgressMonitor();
+
+		SubProgressMonitor subMonitor = new SubProgressMonitor(monitor, resources.length + 1);
+		try {
+			reportProgress("Validating " + resources.length + " resources", subMonitor);
+			ForkJoinTask<Void> task = getValidationPool().submit(
+					new ResourceValidationTask(resources, 0, resources.length, kind, problems, validatedResources,
+							workerMonitor));
+
+			int reportedResources = 0;
+			while (true) {
+				try {
+					task.get(PARALLEL_PROGRESS_INTERVAL, TimeUnit.MILLISECONDS);
+					break;
+				}
+				catch (TimeoutException e) {
+					int validated = validatedResources.get();
+					subMonitor.worked(validated - reportedResources);
+					reportedResources = validated;
+					reportProgress("Validated " + validated + " of " + resources.length + " resources", subMonitor);
+					if (subMonitor.isCanceled()) {
+						workerMonitor.setCanceled(true);
+					}
+				}
+				catch (InterruptedException e) {
+					workerMonitor.setCanceled(true);
+					Thread.currentThread().interrupt();
+					throw new OperationCanceledException();
+				}
+				catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof RuntimeException) {
+						throw (RuntimeException) cause;
+					}
+					if (cause instanceof Error) {
+						throw (Error) cause;
+					}
+					throw new CoreException(new Status(IStatus.ERROR, SpringCore.PLUGIN_ID, cause.getMessage(), cause));
+				}
+			}
+			subMonitor.worked(resources.length - reportedResources);
+			if (subMonitor.isCanceled()) {
+				throw new OperationCanceledException();
+			}
+
+			IWorkspaceRunnable markerCreation = new IWorkspaceRunnable() {
+
+				public void run(IProgressMonitor runMonitor) throws CoreException {
+					for (IResource resource : resources) {
+						cleanup(resource, getInvocationsToValidate(resource), runMonitor);
+					}
+					// Problems may be reported against other resources, so only create markers after the cleanup
+					for (IResource resource : resources) {
+						Set<ValidationProblem> resourceProblems = problems.get(resource);
+						if (resourceProblems != null) {
+							ValidationUtils.createProblemMarkers(resource, resourceProblems, getMarkerId());
+						}
+					}
+				}
+			};
+			reportProgress("Creating problem markers", subMonitor);
+			ResourcesPlugin.getWorkspace().run(markerCreation, null, IWorkspace.AVOID_UPDATE,
+					new SubProgressMonitor(subMonitor, 1));
+		}
+		finally {
+			subMonitor.done();
+		}
+	}
+
+	/**
+	 * Validates a single resource and returns the problems found, or <code>null</code> if the resource is not
+	 * validated at all. Called concurrently from the workers of the validation pool.
+	 */
+	private Set<ValidationProblem> validateResource(IResource resource, int kind, IProgressMonitor monitor) {
+		IValidationElementLifecycleManager callback = initValidationElementCallback(resource, kind);
+		try {
+			IResourceModelElement rootElement = callback.getRootElement();
+
+			// Check if resource model element is external to the workspace -> if so, do not validate the resource
+			if (rootElement == null || rootElement.isExternal()) {
+				return null;
+			}
+
+			Set<ValidationRuleDefinition> ruleDefinitions = getRuleDefinitions(resource);
+			if (ruleDefinitions != null && ruleDefinitions.size() > 0) {
+				return validate(resource, callback, ruleDefinitions, getInvocationsToValidate(resource), monitor);
+			}
+			return null;
+		}
+		finally {
+			callback.destroy();
+		}
+	}
+
+	private boolean isParallelValidationEnabled(Set<IResource> affectedResources) {
+		return supportsParallelValidation() && SpringCore.getDefault() != null
+				&& SpringCore.getDefault().getPluginPreferences().getBoolean(SpringCore.USE_PARALLEL_VALIDATION)
+				&& areRulesConcurrent(affectedResources);
+	}
+
+	/**
+	 * Returns <code>true</code> if all rules that are enabled for the given resources are declared concurrent. Rules
+	 * are contributed as singletons, so a single rule that is not known to be thread-safe makes the validator validate
+	 * its resources one after the other.
+	 */
+	private boolean areRulesConcurrent(Set<IResource> affectedResources) {
+		Set<IProject> projects = new HashSet<IProject>();
+		for (IResource resource : affectedResources) {
+			if (projects.add(resource.getProject())) {
+				Set<ValidationRuleDefinition> ruleDefinitions = getRuleDefinitions(resource);
+				if (ruleDefinitions != null) {
+					for (ValidationRuleDefinition ruleDefinition : ruleDefinitions) {
+						if (!ruleDefinition.isConcurrent()) {
+							return false;
+						}
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	private static synchronized ForkJoinPool getValidationPool() {
+		if (validationPool == null) {
+			validationPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+		}
+		return validationPool;
+	}
+
 	private IValidationElementLifecycleManager initValidationElementCallback(IResource resource, int kind) {
 		IValidationElementLifecycleManager callback = createValidationElementLifecycleManager();
 		if (callback instanceof IValidationElementLifecycleManagerExtension) {
@@ -128,8 +308,25 @@ public abstract class AbstractValidator implements IValidator, IProjectContribut
 		return callback;
 	}
 
-	private Set<ValidationProblem> validate(IValidationElementLifecycleManager callback,
-			Set<ValidationRuleDefinition> ruleDefinitions, SubProgressMonitor subMonitor) {
+	/**
+	 * Removes the markers of the given resource: all of them if <code>invocations</code> is <code>null</code>, only
+	 * those reported by the given rule invocations otherwise.
+	 */
+	private void cleanup(IResource resource, Set<String> invocations, IProgressMonitor monitor) throws CoreException {
+		if (invocations == null) {
+			cleanup(resource, monitor);
+		}
+		else {
+			ValidationUtils.deleteProblemMarkers(resource, getMarkerId(), invocations);
+		}
+	}
+
+	private Set<ValidationProblem> validate(IResource resource, IValidationElementLifecycleManager callback,
+			Set<ValidationRuleDefinition> ruleDefinitions, Set<String> invocations, IProgressMonitor subMonitor) {
+		ValidationDependencyGraph dependencyGraph = getDependencyGraph(resource);
+		Map<String, Set<String>> dependencies = (dependencyGraph != null ? new HashMap<String, Set<String>>() : null);
+		Map<String, Set<String>> supertypes = (dependencyGraph != null ? new HashMap<String, Set<String>>() : null);
+
 		Set<ValidationProblem> problems = new LinkedHashSet<ValidationProblem>();
 		for (IResourceModelElement contextElement : callback.getContextElements()) {
 			IValidationContext context = createContext(callback.getRootElement(), contextElement);
@@ -138,7 +335,8 @@ public abstract class AbstractValidator implements IValidator, IProjectContribut
 			}
 
 			if (context != null) {
-				IModelElementVisitor visitor = new ValidationVisitor(context, ruleDefinitions);
+				IModelElementVisitor visitor = new ValidationVisitor(context, ruleDefinitions, invocations,
+						dependencies, supertypes);
 				callback.getRootElement().accept(visitor, subMonitor);
 				problems.addAll(context.getProblems());
 			}
@@ -146,6 +344,10 @@ public abstract class AbstractValidator implements IValidator, IProjectContribut
 				throw new OperationCanceledException();
 			}
 		}
+
+		if (dependencyGraph != null) {
+			dependencyGraph.update(resource, invocations, dependencies, supertypes);
+		}
 		return problems;
 	}
 
@@ -232,6 +434,42 @@ public abstract class AbstractValidator implements IValidator, IProjectContribut
 		}
 	}
 
+	/**
+	 * Returns the graph that records which types the rule invocations on the given resource read, or
+	 * <code>null</code> if no dependencies should be recorded for the resource.
+	 * <p>
+	 * This implementation returns <code>null</code>.
+	 * @since 3.9.2
+	 */
+	protected ValidationDependencyGraph getDependencyGraph(IResource resource) {
+		return null;
+	}
+
+	/**
+	 * Returns the keys of the rule invocations (see {@link ValidationDependencyGraph#getInvocationKey(String, String)})
+	 * that need to be rerun on the given resource, or <code>null</code> to validate the resource completely. Markers
+	 * of all other invocations are kept.
+	 * <p>
+	 * This implementation returns <code>null</code>.
+	 * @since 3.9.2
+	 */
+	protected Set<String> getInvocationsToValidate(IResource resource) {
+		return null;
+	}
+
+	/**
+	 * Returns <code>true</code> if this validator can validate several resources at the same time. Validators that
+	 * return <code>true</code> need to make sure that their lifecycle managers, validation contexts and
+	 * {@link #supports(IModelElement)} implementation don't share mutable state between resources. Resources are only
+	 * validated in parallel if all enabled rules are declared concurrent as well.
+	 * <p>
+	 * This implementation returns <code>false</code>.
+	 * @since 3.9.2
+	 */
+	protected boolean supportsParallelValidation() {
+		return false;
+	}
+
 	/**
 	 * Returns <code>true</code> if this validator is able to validate the given element.
 	 */
@@ -248,6 +486,60 @@ public abstract class AbstractValidator implements IValidator, IProjectContribut
 		return true;
 	}
 
+	/**
+	 * Validates a range of resources by splitting it until every task validates a single resource.
+	 */
+	private class ResourceValidationTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final IResource[] resources;
+
+		private final int start;
+
+		private final int end;
+
+		private final int kind;
+
+		private final Map<IResource, Set<ValidationProblem>> problems;
+
+		private final AtomicInteger validatedResources;
+
+		private final IProgressMonitor monitor;
+
+		public ResourceValidationTask(IResource[] resources, int start, int end, int kind,
+				Map<IResource, Set<ValidationProblem>> problems, AtomicInteger validatedResources,
+				IProgressMonitor monitor) {
+			this.resources = resources;
+			this.start = start;
+			this.end = end;
+			this.kind = kind;
+			this.problems = problems;
+			this.validatedResources = validatedResources;
+			this.monitor = monitor;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start == 1) {
+				if (monitor.isCanceled()) {
+					throw new OperationCanceledException();
+				}
+				Set<ValidationProblem> resourceProblems = validateResource(resources[start], kind, monitor);
+				if (resourceProblems != null) {
+					problems.put(resources[start], resourceProblems);
+				}
+				validatedResources.incrementAndGet();
+			}
+			else {
+				int middle = (start + end) >>> 1;
+				invokeAll(new ResourceValidationTask(resources, start, middle, kind, problems, validatedResources,
+						monitor), new ResourceValidationTask(resources, middle, end, kind, problems,
+						validatedResources, monitor));
+			}
+		}
+	}
+
 	/**
 	 * {@link IModelElementVisitor} implementation that validates a specified model tree.
 	 */
@@ -257,9 +549,34 @@ public abstract class AbstractValidator implements IValidator, IProjectContribut
 
 		private Set<ValidationRuleDefinition> ruleDefinitions;
 
+		private Set<String> invocations;
+
+		private Map<String, Set<String>> dependencies;
+
+		private Map<String, Set<String>> supertypes;
+
+		private final ValidationRuleProfiler profiler = ValidationRuleProfiler.getInstance();
+
+		private String projectName;
+
 		public ValidationVisitor(IValidationContext context, Set<ValidationRuleDefinition> ruleDefinitions) {
+			this(context, ruleDefinitions, null, null, null);
+		}
+
+		/**
+		 * @param invocations the keys of the rule invocations to run or <code>null</code> to run all rules
+		 * @param dependencies map that receives the types read per rule invocation or <code>null</code> if
+		 * dependencies should not be recorded
+		 * @param supertypes map that receives the direct supertypes of the read types if dependencies are recorded
+		 * @since 3.9.2
+		 */
+		public ValidationVisitor(IValidationContext context, Set<ValidationRuleDefinition> ruleDefinitions,
+				Set<String> invocations, Map<String, Set<String>> dependencies, Map<String, Set<String>> supertypes) {
 			this.ruleDefinitions = ruleDefinitions;
 			this.context = context;
+			this.invocations = invocations;
+			this.dependencies = dependencies;
+			this.supertypes = supertypes;
 		}
 
 		@SuppressWarnings("unchecked")
@@ -271,13 +588,45 @@ public abstract class AbstractValidator implements IValidator, IProjectContribut
 						if (subMonitor.isCanceled()) {
 							throw new OperationCanceledException();
 						}
+						String invocation = null;
+						if (invocations != null || dependencies != null) {
+							invocation = ValidationDependencyGraph.getInvocationKey(element.getElementID(),
+									ruleDefinition.getId());
+							if (invocations != null && !invocations.contains(invocation)) {
+								subMonitor.worked(1);
+								continue;
+							}
+						}
+
 						String progressMessage = "Validating element '" + element.getElementName() + "' with rule '" + ruleDefinition.getName() + "'";
 						reportProgress(progressMessage, subMonitor);
 
-						IValidationRule rule = ruleDefinition.getRule();
-						if (rule.supports(element, context)) {
-							context.setCurrentRuleDefinition(ruleDefinition);
-							rule.validate(element, context, monitor);
+						ValidationDependencies.Recording recording = (dependencies != null ? ValidationDependencies
+								.startRecording(getTypeHierarchyEngine()) : null);
+						try {
+							IValidationRule rule = ruleDefinition.getRule();
+							if (rule.supports(element, context)) {
+								context.setCurrentRuleDefinition(ruleDefinition);
+								if (context instanceof AbstractValidationContext) {
+									((AbstractValidationContext) context).setCurrentElement(element);
+								}
+								ValidationRuleProfiler.Measurement measurement = profiler.start();
+								try {
+									rule.validate(element, context, monitor);
+								}
+								finally {
+									if (measurement != null) {
+										profiler.stop(measurement, getProjectName(), ruleDefinition);
+									}
+								}
+							}
+						}
+						finally {
+							if (recording != null) {
+								ValidationDependencies.stopRecording(recording);
+								addDependencies(invocation, recording.getTypes());
+								supertypes.putAll(recording.getSupertypes());
+							}
 						}
 						subMonitor.worked(1);
 					}
@@ -289,5 +638,31 @@ public abstract class AbstractValidator implements IValidator, IProjectContribut
 			}
 			return false;
 		}
+
+		private void addDependencies(String invocation, Set<String> types) {
+			// invocations that read no type are recorded as well, so that the graph knows which elements were validated
+			Set<String> invocationDependencies = dependencies.get(invocation);
+			if (invocationDependencies == null) {
+				invocationDependencies = new LinkedHashSet<String>();
+				dependencies.put(invocation, invocationDependencies);
+			}
+			invocationDependencies.addAll(types);
+		}
+
+		private TypeHierarchyEngine getTypeHierarchyEngine() {
+			if (context instanceof AbstractValidationContext) {
+				return ((AbstractValidationContext) context).getTypeHierarchyEngine();
+			}
+			return SpringCore.getTypeHierarchyEngine();
+		}
+
+		private String getProjectName() {
+			if (projectName == null) {
+				IResourceModelElement rootElement = context.getRootElement();
+				IResource resource = (rootElement != null ? rootElement.getElementResource() : null);
+				projectName = (resource != null && resource.getProject() != null ? resource.getProject().getName() : "");
+			}
+			return projectName;
+		}
 	}
 }
@@ -46,4 +46,11 @@ public interface IValidationProblemMarker {
 	 * Error ID marker attribute (value <code>"errorId"</code>).
 	 */
 	String ERROR_ID = "errorId";
+
+	/**
+	 * ID of the model element a rule was validating when it reported the problem (value
+	 * <code>"validatedElementId"</code>). Together with {@link #RULE_ID} it identifies the rule invocation.
+	 * @since 3.9.2
+	 */
+	String VALIDATED_ELEMENT_ID = "validatedElementId";
 }
@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.model.validation;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IProject;
+import org.springframework.ide.eclipse.core.SpringCore;
+import org.springframework.ide.eclipse.core.java.ITypeLookupListener;
+import org.springframework.ide.eclipse.core.java.TypeLookupListeners;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyEngine;
+
+/**
+ * Records the types a single {@link IValidationRule} invocation reads while it runs on the current thread.
+ * <p>
+ * While recordings are active, a {@link ITypeLookupListener} is registered that records the types looked up by
+ * <code>JdtUtils.getJavaType</code> and the {@link TypeHierarchyEngine} on threads with an active recording. No
+ * listener is registered while nothing is recorded, so type lookups outside of validation don't pay for it.
+ * The supertypes of a recorded type are recorded separately (see {@link Recording#getSupertypes()}), because changes
+ * to those change the outcome of lookups on the type itself.
+ * @since 3.9.2
+ * @see ValidationDependencyGraph
+ */
+public final class ValidationDependencies {
+
+	private static final ThreadLocal<Recording> RECORDING = new ThreadLocal<Recording>();
+
+	private static final ITypeLookupListener LISTENER = new ITypeLookupListener() {
+
+		public void typeLookedUp(IProject project, String className) {
+			recordType(project, className);
+		}
+	};
+
+	private static final Object LOCK = new Object();
+
+	private static int activeRecordings; // guarded by LOCK
+
+	private ValidationDependencies() {
+	}
+
+	/**
+	 * Starts a new recording on the current thread. Supertypes of recorded types are resolved with the given engine.
+	 */
+	public static Recording startRecording(TypeHierarchyEngine typeHierarchyEngine) {
+		Recording recording = new Recording(RECORDING.get(), typeHierarchyEngine);
+		RECORDING.set(recording);
+		synchronized (LOCK) {
+			if (activeRecordings++ == 0) {
+				TypeLookupListeners.addTypeLookupListener(LISTENER);
+			}
+		}
+		return recording;
+	}
+
+	/**
+	 * Stops the given recording and restores the recording that was active when it was started.
+	 */
+	public static void stopRecording(Recording recording) {
+		if (recording.previous != null) {
+			RECORDING.set(recording.previous);
+		}
+		else {
+			RECORDING.remove();
+		}
+		synchronized (LOCK) {
+			if (--activeRecordings == 0) {
+				TypeLookupListeners.removeTypeLookupListener(LISTENER);
+			}
+		}
+	}
+
+	/**
+	 * Records that the current rule invocation read the type with the given fully qualified name (using
+	 * <code>$</code> for inner types) in the given project.
+	 */
+	public static void recordType(IProject project, String className) {
+		Recording recording = RECORDING.get();
+		if (recording != null && className != null) {
+			recording.record(project, className);
+		}
+	}
+
+	/**
+	 * The types read during a single rule invocation.
+	 */
+	public static class Recording {
+
+		private final Recording previous;
+
+		private final TypeHierarchyEngine typeHierarchyEngine;
+
+		private final Set<String> types = new LinkedHashSet<String>();
+
+		private final Map<String, Set<String>> supertypes = new HashMap<String, Set<String>>();
+
+		private boolean resolvingSupertypes;
+
+		private Recording(Recording previous, TypeHierarchyEngine typeHierarchyEngine) {
+			this.previous = previous;
+			this.typeHierarchyEngine = typeHierarchyEngine != null ? typeHierarchyEngine : SpringCore
+					.getTypeHierarchyEngine();
+		}
+
+		/**
+		 * Returns the types that have been read.
+		 */
+		public Set<String> getTypes() {
+			return types;
+		}
+
+		/**
+		 * Returns the direct supertypes of the read types and of their supertypes.
+		 */
+		public Map<String, Set<String>> getSupertypes() {
+			return supertypes;
+		}
+
+		private void record(IProject project, String className) {
+			if (!types.add(className) || project == null || resolvingSupertypes) {
+				return;
+			}
+			resolvingSupertypes = true;
+			try {
+				recordSupertypes(project, className);
+			}
+			catch (Exception e) {
+				// supertypes are best effort; the type itself has been recorded
+			}
+			finally {
+				resolvingSupertypes = false;
+			}
+		}
+
+		private void recordSupertypes(IProject project, String className) {
+			if (supertypes.containsKey(className)) {
+				return;
+			}
+			Set<String> directSupertypes = new LinkedHashSet<String>();
+			supertypes.put(className, directSupertypes);
+			String supertype = typeHierarchyEngine.getSupertype(project, className);
+			if (supertype != null) {
+				directSupertypes.add(supertype);
+				recordSupertypes(project, supertype);
+			}
+			String[] interfaces = typeHierarchyEngine.getInterfaces(project, className);
+			if (interfaces != null) {
+				for (String interfaceName : interfaces) {
+					directSupertypes.add(interfaceName);
+					recordSupertypes(project, interfaceName);
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,311 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.model.validation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+
+/**
+ * Dependency graph of the rule invocations of a single {@link IValidator}. For every validated resource it records
+ * which types each invocation of a rule on a model element has read (see {@link ValidationDependencies}), and keeps
+ * the inverse index from type name to invocations.
+ * <p>
+ * The supertypes of the read types are kept once for all invocations: a change to a type affects the invocations
+ * that read the type or one of its recorded subtypes. Supertypes that are no longer reachable from a read type are
+ * dropped when dependencies are replaced or removed.
+ * <p>
+ * An invocation is identified by the key returned from {@link #getInvocationKey(String, String)}.
+ * @since 3.9.2
+ */
+public class ValidationDependencyGraph {
+
+	private static final char KEY_SEPARATOR = '\u0000';
+
+	/** Recorded types per invocation key for every validated resource */
+	private final Map<IResource, Map<String, Set<String>>> dependencies = new HashMap<IResource, Map<String, Set<String>>>();
+
+	/** Invocations per type name */
+	private final Map<String, Map<IResource, Set<String>>> invocationsByType = new HashMap<String, Map<IResource, Set<String>>>();
+
+	/** Direct supertypes of the read types and of their supertypes */
+	private final Map<String, Set<String>> supertypesByType = new HashMap<String, Set<String>>();
+
+	/** Recorded direct subtypes per type, the inverse of {@link #supertypesByType} */
+	private final Map<String, Set<String>> subtypesByType = new HashMap<String, Set<String>>();
+
+	public static String getInvocationKey(String elementId, String ruleId) {
+		return elementId + KEY_SEPARATOR + ruleId;
+	}
+
+	/**
+	 * Returns <code>true</code> if the given resource has been validated completely with dependency tracking.
+	 */
+	public synchronized boolean isTracked(IResource resource) {
+		return dependencies.containsKey(resource);
+	}
+
+	/**
+	 * Stores the dependencies recorded while validating the given resource.
+	 * @param invocations the invocations that have been rerun or <code>null</code> if the resource has been validated
+	 * completely; only the dependencies of those invocations are replaced
+	 * @param recordedDependencies the recorded types per invocation key
+	 */
+	public void update(IResource resource, Set<String> invocations, Map<String, Set<String>> recordedDependencies) {
+		update(resource, invocations, recordedDependencies, Collections.<String, Set<String>> emptyMap());
+	}
+
+	/**
+	 * Stores the dependencies recorded while validating the given resource.
+	 * @param invocations the invocations that have been rerun or <code>null</code> if the resource has been validated
+	 * completely; only the dependencies of those invocations are replaced
+	 * @param recordedDependencies the recorded types per invocation key
+	 * @param recordedSupertypes the direct supertypes of the recorded types and of their supertypes
+	 */
+	public synchronized void update(IResource resource, Set<String> invocations,
+			Map<String, Set<String>> recordedDependencies, Map<String, Set<String>> recordedSupertypes) {
+		Map<String, Set<String>> resourceDependencies = dependencies.get(resource);
+		if (resourceDependencies == null) {
+			if (invocations != null) {
+				// only complete validations start tracking a resource
+				return;
+			}
+			resourceDependencies = new HashMap<String, Set<String>>();
+			dependencies.put(resource, resourceDependencies);
+		}
+
+		Collection<String> replacedInvocations = invocations != null ? invocations : new HashSet<String>(
+				resourceDependencies.keySet());
+		boolean removed = false;
+		for (String invocation : replacedInvocations) {
+			Set<String> types = resourceDependencies.remove(invocation);
+			if (types != null) {
+				removeInverse(resource, invocation, types);
+				removed = true;
+			}
+		}
+
+		for (Map.Entry<String, Set<String>> entry : recordedDependencies.entrySet()) {
+			if (invocations != null && !invocations.contains(entry.getKey())) {
+				continue;
+			}
+			Set<String> types = entry.getValue().isEmpty() ? Collections.<String> emptySet() : new HashSet<String>(
+					entry.getValue());
+			resourceDependencies.put(entry.getKey(), types);
+			for (String type : types) {
+				Map<IResource, Set<String>> invocationsOfType = invocationsByType.get(type);
+				if (invocationsOfType == null) {
+					invocationsOfType = new HashMap<IResource, Set<String>>();
+					invocationsByType.put(type, invocationsOfType);
+				}
+				Set<String> resourceInvocations = invocationsOfType.get(resource);
+				if (resourceInvocations == null) {
+					resourceInvocations = new HashSet<String>();
+					invocationsOfType.put(resource, resourceInvocations);
+				}
+				resourceInvocations.add(entry.getKey());
+			}
+		}
+
+		for (Map.Entry<String, Set<String>> entry : recordedSupertypes.entrySet()) {
+			setSupertypes(entry.getKey(), entry.getValue());
+		}
+		if (removed) {
+			removeUnreachableSupertypes();
+		}
+	}
+
+	/**
+	 * Returns the invocations, grouped by validated resource, that read one of the given types. Only resources of the
+	 * given project are considered if <code>project</code> is not <code>null</code>.
+	 */
+	public synchronized Map<IResource, Set<String>> getInvocations(Collection<String> types, IProject project) {
+		Map<IResource, Set<String>> result = new LinkedHashMap<IResource, Set<String>>();
+		for (String type : getSubtypeClosure(types)) {
+			Map<IResource, Set<String>> invocationsOfType = invocationsByType.get(type);
+			if (invocationsOfType != null) {
+				for (Map.Entry<IResource, Set<String>> entry : invocationsOfType.entrySet()) {
+					if (project != null && !project.equals(entry.getKey().getProject())) {
+						continue;
+					}
+					Set<String> invocations = result.get(entry.getKey());
+					if (invocations == null) {
+						invocations = new LinkedHashSet<String>();
+						result.put(entry.getKey(), invocations);
+					}
+					invocations.addAll(entry.getValue());
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the ids of the model elements of the given resource that rule invocations have been recorded for, i.e.
+	 * the elements that existed when the resource was last validated.
+	 */
+	public synchronized Set<String> getValidatedElements(IResource resource) {
+		Set<String> elements = new HashSet<String>();
+		Map<String, Set<String>> resourceDependencies = dependencies.get(resource);
+		if (resourceDependencies != null) {
+			for (String invocation : resourceDependencies.keySet()) {
+				elements.add(invocation.substring(0, invocation.indexOf(KEY_SEPARATOR)));
+			}
+		}
+		return elements;
+	}
+
+	public synchronized void remove(IResource resource) {
+		if (removeDependencies(resource)) {
+			removeUnreachableSupertypes();
+		}
+	}
+
+	/**
+	 * Removes the dependencies of all resources of the given project, e.g. because the project has been closed.
+	 */
+	public synchronized void remove(IProject project) {
+		boolean removed = false;
+		for (IResource resource : new ArrayList<IResource>(dependencies.keySet())) {
+			if (project.equals(resource.getProject())) {
+				removed |= removeDependencies(resource);
+			}
+		}
+		if (removed) {
+			removeUnreachableSupertypes();
+		}
+	}
+
+	public synchronized void clear() {
+		dependencies.clear();
+		invocationsByType.clear();
+		supertypesByType.clear();
+		subtypesByType.clear();
+	}
+
+	private boolean removeDependencies(IResource resource) {
+		Map<String, Set<String>> resourceDependencies = dependencies.remove(resource);
+		if (resourceDependencies == null) {
+			return false;
+		}
+		for (Map.Entry<String, Set<String>> entry : resourceDependencies.entrySet()) {
+			removeInverse(resource, entry.getKey(), entry.getValue());
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the given types and all their recorded subtypes.
+	 */
+	private Set<String> getSubtypeClosure(Collection<String> types) {
+		Set<String> result = new LinkedHashSet<String>(types);
+		Deque<String> pending = new ArrayDeque<String>(types);
+		while (!pending.isEmpty()) {
+			Set<String> subtypes = subtypesByType.get(pending.pop());
+			if (subtypes != null) {
+				for (String subtype : subtypes) {
+					if (result.add(subtype)) {
+						pending.push(subtype);
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	private void setSupertypes(String type, Set<String> supertypes) {
+		Set<String> previous = supertypesByType.remove(type);
+		if (previous != null) {
+			for (String supertype : previous) {
+				removeSubtype(supertype, type);
+			}
+		}
+		if (!supertypes.isEmpty()) {
+			supertypesByType.put(type, new HashSet<String>(supertypes));
+			for (String supertype : supertypes) {
+				Set<String> subtypes = subtypesByType.get(supertype);
+				if (subtypes == null) {
+					subtypes = new HashSet<String>();
+					subtypesByType.put(supertype, subtypes);
+				}
+				subtypes.add(type);
+			}
+		}
+	}
+
+	/**
+	 * Drops the supertypes of types that are neither read by an invocation nor a supertype of such a type.
+	 */
+	private void removeUnreachableSupertypes() {
+		Set<String> reachable = new HashSet<String>();
+		Deque<String> pending = new ArrayDeque<String>();
+		for (String type : invocationsByType.keySet()) {
+			if (reachable.add(type)) {
+				pending.push(type);
+			}
+		}
+		while (!pending.isEmpty()) {
+			Set<String> supertypes = supertypesByType.get(pending.pop());
+			if (supertypes != null) {
+				for (String supertype : supertypes) {
+					if (reachable.add(supertype)) {
+						pending.push(supertype);
+					}
+				}
+			}
+		}
+		for (String type : new ArrayList<String>(supertypesByType.keySet())) {
+			if (!reachable.contains(type)) {
+				setSupertypes(type, Collections.<String> emptySet());
+			}
+		}
+	}
+
+	private void removeSubtype(String supertype, String subtype) {
+		Set<String> subtypes = subtypesByType.get(supertype);
+		if (subtypes != null) {
+			subtypes.remove(subtype);
+			if (subtypes.isEmpty()) {
+				subtypesByType.remove(supertype);
+			}
+		}
+	}
+
+	private void removeInverse(IResource resource, String invocation, Set<String> types) {
+		for (String type : types) {
+			Map<IResource, Set<String>> invocationsOfType = invocationsByType.get(type);
+			if (invocationsOfType != null) {
+				Set<String> resourceInvocations = invocationsOfType.get(resource);
+				if (resourceInvocations != null) {
+					resourceInvocations.remove(invocation);
+					if (resourceInvocations.isEmpty()) {
+						invocationsOfType.remove(resource);
+					}
+				}
+				if (invocationsOfType.isEmpty()) {
+					invocationsByType.remove(type);
+				}
+			}
+		}
+	}
+
+}
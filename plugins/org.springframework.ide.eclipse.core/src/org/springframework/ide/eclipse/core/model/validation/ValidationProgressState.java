@@ -10,54 +10,56 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.core.model.validation;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
- * Simple holder to report validation progress against. 
+ * Simple holder to report validation progress against. The counters may be updated concurrently.
  * @author Christian Dupuis
  * @since 2.3.0
  * @see AbstractValidationContext
  */
 class ValidationProgressState {
 
-	private int errorCount = 0;
+	private final AtomicInteger errorCount = new AtomicInteger();
 
-	private int infoCount = 0;
+	private final AtomicInteger infoCount = new AtomicInteger();
 
-	private int warningCount = 0;
+	private final AtomicInteger warningCount = new AtomicInteger();
 
 	public void incrementErrorCount() {
-		errorCount++;
+		errorCount.incrementAndGet();
 	}
 
 	public void incrementErrorCountBy(int n) {
-		errorCount += n;
+		errorCount.addAndGet(n);
 	}
 
 	public void incrementInfoCount() {
-		infoCount++;
+		infoCount.incrementAndGet();
 	}
 
 	public void incrementInfoCountBy(int n) {
-		infoCount += n;
+		infoCount.addAndGet(n);
 	}
 
 	public void incrementWarningCount() {
-		warningCount++;
+		warningCount.incrementAndGet();
 	}
 
 	public void incrementWarningCountBy(int n) {
-		warningCount += n;
+		warningCount.addAndGet(n);
 	}
 
 	protected int getErrorCount() {
-		return errorCount;
+		return errorCount.get();
 	}
 
 	protected int getInfoCount() {
-		return infoCount;
+		return infoCount.get();
 	}
 
 	protected int getWarningCount() {
-		return warningCount;
+		return warningCount.get();
 	}
 
 }
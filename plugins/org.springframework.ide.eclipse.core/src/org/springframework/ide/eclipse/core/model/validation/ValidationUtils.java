@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2010 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -30,6 +30,34 @@ import org.springframework.ide.eclipse.core.SpringCore;
  */
 public final class ValidationUtils {
 
+	/**
+	 * Deletes the {@link IMarker validation markers} that originate from the given resource and have been reported
+	 * by one of the given rule invocations. Only the markers on the given resource itself are looked at; markers
+	 * reported on other resources are removed when the originating resource is validated completely.
+	 * @param invocations keys as returned by {@link ValidationDependencyGraph#getInvocationKey(String, String)}
+	 * @since 3.9.2
+	 */
+	public static void deleteProblemMarkers(IResource resource, String markerId, Set<String> invocations) {
+		if (resource != null && resource.isAccessible()) {
+			try {
+				String originatingResourceValue = resource.getFullPath().toString();
+				IMarker[] markers = resource.findMarkers(markerId, true, IResource.DEPTH_ZERO);
+				for (IMarker marker : markers) {
+					String elementId = marker.getAttribute(IValidationProblemMarker.VALIDATED_ELEMENT_ID, null);
+					String ruleId = marker.getAttribute(IValidationProblemMarker.RULE_ID, null);
+					if (elementId != null && ruleId != null
+							&& invocations.contains(ValidationDependencyGraph.getInvocationKey(elementId, ruleId))
+							&& originatingResourceValue.equals(marker.getAttribute(MarkerUtils.ORIGINATING_RESOURCE_KEY))) {
+						marker.delete();
+					}
+				}
+			}
+			catch (CoreException e) {
+				SpringCore.log(e);
+			}
+		}
+	}
+
 	/**
 	 * Creates the {@link IMarker validation markers} on the specified resource for the given validation problems.
 	 */
@@ -30,7 +30,7 @@ public class DefaultProjectContributorState implements IProjectContributorState
 
 	private Map<Dictionary<String, String>, Object> managedObjectsWithFilters = new HashMap<Dictionary<String, String>, Object>();
 
-	public <T> T get(Class<T> clazz) {
+	public synchronized <T> T get(Class<T> clazz) {
 		if (managedObjects.containsKey(clazz)) {
 			return (T) managedObjects.get(clazz);
 		}
@@ -42,7 +42,7 @@ public class DefaultProjectContributorState implements IProjectContributorState
 		return null;
 	}
 
-	public boolean hold(Object obj) {
+	public synchronized boolean hold(Object obj) {
 		if (managedObjects.containsKey(obj.getClass())) {
 			return false;
 		}
@@ -52,7 +52,7 @@ public class DefaultProjectContributorState implements IProjectContributorState
 		}
 	}
 
-	public <T> T get(Class<T> clazz, String filterText) {
+	public synchronized <T> T get(Class<T> clazz, String filterText) {
 		if (!StringUtils.hasLength(filterText)) {
 			return null;
 		}
@@ -72,7 +72,7 @@ public class DefaultProjectContributorState implements IProjectContributorState
 		return null;
 	}
 
-	public boolean hold(Object obj, Dictionary<String, String> attibutes) {
+	public synchronized boolean hold(Object obj, Dictionary<String, String> attibutes) {
 		if (managedObjectsWithFilters.containsKey(attibutes)) {
 			return false;
 		}
@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.core.project;
 
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 import org.eclipse.core.resources.IProject;
@@ -36,6 +38,10 @@ public class ProjectBuilderDefinition extends PersistablePreferenceObjectSupport
 
 	private static final String CLASS_ATTRIBUTE = "class";
 
+	private static final String CONCURRENT_ATTRIBUTE = "concurrent";
+
+	private static final String DEPENDS_ON_ATTRIBUTE = "dependsOn";
+
 	private static final String DESCRIPTION_ATTRIBUTE = "description";
 
 	private static final String ENABLED_BY_DEFAULT_ATTRIBUTE = "enabledByDefault";
@@ -48,6 +54,10 @@ public class ProjectBuilderDefinition extends PersistablePreferenceObjectSupport
 
 	private static final String ORDER_ATTRIBUTE = "order";
 
+	private boolean concurrent;
+
+	private Set<String> dependsOn;
+
 	private String description;
 
 	private String iconUri;
@@ -93,6 +103,22 @@ public class ProjectBuilderDefinition extends PersistablePreferenceObjectSupport
 		}
 	}
 
+	/**
+	 * Returns <code>true</code> if the builder declared that it may run concurrently with other concurrent builders.
+	 * @since 3.9.2
+	 */
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/**
+	 * Returns the ids of the builders that need to be finished before this builder can be started.
+	 * @since 3.9.2
+	 */
+	public Set<String> getDependsOn() {
+		return dependsOn;
+	}
+
 	public String getDescription() {
 		return description;
 	}
@@ -143,6 +169,8 @@ public class ProjectBuilderDefinition extends PersistablePreferenceObjectSupport
 		else {
 			this.order = DEFAULT_ORDER;
 		}
+		this.concurrent = Boolean.valueOf(element.getAttribute(CONCURRENT_ATTRIBUTE));
+		this.dependsOn = parseDependsOn(element.getAttribute(DEPENDS_ON_ATTRIBUTE));
 		String enabledByDefault = element.getAttribute(ENABLED_BY_DEFAULT_ATTRIBUTE);
 		if (enabledByDefault != null) {
 			setEnabledByDefault(Boolean.valueOf(enabledByDefault));
@@ -156,6 +184,24 @@ public class ProjectBuilderDefinition extends PersistablePreferenceObjectSupport
 		}
 	}
 
+	/**
+	 * Parses the comma-separated list of ids given in the <code>dependsOn</code> attribute of a builder or validator
+	 * contribution.
+	 * @since 3.9.2
+	 */
+	public static Set<String> parseDependsOn(String dependsOnString) {
+		if (!StringUtils.hasText(dependsOnString)) {
+			return Collections.emptySet();
+		}
+		Set<String> ids = new LinkedHashSet<String>();
+		for (String id : StringUtils.commaDelimitedListToStringArray(dependsOnString)) {
+			if (StringUtils.hasText(id)) {
+				ids.add(id.trim());
+			}
+		}
+		return Collections.unmodifiableSet(ids);
+	}
+
 	@Override
 	protected void onEnablementChanged(boolean isEnabled, IProject project) {
 		cleanup(project);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,8 +11,6 @@
 package org.springframework.ide.eclipse.core.type.asm;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
 import org.springframework.asm.ClassReader;
 import org.springframework.core.io.Resource;
@@ -20,15 +18,36 @@ import org.springframework.core.io.ResourceLoader;
 
 /**
  * Caching implementation of the {@link ClassReaderFactory} interface, caching a
- * ClassReader per Spring Resource handle (i.e. per ".class" file).
+ * ClassReader per ".class" file.
+ * <p>
+ * All instances share one cache that is bounded by the size of the cached class
+ * files; its maximum size in bytes can be set with the system property
+ * <code>org.springframework.ide.eclipse.core.type.asm.classReaderCacheSize</code>.
+ * The cache is keyed by the URL of the class files, so that it does not hold on
+ * to the class loaders of the resources, and is kept in line with the workspace
+ * by the <code>ClassFileCacheInvalidator</code>.
  * @author Christian Dupuis
  * @author Juergen Hoeller
  * @since 2.0.2
  */
 public class CachingClassReaderFactory extends SimpleClassReaderFactory {
 
-	private final Map<Resource, ClassReader> classReaderCache = 
-		new HashMap<Resource, ClassReader>();
+	private static final long CACHE_SIZE = Long.getLong(
+			"org.springframework.ide.eclipse.core.type.asm.classReaderCacheSize", 32 * 1024 * 1024);
+
+	private static final ClassFileCache<String, ClassReader> CLASS_READER_CACHE =
+		new ClassFileCache<String, ClassReader>("Class readers", CACHE_SIZE) {
+
+			@Override
+			protected int getWeight(String url, ClassReader classReader) {
+				return classReader.b.length;
+			}
+
+			@Override
+			protected String getClassName(String url, ClassReader classReader) {
+				return classReader.getClassName().replace('/', '.');
+			}
+		};
 
 	/**
 	 * Create a new CachingClassReaderFactory for the default class loader.
@@ -54,15 +73,29 @@ public class CachingClassReaderFactory extends SimpleClassReaderFactory {
 		super(classLoader);
 	}
 
-	public ClassReader getClassReader(Resource resource) throws IOException {
-		synchronized (this.classReaderCache) {
-			ClassReader classReader = this.classReaderCache.get(resource);
-			if (classReader == null) {
-				classReader = super.getClassReader(resource);
-				this.classReaderCache.put(resource, classReader);
-			}
-			return classReader;
+	public ClassReader getClassReader(final Resource resource) throws IOException {
+		String url;
+		try {
+			url = resource.getURL().toExternalForm();
+		}
+		catch (IOException e) {
+			// Not a class file that can be cached, e.g. one that does not exist
+			return super.getClassReader(resource);
 		}
+		return CLASS_READER_CACHE.get(url, new ClassFileCache.Loader<String, ClassReader>() {
+
+			public ClassReader load(String url) throws IOException {
+				return CachingClassReaderFactory.super.getClassReader(resource);
+			}
+		});
+	}
+
+	/**
+	 * Returns the cache shared by all instances.
+	 * @since 3.9.2
+	 */
+	public static ClassFileCache<String, ClassReader> getSharedCache() {
+		return CLASS_READER_CACHE;
 	}
 
 }
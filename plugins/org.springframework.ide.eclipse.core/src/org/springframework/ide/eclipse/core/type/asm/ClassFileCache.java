@@ -0,0 +1,346 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.type.asm;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrent cache for values read from class files that is bounded by the byte weight of its entries.
+ * <p>
+ * Values are loaded per key without holding a lock for the whole cache; concurrent requests for a key that is being
+ * loaded wait for that load. If the total weight exceeds the maximum, the least recently used entries are evicted.
+ * <p>
+ * All instances are registered so that they can be invalidated when class files change, see
+ * {@link #invalidateClasses(Set)}.
+ * @since 3.9.2
+ */
+public abstract class ClassFileCache<K, V> {
+
+	/** Share of the maximum weight the cache is trimmed to once the maximum is exceeded */
+	private static final int TRIM_PERCENTAGE = 75;
+
+	private static final List<ClassFileCache<?, ?>> CACHES = new CopyOnWriteArrayList<ClassFileCache<?, ?>>();
+
+	/**
+	 * Loads the value for a key that is not in the cache.
+	 */
+	public interface Loader<K, V> {
+
+		V load(K key) throws IOException;
+
+	}
+
+	private final String name;
+
+	private final long maxWeight;
+
+	private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<K, Entry<V>>();
+
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	private final AtomicLong clock = new AtomicLong();
+
+	private final AtomicLong weight = new AtomicLong();
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	/**
+	 * Creates and registers a new cache.
+	 * @param name the name of the cache as used in {@link #toString()}
+	 * @param maxWeight the maximum total weight of all entries in bytes
+	 */
+	protected ClassFileCache(String name, long maxWeight) {
+		this.name = name;
+		this.maxWeight = maxWeight;
+		CACHES.add(this);
+	}
+
+	/**
+	 * Returns the weight of the given value in bytes.
+	 */
+	protected abstract int getWeight(K key, V value);
+
+	/**
+	 * Returns the full-qualified name of the class the given value has been read from, or <code>null</code> if the
+	 * value depends on other class files as well and needs to be invalidated on any change.
+	 */
+	protected abstract String getClassName(K key, V value);
+
+	/**
+	 * Returns the cached value for the given key or loads it with the given <code>loader</code>.
+	 */
+	public V get(K key, Loader<K, V> loader) throws IOException {
+		Entry<V> entry = entries.get(key);
+		if (entry == null) {
+			Entry<V> newEntry = new Entry<V>();
+			entry = entries.putIfAbsent(key, newEntry);
+			if (entry == null) {
+				missCount.incrementAndGet();
+				return load(key, newEntry, loader);
+			}
+		}
+		hitCount.incrementAndGet();
+		entry.lastAccess = clock.incrementAndGet();
+		return entry.getValue();
+	}
+
+	/**
+	 * Removes all entries read from one of the given classes, all entries that depend on more than one class and
+	 * all entries that are still being loaded.
+	 * @param classNames full-qualified class names of changed class files
+	 */
+	public void invalidate(Set<String> classNames) {
+		for (Map.Entry<K, Entry<V>> entry : entries.entrySet()) {
+			String className = entry.getValue().className;
+			if (className == null || classNames.contains(className)) {
+				remove(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public void invalidateAll() {
+		for (Map.Entry<K, Entry<V>> entry : entries.entrySet()) {
+			remove(entry.getKey(), entry.getValue());
+		}
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	public double getHitRate() {
+		long hits = hitCount.get();
+		long requests = hits + missCount.get();
+		return (requests == 0 ? 1.0 : (double) hits / requests);
+	}
+
+	/**
+	 * Returns the total weight of all entries in bytes.
+	 */
+	public long getWeight() {
+		return weight.get();
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: %d entries, %d of %d bytes, hit rate %.2f, %d evictions", name, entries.size(),
+				weight.get(), maxWeight, getHitRate(), evictionCount.get());
+	}
+
+	/**
+	 * Returns all caches.
+	 */
+	public static List<ClassFileCache<?, ?>> getCaches() {
+		return Collections.unmodifiableList(CACHES);
+	}
+
+	/**
+	 * Invalidates all caches for the given changed classes.
+	 * @see #invalidate(Set)
+	 */
+	public static void invalidateClasses(Set<String> classNames) {
+		for (ClassFileCache<?, ?> cache : CACHES) {
+			cache.invalidate(classNames);
+		}
+	}
+
+	/**
+	 * Invalidates all entries of all caches.
+	 */
+	public static void invalidateAllClasses() {
+		for (ClassFileCache<?, ?> cache : CACHES) {
+			cache.invalidateAll();
+		}
+	}
+
+	private V load(K key, Entry<V> entry, Loader<K, V> loader) throws IOException {
+		V value = null;
+		try {
+			value = loader.load(key);
+			entry.weight = getWeight(key, value);
+			entry.className = getClassName(key, value);
+		}
+		catch (IOException e) {
+			entries.remove(key, entry);
+			entry.fail(e);
+			throw e;
+		}
+		catch (RuntimeException e) {
+			entries.remove(key, entry);
+			entry.fail(e);
+			throw e;
+		}
+		catch (Error e) {
+			entries.remove(key, entry);
+			entry.fail(e);
+			throw e;
+		}
+
+		entry.lastAccess = clock.incrementAndGet();
+		entry.loaded(value);
+
+		// The entry might have been invalidated while loading; it then does not count anymore
+		synchronized (entry) {
+			if (!entry.removed) {
+				entry.counted = true;
+				weight.addAndGet(entry.weight);
+			}
+		}
+		if (weight.get() > maxWeight) {
+			evict();
+		}
+		return value;
+	}
+
+	private boolean remove(K key, Entry<V> entry) {
+		if (entries.remove(key, entry)) {
+			synchronized (entry) {
+				entry.removed = true;
+				if (entry.counted) {
+					weight.addAndGet(-entry.weight);
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Removes the least recently used entries until the weight is below the trim weight; only one thread evicts at a
+	 * time, others continue without waiting.
+	 */
+	private void evict() {
+		if (!evictionLock.tryLock()) {
+			return;
+		}
+		try {
+			long trimWeight = maxWeight * TRIM_PERCENTAGE / 100;
+			if (weight.get() <= maxWeight) {
+				return;
+			}
+
+			List<Map.Entry<K, Entry<V>>> candidates = new ArrayList<Map.Entry<K, Entry<V>>>();
+			for (Map.Entry<K, Entry<V>> entry : entries.entrySet()) {
+				if (entry.getValue().isLoaded()) {
+					candidates.add(entry);
+				}
+			}
+			Collections.sort(candidates, new Comparator<Map.Entry<K, Entry<V>>>() {
+
+				public int compare(Map.Entry<K, Entry<V>> o1, Map.Entry<K, Entry<V>> o2) {
+					long t1 = o1.getValue().lastAccess;
+					long t2 = o2.getValue().lastAccess;
+					return (t1 < t2 ? -1 : (t1 == t2 ? 0 : 1));
+				}
+			});
+
+			for (Map.Entry<K, Entry<V>> entry : candidates) {
+				if (weight.get() <= trimWeight) {
+					break;
+				}
+				if (remove(entry.getKey(), entry.getValue())) {
+					evictionCount.incrementAndGet();
+				}
+			}
+		}
+		finally {
+			evictionLock.unlock();
+		}
+	}
+
+	/**
+	 * Cache entry that can be waited on while its value is being loaded.
+	 */
+	private static class Entry<V> {
+
+		private final CountDownLatch latch = new CountDownLatch(1);
+
+		private volatile V value;
+
+		private volatile Throwable failure;
+
+		private volatile long lastAccess;
+
+		private volatile int weight;
+
+		private volatile String className;
+
+		private boolean counted;
+
+		private boolean removed;
+
+		public boolean isLoaded() {
+			return latch.getCount() == 0 && failure == null;
+		}
+
+		public void loaded(V value) {
+			this.value = value;
+			latch.countDown();
+		}
+
+		public void fail(Throwable failure) {
+			this.failure = failure;
+			latch.countDown();
+		}
+
+		public V getValue() throws IOException {
+			try {
+				latch.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while waiting for class file to be read", e);
+			}
+			if (failure instanceof IOException) {
+				throw (IOException) failure;
+			}
+			else if (failure instanceof RuntimeException) {
+				throw (RuntimeException) failure;
+			}
+			else if (failure instanceof Error) {
+				throw (Error) failure;
+			}
+			return value;
+		}
+	}
+
+}
@@ -10,8 +10,10 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.editor.support;
 
+import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.reconciler.IReconcilingStrategy;
 import org.eclipse.jface.text.reconciler.MonoReconciler;
+import org.springframework.ide.eclipse.editor.support.reconcile.ReconcileStrategy;
 
 /**
  * We unforytunately must subclass this just to make it possible to call non
@@ -27,6 +29,11 @@ public class ForceableReconciler extends MonoReconciler {
 	}
 
 	public void forceReconcile() {
+		IReconcilingStrategy strategy = getReconcilingStrategy(IDocument.DEFAULT_CONTENT_TYPE);
+		if (strategy instanceof ReconcileStrategy) {
+			//Whatever changed may affect problems anywhere in the document
+			((ReconcileStrategy) strategy).requestFullReconcile();
+		}
 		super.forceReconciling();
 	}
 
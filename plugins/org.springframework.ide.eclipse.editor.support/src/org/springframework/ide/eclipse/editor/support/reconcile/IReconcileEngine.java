@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 Pivotal, Inc.
+ * Copyright (c) 2015, 2016 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,7 +12,31 @@ package org.springframework.ide.eclipse.editor.support.reconcile;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
 
 public interface IReconcileEngine {
 	public void reconcile(IDocument doc, IProblemCollector problemCollector, IProgressMonitor mon);
+
+	/**
+	 * Determines the part of the document whose problems may have changed because the given
+	 * region of it has been edited. A problem is part of a region when its offset lies within
+	 * the region, end inclusive.
+	 * <p>
+	 * Engines that can't reconcile part of a document, or that find the edit may affect problems
+	 * anywhere in the document, return null.
+	 *
+	 * @return The region containing all the problems that need to be recomputed, or null
+	 *    if the whole document needs to be reconciled.
+	 */
+	public default IRegion getAffectedRegion(IDocument doc, IRegion dirtyRegion) {
+		return null;
+	}
+
+	/**
+	 * Reconciles a region previously returned by {@link #getAffectedRegion(IDocument, IRegion)}. All problems
+	 * in the region must be reported. Problems outside of it may be reported as well, but are ignored.
+	 */
+	public default void reconcile(IDocument doc, IRegion region, IProblemCollector problemCollector, IProgressMonitor mon) {
+		reconcile(doc, problemCollector, mon);
+	}
 }
@@ -19,7 +19,9 @@ import java.util.Map;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.ISynchronizable;
 import org.eclipse.jface.text.Position;
@@ -34,6 +36,11 @@ import org.eclipse.jface.text.source.ISourceViewer;
 
 /**
  * Adapts our {@link IReconcileEngine} interface to an Eclipse {@link ReconcileStrategy}.
+ * <p>
+ * The strategy keeps track of the part of the document that has been edited since the last
+ * reconcile. Engines that support it only recompute the problems affected by those edits; the
+ * problems elsewhere in the document are kept. The whole document is reconciled initially, when
+ * a reconcile is forced and whenever the engine can't tell which problems an edit affects.
  *
  * @author Kris De Volder
  */
@@ -47,6 +54,22 @@ public class ReconcileStrategy implements IReconcilingStrategy, IReconcilingStra
 	private IProgressMonitor fProgressMonitor;
 	private IProblemCollector fProblemCollector;
 
+	/**
+	 * Start and end offset of the text edited since the last reconcile, or null if it hasn't
+	 * been edited or the whole document needs to be reconciled.
+	 */
+	private int[] fDirtyRange;
+	private boolean fFullReconcile = true;
+
+	private final IDocumentListener fDirtyRangeTracker = new IDocumentListener() {
+		public void documentAboutToBeChanged(DocumentEvent event) {
+			//Don't care.
+		}
+		public void documentChanged(DocumentEvent event) {
+			addDirtyRange(event.getOffset(), event.getLength(), event.getText()==null ? 0 : event.getText().length());
+		}
+	};
+
 	public ReconcileStrategy(ISourceViewer viewer, IReconcileEngine engine) {
 		this.fViewer = viewer;
 		this.fEngine = engine;
@@ -83,9 +106,69 @@ public class ReconcileStrategy implements IReconcilingStrategy, IReconcilingStra
 	public void reconcile(IRegion region) {
 		if (getAnnotationModel() == null || fProblemCollector == null)
 			return;
-		//Note: This isn't an 'incremental' reconciler. It always checks the whole document. The dirty
-		// region is ignored.
-		fEngine.reconcile(fDocument, fProblemCollector, fProgressMonitor);
+		//Note: The given region is ignored. Instead the edits tracked since the last reconcile determine
+		// which part of the document to check.
+		IRegion dirtyRegion = takeDirtyRegion();
+		IRegion affectedRegion = null;
+		if (dirtyRegion!=null && fProblemCollector instanceof SeverityAwareProblemCollector) {
+			affectedRegion = fEngine.getAffectedRegion(fDocument, dirtyRegion);
+		}
+		if (affectedRegion==null) {
+			fEngine.reconcile(fDocument, fProblemCollector, fProgressMonitor);
+		} else {
+			SeverityAwareProblemCollector problemCollector = (SeverityAwareProblemCollector) fProblemCollector;
+			problemCollector.setRegion(affectedRegion);
+			try {
+				fEngine.reconcile(fDocument, affectedRegion, problemCollector, fProgressMonitor);
+			} finally {
+				problemCollector.setRegion(null);
+			}
+		}
+	}
+
+	/**
+	 * Makes the next reconcile check the whole document, e.g. because the information used to
+	 * check it has changed.
+	 */
+	public synchronized void requestFullReconcile() {
+		fFullReconcile = true;
+	}
+
+	private synchronized void addDirtyRange(int offset, int replacedLength, int insertedLength) {
+		int end = offset + insertedLength;
+		if (fDirtyRange!=null) {
+			//Move the range to where its text is after the edit, and extend it with the edit
+			int delta = insertedLength - replacedLength;
+			int dirtyStart = fDirtyRange[0];
+			int dirtyEnd = fDirtyRange[1];
+			if (dirtyStart>=offset + replacedLength) {
+				dirtyStart += delta;
+			} else if (dirtyStart>offset) {
+				dirtyStart = offset;
+			}
+			if (dirtyEnd>=offset + replacedLength) {
+				dirtyEnd += delta;
+			} else if (dirtyEnd>offset) {
+				dirtyEnd = end;
+			}
+			offset = Math.min(offset, dirtyStart);
+			end = Math.max(end, dirtyEnd);
+		}
+		fDirtyRange = new int[] {offset, end};
+	}
+
+	/**
+	 * @return The region edited since the last reconcile, or null if the whole document needs to
+	 *    be reconciled.
+	 */
+	private synchronized IRegion takeDirtyRegion() {
+		IRegion dirtyRegion = null;
+		if (!fFullReconcile && fDirtyRange!=null) {
+			dirtyRegion = new Region(fDirtyRange[0], fDirtyRange[1] - fDirtyRange[0]);
+		}
+		fFullReconcile = false;
+		fDirtyRange = null;
+		return dirtyRegion;
 	}
 
 	/**
@@ -107,8 +190,15 @@ public class ReconcileStrategy implements IReconcilingStrategy, IReconcilingStra
 
 	@Override
 	public void setDocument(IDocument document) {
+		if (fDocument!=null) {
+			fDocument.removeDocumentListener(fDirtyRangeTracker);
+		}
 		fDocument= document;
+		if (fDocument!=null) {
+			fDocument.addDocumentListener(fDirtyRangeTracker);
+		}
 		fProblemCollector= createProblemCollector();
+		requestFullReconcile();
 	}
 
 	protected IDocument getDocument() {
@@ -137,6 +227,9 @@ public class ReconcileStrategy implements IReconcilingStrategy, IReconcilingStra
 		/** Lock object for modifying the annotations. */
 		private Object fLockObject;
 
+		/** Region whose annotations are replaced, or null to replace all of them. */
+		private IRegion fRegion;
+
 		/**
 		 * Initializes this collector with the given annotation model.
 		 *
@@ -151,7 +244,19 @@ public class ReconcileStrategy implements IReconcilingStrategy, IReconcilingStra
 				fLockObject= fAnnotationModel;
 		}
 
+		public void setRegion(IRegion region) {
+			fRegion= region;
+		}
+
+		private boolean isInRegion(Position position) {
+			if (fRegion == null)
+				return true;
+			return position.getOffset() >= fRegion.getOffset() && position.getOffset() <= fRegion.getOffset() + fRegion.getLength();
+		}
+
 		public void accept(ReconcileProblem problem) {
+			if (fRegion != null && (problem.getOffset() < fRegion.getOffset() || problem.getOffset() > fRegion.getOffset() + fRegion.getLength()))
+				return;
 			ProblemSeverity severity = getSeverities().getSeverity(problem);
 			String annotationType = ReconcileProblemAnnotation.getAnnotationType(severity);
 			if (annotationType!=null) {
@@ -170,8 +275,11 @@ public class ReconcileStrategy implements IReconcilingStrategy, IReconcilingStra
 				Iterator<Annotation> iter= fAnnotationModel.getAnnotationIterator();
 				while (iter.hasNext()) {
 					Annotation annotation= iter.next();
-					if (ReconcileProblemAnnotation.TYPES.contains(annotation.getType()))
-						toRemove.add(annotation);
+					if (ReconcileProblemAnnotation.TYPES.contains(annotation.getType())) {
+						Position position= fAnnotationModel.getPosition(annotation);
+						if (position == null || position.isDeleted() || isInRegion(position))
+							toRemove.add(annotation);
+					}
 				}
 				Annotation[] annotationsToRemove= toRemove.toArray(new Annotation[toRemove.size()]);
 
@@ -15,6 +15,7 @@ import java.util.Collections;
 import java.util.Set;
 
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
 import org.springframework.ide.eclipse.editor.support.util.DocumentRegion;
 import org.yaml.snakeyaml.nodes.MappingNode;
 import org.yaml.snakeyaml.nodes.Node;
@@ -49,6 +50,22 @@ public class NodeUtil {
 		return getStart(node)<=offset && offset<getEnd(node);
 	}
 
+	/**
+	 * Determines whether a node overlaps with or touches the given region. Unlike
+	 * {@link #contains(Node, int)} this treats both ends of the node's range as included.
+	 */
+	public static boolean intersects(Node node, IRegion region) {
+		return getStart(node)<=region.getOffset()+region.getLength() && getEnd(node)>=region.getOffset();
+	}
+
+	/**
+	 * Determines whether a mapping entry, from the start of its key to the end of its value,
+	 * overlaps with or touches the given region.
+	 */
+	public static boolean intersects(NodeTuple entry, IRegion region) {
+		return getStart(entry.getKeyNode())<=region.getOffset()+region.getLength() && getEnd(entry.getValueNode())>=region.getOffset();
+	}
+
 	public static int getStart(Node node) {
 		return node.getStartMark().getIndex();
 	}
@@ -11,18 +11,33 @@
 package org.springframework.ide.eclipse.editor.support.yaml.ast;
 
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
-import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.Status;
-import org.eclipse.core.runtime.jobs.Job;
-import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.IDocument;
-import org.eclipse.jface.text.IDocumentListener;
 import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.nodes.AnchorNode;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.SequenceNode;
+import org.yaml.snakeyaml.nodes.Tag;
 
 /**
  * Responsible for providing a AST for a document containing yml formatted text.
+ * <p>
+ * Parsing is incremental: the text is split into its '---' sections and each section
+ * with a block mapping at its root into its top-level keys. The nodes of a section or
+ * key block whose text didn't change since the last parse are reused, only moved to
+ * their new offset if text before them changed. So typing in a large file only reparses
+ * the key block that is being edited.
  *
  * @author Kris De Volder
  */
@@ -35,26 +50,12 @@ public class YamlASTProvider {
 	 */
 	private IDocument cachedFor = null;
 
+	private String cachedText = null;
+
 	/**
-	 * For cache invalidation
+	 * The parsed sections and key blocks of the cached AST, by their text.
 	 */
-	private IDocumentListener listener = new IDocumentListener() {
-
-		public void documentChanged(final DocumentEvent event) {
-			Job job = new Job("Clear YamlASTProvider Cache") {
-				protected IStatus run(IProgressMonitor monitor) {
-					changed(event.getDocument());
-					return Status.OK_STATUS;
-				}
-			};
-			job.setPriority(Job.INTERACTIVE);
-			job.setSystem(true);
-			job.schedule();
-		}
-		public void documentAboutToBeChanged(DocumentEvent event) {
-			//Don't care.
-		}
-	};
+	private Map<String, Chunk> cachedChunks = Collections.emptyMap();
 
 	private Yaml yaml;
 
@@ -62,26 +63,287 @@ public class YamlASTProvider {
 		this.yaml = yaml;
 	}
 
-	private synchronized void changed(IDocument doc) {
-		if (doc==cachedFor) {
-			doc.removeDocumentListener(listener);
-			cachedFor = null;
-			cached = null;
+	public synchronized YamlFileAST getAST(IDocument doc) {
+		String text = doc.get();
+		if (doc==cachedFor && text.equals(cachedText)) {
+			return cached;
+		}
+		Map<String, Chunk> previous = doc==cachedFor ? cachedChunks : Collections.<String, Chunk>emptyMap();
+		Map<String, Chunk> chunks = new HashMap<>();
+		List<Node> nodes = new ArrayList<>();
+		int line = 0;
+		for (int[] section : getSections(text)) {
+			nodes.addAll(parseSection(text, section[0], section[1], line, previous, chunks));
+			line += countLines(text, section[0], section[1]);
 		}
+		cached = new YamlFileAST(doc, nodes);
+		cachedFor = doc;
+		cachedText = text;
+		cachedChunks = chunks;
+		return cached;
 	}
 
-	public synchronized YamlFileAST getAST(IDocument doc) {
-		if (doc==cachedFor) {
-			return cached;
+	/**
+	 * Parses a section of the text, as a single mapping combined from its top-level key blocks
+	 * if possible.
+	 */
+	private List<Node> parseSection(String text, int start, int end, int line, Map<String, Chunk> previous, Map<String, Chunk> chunks) {
+		List<Integer> blocks = getKeyBlocks(text, start, end);
+		if (blocks.size()>1) {
+			try {
+				List<NodeTuple> tuples = new ArrayList<>();
+				MappingNode first = null;
+				MappingNode last = null;
+				int blockLine = line;
+				for (int i = 0; i < blocks.size(); i++) {
+					int blockStart = i==0 ? start : blocks.get(i);
+					int blockEnd = i+1<blocks.size() ? blocks.get(i+1) : end;
+					List<Node> nodes = parseChunk(text.substring(blockStart, blockEnd), blockStart, blockLine, previous, chunks);
+					// A block that isn't a simple block mapping on its own may depend on the blocks around it
+					if (nodes.size()!=1 || !isBlockMapping(nodes.get(0))) {
+						throw new YAMLException("Not a block mapping");
+					}
+					last = (MappingNode) nodes.get(0);
+					if (first==null) {
+						first = last;
+					}
+					tuples.addAll(last.getValue());
+					blockLine += countLines(text, blockStart, blockEnd);
+				}
+				return Collections.<Node>singletonList(new MappingNode(first.getTag(), first.isResolved(), tuples,
+						first.getStartMark(), last.getEndMark(), false));
+			} catch (YAMLException e) {
+				//Parse the section as a whole, e.g. for aliases referring to another block
+			}
+		}
+		String sectionText = text.substring(start, end);
+		if (chunks.containsKey(sectionText) || previous.containsKey(sectionText)) {
+			return parseChunk(sectionText, start, line, previous, chunks);
+		}
+		// Padded so that the marks of the nodes and of syntax errors are relative to the whole text
+		String padding = getPadding(start, line);
+		List<Node> nodes;
+		try {
+			nodes = compose(padding+sectionText);
+		} catch (YAMLException e) {
+			//Report the error exactly like parsing the entire text would, e.g. an unclosed quote
+			//ends at the next '---' rather than at the end of the section.
+			compose(padding+text.substring(start));
+			throw e;
+		}
+		chunks.put(sectionText, new Chunk(start, line, nodes));
+		return nodes;
+	}
+
+	/**
+	 * Parses a section or key block on its own, or reuses its nodes from the previous parse.
+	 */
+	private List<Node> parseChunk(String chunkText, int offset, int line, Map<String, Chunk> previous, Map<String, Chunk> chunks) {
+		Chunk chunk = chunks.get(chunkText);
+		if (chunk==null) {
+			chunk = previous.get(chunkText);
+		}
+		List<Node> nodes;
+		if (chunk!=null) {
+			nodes = chunk.offset==offset ? chunk.nodes : move(chunk.nodes, offset-chunk.offset, line-chunk.line);
 		} else {
-			if (cachedFor!=null) {
-				cachedFor.removeDocumentListener(listener);
+			nodes = compose(chunkText);
+			if (offset>0) {
+				nodes = move(nodes, offset, line);
 			}
-			doc.addDocumentListener(listener);
-			cached = new YamlFileAST(doc, yaml.composeAll(new StringReader(doc.get())));
-			cachedFor = doc;
 		}
-		return cached;
+		chunks.put(chunkText, new Chunk(offset, line, nodes));
+		return nodes;
+	}
+
+	private List<Node> compose(String text) {
+		List<Node> nodes = new ArrayList<>();
+		for (Node node : yaml.composeAll(new StringReader(text))) {
+			nodes.add(node);
+		}
+		return nodes;
+	}
+
+	private static boolean isBlockMapping(Node node) {
+		return node instanceof MappingNode && !Boolean.TRUE.equals(((MappingNode) node).getFlowStyle())
+				&& Tag.MAP.equals(node.getTag());
+	}
+
+	/**
+	 * Splits the text at each '---' line. Text with directives is kept in a single section,
+	 * because a directive belongs to the document following it.
+	 *
+	 * @return Start and end offset of each section
+	 */
+	private static List<int[]> getSections(String text) {
+		List<int[]> sections = new ArrayList<>();
+		int start = 0;
+		int lineStart = 0;
+		while (lineStart<text.length()) {
+			if (text.charAt(lineStart)=='%') {
+				return Collections.singletonList(new int[] {0, text.length()});
+			}
+			if (lineStart>start && isMarker(text, lineStart, "---")) {
+				sections.add(new int[] {start, lineStart});
+				start = lineStart;
+			}
+			lineStart = nextLine(text, lineStart);
+		}
+		sections.add(new int[] {start, text.length()});
+		return sections;
+	}
+
+	/**
+	 * Finds the lines of a section that start a top-level key, i.e. that start with any
+	 * character that can't continue the content of the previous line.
+	 *
+	 * @return The start offsets of those lines
+	 */
+	private static List<Integer> getKeyBlocks(String text, int start, int end) {
+		List<Integer> blocks = new ArrayList<>();
+		int lineStart = start;
+		while (lineStart<end) {
+			char c = text.charAt(lineStart);
+			if (isMarker(text, lineStart, "---") || isMarker(text, lineStart, "...")) {
+				if (lineStart>start) {
+					//A document end marker somewhere in the section
+					return Collections.emptyList();
+				}
+			} else if (" \t\r\n#-?:[{\"'&*!|>@`,\uFEFF".indexOf(c)<0) {
+				blocks.add(lineStart);
+			}
+			lineStart = nextLine(text, lineStart);
+		}
+		return blocks;
+	}
+
+	private static boolean isMarker(String text, int lineStart, String marker) {
+		if (text.startsWith(marker, lineStart)) {
+			int next = lineStart+marker.length();
+			return next>=text.length() || Character.isWhitespace(text.charAt(next));
+		}
+		return false;
+	}
+
+	private static int nextLine(String text, int offset) {
+		int length = text.length();
+		while (offset<length) {
+			char c = text.charAt(offset++);
+			if (c=='\n') {
+				return offset;
+			} else if (c=='\r') {
+				return offset<length && text.charAt(offset)=='\n' ? offset+1 : offset;
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Counts line breaks the same way as the yaml reader does for its marks.
+	 */
+	private static int countLines(String text, int start, int end) {
+		int lines = 0;
+		for (int i = start; i < end; i++) {
+			char c = text.charAt(i);
+			if (c=='\n' || c=='\u0085' || c=='\u2028' || c=='\u2029' || (c=='\r' && (i+1>=text.length() || text.charAt(i+1)!='\n'))) {
+				lines++;
+			}
+		}
+		return lines;
+	}
+
+	/**
+	 * A comment with as many characters and lines as the text before a section.
+	 */
+	private static String getPadding(int offset, int lines) {
+		StringBuilder padding = new StringBuilder(offset);
+		if (offset>lines) {
+			padding.append('#');
+			for (int i = 1; i < offset-lines; i++) {
+				padding.append(' ');
+			}
+		}
+		for (int i = 0; i < lines; i++) {
+			padding.append('\n');
+		}
+		return padding.toString();
+	}
+
+	/**
+	 * Copies the given nodes, moving their marks by the given number of characters and lines.
+	 * Chunks always start at the beginning of a line, so columns stay the same.
+	 */
+	private static List<Node> move(List<Node> nodes, int offset, int lines) {
+		Map<Node, Node> copies = new IdentityHashMap<>();
+		List<Node> moved = new ArrayList<>(nodes.size());
+		for (Node node : nodes) {
+			moved.add(move(node, offset, lines, copies));
+		}
+		return moved;
+	}
+
+	private static Node move(Node node, int offset, int lines, Map<Node, Node> copies) {
+		Node copy = copies.get(node);
+		if (copy!=null) {
+			//Aliased node
+			return copy;
+		}
+		Mark start = move(node.getStartMark(), offset, lines);
+		Mark end = move(node.getEndMark(), offset, lines);
+		switch (node.getNodeId()) {
+		case scalar:
+			ScalarNode scalar = (ScalarNode) node;
+			copy = new ScalarNode(scalar.getTag(), scalar.isResolved(), scalar.getValue(), start, end, scalar.getStyle());
+			copies.put(node, copy);
+			return copy;
+		case sequence:
+			SequenceNode seq = (SequenceNode) node;
+			List<Node> items = new ArrayList<>(seq.getValue().size());
+			copy = new SequenceNode(seq.getTag(), seq.isResolved(), items, start, end, seq.getFlowStyle());
+			copies.put(node, copy);
+			for (Node item : seq.getValue()) {
+				items.add(move(item, offset, lines, copies));
+			}
+			return copy;
+		case mapping:
+			MappingNode map = (MappingNode) node;
+			List<NodeTuple> tuples = new ArrayList<>(map.getValue().size());
+			copy = new MappingNode(map.getTag(), map.isResolved(), tuples, start, end, map.getFlowStyle());
+			copies.put(node, copy);
+			for (NodeTuple tuple : map.getValue()) {
+				tuples.add(new NodeTuple(move(tuple.getKeyNode(), offset, lines, copies), move(tuple.getValueNode(), offset, lines, copies)));
+			}
+			return copy;
+		case anchor:
+			copy = new AnchorNode(move(((AnchorNode) node).getRealNode(), offset, lines, copies));
+			copies.put(node, copy);
+			return copy;
+		default:
+			throw new IllegalStateException("Unknown node: "+node);
+		}
+	}
+
+	private static Mark move(Mark mark, int offset, int lines) {
+		if (mark==null) {
+			return null;
+		}
+		//Without the text snippet, which is only used in error messages
+		return new Mark(mark.getName(), mark.getIndex()+offset, mark.getLine()+lines, mark.getColumn(), null, 0);
+	}
+
+	/**
+	 * The nodes parsed from a section or key block at a given offset and line.
+	 */
+	private static class Chunk {
+		final int offset;
+		final int line;
+		final List<Node> nodes;
+
+		Chunk(int offset, int line, List<Node> nodes) {
+			this.offset = offset;
+			this.line = line;
+			this.nodes = nodes;
+		}
 	}
 
 }
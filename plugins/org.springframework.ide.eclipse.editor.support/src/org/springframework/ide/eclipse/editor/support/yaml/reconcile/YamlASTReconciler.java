@@ -11,8 +11,19 @@
 package org.springframework.ide.eclipse.editor.support.yaml.reconcile;
 
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jface.text.IRegion;
 import org.springframework.ide.eclipse.editor.support.yaml.ast.YamlFileAST;
 
 public interface YamlASTReconciler {
 	void reconcile(YamlFileAST ast, IProgressMonitor mon);
+
+	/**
+	 * Reconciles at least the entries of the top-level mappings that intersect the given region.
+	 * By default this reconciles the whole AST.
+	 *
+	 * @param region The region to reconcile, or null to reconcile the whole AST.
+	 */
+	default void reconcile(YamlFileAST ast, IRegion region, IProgressMonitor mon) {
+		reconcile(ast, mon);
+	}
 }
@@ -10,15 +10,27 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.editor.support.yaml.reconcile;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.WeakHashMap;
+
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Region;
 import org.springframework.ide.eclipse.editor.support.EditorSupportActivator;
 import org.springframework.ide.eclipse.editor.support.reconcile.IProblemCollector;
 import org.springframework.ide.eclipse.editor.support.reconcile.IReconcileEngine;
 import org.springframework.ide.eclipse.editor.support.reconcile.ReconcileProblem;
 import org.springframework.ide.eclipse.editor.support.yaml.ast.YamlASTProvider;
+import org.springframework.ide.eclipse.editor.support.yaml.ast.NodeUtil;
 import org.springframework.ide.eclipse.editor.support.yaml.ast.YamlFileAST;
 import org.yaml.snakeyaml.error.Mark;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeTuple;
 import org.yaml.snakeyaml.parser.ParserException;
 import org.yaml.snakeyaml.scanner.ScannerException;
 
@@ -29,18 +41,33 @@ public abstract class YamlReconcileEngine implements IReconcileEngine {
 
 	protected final YamlASTProvider parser;
 
+	/**
+	 * Documents for which the last reconcile found a syntax error or duplicate top-level keys.
+	 */
+	private final Set<IDocument> documentsWithGlobalProblems = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
 	public YamlReconcileEngine(YamlASTProvider parser) {
 		this.parser = parser;
 	}
 
 	@Override
 	public void reconcile(IDocument doc, IProblemCollector problemCollector, IProgressMonitor mon) {
+		reconcile(doc, null, problemCollector, mon);
+	}
+
+	@Override
+	public void reconcile(IDocument doc, IRegion region, IProblemCollector problemCollector, IProgressMonitor mon) {
 		problemCollector.beginCollecting();
+		boolean globalProblems = true;
 		try {
 			YamlFileAST ast = parser.getAST(doc);
+			globalProblems = false;
+			for (Node node : ast.getNodes()) {
+				globalProblems |= hasDuplicateKeys(node);
+			}
 			YamlASTReconciler reconciler = getASTReconciler(doc, problemCollector);
 			if (reconciler!=null) {
-				reconciler.reconcile(ast, mon);
+				reconciler.reconcile(ast, region, mon);
 			}
 		} catch (ParserException e) {
 			String msg = e.getProblem();
@@ -53,10 +80,65 @@ public abstract class YamlReconcileEngine implements IReconcileEngine {
 		} catch (Exception e) {
 			EditorSupportActivator.log(e);
 		} finally {
+			if (globalProblems) {
+				documentsWithGlobalProblems.add(doc);
+			} else {
+				documentsWithGlobalProblems.remove(doc);
+			}
 			problemCollector.endCollecting();
 		}
 	}
 
+	/**
+	 * Determines the region covered by the entries of top-level mappings that intersect
+	 * the edited region. Subclasses can use this to implement {@link #getAffectedRegion(IDocument, IRegion)}
+	 * when the problems of each top-level entry only depend on the entry itself.
+	 *
+	 * @return The region, or null if the whole document needs to be reconciled, e.g. because it has
+	 *    syntax errors.
+	 */
+	protected IRegion getAffectedTopLevelEntries(IDocument doc, IRegion dirtyRegion) {
+		if (documentsWithGlobalProblems.contains(doc)) {
+			//Problems reported outside the edited entries might have been fixed
+			return null;
+		}
+		YamlFileAST ast;
+		try {
+			ast = parser.getAST(doc);
+		} catch (YAMLException e) {
+			return null;
+		}
+		int start = dirtyRegion.getOffset();
+		int end = dirtyRegion.getOffset() + dirtyRegion.getLength();
+		for (Node node : ast.getNodes()) {
+			if (NodeUtil.intersects(node, dirtyRegion)) {
+				if (!(node instanceof MappingNode) || hasDuplicateKeys(node)) {
+					return null;
+				}
+				for (NodeTuple entry : ((MappingNode) node).getValue()) {
+					if (NodeUtil.intersects(entry, dirtyRegion)) {
+						start = Math.min(start, NodeUtil.getStart(entry.getKeyNode()));
+						end = Math.max(end, NodeUtil.getEnd(entry.getValueNode()));
+					}
+				}
+			}
+		}
+		return new Region(start, end - start);
+	}
+
+	private static boolean hasDuplicateKeys(Node node) {
+		if (node instanceof MappingNode) {
+			Set<String> keys = new HashSet<>();
+			for (NodeTuple entry : ((MappingNode) node).getValue()) {
+				String key = NodeUtil.asScalar(entry.getKeyNode());
+				if (key!=null && !keys.add(key)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
 	protected abstract ReconcileProblem syntaxError(String msg, int offset, int length);
 	protected abstract YamlASTReconciler getASTReconciler(IDocument doc, IProblemCollector problemCollector);
 }
@@ -371,7 +371,7 @@ public class YamlStructureParser {
 
 	public abstract class SChildBearingNode extends SNode {
 		private List<SNode> children = null;
-		private Map<String, SKeyNode> keyMap = null; //lazily constructed index of children children.
+		private volatile Map<String, SKeyNode> keyMap = null; //lazily constructed index of children children. Structures are shared between threads.
 
 		public SChildBearingNode(SChildBearingNode parent, YamlDocument doc, int indent, int start, int end) {
 			super(parent, doc, indent, start, end);
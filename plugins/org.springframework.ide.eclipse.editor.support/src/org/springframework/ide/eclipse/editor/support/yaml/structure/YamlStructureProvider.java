@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015, 2016 Pivotal, Inc.
+ * Copyright (c) 2015, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.editor.support.yaml.structure;
 
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
 import org.springframework.ide.eclipse.editor.support.yaml.YamlDocument;
 import org.springframework.ide.eclipse.editor.support.yaml.path.KeyAliases;
 import org.springframework.ide.eclipse.editor.support.yaml.structure.YamlStructureParser.SRootNode;
@@ -31,17 +33,67 @@ public abstract class YamlStructureProvider {
 		//
 		// For now, however it was the easiest way to make the parser reusable without
 		// breaking Application.yml support.
-		return new YamlStructureProvider() {
+		return caching(new YamlStructureProvider() {
 			public SRootNode getStructure(YamlDocument doc) throws Exception {
 				return new YamlStructureParser(doc, keyAliases).parse();
 			}
-		};
+		});
 	}
 
-	public static final YamlStructureProvider DEFAULT = new YamlStructureProvider() {
+	public static final YamlStructureProvider DEFAULT = caching(new YamlStructureProvider() {
 		public SRootNode getStructure(YamlDocument doc) throws Exception {
 			return new YamlStructureParser(doc, KeyAliases.NONE).parse();
 		}
-	};
+	});
+
+	/**
+	 * Remembers the structure last computed by the given provider until its document is modified.
+	 * Hover, completion and reconciling each wrap the same document in their own {@link YamlDocument},
+	 * so this avoids parsing the same text several times after every keystroke.
+	 * <p>
+	 * Only a single document is remembered: the structure references its document, so a cache
+	 * keyed by document would keep the documents of closed editors alive.
+	 */
+	public static YamlStructureProvider caching(final YamlStructureProvider provider) {
+		return new YamlStructureProvider() {
+			private CachedStructure cached = null;
+
+			public SRootNode getStructure(YamlDocument doc) throws Exception {
+				IDocument document = doc.getDocument();
+				if (!(document instanceof IDocumentExtension4)) {
+					return provider.getStructure(doc);
+				}
+				long stamp = ((IDocumentExtension4) document).getModificationStamp();
+				if (stamp==IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP) {
+					return provider.getStructure(doc);
+				}
+				synchronized (this) {
+					if (cached!=null && cached.document==document && cached.stamp==stamp) {
+						return cached.structure;
+					}
+				}
+				SRootNode structure = provider.getStructure(doc);
+				// Only cache it if the document didn't change while parsing
+				if (stamp==((IDocumentExtension4) document).getModificationStamp()) {
+					synchronized (this) {
+						cached = new CachedStructure(document, stamp, structure);
+					}
+				}
+				return structure;
+			}
+		};
+	}
+
+	private static class CachedStructure {
+		final IDocument document;
+		final long stamp;
+		final SRootNode structure;
+
+		CachedStructure(IDocument document, long stamp, SRootNode structure) {
+			this.document = document;
+			this.stamp = stamp;
+			this.structure = structure;
+		}
+	}
 
 }